@@ -0,0 +1,124 @@
+package org.bouncycastle.benchmark;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V3TBSCertificateGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ASN.1 parsing and DER encoding, using a typical end entity certificate as the structure. The signature
+ * is random bytes - nothing here verifies it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ASN1Benchmark
+{
+    private Certificate certificate;
+    private byte[] encoding;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        SecureRandom random = new SecureRandom();
+
+        AlgorithmIdentifier sigAlg = new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA256);
+
+        byte[] point = new byte[65];
+        random.nextBytes(point);
+        point[0] = 0x04;
+
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+        extGen.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature));
+
+        V3TBSCertificateGenerator tbsGen = new V3TBSCertificateGenerator();
+        tbsGen.setSerialNumber(new ASN1Integer(new BigInteger(64, random)));
+        tbsGen.setSignature(sigAlg);
+        tbsGen.setIssuer(new X500Name("CN=Benchmark CA, O=Legion of the Bouncy Castle, C=AU"));
+        tbsGen.setSubject(new X500Name("CN=benchmark.example, O=Legion of the Bouncy Castle, C=AU"));
+        tbsGen.setStartDate(new Time(new Date(System.currentTimeMillis() - 60000L)));
+        tbsGen.setEndDate(new Time(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000)));
+        tbsGen.setSubjectPublicKeyInfo(new SubjectPublicKeyInfo(
+            new AlgorithmIdentifier(X9ObjectIdentifiers.id_ecPublicKey, X9ObjectIdentifiers.prime256v1), point));
+        tbsGen.setExtensions(extGen.generate());
+
+        byte[] signature = new byte[72];
+        random.nextBytes(signature);
+
+        ASN1EncodableVector v = new ASN1EncodableVector(3);
+        v.add(tbsGen.generateTBSCertificate());
+        v.add(sigAlg);
+        v.add(new DERBitString(signature));
+
+        certificate = Certificate.getInstance(new DERSequence(v));
+        encoding = certificate.getEncoded(ASN1Encoding.DER);
+    }
+
+    @Benchmark
+    public ASN1Primitive parse()
+        throws Exception
+    {
+        return ASN1Primitive.fromByteArray(encoding);
+    }
+
+    @Benchmark
+    public Certificate parseCertificate()
+    {
+        return Certificate.getInstance(encoding);
+    }
+
+    @Benchmark
+    public X509CertificateHolder parseCertificateHolder()
+        throws Exception
+    {
+        return new X509CertificateHolder(encoding);
+    }
+
+    @Benchmark
+    public byte[] encodeDER()
+        throws Exception
+    {
+        return certificate.getEncoded(ASN1Encoding.DER);
+    }
+
+    @Benchmark
+    public byte[] parseAndEncode()
+        throws Exception
+    {
+        return Certificate.getInstance(encoding).getEncoded(ASN1Encoding.DER);
+    }
+}
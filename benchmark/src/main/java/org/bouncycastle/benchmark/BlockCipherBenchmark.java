@@ -0,0 +1,130 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk throughput of AES in ECB and CBC, and of the AES-GCM and ChaCha20-Poly1305 AEAD ciphers.
+ * The AEAD ciphers are re-initialised with a fresh nonce for each message, as they would be in use.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockCipherBenchmark
+{
+    @Param({"64", "1024", "16384"})
+    public int size;
+
+    private byte[] input;
+    private byte[] output;
+    private byte[] nonce;
+
+    private BlockCipher ecb;
+    private BlockCipher cbc;
+    private AEADCipher gcm;
+    private AEADCipher chacha;
+
+    private KeyParameter aesKey;
+    private KeyParameter chachaKey;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom random = new SecureRandom();
+
+        input = new byte[size];
+        random.nextBytes(input);
+        output = new byte[size + 16];
+        nonce = new byte[12];
+
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        aesKey = new KeyParameter(key, 0, 16);
+        chachaKey = new KeyParameter(key);
+
+        ecb = AESEngine.newInstance();
+        ecb.initBlock(true, aesKey);
+
+        cbc = CBCBlockCipher.newInstance(AESEngine.newInstance());
+        cbc.initBlock(true, new ParametersWithIV(aesKey, new byte[16]));
+
+        gcm = GCMBlockCipher.newInstance(AESEngine.newInstance());
+        chacha = new ChaCha20Poly1305();
+    }
+
+    @Benchmark
+    public byte[] aesECB()
+    {
+        for (int i = 0; i < size; i += 16)
+        {
+            ecb.processBlock(input, i, output, i);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public byte[] aesCBC()
+    {
+        for (int i = 0; i < size; i += 16)
+        {
+            cbc.processBlock(input, i, output, i);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public byte[] aesGCM()
+        throws Exception
+    {
+        return aead(gcm, aesKey);
+    }
+
+    @Benchmark
+    public byte[] chaCha20Poly1305()
+        throws Exception
+    {
+        return aead(chacha, chachaKey);
+    }
+
+    private byte[] aead(AEADCipher cipher, KeyParameter key)
+        throws Exception
+    {
+        // GCM refuses to encrypt twice under the same key and nonce.
+        for (int i = 0; i < nonce.length; i++)
+        {
+            if (++nonce[i] != 0)
+            {
+                break;
+            }
+        }
+
+        cipher.init(true, new AEADParameters(key, 128, nonce));
+        int len = cipher.processBytes(input, 0, size, output, 0);
+        cipher.doFinal(output, len);
+        return output;
+    }
+}
@@ -0,0 +1,165 @@
+package org.bouncycastle.benchmark;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.agreement.ECDHBasicAgreement;
+import org.bouncycastle.crypto.agreement.X25519Agreement;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.generators.Ed25519KeyPairGenerator;
+import org.bouncycastle.crypto.generators.X25519KeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.Ed25519KeyGenerationParameters;
+import org.bouncycastle.crypto.params.X25519KeyGenerationParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Elliptic curve operations: ECDSA and ECDH over P-256, Ed25519 signatures and X25519 agreement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ECBenchmark
+{
+    private final SecureRandom random = new SecureRandom();
+
+    private ECDomainParameters p256;
+    private AsymmetricCipherKeyPair ecKp;
+    private AsymmetricCipherKeyPair ecPeerKp;
+    private ECDSASigner ecdsaSigner;
+    private ECDSASigner ecdsaVerifier;
+    private byte[] hash;
+    private BigInteger[] ecdsaSig;
+
+    private AsymmetricCipherKeyPair edKp;
+    private Ed25519Signer edSigner;
+    private Ed25519Signer edVerifier;
+    private byte[] message;
+    private byte[] edSig;
+
+    private AsymmetricCipherKeyPair xKp;
+    private AsymmetricCipherKeyPair xPeerKp;
+    private byte[] xSecret;
+
+    @Setup
+    public void setup()
+    {
+        X9ECParameters x9 = CustomNamedCurves.getByName("P-256");
+        p256 = new ECDomainParameters(x9);
+
+        ECKeyPairGenerator ecKpg = new ECKeyPairGenerator();
+        ecKpg.init(new ECKeyGenerationParameters(p256, random));
+        ecKp = ecKpg.generateKeyPair();
+        ecPeerKp = ecKpg.generateKeyPair();
+
+        hash = new byte[32];
+        random.nextBytes(hash);
+
+        ecdsaSigner = new ECDSASigner(new HMacDSAKCalculator(SHA256Digest.newInstance()));
+        ecdsaSigner.init(true, ecKp.getPrivate());
+        ecdsaVerifier = new ECDSASigner();
+        ecdsaVerifier.init(false, ecKp.getPublic());
+        ecdsaSig = ecdsaSigner.generateSignature(hash);
+
+        Ed25519KeyPairGenerator edKpg = new Ed25519KeyPairGenerator();
+        edKpg.init(new Ed25519KeyGenerationParameters(random));
+        edKp = edKpg.generateKeyPair();
+
+        message = new byte[64];
+        random.nextBytes(message);
+
+        edSigner = new Ed25519Signer();
+        edSigner.init(true, edKp.getPrivate());
+        edVerifier = new Ed25519Signer();
+        edVerifier.init(false, edKp.getPublic());
+        edSigner.update(message, 0, message.length);
+        edSig = edSigner.generateSignature();
+
+        X25519KeyPairGenerator xKpg = new X25519KeyPairGenerator();
+        xKpg.init(new X25519KeyGenerationParameters(random));
+        xKp = xKpg.generateKeyPair();
+        xPeerKp = xKpg.generateKeyPair();
+        xSecret = new byte[32];
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair ecKeyGenP256()
+    {
+        ECKeyPairGenerator kpg = new ECKeyPairGenerator();
+        kpg.init(new ECKeyGenerationParameters(p256, random));
+        return kpg.generateKeyPair();
+    }
+
+    @Benchmark
+    public BigInteger[] ecdsaSignP256()
+    {
+        return ecdsaSigner.generateSignature(hash);
+    }
+
+    @Benchmark
+    public boolean ecdsaVerifyP256()
+    {
+        return ecdsaVerifier.verifySignature(hash, ecdsaSig[0], ecdsaSig[1]);
+    }
+
+    @Benchmark
+    public BigInteger ecdhP256()
+    {
+        ECDHBasicAgreement agreement = new ECDHBasicAgreement();
+        agreement.init((ECPrivateKeyParameters)ecKp.getPrivate());
+        return agreement.calculateAgreement(ecPeerKp.getPublic());
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair ed25519KeyGen()
+    {
+        Ed25519KeyPairGenerator kpg = new Ed25519KeyPairGenerator();
+        kpg.init(new Ed25519KeyGenerationParameters(random));
+        return kpg.generateKeyPair();
+    }
+
+    @Benchmark
+    public byte[] ed25519Sign()
+    {
+        edSigner.update(message, 0, message.length);
+        return edSigner.generateSignature();
+    }
+
+    @Benchmark
+    public boolean ed25519Verify()
+    {
+        edVerifier.update(message, 0, message.length);
+        return edVerifier.verifySignature(edSig);
+    }
+
+    @Benchmark
+    public byte[] x25519()
+    {
+        X25519Agreement agreement = new X25519Agreement();
+        agreement.init(xKp.getPrivate());
+        agreement.calculateAgreement(xPeerKp.getPublic(), xSecret, 0);
+        return xSecret;
+    }
+}
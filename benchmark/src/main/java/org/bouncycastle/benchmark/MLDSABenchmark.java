@@ -0,0 +1,99 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSASigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ML-DSA (FIPS 204) key generation, signing and verification of a short message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MLDSABenchmark
+{
+    @Param({"ML-DSA-44", "ML-DSA-65", "ML-DSA-87"})
+    public String parameterSet;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private MLDSAKeyPairGenerator kpg;
+    private MLDSASigner signer;
+    private MLDSASigner verifier;
+    private byte[] message;
+    private byte[] signature;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        MLDSAParameters parameters;
+        if (parameterSet.equals("ML-DSA-44"))
+        {
+            parameters = MLDSAParameters.ml_dsa_44;
+        }
+        else if (parameterSet.equals("ML-DSA-65"))
+        {
+            parameters = MLDSAParameters.ml_dsa_65;
+        }
+        else
+        {
+            parameters = MLDSAParameters.ml_dsa_87;
+        }
+
+        kpg = new MLDSAKeyPairGenerator();
+        kpg.init(new MLDSAKeyGenerationParameters(random, parameters));
+        AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+        message = new byte[64];
+        random.nextBytes(message);
+
+        signer = new MLDSASigner();
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new MLDSASigner();
+        verifier.init(false, kp.getPublic());
+
+        signature = sign();
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair keyGen()
+    {
+        return kpg.generateKeyPair();
+    }
+
+    @Benchmark
+    public byte[] sign()
+        throws Exception
+    {
+        signer.update(message, 0, message.length);
+        return signer.generateSignature();
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        verifier.update(message, 0, message.length);
+        return verifier.verifySignature(signature);
+    }
+}
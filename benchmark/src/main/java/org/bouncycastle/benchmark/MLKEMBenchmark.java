@@ -0,0 +1,91 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.SecretWithEncapsulation;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMExtractor;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMGenerator;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMParameters;
+import org.bouncycastle.pqc.crypto.mlkem.MLKEMPrivateKeyParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ML-KEM (FIPS 203) key generation, encapsulation and decapsulation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MLKEMBenchmark
+{
+    @Param({"ML-KEM-512", "ML-KEM-768", "ML-KEM-1024"})
+    public String parameterSet;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private MLKEMKeyPairGenerator kpg;
+    private AsymmetricCipherKeyPair kp;
+    private MLKEMGenerator generator;
+    private MLKEMExtractor extractor;
+    private byte[] encapsulation;
+
+    @Setup
+    public void setup()
+    {
+        MLKEMParameters parameters;
+        if (parameterSet.equals("ML-KEM-512"))
+        {
+            parameters = MLKEMParameters.ml_kem_512;
+        }
+        else if (parameterSet.equals("ML-KEM-768"))
+        {
+            parameters = MLKEMParameters.ml_kem_768;
+        }
+        else
+        {
+            parameters = MLKEMParameters.ml_kem_1024;
+        }
+
+        kpg = new MLKEMKeyPairGenerator();
+        kpg.init(new MLKEMKeyGenerationParameters(random, parameters));
+        kp = kpg.generateKeyPair();
+
+        generator = new MLKEMGenerator(random);
+        extractor = new MLKEMExtractor((MLKEMPrivateKeyParameters)kp.getPrivate());
+        encapsulation = generator.generateEncapsulated(kp.getPublic()).getEncapsulation();
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair keyGen()
+    {
+        return kpg.generateKeyPair();
+    }
+
+    @Benchmark
+    public SecretWithEncapsulation encapsulate()
+    {
+        return generator.generateEncapsulated(kp.getPublic());
+    }
+
+    @Benchmark
+    public byte[] decapsulate()
+    {
+        return extractor.extractSecret(encapsulation);
+    }
+}
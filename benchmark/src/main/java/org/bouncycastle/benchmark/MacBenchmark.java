@@ -0,0 +1,121 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.Mac;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.macs.CMac;
+import org.bouncycastle.crypto.macs.GMac;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.macs.Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MAC throughput, one complete MAC of the given size per operation. The key schedule is done once in set up,
+ * except for GMAC which needs a fresh nonce and so is re-initialised each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MacBenchmark
+{
+    @Param({"HMAC-SHA256", "HMAC-SHA512", "AES-CMAC", "AES-GMAC", "Poly1305"})
+    public String algorithm;
+
+    @Param({"64", "1024", "16384"})
+    public int size;
+
+    private Mac mac;
+    private KeyParameter key;
+    private byte[] nonce;
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom random = new SecureRandom();
+
+        byte[] keyBytes = new byte[32];
+        random.nextBytes(keyBytes);
+
+        if (algorithm.equals("HMAC-SHA256"))
+        {
+            mac = new HMac(SHA256Digest.newInstance());
+            key = new KeyParameter(keyBytes);
+        }
+        else if (algorithm.equals("HMAC-SHA512"))
+        {
+            mac = new HMac(new SHA512Digest());
+            key = new KeyParameter(keyBytes);
+        }
+        else if (algorithm.equals("AES-CMAC"))
+        {
+            mac = new CMac(AESEngine.newInstance());
+            key = new KeyParameter(keyBytes, 0, 16);
+        }
+        else if (algorithm.equals("AES-GMAC"))
+        {
+            mac = new GMac(GCMBlockCipher.newInstance(AESEngine.newInstance()));
+            key = new KeyParameter(keyBytes, 0, 16);
+            nonce = new byte[12];
+        }
+        else if (algorithm.equals("Poly1305"))
+        {
+            mac = new Poly1305();
+            key = new KeyParameter(keyBytes);
+        }
+        else
+        {
+            throw new IllegalArgumentException("unknown MAC: " + algorithm);
+        }
+
+        if (nonce == null)
+        {
+            mac.init(key);
+        }
+
+        input = new byte[size];
+        random.nextBytes(input);
+        output = new byte[mac.getMacSize()];
+    }
+
+    @Benchmark
+    public byte[] mac()
+    {
+        if (nonce != null)
+        {
+            for (int i = 0; i < nonce.length; i++)
+            {
+                if (++nonce[i] != 0)
+                {
+                    break;
+                }
+            }
+            mac.init(new ParametersWithIV(key, nonce));
+        }
+
+        mac.update(input, 0, input.length);
+        mac.doFinal(output, 0);
+        return output;
+    }
+}
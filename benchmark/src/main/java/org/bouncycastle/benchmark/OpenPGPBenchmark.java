@@ -0,0 +1,122 @@
+package org.bouncycastle.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.bcpg.PublicKeyAlgorithmTags;
+import org.bouncycastle.bcpg.SymmetricKeyAlgorithmTags;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.generators.X25519KeyPairGenerator;
+import org.bouncycastle.crypto.params.X25519KeyGenerationParameters;
+import org.bouncycastle.openpgp.PGPEncryptedDataGenerator;
+import org.bouncycastle.openpgp.PGPEncryptedDataList;
+import org.bouncycastle.openpgp.PGPLiteralData;
+import org.bouncycastle.openpgp.PGPLiteralDataGenerator;
+import org.bouncycastle.openpgp.PGPObjectFactory;
+import org.bouncycastle.openpgp.PGPPublicKeyEncryptedData;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.bc.BcPGPDataEncryptorBuilder;
+import org.bouncycastle.openpgp.operator.bc.BcPGPKeyPair;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyDataDecryptorFactory;
+import org.bouncycastle.openpgp.operator.bc.BcPublicKeyKeyEncryptionMethodGenerator;
+import org.bouncycastle.util.io.Streams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OpenPGP public key encryption and decryption of a literal data packet to an X25519 key, with AES-256 in an
+ * integrity protected (SEIPD) packet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenPGPBenchmark
+{
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private BcPGPKeyPair keyPair;
+    private byte[] data;
+    private byte[] encrypted;
+    private byte[] encBuffer;
+    private byte[] litBuffer;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        X25519KeyPairGenerator gen = new X25519KeyPairGenerator();
+        gen.init(new X25519KeyGenerationParameters(random));
+        AsymmetricCipherKeyPair kp = gen.generateKeyPair();
+        keyPair = new BcPGPKeyPair(PublicKeyAlgorithmTags.X25519, kp, new Date());
+
+        data = new byte[size];
+        random.nextBytes(data);
+        encBuffer = new byte[4096];
+        litBuffer = new byte[4096];
+
+        encrypted = encrypt();
+    }
+
+    @Benchmark
+    public byte[] encrypt()
+        throws Exception
+    {
+        PGPEncryptedDataGenerator encGen = new PGPEncryptedDataGenerator(
+            new BcPGPDataEncryptorBuilder(SymmetricKeyAlgorithmTags.AES_256)
+                .setWithIntegrityPacket(true)
+                .setSecureRandom(random));
+        encGen.addMethod(new BcPublicKeyKeyEncryptionMethodGenerator(keyPair.getPublicKey()));
+        PGPLiteralDataGenerator litGen = new PGPLiteralDataGenerator();
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream(size + 1024);
+        OutputStream encOut = encGen.open(bOut, encBuffer);
+        OutputStream litOut = litGen.open(encOut, PGPLiteralData.BINARY, "", PGPLiteralData.NOW, litBuffer);
+        litOut.write(data);
+        litGen.close();
+        encGen.close();
+
+        return bOut.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] decrypt()
+        throws Exception
+    {
+        PGPObjectFactory objectFactory = new BcPGPObjectFactory(new ByteArrayInputStream(encrypted));
+        PGPEncryptedDataList encDataList = (PGPEncryptedDataList)objectFactory.nextObject();
+        PGPPublicKeyEncryptedData encData = (PGPPublicKeyEncryptedData)encDataList.get(0);
+
+        InputStream decIn = encData.getDataStream(new BcPublicKeyDataDecryptorFactory(keyPair.getPrivateKey()));
+        objectFactory = new BcPGPObjectFactory(decIn);
+        PGPLiteralData lit = (PGPLiteralData)objectFactory.nextObject();
+        InputStream litIn = lit.getDataStream();
+        byte[] plaintext = Streams.readAll(litIn);
+        litIn.close();
+
+        if (!encData.verify())
+        {
+            throw new IllegalStateException("integrity check failed");
+        }
+        return plaintext;
+    }
+}
@@ -0,0 +1,107 @@
+package org.bouncycastle.benchmark;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.encodings.OAEPEncoding;
+import org.bouncycastle.crypto.engines.RSABlindedEngine;
+import org.bouncycastle.crypto.generators.RSAKeyPairGenerator;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.crypto.params.RSAKeyGenerationParameters;
+import org.bouncycastle.crypto.signers.PSSSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RSA private and public key operations, using PSS for signatures and OAEP for encryption.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RSABenchmark
+{
+    @Param({"2048", "3072"})
+    public int keySize;
+
+    private PSSSigner signer;
+    private PSSSigner verifier;
+    private OAEPEncoding encryptor;
+    private OAEPEncoding decryptor;
+
+    private byte[] message;
+    private byte[] signature;
+    private byte[] cipherText;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        SecureRandom random = new SecureRandom();
+
+        RSAKeyPairGenerator kpg = new RSAKeyPairGenerator();
+        kpg.init(new RSAKeyGenerationParameters(BigInteger.valueOf(0x10001), random, keySize, 100));
+        AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+        message = new byte[32];
+        random.nextBytes(message);
+
+        signer = new PSSSigner(new RSABlindedEngine(), SHA256Digest.newInstance(), 32);
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new PSSSigner(new RSABlindedEngine(), SHA256Digest.newInstance(), 32);
+        verifier.init(false, kp.getPublic());
+
+        signer.update(message, 0, message.length);
+        signature = signer.generateSignature();
+
+        encryptor = new OAEPEncoding(new RSABlindedEngine(), SHA256Digest.newInstance());
+        encryptor.init(true, new ParametersWithRandom(kp.getPublic(), random));
+        decryptor = new OAEPEncoding(new RSABlindedEngine(), SHA256Digest.newInstance());
+        decryptor.init(false, kp.getPrivate());
+
+        cipherText = encryptor.processBlock(message, 0, message.length);
+    }
+
+    @Benchmark
+    public byte[] sign()
+        throws Exception
+    {
+        signer.update(message, 0, message.length);
+        return signer.generateSignature();
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        verifier.update(message, 0, message.length);
+        return verifier.verifySignature(signature);
+    }
+
+    @Benchmark
+    public byte[] encrypt()
+        throws Exception
+    {
+        return encryptor.processBlock(message, 0, message.length);
+    }
+
+    @Benchmark
+    public byte[] decrypt()
+        throws Exception
+    {
+        return decryptor.processBlock(cipherText, 0, cipherText.length);
+    }
+}
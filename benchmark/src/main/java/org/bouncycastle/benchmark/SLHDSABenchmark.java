@@ -0,0 +1,85 @@
+package org.bouncycastle.benchmark;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.slhdsa.SLHDSAKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.slhdsa.SLHDSAKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.slhdsa.SLHDSAParameters;
+import org.bouncycastle.pqc.crypto.slhdsa.SLHDSASigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SLH-DSA (FIPS 205) key generation, signing and verification using the fast parameter sets, the small
+ * ones take seconds per signature and are not useful to run routinely.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SLHDSABenchmark
+{
+    @Param({"SHA2-128f", "SHAKE-128f"})
+    public String parameterSet;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private SLHDSAKeyPairGenerator kpg;
+    private SLHDSASigner signer;
+    private SLHDSASigner verifier;
+    private byte[] message;
+    private byte[] signature;
+
+    @Setup
+    public void setup()
+    {
+        SLHDSAParameters parameters = parameterSet.equals("SHA2-128f")
+            ? SLHDSAParameters.sha2_128f : SLHDSAParameters.shake_128f;
+
+        kpg = new SLHDSAKeyPairGenerator();
+        kpg.init(new SLHDSAKeyGenerationParameters(random, parameters));
+        AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+        message = new byte[64];
+        random.nextBytes(message);
+
+        signer = new SLHDSASigner();
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new SLHDSASigner();
+        verifier.init(false, kp.getPublic());
+
+        signature = signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair keyGen()
+    {
+        return kpg.generateKeyPair();
+    }
+
+    @Benchmark
+    public byte[] sign()
+    {
+        return signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        return verifier.verifySignature(message, signature);
+    }
+}
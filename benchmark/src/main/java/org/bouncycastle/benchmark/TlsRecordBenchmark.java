@@ -0,0 +1,180 @@
+package org.bouncycastle.benchmark;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.tls.CipherSuite;
+import org.bouncycastle.tls.PSKTlsClient;
+import org.bouncycastle.tls.PSKTlsServer;
+import org.bouncycastle.tls.TlsClientProtocol;
+import org.bouncycastle.tls.TlsPSKIdentityManager;
+import org.bouncycastle.tls.TlsProtocol;
+import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+import org.bouncycastle.util.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The TLS 1.2 record layer, a client and server using the non-blocking protocol API joined by an in-memory
+ * transport so only the protocol and the crypto are measured. The PSK key exchanges keep the handshake
+ * benchmark free of certificate processing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TlsRecordBenchmark
+{
+    private static final byte[] IDENTITY = Strings.toUTF8ByteArray("benchmark");
+    private static final byte[] PSK = new byte[32];
+
+    @Param({"ECDHE_PSK_WITH_AES_128_GCM_SHA256", "ECDHE_PSK_WITH_CHACHA20_POLY1305_SHA256",
+        "ECDHE_PSK_WITH_AES_128_CBC_SHA256"})
+    public String cipherSuite;
+
+    @Param({"1024", "16384"})
+    public int size;
+
+    private TlsCrypto crypto;
+    private int suite;
+
+    private TlsClientProtocol client;
+    private TlsServerProtocol server;
+
+    private byte[] data;
+    private byte[] transfer;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        crypto = new BcTlsCrypto(new SecureRandom());
+        suite = getCipherSuite(cipherSuite);
+
+        data = new byte[size];
+        new SecureRandom().nextBytes(data);
+        transfer = new byte[size + 1024];
+
+        client = new TlsClientProtocol();
+        server = new TlsServerProtocol();
+        handshake(client, server);
+    }
+
+    @Benchmark
+    public TlsClientProtocol handshake()
+        throws Exception
+    {
+        TlsClientProtocol client = new TlsClientProtocol();
+        TlsServerProtocol server = new TlsServerProtocol();
+
+        handshake(client, server);
+
+        return client;
+    }
+
+    @Benchmark
+    public byte[] clientToServer()
+        throws Exception
+    {
+        client.writeApplicationData(data, 0, data.length);
+        pump(client, server);
+
+        int off = 0;
+        while (off < data.length)
+        {
+            off += server.readInput(transfer, off, data.length - off);
+        }
+        return transfer;
+    }
+
+    @Benchmark
+    public byte[] serverToClient()
+        throws Exception
+    {
+        server.writeApplicationData(data, 0, data.length);
+        pump(server, client);
+
+        int off = 0;
+        while (off < data.length)
+        {
+            off += client.readInput(transfer, off, data.length - off);
+        }
+        return transfer;
+    }
+
+    private void handshake(TlsClientProtocol client, TlsServerProtocol server)
+        throws IOException
+    {
+        server.accept(new PSKTlsServer(crypto, new TlsPSKIdentityManager()
+        {
+            public byte[] getHint()
+            {
+                return null;
+            }
+
+            public byte[] getPSK(byte[] identity)
+            {
+                return PSK;
+            }
+        })
+        {
+            protected int[] getSupportedCipherSuites()
+            {
+                return new int[]{ suite };
+            }
+        });
+
+        client.connect(new PSKTlsClient(crypto, IDENTITY, PSK)
+        {
+            protected int[] getSupportedCipherSuites()
+            {
+                return new int[]{ suite };
+            }
+        });
+
+        while (client.isHandshaking() || server.isHandshaking())
+        {
+            if (pump(client, server) + pump(server, client) == 0)
+            {
+                throw new IllegalStateException("handshake stalled");
+            }
+        }
+    }
+
+    private int pump(TlsProtocol from, TlsProtocol to)
+        throws IOException
+    {
+        int total = 0, available;
+        while ((available = from.getAvailableOutputBytes()) > 0)
+        {
+            if (available > transfer.length)
+            {
+                transfer = new byte[available];
+            }
+            int len = from.readOutput(transfer, 0, available);
+            to.offerInput(transfer, 0, len);
+            total += len;
+        }
+        return total;
+    }
+
+    private static int getCipherSuite(String name)
+        throws Exception
+    {
+        return CipherSuite.class.getField("TLS_" + name).getInt(null);
+    }
+}
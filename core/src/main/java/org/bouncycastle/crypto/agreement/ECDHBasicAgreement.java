@@ -5,6 +5,7 @@
 import org.bouncycastle.crypto.BasicAgreement;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.ec.FixedCurveEngine;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
@@ -29,12 +30,35 @@
 public class ECDHBasicAgreement
     implements BasicAgreement
 {
+    private final boolean useFixedCurveEngine;
+
     private ECPrivateKeyParameters key;
+    private FixedCurveEngine engine;
+
+    /**
+     * Default configuration, the agreement is calculated using ECPoint.
+     */
+    public ECDHBasicAgreement()
+    {
+        this(false);
+    }
+
+    /**
+     * Configuration with the option of calculating the agreement on a {@link FixedCurveEngine} for P-256 and
+     * P-384. The engine works in constant time, but is slower than ECPoint for a variable base point.
+     *
+     * @param useFixedCurveEngine true if the fixed curve engine should be used when there is one for the key.
+     */
+    public ECDHBasicAgreement(boolean useFixedCurveEngine)
+    {
+        this.useFixedCurveEngine = useFixedCurveEngine;
+    }
 
     public void init(
         CipherParameters key)
     {
         this.key = (ECPrivateKeyParameters)key;
+        this.engine = useFixedCurveEngine ? FixedCurveEngine.getInstance(this.key.getParameters()) : null;
 
         CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("ECDH", this.key));
     }
@@ -56,6 +80,23 @@ public BigInteger calculateAgreement(
 
         BigInteger d = key.getD();
 
+        if (engine != null)
+        {
+            // the engine curves have cofactor 1, and Q has already been validated against params
+            if (pub.getQ().isInfinity())
+            {
+                throw new IllegalStateException("Infinity is not a valid public key for ECDH");
+            }
+
+            BigInteger x = engine.multiplyX(pub.getQ(), d);
+            if (x == null)
+            {
+                throw new IllegalStateException("Infinity is not a valid agreement value for ECDH");
+            }
+
+            return x;
+        }
+
         // Always perform calculations on the exact curve specified by our private key's parameters
         ECPoint Q = ECAlgorithms.cleanPoint(params.getCurve(), pub.getQ());
         if (Q.isInfinity())
@@ -1,7 +1,12 @@
 package org.bouncycastle.crypto.digests;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Iterator;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.bouncycastle.crypto.CryptoServicePurpose;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
@@ -45,6 +50,21 @@
      */
     private static final int CHUNKLEN = 1024;
 
+    /**
+     * Inputs of at least this many bytes are hashed in parallel by the pool based update methods (1 MiB).
+     */
+    public static final int PARALLEL_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Subtrees of this many chunks or fewer are hashed by a single task.
+     */
+    private static final int SPLIT_CHUNKS = 64;
+
+    /**
+     * The size of the windows a file is mapped in, a multiple of CHUNKLEN.
+     */
+    private static final int MAP_SIZE = 256 * 1024 * 1024;
+
     /**
      * ChunkStart Flag.
      */
@@ -450,6 +470,114 @@ public void update(final byte[] pMessage,
         thePos += pOffset + len;
     }
 
+    /**
+     * Add the remaining bytes of pInput to the digest, hashing complete subtrees of chunks in parallel
+     * on the common ForkJoinPool.
+     *
+     * @param pInput the input buffer, on return its position is at its limit.
+     */
+    public void update(final ByteBuffer pInput)
+    {
+        update(pInput, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Add the remaining bytes of pInput to the digest. If there are at least PARALLEL_THRESHOLD bytes the
+     * chaining values of complete subtrees of chunks are calculated on pPool and merged into the digest,
+     * the result is the same as passing the bytes to update(byte[], int, int).
+     *
+     * @param pInput the input buffer, on return its position is at its limit.
+     * @param pPool  the pool to calculate subtrees on.
+     */
+    public void update(final ByteBuffer pInput,
+                       final ForkJoinPool pPool)
+    {
+        /* Check that we are not outputting */
+        if (outputting)
+        {
+            throw new IllegalStateException(ERR_OUTPUTTING);
+        }
+
+        /* Process sequentially if there is not enough to be worth splitting */
+        if (pInput.remaining() < PARALLEL_THRESHOLD)
+        {
+            updateSequential(pInput, pInput.remaining());
+            return;
+        }
+
+        /* Bring the digest up to a chunk boundary */
+        final int myLead = (CHUNKLEN - (theCurrBytes + thePos) % CHUNKLEN) % CHUNKLEN;
+        updateSequential(pInput, myLead);
+
+        /* Complete the previous chunk, we know more data follows */
+        if (thePos == BLOCKLEN)
+        {
+            compressBlock(theBuffer, 0);
+            thePos = 0;
+            Arrays.fill(theBuffer, (byte)0);
+        }
+
+        /* Hash all but the final chunk as subtrees, the final chunk may end the message */
+        long myChunks = (pInput.remaining() - 1) / CHUNKLEN;
+        int myPos = pInput.position();
+        while (myChunks > 0)
+        {
+            /* Take the largest subtree which starts at the current counter */
+            long mySize = Long.highestOneBit(myChunks);
+            if (theCounter != 0)
+            {
+                mySize = Math.min(mySize, Long.lowestOneBit(theCounter));
+            }
+
+            final int[] myChaining = pPool.invoke(new SubtreeTask(pInput, myPos, theCounter, (int)mySize));
+            addSubtree(myChaining, mySize);
+
+            myPos += (int)mySize * CHUNKLEN;
+            myChunks -= mySize;
+        }
+        pInput.position(myPos);
+
+        /* Process the remainder */
+        updateSequential(pInput, pInput.remaining());
+    }
+
+    /**
+     * Add the contents of pChannel from its current position to its end to the digest, hashing in parallel
+     * on the common ForkJoinPool.
+     *
+     * @param pChannel the channel to read.
+     * @throws IOException if the channel cannot be mapped.
+     */
+    public void update(final FileChannel pChannel)
+        throws IOException
+    {
+        update(pChannel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Add the contents of pChannel from its current position to its end to the digest. The file is
+     * memory mapped in windows which are hashed in parallel on pPool, on return the channel's position
+     * is at its end.
+     *
+     * @param pChannel the channel to read.
+     * @param pPool    the pool to calculate subtrees on.
+     * @throws IOException if the channel cannot be mapped.
+     */
+    public void update(final FileChannel pChannel,
+                       final ForkJoinPool pPool)
+        throws IOException
+    {
+        final long mySize = pChannel.size();
+        long myPos = pChannel.position();
+        while (myPos < mySize)
+        {
+            final long myLen = Math.min(MAP_SIZE, mySize - myPos);
+            update(pChannel.map(FileChannel.MapMode.READ_ONLY, myPos, myLen), pPool);
+            myPos += myLen;
+        }
+        pChannel.position(myPos);
+    }
+
     public int doFinal(final byte[] pOutput,
                        final int pOutOffset)
     {
@@ -592,17 +720,19 @@ private void compressBlock(final byte[] pMessage,
         /* Adjust stack if we have completed a block */
         if (theCurrBytes == 0)
         {
-            adjustStack();
+            adjustStack(theCounter);
         }
     }
 
     /**
      * Adjust the stack.
+     *
+     * @param pCount the number of completed subtrees at the level of theChaining
      */
-    private void adjustStack()
+    private void adjustStack(final long pCount)
     {
         /* Loop to combine blocks */
-        long myCount = theCounter;
+        long myCount = pCount;
         while (myCount > 0)
         {
             /* Break loop if we are not combining */
@@ -628,6 +758,121 @@ private void adjustStack()
         theStack.push(Arrays.copyOf(theChaining, NUMWORDS));
     }
 
+    /**
+     * Add the bytes of pInput sequentially.
+     *
+     * @param pInput the input buffer
+     * @param pLen   the number of bytes to add
+     */
+    private void updateSequential(final ByteBuffer pInput,
+                                  final int pLen)
+    {
+        if (pInput.hasArray())
+        {
+            update(pInput.array(), pInput.arrayOffset() + pInput.position(), pLen);
+            pInput.position(pInput.position() + pLen);
+            return;
+        }
+
+        final byte[] myBuf = new byte[Math.min(pLen, SPLIT_CHUNKS * CHUNKLEN)];
+        int myLeft = pLen;
+        while (myLeft > 0)
+        {
+            final int myLen = Math.min(myLeft, myBuf.length);
+            pInput.get(myBuf, 0, myLen);
+            update(myBuf, 0, myLen);
+            myLeft -= myLen;
+        }
+        Arrays.fill(myBuf, (byte)0);
+    }
+
+    /**
+     * Merge the chaining value of a complete subtree into the digest.
+     *
+     * @param pChaining the chaining value of the subtree
+     * @param pChunks   the number of chunks in the subtree, a power of two
+     */
+    private void addSubtree(final int[] pChaining,
+                            final long pChunks)
+    {
+        theCounter += pChunks;
+        System.arraycopy(pChaining, 0, theChaining, 0, NUMWORDS);
+        adjustStack(theCounter / pChunks);
+    }
+
+    /**
+     * Calculate the chaining value of a complete subtree of chunks.
+     *
+     * @param pInput   the input buffer
+     * @param pPos     the position of the first chunk in the buffer
+     * @param pCounter the counter of the first chunk
+     * @param pChunks  the number of chunks, a power of two
+     * @return the chaining value
+     */
+    private int[] hashSubtree(final ByteBuffer pInput,
+                              final int pPos,
+                              final long pCounter,
+                              final int pChunks)
+    {
+        /* Start with an empty stack at the first chunk */
+        theStack.clear();
+        theCounter = pCounter;
+        theCurrBytes = 0;
+
+        /* Buffers without an accessible array are copied a chunk at a time */
+        final ByteBuffer mySource = pInput.hasArray() ? null : pInput.duplicate();
+        final byte[] myChunk = mySource == null ? pInput.array() : new byte[CHUNKLEN];
+
+        for (int i = 0; i < pChunks; i++)
+        {
+            final int myOff;
+            if (mySource == null)
+            {
+                myOff = pInput.arrayOffset() + pPos + i * CHUNKLEN;
+            }
+            else
+            {
+                mySource.position(pPos + i * CHUNKLEN);
+                mySource.get(myChunk, 0, CHUNKLEN);
+                myOff = 0;
+            }
+
+            for (int j = 0; j < CHUNKLEN; j += BLOCKLEN)
+            {
+                initChunkBlock(BLOCKLEN, false);
+                initM(myChunk, myOff + j);
+                compress();
+            }
+
+            /* Combine completed subtrees, counting from the start of this one */
+            adjustStack(theCounter - pCounter);
+        }
+
+        if (mySource != null)
+        {
+            Arrays.fill(myChunk, (byte)0);
+        }
+
+        return (int[])theStack.pop();
+    }
+
+    /**
+     * Calculate the chaining value of a parent node.
+     *
+     * @param pLeft  the chaining value of the left child
+     * @param pRight the chaining value of the right child
+     * @return the chaining value
+     */
+    private int[] hashParent(final int[] pLeft,
+                             final int[] pRight)
+    {
+        System.arraycopy(pLeft, 0, theM, 0, NUMWORDS);
+        System.arraycopy(pRight, 0, theM, NUMWORDS, NUMWORDS);
+        initParentBlock();
+        compress();
+        return Arrays.copyOf(theChaining, NUMWORDS);
+    }
+
     /**
      * Compress final block.
      *
@@ -928,4 +1173,46 @@ private void setRoot()
         System.arraycopy(theV, 0, theChaining, 0, NUMWORDS);
     }
 
+    /**
+     * Calculates the chaining value of a subtree, splitting it in half until it is small enough.
+     */
+    private final class SubtreeTask
+        extends RecursiveTask<int[]>
+    {
+        private final ByteBuffer theInput;
+        private final int thePosition;
+        private final long theFirstChunk;
+        private final int theChunks;
+
+        SubtreeTask(final ByteBuffer pInput,
+                    final int pPos,
+                    final long pCounter,
+                    final int pChunks)
+        {
+            theInput = pInput;
+            thePosition = pPos;
+            theFirstChunk = pCounter;
+            theChunks = pChunks;
+        }
+
+        protected int[] compute()
+        {
+            /* Workers share the key and mode of the digest */
+            final Blake3Digest myWorker = new Blake3Digest(Blake3Digest.this);
+
+            if (theChunks <= SPLIT_CHUNKS)
+            {
+                return myWorker.hashSubtree(theInput, thePosition, theFirstChunk, theChunks);
+            }
+
+            final int myHalf = theChunks >>> 1;
+            final SubtreeTask myLeft = new SubtreeTask(theInput, thePosition, theFirstChunk, myHalf);
+            final SubtreeTask myRight = new SubtreeTask(theInput, thePosition + myHalf * CHUNKLEN,
+                theFirstChunk + myHalf, myHalf);
+
+            myLeft.fork();
+            final int[] myRightChaining = myRight.compute();
+            return myWorker.hashParent(myLeft.join(), myRightChaining);
+        }
+    }
 }
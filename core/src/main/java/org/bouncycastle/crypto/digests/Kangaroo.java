@@ -1,5 +1,8 @@
 package org.bouncycastle.crypto.digests;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.bouncycastle.crypto.*;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Bytes;
@@ -151,6 +154,11 @@ public KangarooParameters build()
 
     /**
      * The Kangaroo Base.
+     * <p>
+     * If a pool is set with setParallelPool(), runs of complete leaves passed to a single update() call which
+     * reach PARALLEL_THRESHOLD bytes are hashed on the pool, each task with its own leaf sponge. The chaining
+     * values are absorbed in order, so the output is the same either way.
+     * </p>
      */
     abstract static class KangarooBase
         implements ExtendedDigest, Xof
@@ -160,6 +168,21 @@ public KangarooParameters build()
          */
         private static final int BLKSIZE = 8192;
 
+        /**
+         * Bytes of complete leaves an update must contain before they are hashed in parallel (1 MiB).
+         */
+        public static final int PARALLEL_THRESHOLD = 1024 * 1024;
+
+        /**
+         * Leaves hashed by a single task.
+         */
+        private static final int SPLIT_LEAVES = 8;
+
+        /**
+         * Leaves gathered before their chaining values are absorbed.
+         */
+        private static final int WINDOW_LEAVES = 4096;
+
         /**
          * Single marker.
          */
@@ -220,6 +243,11 @@ public KangarooParameters build()
          */
         private int theProcessed;
 
+        /**
+         * The pool for parallel leaf hashing.
+         */
+        private ForkJoinPool thePool;
+
         private final CryptoServicePurpose purpose;
 
         /**
@@ -263,6 +291,26 @@ private void buildPersonal(final byte[] pPersonal)
             System.arraycopy(myEnc, 0, thePersonal, myLen, myEnc.length);
         }
 
+        /**
+         * Set the pool long updates are hashed on, null to hash everything on the calling thread.
+         *
+         * @param pPool the pool to use, or null
+         */
+        public void setParallelPool(final ForkJoinPool pPool)
+        {
+            thePool = pPool;
+        }
+
+        /**
+         * Obtain the pool long updates are hashed on.
+         *
+         * @return the pool, or null
+         */
+        public ForkJoinPool getParallelPool()
+        {
+            return thePool;
+        }
+
         public int getByteLength()
         {
             return theTree.theRateBytes;
@@ -385,8 +433,17 @@ private void processData(final byte[] pIn,
                 theProcessed += mySpace;
             }
 
-            /* Loop while we have data remaining */
+            /* Hash complete leaves in parallel, leaving at least a byte for the sequential path */
             int myProcessed = mySpace;
+            if (thePool != null && pLen - myProcessed > PARALLEL_THRESHOLD)
+            {
+                switchLeaf(true);
+                final int myLeaves = (pLen - myProcessed - 1) / BLKSIZE;
+                processLeaves(pIn, pInOffSet + myProcessed, myLeaves);
+                myProcessed += myLeaves * BLKSIZE;
+            }
+
+            /* Loop while we have data remaining */
             while (myProcessed < pLen)
             {
                 /* Switch Leaf if the current sponge is full */
@@ -449,6 +506,31 @@ private void switchLeaf(final boolean pMoreToCome)
             theProcessed = 0;
         }
 
+        /**
+         * Hash complete leaves on the pool and absorb their chaining values.
+         *
+         * @param pIn       the input buffer
+         * @param pInOffSet the offset of the first leaf
+         * @param pLeaves   the number of leaves
+         */
+        private void processLeaves(final byte[] pIn,
+                                   final int pInOffSet,
+                                   final int pLeaves)
+        {
+            final int myWindow = Math.min(pLeaves, WINDOW_LEAVES);
+            final byte[] myHashes = new byte[myWindow * theChainLen];
+
+            for (int myDone = 0; myDone < pLeaves; myDone += myWindow)
+            {
+                final int myCount = Math.min(myWindow, pLeaves - myDone);
+
+                thePool.invoke(new LeafTask(pIn, pInOffSet + myDone * BLKSIZE, myCount, myHashes, 0));
+
+                theTree.absorb(myHashes, 0, myCount * theChainLen);
+                theCurrNode += myCount;
+            }
+        }
+
         /**
          * Switch to squeezing.
          */
@@ -532,6 +614,53 @@ private static byte[] lengthEncode(final long strLen)
             /* Return the encoded length */
             return b;
         }
+
+        /**
+         * Hashes a run of leaves, splitting it in half until it is small enough.
+         */
+        private final class LeafTask
+            extends RecursiveAction
+        {
+            private final byte[] theIn;
+            private final int theInOff;
+            private final int theLeaves;
+            private final byte[] theOut;
+            private final int theOutOff;
+
+            LeafTask(final byte[] pIn,
+                     final int pInOff,
+                     final int pLeaves,
+                     final byte[] pOut,
+                     final int pOutOff)
+            {
+                theIn = pIn;
+                theInOff = pInOff;
+                theLeaves = pLeaves;
+                theOut = pOut;
+                theOutOff = pOutOff;
+            }
+
+            protected void compute()
+            {
+                if (theLeaves > SPLIT_LEAVES)
+                {
+                    final int myHalf = theLeaves >>> 1;
+                    invokeAll(new LeafTask(theIn, theInOff, myHalf, theOut, theOutOff),
+                        new LeafTask(theIn, theInOff + myHalf * BLKSIZE, theLeaves - myHalf, theOut,
+                            theOutOff + myHalf * theChainLen));
+                    return;
+                }
+
+                final KangarooSponge myLeaf = new KangarooSponge(theChainLen << 2, theTree.theRounds);
+                for (int i = 0; i < theLeaves; i++)
+                {
+                    myLeaf.initSponge();
+                    myLeaf.absorb(theIn, theInOff + i * BLKSIZE, BLKSIZE);
+                    myLeaf.absorb(INTERMEDIATE, 0, INTERMEDIATE.length);
+                    myLeaf.squeeze(theOut, theOutOff + i * theChainLen, theChainLen);
+                }
+            }
+        }
     }
 
     /**
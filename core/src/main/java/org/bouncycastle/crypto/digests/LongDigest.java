@@ -354,6 +354,29 @@ protected void processBlock()
         }
     }
 
+    /**
+     * Compression function hook for constructions which keep their own chaining values, such as an iterated HMAC.
+     * The 16 word block M is processed from the chaining value H, or from the digest's current one if H is null,
+     * and the result, which also becomes the digest's current chaining value, is written to out. Any message
+     * part way through being processed is lost, so reset() must be called before the digest is used again.
+     *
+     * @param H the chaining value to start from, null for the current one.
+     * @param M the 16 word message block.
+     * @param out the array the resulting chaining value is written to.
+     */
+    protected void processBlock(long[] H, long[] M, long[] out)
+    {
+        if (H != null)
+        {
+            H1 = H[0]; H2 = H[1]; H3 = H[2]; H4 = H[3]; H5 = H[4]; H6 = H[5]; H7 = H[6]; H8 = H[7];
+        }
+
+        System.arraycopy(M, 0, W, 0, 16);
+        processBlock();
+
+        out[0] = H1; out[1] = H2; out[2] = H3; out[3] = H4; out[4] = H5; out[5] = H6; out[6] = H7; out[7] = H8;
+    }
+
     /* SHA-384 and SHA-512 functions (as for SHA-256 but for longs) */
     private long Ch(
         long    x,
@@ -0,0 +1,315 @@
+package org.bouncycastle.crypto.digests;
+
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+
+/**
+ * Multi-buffer SHA-512 - calculates the SHA-512 digests of many independent messages in one call.
+ * <p>
+ * Messages are taken in pairs and the rounds of their compression functions are interleaved. The two chains
+ * of rounds are independent, so the processor can overlap them, and the per-message set up and padding
+ * overhead of running a {@link SHA512Digest} for each message is avoided. Two lanes is the most the JIT can
+ * keep in registers, wider interleaving only adds spills. The results are identical to hashing each message
+ * separately.
+ * </p><p>
+ * A common prefix may be supplied at construction time in the form of a {@link SHA512Digest} which has
+ * already been updated with it. The prefix digest is not changed.
+ * </p>
+ */
+public class MultiSHA512Digest
+{
+    private static final int DIGEST_LENGTH = 64;
+    private static final int LANES = 2;
+
+    private final long[] prefixH = new long[8];
+    private final byte[] prefixBuf;
+    private final long prefixLength, prefixLengthHigh;
+
+    // chaining values and expanded message schedules, by lane
+    private final long[] H = new long[8 * LANES];
+    private final long[] X = new long[80 * LANES];
+    private final int[] blocks = new int[LANES];
+    private final byte[] block = new byte[128];
+
+    /**
+     * Base constructor, messages are hashed on their own.
+     */
+    public MultiSHA512Digest()
+    {
+        this(new SHA512Digest());
+    }
+
+    /**
+     * Constructor for hashing messages which share a common prefix.
+     *
+     * @param prefix a digest which has been updated with the common prefix.
+     */
+    public MultiSHA512Digest(SHA512Digest prefix)
+    {
+        byte[] state = prefix.getEncodedState();
+
+        int xBufOff = Pack.bigEndianToInt(state, 8);
+        this.prefixLength = Pack.bigEndianToLong(state, 12);
+        this.prefixLengthHigh = Pack.bigEndianToLong(state, 20);
+        Pack.bigEndianToLong(state, 28, prefixH);
+
+        int wOff = Pack.bigEndianToInt(state, 92);
+        this.prefixBuf = new byte[wOff * 8 + xBufOff];
+        System.arraycopy(state, 96, prefixBuf, 0, wOff * 8);
+        System.arraycopy(state, 0, prefixBuf, wOff * 8, xBufOff);
+    }
+
+    public String getAlgorithmName()
+    {
+        return "SHA-512";
+    }
+
+    public int getDigestSize()
+    {
+        return DIGEST_LENGTH;
+    }
+
+    /**
+     * Calculate the digests of a collection of messages.
+     *
+     * @param msgs the messages to be hashed.
+     * @return an array of the digests, in the same order as msgs.
+     */
+    public static byte[][] digestAll(byte[][] msgs)
+    {
+        byte[] out = new byte[msgs.length * DIGEST_LENGTH];
+
+        new MultiSHA512Digest().digestAll(msgs, msgs.length, out, 0);
+
+        byte[][] digests = new byte[msgs.length][];
+        for (int i = 0; i != msgs.length; i++)
+        {
+            digests[i] = new byte[DIGEST_LENGTH];
+            System.arraycopy(out, i * DIGEST_LENGTH, digests[i], 0, DIGEST_LENGTH);
+        }
+        Arrays.fill(out, (byte)0);
+        return digests;
+    }
+
+    /**
+     * Calculate the digests of the first count messages in msgs, each prefixed by the common prefix
+     * if one was given, writing them one after the other to out.
+     *
+     * @param msgs the messages to be hashed.
+     * @param count the number of messages to hash.
+     * @param out the array the digests are to be written to.
+     * @param outOff the offset into out the first digest is to be written at.
+     * @return the number of bytes written to out.
+     */
+    public int digestAll(byte[][] msgs, int count, byte[] out, int outOff)
+    {
+        try
+        {
+            for (int i = 0; i < count; i += LANES)
+            {
+                int lanes = Math.min(LANES, count - i);
+                int maxBlocks = 0;
+
+                for (int l = 0; l < LANES; ++l)
+                {
+                    for (int w = 0; w < 8; ++w)
+                    {
+                        H[l * 8 + w] = prefixH[w];
+                    }
+
+                    blocks[l] = l < lanes ? (prefixBuf.length + msgs[i + l].length + 17 + 127) >>> 7 : 0;
+                    maxBlocks = Math.max(maxBlocks, blocks[l]);
+                }
+
+                for (int blk = 0; blk < maxBlocks; ++blk)
+                {
+                    for (int l = 0; l < lanes; ++l)
+                    {
+                        if (blk < blocks[l])
+                        {
+                            loadBlock(l, msgs[i + l], blk);
+                        }
+                    }
+
+                    processBlocks(blk);
+                }
+
+                for (int l = 0; l < lanes; ++l)
+                {
+                    for (int w = 0; w < 8; ++w)
+                    {
+                        Pack.longToBigEndian(H[l * 8 + w], out, outOff + (i + l) * DIGEST_LENGTH + w * 8);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            // the messages may be secret, as in the batched PRF calls of SLH-DSA and XMSS
+            Arrays.fill(H, 0L);
+            Arrays.fill(X, 0L);
+            Arrays.fill(block, (byte)0);
+        }
+
+        return count * DIGEST_LENGTH;
+    }
+
+    /*
+     * Load block blk of prefixBuf || msg || padding into the message schedule for the given lane.
+     */
+    private void loadBlock(int lane, byte[] msg, int blk)
+    {
+        int pLen = prefixBuf.length;
+        int pos = blk << 7;
+
+        if (pLen == 0 && pos + 128 <= msg.length)
+        {
+            Pack.bigEndianToLong(msg, pos, X, lane * 80, 16);
+            return;
+        }
+
+        int mLen = msg.length;
+        int j = 0;
+        if (pos < pLen)
+        {
+            j = Math.min(128, pLen - pos);
+            System.arraycopy(prefixBuf, pos, block, 0, j);
+        }
+
+        int mPos = pos + j - pLen;
+        if (j < 128 && mPos < mLen)
+        {
+            int n = Math.min(128 - j, mLen - mPos);
+            System.arraycopy(msg, mPos, block, j, n);
+            j += n;
+            mPos += n;
+        }
+
+        if (j < 128)
+        {
+            if (mPos == mLen)
+            {
+                block[j++] = (byte)0x80;
+            }
+            Arrays.fill(block, j, 128, (byte)0);
+        }
+
+        if (blk == blocks[lane] - 1)
+        {
+            long byteLength = prefixLength + mLen;
+            Pack.longToBigEndian(prefixLengthHigh + (byteLength >>> 61), block, 112);
+            Pack.longToBigEndian(byteLength << 3, block, 120);
+        }
+
+        Pack.bigEndianToLong(block, 0, X, lane * 80, 16);
+    }
+
+    private void processBlocks(int blk)
+    {
+        boolean active0 = blk < blocks[0], active1 = blk < blocks[1];
+
+        if (active0 && active1)
+        {
+            processBlock2();
+        }
+        else if (active0)
+        {
+            processBlock(0);
+        }
+        else if (active1)
+        {
+            processBlock(1);
+        }
+    }
+
+    private void processBlock(int lane)
+    {
+        long[] X = this.X, H = this.H;
+        int xo = lane * 80, ho = lane * 8;
+
+        for (int t = xo + 16; t < xo + 80; ++t)
+        {
+            X[t] = Sigma1(X[t - 2]) + X[t - 7] + Sigma0(X[t - 15]) + X[t - 16];
+        }
+
+        long a = H[ho], b = H[ho + 1], c = H[ho + 2], d = H[ho + 3];
+        long e = H[ho + 4], f = H[ho + 5], g = H[ho + 6], h = H[ho + 7];
+
+        for (int t = 0; t < 80; ++t)
+        {
+            long t1 = h + Sum1(e) + Ch(e, f, g) + LongDigest.K[t] + X[xo + t];
+            long t2 = Sum0(a) + Maj(a, b, c);
+            h = g; g = f; f = e; e = d + t1;
+            d = c; c = b; b = a; a = t1 + t2;
+        }
+
+        H[ho] += a; H[ho + 1] += b; H[ho + 2] += c; H[ho + 3] += d;
+        H[ho + 4] += e; H[ho + 5] += f; H[ho + 6] += g; H[ho + 7] += h;
+    }
+
+    /*
+     * both lanes at once - the two sets of rounds are independent so the processor can overlap them.
+     */
+    private void processBlock2()
+    {
+        long[] X = this.X, H = this.H;
+
+        for (int t = 16; t < 80; ++t)
+        {
+            X[t] = Sigma1(X[t - 2]) + X[t - 7] + Sigma0(X[t - 15]) + X[t - 16];
+            X[80 + t] = Sigma1(X[78 + t]) + X[73 + t] + Sigma0(X[65 + t]) + X[64 + t];
+        }
+
+        long a0 = H[0], b0 = H[1], c0 = H[2], d0 = H[3], e0 = H[4], f0 = H[5], g0 = H[6], h0 = H[7];
+        long a1 = H[8], b1 = H[9], c1 = H[10], d1 = H[11], e1 = H[12], f1 = H[13], g1 = H[14], h1 = H[15];
+
+        for (int t = 0; t < 80; ++t)
+        {
+            long k = LongDigest.K[t];
+
+            long t1 = h0 + Sum1(e0) + Ch(e0, f0, g0) + k + X[t];
+            long t2 = Sum0(a0) + Maj(a0, b0, c0);
+            h0 = g0; g0 = f0; f0 = e0; e0 = d0 + t1;
+            d0 = c0; c0 = b0; b0 = a0; a0 = t1 + t2;
+
+            long u1 = h1 + Sum1(e1) + Ch(e1, f1, g1) + k + X[80 + t];
+            long u2 = Sum0(a1) + Maj(a1, b1, c1);
+            h1 = g1; g1 = f1; f1 = e1; e1 = d1 + u1;
+            d1 = c1; c1 = b1; b1 = a1; a1 = u1 + u2;
+        }
+
+        H[0] += a0; H[1] += b0; H[2] += c0; H[3] += d0; H[4] += e0; H[5] += f0; H[6] += g0; H[7] += h0;
+        H[8] += a1; H[9] += b1; H[10] += c1; H[11] += d1; H[12] += e1; H[13] += f1; H[14] += g1; H[15] += h1;
+    }
+
+    /* SHA-512 functions */
+    private static long Ch(long x, long y, long z)
+    {
+        return (x & y) ^ ((~x) & z);
+    }
+
+    private static long Maj(long x, long y, long z)
+    {
+        return (x & y) | (z & (x ^ y));
+    }
+
+    private static long Sum0(long x)
+    {
+        return ((x << 36) | (x >>> 28)) ^ ((x << 30) | (x >>> 34)) ^ ((x << 25) | (x >>> 39));
+    }
+
+    private static long Sum1(long x)
+    {
+        return ((x << 50) | (x >>> 14)) ^ ((x << 46) | (x >>> 18)) ^ ((x << 23) | (x >>> 41));
+    }
+
+    private static long Sigma0(long x)
+    {
+        return ((x << 63) | (x >>> 1)) ^ ((x << 56) | (x >>> 8)) ^ (x >>> 7);
+    }
+
+    private static long Sigma1(long x)
+    {
+        return ((x << 45) | (x >>> 19)) ^ ((x << 3) | (x >>> 61)) ^ (x >>> 6);
+    }
+}
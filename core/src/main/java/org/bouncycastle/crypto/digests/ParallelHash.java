@@ -1,5 +1,8 @@
 package org.bouncycastle.crypto.digests;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.bouncycastle.crypto.CryptoServicePurpose;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.crypto.DataLengthException;
@@ -14,12 +17,27 @@
  * <p>
  * From NIST Special Publication 800-185 - SHA-3 Derived Functions:cSHAKE, KMAC, TupleHash and ParallelHash
  * </p>
+ * <p>
+ * If a pool is set with {@link #setParallelPool(ForkJoinPool)}, runs of complete blocks passed to a single
+ * update() call which reach {@link #PARALLEL_THRESHOLD} bytes are compressed on the pool, each task with its
+ * own cSHAKE instance. The results are absorbed in order, so the output is the same either way.
+ * </p>
  */
 public class ParallelHash
     implements Xof, Digest
 {
     private static final byte[] N_PARALLEL_HASH = Strings.toByteArray("ParallelHash");
 
+    /**
+     * Number of bytes of complete blocks an update must contain before they are compressed in parallel (1 MiB).
+     */
+    public static final int PARALLEL_THRESHOLD = 1024 * 1024;
+
+    // bytes of blocks compressed by a single task.
+    private static final int SPLIT_SIZE = 64 * 1024;
+    // bytes of compressed output gathered before absorbing it.
+    private static final int WINDOW_OUTPUT = 256 * 1024;
+
     private final CSHAKEDigest cshake;
     private final CSHAKEDigest compressor;
     private final int bitLength;
@@ -32,6 +50,8 @@
     private int nCount;
     private int bufOff;
 
+    private ForkJoinPool pool;
+
     private final CryptoServicePurpose purpose;
 
     /**
@@ -86,10 +106,26 @@ public ParallelHash(ParallelHash source)
         this.firstOutput = source.firstOutput;
         this.nCount = source.nCount;
         this.bufOff = source.bufOff;
+        this.pool = source.pool;
 
         CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties(this, bitLength, purpose));
     }
 
+    /**
+     * Set the pool long updates are compressed on, null to compress everything on the calling thread.
+     *
+     * @param pool the pool to use, or null.
+     */
+    public void setParallelPool(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getParallelPool()
+    {
+        return pool;
+    }
+
     public String getAlgorithmName()
     {
         return "ParallelHash" + cshake.getAlgorithmName().substring(6);
@@ -139,6 +175,13 @@ public void update(byte[] in, int inOff, int len)
 
         if (i < len)
         {
+            int blocks = (len - i) / B;
+            if (pool != null && blocks > 1 && (long)blocks * B >= PARALLEL_THRESHOLD)
+            {
+                compressParallel(in, inOff + i, blocks);
+                i += blocks * B;
+            }
+
             while (len - i >= B)
             {
                 compress(in, inOff + i, B);
@@ -168,6 +211,23 @@ private void compress(byte[] buf, int offSet, int len)
         nCount++;
     }
 
+    private void compressParallel(byte[] in, int inOff, int blocks)
+    {
+        int outLen = compressorBuffer.length;
+        int window = Math.min(blocks, Math.max(1, WINDOW_OUTPUT / outLen));
+        byte[] out = new byte[window * outLen];
+
+        for (int done = 0; done < blocks; done += window)
+        {
+            int count = Math.min(window, blocks - done);
+
+            pool.invoke(new CompressTask(in, inOff + done * B, count, out, 0));
+
+            cshake.update(out, 0, count * outLen);
+            nCount += count;
+        }
+    }
+
     private void wrapUp(int outputSize)
     {
         if (bufOff != 0)
@@ -234,4 +294,44 @@ public void reset()
         bufOff = 0;
         firstOutput = true;
     }
+
+    private class CompressTask
+        extends RecursiveAction
+    {
+        private final byte[] in;
+        private final int inOff;
+        private final int blocks;
+        private final byte[] out;
+        private final int outOff;
+
+        CompressTask(byte[] in, int inOff, int blocks, byte[] out, int outOff)
+        {
+            this.in = in;
+            this.inOff = inOff;
+            this.blocks = blocks;
+            this.out = out;
+            this.outOff = outOff;
+        }
+
+        protected void compute()
+        {
+            int outLen = compressorBuffer.length;
+
+            if (blocks > 1 && (long)blocks * B > SPLIT_SIZE)
+            {
+                int half = blocks / 2;
+
+                invokeAll(new CompressTask(in, inOff, half, out, outOff),
+                    new CompressTask(in, inOff + half * B, blocks - half, out, outOff + half * outLen));
+                return;
+            }
+
+            CSHAKEDigest leaf = new CSHAKEDigest(bitLength, new byte[0], new byte[0]);
+            for (int i = 0; i != blocks; i++)
+            {
+                leaf.update(in, inOff + i * B, B);
+                leaf.doFinal(out, outOff + i * outLen, outLen);
+            }
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package org.bouncycastle.crypto.ec;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.sec.SECObjectIdentifiers;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.custom.sec.SecP256R1;
+import org.bouncycastle.math.ec.custom.sec.SecP384R1;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.BigIntegers;
+
+/**
+ * Scalar multiplication for the BigInteger/ECPoint based EC classes which is carried out by the fixed curve
+ * engines {@link SecP256R1} and {@link SecP384R1} when the domain parameters are those of P-256 or P-384.
+ * <p>
+ * The engines use complete formulas and work in constant time without allocating, the instance provides the
+ * workspace and the byte buffers for the conversions, so an instance must not be used by more than one thread
+ * at a time.
+ * </p>
+ */
+public abstract class FixedCurveEngine
+{
+    /**
+     * Return an engine for the passed in domain parameters.
+     *
+     * @param parameters the domain parameters in use.
+     * @return an engine, or null if there is no fixed curve engine for the parameters.
+     */
+    public static FixedCurveEngine getInstance(ECDomainParameters parameters)
+    {
+        int fieldSize = parameters.getCurve().getFieldSize();
+        if (fieldSize == 256 && matches(parameters, SECObjectIdentifiers.secp256r1))
+        {
+            return new P256();
+        }
+        if (fieldSize == 384 && matches(parameters, SECObjectIdentifiers.secp384r1))
+        {
+            return new P384();
+        }
+        return null;
+    }
+
+    private static boolean matches(ECDomainParameters parameters, ASN1ObjectIdentifier oid)
+    {
+        X9ECParameters x9 = CustomNamedCurves.getByOID(oid);
+        ECCurve curve = parameters.getCurve();
+
+        return (curve == x9.getCurve() || curve.equals(x9.getCurve()))
+            && parameters.getG().equals(x9.getG())
+            && parameters.getN().equals(x9.getN());
+    }
+
+    private final int fieldBytes;
+    private final byte[] k;
+    private final byte[] p;
+    private final byte[] r;
+
+    FixedCurveEngine(int fieldBytes)
+    {
+        this.fieldBytes = fieldBytes;
+        this.k = new byte[fieldBytes];
+        this.p = new byte[1 + 2 * fieldBytes];
+        this.r = new byte[1 + 2 * fieldBytes];
+    }
+
+    /**
+     * Calculate k * G for the base point G.
+     *
+     * @param k the scalar, in the range [0, n).
+     * @return the affine x coordinate of the result, or null if the result is the point at infinity.
+     */
+    public BigInteger multiplyBaseX(BigInteger k)
+    {
+        BigIntegers.asUnsignedByteArray(k, this.k, 0, fieldBytes);
+        return getX(implMultiplyBase(this.k, r));
+    }
+
+    /**
+     * Calculate k * Q.
+     *
+     * @param q a valid point on the curve of the engine's domain parameters.
+     * @param k the scalar, in the range [0, n).
+     * @return the affine x coordinate of the result, or null if the result is the point at infinity.
+     */
+    public BigInteger multiplyX(ECPoint q, BigInteger k)
+    {
+        if (q.isInfinity())
+        {
+            return null;
+        }
+
+        q.encodeTo(false, p, 0);
+        BigIntegers.asUnsignedByteArray(k, this.k, 0, fieldBytes);
+        return getX(implMultiply(this.k, p, r));
+    }
+
+    abstract boolean implMultiplyBase(byte[] k, byte[] r);
+
+    abstract boolean implMultiply(byte[] k, byte[] p, byte[] r);
+
+    private BigInteger getX(boolean valid)
+    {
+        // the scalar and the result may be secret, neither is left in the buffers
+        BigInteger x = valid ? BigIntegers.fromUnsignedByteArray(r, 1, fieldBytes) : null;
+        Arrays.fill(k, (byte)0);
+        Arrays.fill(r, (byte)0);
+        return x;
+    }
+
+    private static final class P256
+        extends FixedCurveEngine
+    {
+        private final SecP256R1.Workspace w = new SecP256R1.Workspace();
+
+        P256()
+        {
+            super(SecP256R1.SCALAR_SIZE);
+        }
+
+        boolean implMultiplyBase(byte[] k, byte[] r)
+        {
+            return SecP256R1.scalarMultBase(k, 0, r, 0, w);
+        }
+
+        boolean implMultiply(byte[] k, byte[] p, byte[] r)
+        {
+            return SecP256R1.scalarMult(k, 0, p, 0, r, 0, w);
+        }
+    }
+
+    private static final class P384
+        extends FixedCurveEngine
+    {
+        private final SecP384R1.Workspace w = new SecP384R1.Workspace();
+
+        P384()
+        {
+            super(SecP384R1.SCALAR_SIZE);
+        }
+
+        boolean implMultiplyBase(byte[] k, byte[] r)
+        {
+            return SecP384R1.scalarMultBase(k, 0, r, 0, w);
+        }
+
+        boolean implMultiply(byte[] k, byte[] p, byte[] r)
+        {
+            return SecP384R1.scalarMult(k, 0, p, 0, r, 0, w);
+        }
+    }
+}
@@ -10,6 +10,7 @@
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Pack;
+import org.bouncycastle.util.Properties;
 
 /**
  * an implementation of the AES (Rijndael), from FIPS-197.
@@ -422,12 +423,24 @@ private int[][] generateWorkingKey(byte[] key, boolean forEncryption)
     private static final int BLOCK_SIZE = 16;
 
     /**
-      * Return an AESEngine.
+     * System property which, if set to "true", causes {@link #newInstance()} to return the
+     * constant-time {@link AESBitslicedEngine} in place of the table based engine.
+     */
+    public static final String CONSTANT_TIME_PROPERTY = "org.bouncycastle.aes.constant_time";
+
+    /**
+      * Return an AESEngine, or an AESBitslicedEngine if the "org.bouncycastle.aes.constant_time"
+      * property is set.
       *
       * @return an AES ECB mode cipher.
       */
      public static MultiBlockCipher newInstance()
      {
+         if (Properties.isOverrideSet(CONSTANT_TIME_PROPERTY))
+         {
+             return new AESBitslicedEngine();
+         }
+
          return new AESEngine();
      }
 
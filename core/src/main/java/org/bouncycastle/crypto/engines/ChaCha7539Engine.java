@@ -7,6 +7,8 @@
  */
 public class ChaCha7539Engine extends Salsa20Engine
 {
+    private final int[] x4 = new int[64];
+
     /**
      * Creates a 20 rounds ChaCha engine.
      */
@@ -117,4 +119,21 @@ protected void generateKeyStream(byte[] output)
         ChaChaEngine.chachaCore(rounds, engineState, x);
         Pack.intToLittleEndian(x, output, 0);
     }
+
+    protected boolean generateNextKeyStreams(byte[] output)
+    {
+        // blocks counter + 1 to counter + 4 must all fit in word 12
+        if ((engineState[12] & 0xffffffffL) > 0xfffffffbL)
+        {
+            return false;
+        }
+
+        ++engineState[12];
+        ChaChaEngine.chachaCore4(rounds, engineState, x4);
+        --engineState[12];
+
+        Pack.intToLittleEndian(x4, output, 0);
+
+        return true;
+    }
 }
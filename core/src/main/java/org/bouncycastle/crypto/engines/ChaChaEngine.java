@@ -8,6 +8,8 @@
  */
 public class ChaChaEngine extends Salsa20Engine
 {
+    private final int[] x4 = new int[64];
+
     /**
      * Creates a 20 rounds ChaCha engine.
      */
@@ -142,6 +144,23 @@ protected void generateKeyStream(byte[] output)
         Pack.intToLittleEndian(x, output, 0);
     }
 
+    protected boolean generateNextKeyStreams(byte[] output)
+    {
+        // blocks counter + 1 to counter + 4 must all fit in word 12
+        if ((engineState[12] & 0xffffffffL) > 0xfffffffbL)
+        {
+            return false;
+        }
+
+        ++engineState[12];
+        chachaCore4(rounds, engineState, x4);
+        --engineState[12];
+
+        Pack.intToLittleEndian(x4, output, 0);
+
+        return true;
+    }
+
     /**
      * ChaCha function
      *
@@ -233,4 +252,190 @@ public static void chachaCore(int rounds, int[] input, int[] x)
         x[14] = x14 + input[14];
         x[15] = x15 + input[15];
     }
+
+    /**
+     * ChaCha function for 4 consecutive blocks. The blocks use the counter values input[12],
+     * input[12] + 1, input[12] + 2 and input[12] + 3 - the caller must make sure these do not wrap
+     * around, as there is no carry into input[13].
+     *
+     * @param   input   input data
+     * @param   x       output for the 4 blocks, one after the other
+     */
+    public static void chachaCore4(int rounds, int[] input, int[] x)
+    {
+        if (input.length != 16)
+        {
+            throw new IllegalArgumentException();
+        }
+        if (x.length != 64)
+        {
+            throw new IllegalArgumentException();
+        }
+        if (rounds % 2 != 0)
+        {
+            throw new IllegalArgumentException("Number of rounds must be even");
+        }
+
+        int a00 = input[ 0], b00 = a00, c00 = a00, d00 = a00;
+        int a01 = input[ 1], b01 = a01, c01 = a01, d01 = a01;
+        int a02 = input[ 2], b02 = a02, c02 = a02, d02 = a02;
+        int a03 = input[ 3], b03 = a03, c03 = a03, d03 = a03;
+        int a04 = input[ 4], b04 = a04, c04 = a04, d04 = a04;
+        int a05 = input[ 5], b05 = a05, c05 = a05, d05 = a05;
+        int a06 = input[ 6], b06 = a06, c06 = a06, d06 = a06;
+        int a07 = input[ 7], b07 = a07, c07 = a07, d07 = a07;
+        int a08 = input[ 8], b08 = a08, c08 = a08, d08 = a08;
+        int a09 = input[ 9], b09 = a09, c09 = a09, d09 = a09;
+        int a10 = input[10], b10 = a10, c10 = a10, d10 = a10;
+        int a11 = input[11], b11 = a11, c11 = a11, d11 = a11;
+        int a12 = input[12], b12 = a12 + 1, c12 = a12 + 2, d12 = a12 + 3;
+        int a13 = input[13], b13 = a13, c13 = a13, d13 = a13;
+        int a14 = input[14], b14 = a14, c14 = a14, d14 = a14;
+        int a15 = input[15], b15 = a15, c15 = a15, d15 = a15;
+
+        for (int i = rounds; i > 0; i -= 2)
+        {
+            a00 += a04; a12 = Integers.rotateLeft(a12 ^ a00, 16); b00 += b04; b12 = Integers.rotateLeft(b12 ^ b00, 16);
+            c00 += c04; c12 = Integers.rotateLeft(c12 ^ c00, 16); d00 += d04; d12 = Integers.rotateLeft(d12 ^ d00, 16);
+            a08 += a12; a04 = Integers.rotateLeft(a04 ^ a08, 12); b08 += b12; b04 = Integers.rotateLeft(b04 ^ b08, 12);
+            c08 += c12; c04 = Integers.rotateLeft(c04 ^ c08, 12); d08 += d12; d04 = Integers.rotateLeft(d04 ^ d08, 12);
+            a00 += a04; a12 = Integers.rotateLeft(a12 ^ a00, 8); b00 += b04; b12 = Integers.rotateLeft(b12 ^ b00, 8);
+            c00 += c04; c12 = Integers.rotateLeft(c12 ^ c00, 8); d00 += d04; d12 = Integers.rotateLeft(d12 ^ d00, 8);
+            a08 += a12; a04 = Integers.rotateLeft(a04 ^ a08, 7); b08 += b12; b04 = Integers.rotateLeft(b04 ^ b08, 7);
+            c08 += c12; c04 = Integers.rotateLeft(c04 ^ c08, 7); d08 += d12; d04 = Integers.rotateLeft(d04 ^ d08, 7);
+
+            a01 += a05; a13 = Integers.rotateLeft(a13 ^ a01, 16); b01 += b05; b13 = Integers.rotateLeft(b13 ^ b01, 16);
+            c01 += c05; c13 = Integers.rotateLeft(c13 ^ c01, 16); d01 += d05; d13 = Integers.rotateLeft(d13 ^ d01, 16);
+            a09 += a13; a05 = Integers.rotateLeft(a05 ^ a09, 12); b09 += b13; b05 = Integers.rotateLeft(b05 ^ b09, 12);
+            c09 += c13; c05 = Integers.rotateLeft(c05 ^ c09, 12); d09 += d13; d05 = Integers.rotateLeft(d05 ^ d09, 12);
+            a01 += a05; a13 = Integers.rotateLeft(a13 ^ a01, 8); b01 += b05; b13 = Integers.rotateLeft(b13 ^ b01, 8);
+            c01 += c05; c13 = Integers.rotateLeft(c13 ^ c01, 8); d01 += d05; d13 = Integers.rotateLeft(d13 ^ d01, 8);
+            a09 += a13; a05 = Integers.rotateLeft(a05 ^ a09, 7); b09 += b13; b05 = Integers.rotateLeft(b05 ^ b09, 7);
+            c09 += c13; c05 = Integers.rotateLeft(c05 ^ c09, 7); d09 += d13; d05 = Integers.rotateLeft(d05 ^ d09, 7);
+
+            a02 += a06; a14 = Integers.rotateLeft(a14 ^ a02, 16); b02 += b06; b14 = Integers.rotateLeft(b14 ^ b02, 16);
+            c02 += c06; c14 = Integers.rotateLeft(c14 ^ c02, 16); d02 += d06; d14 = Integers.rotateLeft(d14 ^ d02, 16);
+            a10 += a14; a06 = Integers.rotateLeft(a06 ^ a10, 12); b10 += b14; b06 = Integers.rotateLeft(b06 ^ b10, 12);
+            c10 += c14; c06 = Integers.rotateLeft(c06 ^ c10, 12); d10 += d14; d06 = Integers.rotateLeft(d06 ^ d10, 12);
+            a02 += a06; a14 = Integers.rotateLeft(a14 ^ a02, 8); b02 += b06; b14 = Integers.rotateLeft(b14 ^ b02, 8);
+            c02 += c06; c14 = Integers.rotateLeft(c14 ^ c02, 8); d02 += d06; d14 = Integers.rotateLeft(d14 ^ d02, 8);
+            a10 += a14; a06 = Integers.rotateLeft(a06 ^ a10, 7); b10 += b14; b06 = Integers.rotateLeft(b06 ^ b10, 7);
+            c10 += c14; c06 = Integers.rotateLeft(c06 ^ c10, 7); d10 += d14; d06 = Integers.rotateLeft(d06 ^ d10, 7);
+
+            a03 += a07; a15 = Integers.rotateLeft(a15 ^ a03, 16); b03 += b07; b15 = Integers.rotateLeft(b15 ^ b03, 16);
+            c03 += c07; c15 = Integers.rotateLeft(c15 ^ c03, 16); d03 += d07; d15 = Integers.rotateLeft(d15 ^ d03, 16);
+            a11 += a15; a07 = Integers.rotateLeft(a07 ^ a11, 12); b11 += b15; b07 = Integers.rotateLeft(b07 ^ b11, 12);
+            c11 += c15; c07 = Integers.rotateLeft(c07 ^ c11, 12); d11 += d15; d07 = Integers.rotateLeft(d07 ^ d11, 12);
+            a03 += a07; a15 = Integers.rotateLeft(a15 ^ a03, 8); b03 += b07; b15 = Integers.rotateLeft(b15 ^ b03, 8);
+            c03 += c07; c15 = Integers.rotateLeft(c15 ^ c03, 8); d03 += d07; d15 = Integers.rotateLeft(d15 ^ d03, 8);
+            a11 += a15; a07 = Integers.rotateLeft(a07 ^ a11, 7); b11 += b15; b07 = Integers.rotateLeft(b07 ^ b11, 7);
+            c11 += c15; c07 = Integers.rotateLeft(c07 ^ c11, 7); d11 += d15; d07 = Integers.rotateLeft(d07 ^ d11, 7);
+
+            a00 += a05; a15 = Integers.rotateLeft(a15 ^ a00, 16); b00 += b05; b15 = Integers.rotateLeft(b15 ^ b00, 16);
+            c00 += c05; c15 = Integers.rotateLeft(c15 ^ c00, 16); d00 += d05; d15 = Integers.rotateLeft(d15 ^ d00, 16);
+            a10 += a15; a05 = Integers.rotateLeft(a05 ^ a10, 12); b10 += b15; b05 = Integers.rotateLeft(b05 ^ b10, 12);
+            c10 += c15; c05 = Integers.rotateLeft(c05 ^ c10, 12); d10 += d15; d05 = Integers.rotateLeft(d05 ^ d10, 12);
+            a00 += a05; a15 = Integers.rotateLeft(a15 ^ a00, 8); b00 += b05; b15 = Integers.rotateLeft(b15 ^ b00, 8);
+            c00 += c05; c15 = Integers.rotateLeft(c15 ^ c00, 8); d00 += d05; d15 = Integers.rotateLeft(d15 ^ d00, 8);
+            a10 += a15; a05 = Integers.rotateLeft(a05 ^ a10, 7); b10 += b15; b05 = Integers.rotateLeft(b05 ^ b10, 7);
+            c10 += c15; c05 = Integers.rotateLeft(c05 ^ c10, 7); d10 += d15; d05 = Integers.rotateLeft(d05 ^ d10, 7);
+
+            a01 += a06; a12 = Integers.rotateLeft(a12 ^ a01, 16); b01 += b06; b12 = Integers.rotateLeft(b12 ^ b01, 16);
+            c01 += c06; c12 = Integers.rotateLeft(c12 ^ c01, 16); d01 += d06; d12 = Integers.rotateLeft(d12 ^ d01, 16);
+            a11 += a12; a06 = Integers.rotateLeft(a06 ^ a11, 12); b11 += b12; b06 = Integers.rotateLeft(b06 ^ b11, 12);
+            c11 += c12; c06 = Integers.rotateLeft(c06 ^ c11, 12); d11 += d12; d06 = Integers.rotateLeft(d06 ^ d11, 12);
+            a01 += a06; a12 = Integers.rotateLeft(a12 ^ a01, 8); b01 += b06; b12 = Integers.rotateLeft(b12 ^ b01, 8);
+            c01 += c06; c12 = Integers.rotateLeft(c12 ^ c01, 8); d01 += d06; d12 = Integers.rotateLeft(d12 ^ d01, 8);
+            a11 += a12; a06 = Integers.rotateLeft(a06 ^ a11, 7); b11 += b12; b06 = Integers.rotateLeft(b06 ^ b11, 7);
+            c11 += c12; c06 = Integers.rotateLeft(c06 ^ c11, 7); d11 += d12; d06 = Integers.rotateLeft(d06 ^ d11, 7);
+
+            a02 += a07; a13 = Integers.rotateLeft(a13 ^ a02, 16); b02 += b07; b13 = Integers.rotateLeft(b13 ^ b02, 16);
+            c02 += c07; c13 = Integers.rotateLeft(c13 ^ c02, 16); d02 += d07; d13 = Integers.rotateLeft(d13 ^ d02, 16);
+            a08 += a13; a07 = Integers.rotateLeft(a07 ^ a08, 12); b08 += b13; b07 = Integers.rotateLeft(b07 ^ b08, 12);
+            c08 += c13; c07 = Integers.rotateLeft(c07 ^ c08, 12); d08 += d13; d07 = Integers.rotateLeft(d07 ^ d08, 12);
+            a02 += a07; a13 = Integers.rotateLeft(a13 ^ a02, 8); b02 += b07; b13 = Integers.rotateLeft(b13 ^ b02, 8);
+            c02 += c07; c13 = Integers.rotateLeft(c13 ^ c02, 8); d02 += d07; d13 = Integers.rotateLeft(d13 ^ d02, 8);
+            a08 += a13; a07 = Integers.rotateLeft(a07 ^ a08, 7); b08 += b13; b07 = Integers.rotateLeft(b07 ^ b08, 7);
+            c08 += c13; c07 = Integers.rotateLeft(c07 ^ c08, 7); d08 += d13; d07 = Integers.rotateLeft(d07 ^ d08, 7);
+
+            a03 += a04; a14 = Integers.rotateLeft(a14 ^ a03, 16); b03 += b04; b14 = Integers.rotateLeft(b14 ^ b03, 16);
+            c03 += c04; c14 = Integers.rotateLeft(c14 ^ c03, 16); d03 += d04; d14 = Integers.rotateLeft(d14 ^ d03, 16);
+            a09 += a14; a04 = Integers.rotateLeft(a04 ^ a09, 12); b09 += b14; b04 = Integers.rotateLeft(b04 ^ b09, 12);
+            c09 += c14; c04 = Integers.rotateLeft(c04 ^ c09, 12); d09 += d14; d04 = Integers.rotateLeft(d04 ^ d09, 12);
+            a03 += a04; a14 = Integers.rotateLeft(a14 ^ a03, 8); b03 += b04; b14 = Integers.rotateLeft(b14 ^ b03, 8);
+            c03 += c04; c14 = Integers.rotateLeft(c14 ^ c03, 8); d03 += d04; d14 = Integers.rotateLeft(d14 ^ d03, 8);
+            a09 += a14; a04 = Integers.rotateLeft(a04 ^ a09, 7); b09 += b14; b04 = Integers.rotateLeft(b04 ^ b09, 7);
+            c09 += c14; c04 = Integers.rotateLeft(c04 ^ c09, 7); d09 += d14; d04 = Integers.rotateLeft(d04 ^ d09, 7);
+        }
+
+        x[ 0] = a00 + input[ 0];
+        x[ 1] = a01 + input[ 1];
+        x[ 2] = a02 + input[ 2];
+        x[ 3] = a03 + input[ 3];
+        x[ 4] = a04 + input[ 4];
+        x[ 5] = a05 + input[ 5];
+        x[ 6] = a06 + input[ 6];
+        x[ 7] = a07 + input[ 7];
+        x[ 8] = a08 + input[ 8];
+        x[ 9] = a09 + input[ 9];
+        x[10] = a10 + input[10];
+        x[11] = a11 + input[11];
+        x[12] = a12 + input[12];
+        x[13] = a13 + input[13];
+        x[14] = a14 + input[14];
+        x[15] = a15 + input[15];
+
+        int c1 = input[12] + 1, c2 = input[12] + 2, c3 = input[12] + 3;
+
+        x[16] = b00 + input[ 0];
+        x[17] = b01 + input[ 1];
+        x[18] = b02 + input[ 2];
+        x[19] = b03 + input[ 3];
+        x[20] = b04 + input[ 4];
+        x[21] = b05 + input[ 5];
+        x[22] = b06 + input[ 6];
+        x[23] = b07 + input[ 7];
+        x[24] = b08 + input[ 8];
+        x[25] = b09 + input[ 9];
+        x[26] = b10 + input[10];
+        x[27] = b11 + input[11];
+        x[28] = b12 + c1;
+        x[29] = b13 + input[13];
+        x[30] = b14 + input[14];
+        x[31] = b15 + input[15];
+
+        x[32] = c00 + input[ 0];
+        x[33] = c01 + input[ 1];
+        x[34] = c02 + input[ 2];
+        x[35] = c03 + input[ 3];
+        x[36] = c04 + input[ 4];
+        x[37] = c05 + input[ 5];
+        x[38] = c06 + input[ 6];
+        x[39] = c07 + input[ 7];
+        x[40] = c08 + input[ 8];
+        x[41] = c09 + input[ 9];
+        x[42] = c10 + input[10];
+        x[43] = c11 + input[11];
+        x[44] = c12 + c2;
+        x[45] = c13 + input[13];
+        x[46] = c14 + input[14];
+        x[47] = c15 + input[15];
+
+        x[48] = d00 + input[ 0];
+        x[49] = d01 + input[ 1];
+        x[50] = d02 + input[ 2];
+        x[51] = d03 + input[ 3];
+        x[52] = d04 + input[ 4];
+        x[53] = d05 + input[ 5];
+        x[54] = d06 + input[ 6];
+        x[55] = d07 + input[ 7];
+        x[56] = d08 + input[ 8];
+        x[57] = d09 + input[ 9];
+        x[58] = d10 + input[10];
+        x[59] = d11 + input[11];
+        x[60] = d12 + c3;
+        x[61] = d13 + input[13];
+        x[62] = d14 + input[14];
+        x[63] = d15 + input[15];
+    }
 }
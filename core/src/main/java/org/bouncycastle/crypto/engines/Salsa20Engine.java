@@ -9,6 +9,7 @@
 import org.bouncycastle.crypto.constraints.DefaultServiceProperties;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.util.Bytes;
 import org.bouncycastle.util.Integers;
 import org.bouncycastle.util.Pack;
 import org.bouncycastle.util.Strings;
@@ -23,6 +24,7 @@
 
     /** Constants */
     private final static int STATE_SIZE = 16; // 16, 32 bit ints = 64 bytes
+    private final static int WIDE_SIZE = STATE_SIZE * 4 * 4; // 4 blocks, 256 bytes
 
     private final static int[] TAU_SIGMA = Pack.littleEndianToInt(Strings.toByteArray("expand 16-byte k" + "expand 32-byte k"), 0, 8);
 
@@ -50,6 +52,7 @@ protected void packTauOrSigma(int keyLength, int[] state, int stateOffset)
     protected int[]     engineState = new int[STATE_SIZE]; // state
     protected int[]     x = new int[STATE_SIZE] ; // internal buffer
     private byte[]      keyStream   = new byte[STATE_SIZE * 4]; // expanded state, 64 bytes
+    private byte[]      wideKeyStream = null; // the 4 blocks following keyStream, 256 bytes, if supported
     private boolean     initialised = false;
 
     /*
@@ -276,6 +279,27 @@ public int processBytes(
             throw new MaxBytesExceededException("2^70 byte limit per IV would be exceeded; Change IV");
         }
 
+        int partial = (64 - index) & 63;
+
+        if (len - partial >= 64)
+        {
+            // finish any partly used block, then take whole blocks at a time
+            processKeyStreamBytes(in, inOff, partial, out, outOff);
+
+            int done = partial + processKeyStreamBlocks(in, inOff + partial, len - partial, out, outOff + partial);
+
+            processKeyStreamBytes(in, inOff + done, len - done, out, outOff + done);
+        }
+        else
+        {
+            processKeyStreamBytes(in, inOff, len, out, outOff);
+        }
+
+        return len;
+    }
+
+    private void processKeyStreamBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
         for (int i = 0; i < len; i++)
         {
             out[i + outOff] = (byte)(keyStream[index] ^ in[i + inOff]);
@@ -287,8 +311,50 @@ public int processBytes(
                 generateKeyStream(keyStream);
             }
         }
+    }
 
-        return len;
+    /*
+     * Called with index at 0, processes as many whole blocks as possible and returns the number of bytes
+     * processed. Where the engine has a 4 block core the current block comes from keyStream and the 3
+     * after it from the core, the 4th block the core produces becoming the new current block.
+     */
+    private int processKeyStreamBlocks(byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
+        int i = 0;
+
+        if (len >= WIDE_SIZE)
+        {
+            if (wideKeyStream == null)
+            {
+                wideKeyStream = new byte[WIDE_SIZE];
+            }
+
+            while (len - i >= WIDE_SIZE && generateNextKeyStreams(wideKeyStream))
+            {
+                Bytes.xor(64, keyStream, 0, in, inOff + i, out, outOff + i);
+                Bytes.xor(WIDE_SIZE - 64, wideKeyStream, 0, in, inOff + i + 64, out, outOff + i + 64);
+                System.arraycopy(wideKeyStream, WIDE_SIZE - 64, keyStream, 0, 64);
+
+                advanceCounter();
+                advanceCounter();
+                advanceCounter();
+                advanceCounter();
+
+                i += WIDE_SIZE;
+            }
+        }
+
+        while (len - i >= 64)
+        {
+            Bytes.xor(64, keyStream, 0, in, inOff + i, out, outOff + i);
+
+            advanceCounter();
+            generateKeyStream(keyStream);
+
+            i += 64;
+        }
+
+        return i;
     }
 
     public long skip(long numberOfBytes)
@@ -399,6 +465,19 @@ protected void setKey(byte[] keyBytes, byte[] ivBytes)
         Pack.littleEndianToInt(ivBytes, 0, engineState, 6, 2);
     }
 
+    /**
+     * Generate the keystream for the 4 blocks following the current one, without moving the counter.
+     * Engines with a 4 block core override this, the default is to return false.
+     *
+     * @param output the 256 byte array to write the keystream to.
+     * @return true if output was filled, false if there is no 4 block core, or if the counter cannot
+     * advance 4 blocks without a carry into its high word.
+     */
+    protected boolean generateNextKeyStreams(byte[] output)
+    {
+        return false;
+    }
+
     protected void generateKeyStream(byte[] output)
     {
         salsaCore(rounds, engineState, x);
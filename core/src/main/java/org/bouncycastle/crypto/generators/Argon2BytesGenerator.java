@@ -1,5 +1,8 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
 import org.bouncycastle.crypto.params.Argon2Parameters;
@@ -9,6 +12,11 @@
 
 /**
  * Argon2 PBKDF - Based on the results of https://password-hashing.net/ and https://www.ietf.org/archive/id/draft-irtf-cfrg-argon2-03.txt
+ * <p>
+ * If a pool is set with {@link #setParallelPool(ForkJoinPool)} and the parameters have more than one lane, the
+ * segments of each slice are filled concurrently on the pool, one task per lane, as RFC 9106 allows. The
+ * output is the same either way.
+ * </p>
  */
 public class Argon2BytesGenerator
 {
@@ -40,11 +48,27 @@
     private Block[] memory;
     private int segmentLength;
     private int laneLength;
+    private ForkJoinPool pool;
 
     public Argon2BytesGenerator()
     {
     }
 
+    /**
+     * Set a pool to fill the lanes of each slice on concurrently, null to fill them on the calling thread.
+     *
+     * @param pool the pool to use, may be null.
+     */
+    public void setParallelPool(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getParallelPool()
+    {
+        return pool;
+    }
+
     /**
      * Initialise the Argon2BytesGenerator from the parameters.
      *
@@ -149,6 +173,20 @@ private void reset()
 
     private void fillMemoryBlocks()
     {
+        int lanes = parameters.getLanes();
+        if (pool != null && lanes > 1)
+        {
+            for (int pass = 0; pass < parameters.getIterations(); ++pass)
+            {
+                for (int slice = 0; slice < ARGON2_SYNC_POINTS; ++slice)
+                {
+                    // lanes only reference blocks of other lanes outside the current slice.
+                    pool.invoke(new SegmentTask(pass, slice, 0, lanes));
+                }
+            }
+            return;
+        }
+
         FillBlock filler = new FillBlock();
         Position position = new Position();
         for (int pass = 0; pass < parameters.getIterations(); ++pass)
@@ -682,6 +720,43 @@ public Block clear()
         }
     }
 
+    /*
+     * fill the segments of lanes [fromLane, toLane) for a single pass and slice.
+     */
+    private class SegmentTask
+        extends RecursiveAction
+    {
+        private final int pass;
+        private final int slice;
+        private final int fromLane;
+        private final int toLane;
+
+        SegmentTask(int pass, int slice, int fromLane, int toLane)
+        {
+            this.pass = pass;
+            this.slice = slice;
+            this.fromLane = fromLane;
+            this.toLane = toLane;
+        }
+
+        protected void compute()
+        {
+            if (toLane - fromLane > 1)
+            {
+                int mid = (fromLane + toLane) >>> 1;
+                invokeAll(new SegmentTask(pass, slice, fromLane, mid), new SegmentTask(pass, slice, mid, toLane));
+                return;
+            }
+
+            Position position = new Position();
+            position.pass = pass;
+            position.slice = slice;
+            position.lane = fromLane;
+
+            fillSegment(new FillBlock(), position);
+        }
+    }
+
     private static class Position
     {
         int pass;
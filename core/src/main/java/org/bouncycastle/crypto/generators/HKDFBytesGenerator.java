@@ -7,6 +7,8 @@
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.HKDFParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Memoable;
 
 /**
  * HMAC-based Extract-and-Expand Key Derivation Function (HKDF) implemented
@@ -14,6 +16,10 @@
  * Research &amp; P. Eronen, Nokia. It uses a HMac internally to compute de OKM
  * (output keying material) and is likely to have better security properties
  * than KDF's based on just a hash function.
+ * <p>
+ * Where the digest is {@link Memoable} the keyed HMAC state for the last PRK is kept, so re-initialising with the
+ * same PRK, as a key schedule expanding one secret several times does, skips the HMAC key set up.
+ * </p>
  */
 public class HKDFBytesGenerator
     implements DerivationFunction
@@ -27,6 +33,9 @@
 
     private int generatedBytes;
 
+    private byte[] keyedPRK;
+    private Memoable keyedState;
+
     /**
      * Creates a HKDFBytesGenerator based on the given hash function.
      *
@@ -50,11 +59,11 @@ public void init(DerivationParameters param)
         if (params.skipExtract())
         {
             // use IKM directly as PRK
-            hMacHash.init(new KeyParameter(params.getIKM()));
+            initPRK(params.getIKM());
         }
         else
         {
-            hMacHash.init(new KeyParameter(extractPRK(params.getSalt(), params.getIKM())));
+            initPRK(extractPRK(params.getSalt(), params.getIKM()));
         }
 
         info = params.getInfo();
@@ -63,6 +72,24 @@ public void init(DerivationParameters param)
         currentT = new byte[hashLen];
     }
 
+    private void initPRK(byte[] prk)
+    {
+        if (keyedState != null && keyedPRK.length == prk.length && Arrays.constantTimeAreEqual(keyedPRK, prk))
+        {
+            hMacHash.reset(keyedState);
+            return;
+        }
+
+        hMacHash.init(new KeyParameter(prk));
+
+        if (hMacHash.getUnderlyingDigest() instanceof Memoable)
+        {
+            Arrays.clear(keyedPRK);
+            keyedPRK = Arrays.clone(prk);
+            keyedState = hMacHash.copy();
+        }
+    }
+
     /**
      * Performs the extract part of the key derivation function.
      *
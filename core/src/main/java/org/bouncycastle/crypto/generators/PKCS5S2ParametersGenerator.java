@@ -1,13 +1,19 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.Mac;
 import org.bouncycastle.crypto.PBEParametersGenerator;
 import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.macs.IteratedHMac;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.crypto.util.DigestFactory;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Memoable;
 
 /**
  * Generator for PBE derived keys and ivs as defined by PKCS 5 V2.0 Scheme 2.
@@ -16,12 +22,18 @@
  * The document this implementation is based on can be found at
  * <a href=https://www.rsasecurity.com/rsalabs/pkcs/pkcs-5/index.html>
  * RSA's PKCS5 Page</a>
+ * <p>
+ * For SHA-1, SHA-256 and SHA-512 the iterations after the first are done by an {@link IteratedHMac}, working
+ * directly on the compression function states. If a pool is set with {@link #setParallelPool(ForkJoinPool)}
+ * and more than one hash length of output is needed, the output blocks are calculated concurrently.
+ * </p>
  */
 public class PKCS5S2ParametersGenerator
     extends PBEParametersGenerator
 {
     private Mac hMac;
     private byte[] state;
+    private ForkJoinPool pool;
 
     /**
      * construct a PKCS5 Scheme 2 Parameters generator.
@@ -37,12 +49,76 @@ public PKCS5S2ParametersGenerator(Digest digest)
         state = new byte[hMac.getMacSize()];
     }
 
+    /**
+     * Set a pool to calculate the output blocks on concurrently, null to calculate them on the calling thread.
+     *
+     * @param pool the pool to use, may be null.
+     */
+    public void setParallelPool(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    public ForkJoinPool getParallelPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Verify a batch of PBKDF2 derived keys, as for a set of stored password hashes. Each entry is checked by
+     * deriving a key of the same length as the expected one and comparing them in constant time.
+     *
+     * @param digest the digest the HMAC PRF is to be based on, it is copied for each entry.
+     * @param passwords the passwords, as bytes.
+     * @param salts the salts, one per password.
+     * @param iterationCounts the iteration counts, one per password.
+     * @param derivedKeys the expected derived keys, one per password.
+     * @param pool the pool to verify the entries on, null to verify them on the calling thread.
+     * @return an array with true for each entry whose derived key matched.
+     */
+    public static boolean[] verifyAll(Digest digest, byte[][] passwords, byte[][] salts, int[] iterationCounts,
+        byte[][] derivedKeys, ForkJoinPool pool)
+    {
+        int count = passwords.length;
+        if (salts.length != count || iterationCounts.length != count || derivedKeys.length != count)
+        {
+            throw new IllegalArgumentException("batch arrays must all be the same length");
+        }
+
+        boolean[] results = new boolean[count];
+        VerifyTask task = new VerifyTask(digest, passwords, salts, iterationCounts, derivedKeys, results, 0, count);
+
+        if (pool != null && count > 1)
+        {
+            pool.invoke(task);
+        }
+        else
+        {
+            task.verify(0, count);
+        }
+
+        return results;
+    }
+
     private void F(
         byte[]  S,
         int     c,
         byte[]  iBuf,
         byte[]  out,
         int     outOff)
+    {
+        F(hMac, null, state, S, c, iBuf, out, outOff);
+    }
+
+    private static void F(
+        Mac          hMac,
+        IteratedHMac prf,
+        byte[]       state,
+        byte[]       S,
+        int          c,
+        byte[]       iBuf,
+        byte[]       out,
+        int          outOff)
     {
         if (c == 0)
         {
@@ -59,6 +135,12 @@ private void F(
 
         System.arraycopy(state, 0, out, outOff, state.length);
 
+        if (prf != null)
+        {
+            prf.iterate(state, 0, c, out, outOff);
+            return;
+        }
+
         for (int count = 1; count < c; count++)
         {
             hMac.update(state, 0, state.length);
@@ -84,6 +166,24 @@ private byte[] generateDerivedKey(
 
         hMac.init(param);
 
+        Digest digest = ((HMac)hMac).getUnderlyingDigest();
+        IteratedHMac prf = null;
+        if (iterationCount > 1 && IteratedHMac.isSupported(digest))
+        {
+            prf = IteratedHMac.create(copyDigest(digest), password);
+        }
+
+        if (pool != null && l > 1 && digest instanceof Memoable)
+        {
+            if (iterationCount == 0)
+            {
+                throw new IllegalArgumentException("iteration count must be at least 1.");
+            }
+
+            pool.invoke(new BlockTask(digest, prf, password, salt, iterationCount, outBytes, 1, l + 1));
+            return outBytes;
+        }
+
         for (int i = 1; i <= l; i++)
         {
             // Increment the value in 'iBuf'
@@ -93,13 +193,131 @@ private byte[] generateDerivedKey(
                 --pos;
             }
 
-            F(salt, iterationCount, iBuf, outBytes, outPos);
+            F(hMac, prf, state, salt, iterationCount, iBuf, outBytes, outPos);
             outPos += hLen;
         }
 
         return outBytes;
     }
 
+    private static Digest copyDigest(Digest digest)
+    {
+        if (digest instanceof Memoable)
+        {
+            Digest copy = (Digest)((Memoable)digest).copy();
+            copy.reset();
+            return copy;
+        }
+
+        return DigestFactory.cloneDigest(digest);
+    }
+
+    /*
+     * calculate output blocks [from, to), each leaf with its own HMac for the first iteration.
+     */
+    private static class BlockTask
+        extends RecursiveAction
+    {
+        private final Digest digest;
+        private final IteratedHMac prf;
+        private final byte[] password;
+        private final byte[] salt;
+        private final int iterationCount;
+        private final byte[] out;
+        private final int from;
+        private final int to;
+
+        BlockTask(Digest digest, IteratedHMac prf, byte[] password, byte[] salt, int iterationCount, byte[] out,
+            int from, int to)
+        {
+            this.digest = digest;
+            this.prf = prf;
+            this.password = password;
+            this.salt = salt;
+            this.iterationCount = iterationCount;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BlockTask(digest, prf, password, salt, iterationCount, out, from, mid),
+                    new BlockTask(digest, prf, password, salt, iterationCount, out, mid, to));
+                return;
+            }
+
+            Mac mac = new HMac(copyDigest(digest));
+            mac.init(new KeyParameter(password));
+
+            int hLen = mac.getMacSize();
+            byte[] iBuf = new byte[]{ (byte)(from >>> 24), (byte)(from >>> 16), (byte)(from >>> 8), (byte)from };
+
+            F(mac, prf, new byte[hLen], salt, iterationCount, iBuf, out, (from - 1) * hLen);
+        }
+    }
+
+    /*
+     * verify entries [from, to) of a batch.
+     */
+    private static class VerifyTask
+        extends RecursiveAction
+    {
+        private final Digest digest;
+        private final byte[][] passwords;
+        private final byte[][] salts;
+        private final int[] iterationCounts;
+        private final byte[][] derivedKeys;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        VerifyTask(Digest digest, byte[][] passwords, byte[][] salts, int[] iterationCounts, byte[][] derivedKeys,
+            boolean[] results, int from, int to)
+        {
+            this.digest = digest;
+            this.passwords = passwords;
+            this.salts = salts;
+            this.iterationCounts = iterationCounts;
+            this.derivedKeys = derivedKeys;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute()
+        {
+            if (to - from > 1)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new VerifyTask(digest, passwords, salts, iterationCounts, derivedKeys, results, from, mid),
+                    new VerifyTask(digest, passwords, salts, iterationCounts, derivedKeys, results, mid, to));
+                return;
+            }
+
+            verify(from, to);
+        }
+
+        void verify(int from, int to)
+        {
+            for (int i = from; i < to; i++)
+            {
+                PKCS5S2ParametersGenerator gen = new PKCS5S2ParametersGenerator(copyDigest(digest));
+                gen.init(passwords[i], salts[i], iterationCounts[i]);
+
+                byte[] expected = derivedKeys[i];
+                byte[] dk = gen.generateDerivedKey(expected.length);
+
+                results[i] = Arrays.constantTimeAreEqual(expected.length, expected, 0, dk, 0);
+
+                Arrays.fill(dk, (byte)0);
+            }
+        }
+    }
+
     /**
      * Generate a key parameter derived from the password, salt, and iteration
      * count we are currently initialised with.
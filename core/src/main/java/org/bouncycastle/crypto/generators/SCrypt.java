@@ -1,5 +1,9 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.bouncycastle.crypto.PBEParametersGenerator;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.engines.Salsa20Engine;
@@ -13,6 +17,11 @@
  * <p>
  * Scrypt was created by Colin Percival and is specified in <a
  * href="https://tools.ietf.org/html/rfc7914">RFC 7914 - The scrypt Password-Based Key Derivation Function</a>
+ * </p><p>
+ * The p SMix instances are independent, given a {@link ForkJoinPool} they are run concurrently. Note each
+ * running instance holds its own <code>128 * N * r</code> bytes. Given a {@link ChunkPool} the chunks making
+ * up each instance's V array are taken from, and returned to, the pool rather than allocated for every call.
+ * </p>
  */
 public class SCrypt
 {
@@ -35,6 +44,47 @@ private SCrypt()
      * @return the generated key.
      */
     public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    {
+        return generate(P, S, N, r, p, dkLen, null, null);
+    }
+
+    /**
+     * Generate a key using the scrypt key derivation function, running the p SMix instances on a pool.
+     *
+     * @param P     the bytes of the pass phrase.
+     * @param S     the salt to use for this invocation.
+     * @param N     CPU/Memory cost parameter. Must be larger than 1, a power of 2 and less than
+     *              <code>2^(128 * r / 8)</code>.
+     * @param r     the block size, must be &gt;= 1.
+     * @param p     Parallelization parameter. Must be a positive integer less than or equal to
+     *              <code>Integer.MAX_VALUE / (128 * r * 8)</code>.
+     * @param dkLen the length of the key to generate.
+     * @param pool  the pool to run the SMix instances on, null to run them on the calling thread.
+     * @return the generated key.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, ForkJoinPool pool)
+    {
+        return generate(P, S, N, r, p, dkLen, pool, null);
+    }
+
+    /**
+     * Generate a key using the scrypt key derivation function, running the p SMix instances on a pool and
+     * taking the working memory from a chunk pool.
+     *
+     * @param P      the bytes of the pass phrase.
+     * @param S      the salt to use for this invocation.
+     * @param N      CPU/Memory cost parameter. Must be larger than 1, a power of 2 and less than
+     *               <code>2^(128 * r / 8)</code>.
+     * @param r      the block size, must be &gt;= 1.
+     * @param p      Parallelization parameter. Must be a positive integer less than or equal to
+     *               <code>Integer.MAX_VALUE / (128 * r * 8)</code>.
+     * @param dkLen  the length of the key to generate.
+     * @param pool   the pool to run the SMix instances on, null to run them on the calling thread.
+     * @param chunks the pool to take V array chunks from, null to allocate them for this call only.
+     * @return the generated key.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, ForkJoinPool pool,
+        ChunkPool chunks)
     {
         if (P == null)
         {
@@ -67,10 +117,11 @@ public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen
         {
             throw new IllegalArgumentException("Generated key length dkLen must be >= 1.");
         }
-        return MFcrypt(P, S, N, r, p, dkLen);
+        return MFcrypt(P, S, N, r, p, dkLen, pool, chunks);
     }
 
-    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen, ForkJoinPool pool,
+        ChunkPool chunks)
     {
         int MFLenBytes = r * 128;
         byte[] bytes = SingleIterationPBKDF2(P, S, p * MFLenBytes);
@@ -96,10 +147,16 @@ private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen
             }
 
             int MFLenWords = MFLenBytes >>> 2;
-            for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+            if (pool != null && p > 1)
+            {
+                pool.invoke(new SMixTask(B, 0, p, N, d, r, chunks));
+            }
+            else
             {
-                // TODO These can be done in parallel threads
-                SMix(B, BOff, N, d, r);
+                for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+                {
+                    SMix(B, BOff, N, d, r, chunks);
+                }
             }
 
             Pack.intToLittleEndian(B, bytes, 0);
@@ -121,7 +178,7 @@ private static byte[] SingleIterationPBKDF2(byte[] P, byte[] S, int dkLen)
         return key.getKey();
     }
 
-    private static void SMix(int[] B, int BOff, int N, int d, int r)
+    private static void SMix(int[] B, int BOff, int N, int d, int r, ChunkPool chunks)
     {
         int powN = Integers.numberOfTrailingZeros(N);
         int blocksPerChunk = N >>> d;
@@ -142,7 +199,7 @@ private static void SMix(int[] B, int BOff, int N, int d, int r)
 
             for (int c = 0; c < chunkCount; ++c)
             {
-                int[] V = new int[blocksPerChunk * BCount];
+                int[] V = (chunks == null) ? new int[blocksPerChunk * BCount] : chunks.acquire(blocksPerChunk * BCount);
                 VV[c] = V;
 
                 int off = 0;
@@ -174,6 +231,11 @@ private static void SMix(int[] B, int BOff, int N, int d, int r)
         {
             ClearAll(VV);
             ClearAll(new int[][]{X, blockX1, blockX2, blockY});
+
+            if (chunks != null)
+            {
+                chunks.release(VV);
+            }
         }
     }
 
@@ -227,6 +289,135 @@ private static void ClearAll(int[][] arrays)
         }
     }
 
+    /*
+     * run SMix on lanes [fromLane, toLane) of B.
+     */
+    private static class SMixTask
+        extends RecursiveAction
+    {
+        private final int[] B;
+        private final int fromLane;
+        private final int toLane;
+        private final int N;
+        private final int d;
+        private final int r;
+        private final ChunkPool chunks;
+
+        SMixTask(int[] B, int fromLane, int toLane, int N, int d, int r, ChunkPool chunks)
+        {
+            this.B = B;
+            this.fromLane = fromLane;
+            this.toLane = toLane;
+            this.N = N;
+            this.d = d;
+            this.r = r;
+            this.chunks = chunks;
+        }
+
+        protected void compute()
+        {
+            if (toLane - fromLane > 1)
+            {
+                int mid = (fromLane + toLane) >>> 1;
+                invokeAll(new SMixTask(B, fromLane, mid, N, d, r, chunks),
+                    new SMixTask(B, mid, toLane, N, d, r, chunks));
+                return;
+            }
+
+            SMix(B, fromLane * r * 32, N, d, r, chunks);
+        }
+    }
+
+    /**
+     * A pool of the int[] chunks SMix builds its V array from, so that repeated derivations with the same N and
+     * r reuse memory instead of allocating it every time. Chunks are cleared before they are returned to the
+     * pool, and the pool retains at most a fixed number of bytes. A pool may be shared between threads.
+     */
+    public static final class ChunkPool
+    {
+        private final long maxRetained;
+        private final ArrayList<int[]> free = new ArrayList<int[]>();
+
+        private long retained;
+
+        /**
+         * Base constructor.
+         *
+         * @param maxRetained the maximum number of bytes of chunks the pool will hold on to.
+         */
+        public ChunkPool(long maxRetained)
+        {
+            if (maxRetained < 0)
+            {
+                throw new IllegalArgumentException("maxRetained cannot be negative");
+            }
+
+            this.maxRetained = maxRetained;
+        }
+
+        /**
+         * Return the number of bytes of chunks currently held by the pool.
+         *
+         * @return the bytes retained.
+         */
+        public synchronized long getRetained()
+        {
+            return retained;
+        }
+
+        /**
+         * Release all the chunks held by the pool.
+         */
+        public synchronized void clear()
+        {
+            free.clear();
+            retained = 0;
+        }
+
+        synchronized int[] acquire(int len)
+        {
+            for (int i = free.size() - 1; i >= 0; --i)
+            {
+                int[] chunk = free.get(i);
+                if (chunk.length == len)
+                {
+                    free.remove(i);
+                    retained -= 4L * len;
+                    return chunk;
+                }
+            }
+
+            return new int[len];
+        }
+
+        synchronized void release(int[][] chunks)
+        {
+            for (int c = 0; c < chunks.length; ++c)
+            {
+                int[] chunk = chunks[c];
+                if (chunk == null)
+                {
+                    continue;
+                }
+
+                long size = 4L * chunk.length;
+                if (size > maxRetained)
+                {
+                    continue;
+                }
+
+                // make room by dropping the oldest chunks, which are the least likely to be of a size still in use.
+                while (retained + size > maxRetained)
+                {
+                    retained -= 4L * free.remove(0).length;
+                }
+
+                free.add(chunk);
+                retained += size;
+            }
+        }
+    }
+
     // note: we know X is non-zero
     private static boolean isPowerOf2(int x)
     {
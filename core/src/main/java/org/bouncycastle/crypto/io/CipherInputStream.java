@@ -9,6 +9,8 @@
 import org.bouncycastle.crypto.SkippingCipher;
 import org.bouncycastle.crypto.StreamCipher;
 import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.ParallelBlockCipherProcessor;
+import org.bouncycastle.crypto.modes.ParallelModeCipher;
 import org.bouncycastle.util.Arrays;
 
 /**
@@ -19,6 +21,11 @@
  * For example, if the Cipher is initialized for decryption, the
  * CipherInputStream will attempt to read in data and decrypt them,
  * before returning the decrypted data.
+ * <p>
+ * If the cipher's mode has a {@link ParallelBlockCipherProcessor} the default buffer size is raised to suit it,
+ * and the stream will keep reading until it has the processor's threshold worth of data, so that large inputs can be
+ * processed in parallel. It stops early if the underlying stream ends, or if some data has been read and
+ * {@link InputStream#available()} is 0, so an interactive stream is not held up waiting for more.
  */
 public class CipherInputStream
     extends FilterInputStream
@@ -27,6 +34,7 @@
 
     private SkippingCipher skippingCipher;
     private byte[] inBuf;
+    private int fillInBuf;
 
     private BufferedBlockCipher bufferedBlockCipher;
     private StreamCipher streamCipher;
@@ -50,7 +58,7 @@ public CipherInputStream(
         InputStream is,
         BufferedBlockCipher cipher)
     {
-        this(is, cipher, INPUT_BUF_SIZE);
+        this(is, cipher, getBufSize(cipher.getUnderlyingCipher()));
     }
 
     /**
@@ -60,7 +68,7 @@ public CipherInputStream(
         InputStream is,
         StreamCipher cipher)
     {
-        this(is, cipher, INPUT_BUF_SIZE);
+        this(is, cipher, getBufSize(cipher));
     }
 
     /**
@@ -76,6 +84,11 @@ public CipherInputStream(
     /**
      * Constructs a CipherInputStream from an InputStream, a
      * BufferedBlockCipher, and a specified internal buffer size.
+     * <p>
+     * If the cipher's mode has a {@link ParallelBlockCipherProcessor}, reads from the underlying stream are gathered
+     * until there is enough data to reach the processor's threshold, stopping early on end of stream, or when
+     * {@link InputStream#available()} is 0 after some data has been read.
+     * </p>
      */
     public CipherInputStream(
         InputStream is,
@@ -86,11 +99,17 @@ public CipherInputStream(
 
         this.bufferedBlockCipher = cipher;
         this.inBuf = new byte[bufSize];
+        this.fillInBuf = getFillSize(cipher.getUnderlyingCipher(), bufSize);
         this.skippingCipher = (cipher instanceof SkippingCipher) ? (SkippingCipher)cipher : null;
     }
 
     /**
      * Constructs a CipherInputStream from an InputStream, a StreamCipher, and a specified internal buffer size.
+     * <p>
+     * If the cipher's mode has a {@link ParallelBlockCipherProcessor}, reads from the underlying stream are gathered
+     * until there is enough data to reach the processor's threshold, stopping early on end of stream, or when
+     * {@link InputStream#available()} is 0 after some data has been read.
+     * </p>
      */
     public CipherInputStream(
         InputStream is,
@@ -101,6 +120,7 @@ public CipherInputStream(
 
         this.streamCipher = cipher;
         this.inBuf = new byte[bufSize];
+        this.fillInBuf = getFillSize(cipher, bufSize);
         this.skippingCipher = (cipher instanceof SkippingCipher) ? (SkippingCipher)cipher : null;
     }
 
@@ -139,7 +159,7 @@ private int nextChunk()
         // Keep reading until EOF or cipher processing produces data
         while (maxBuf == 0)
         {
-            int read = in.read(inBuf);
+            int read = readInBuf();
             if (read == -1)
             {
                 finaliseCipher();
@@ -175,6 +195,62 @@ else if (aeadBlockCipher != null)
         return maxBuf;
     }
 
+    private int readInBuf()
+        throws IOException
+    {
+        if (fillInBuf == 0)
+        {
+            return in.read(inBuf);
+        }
+
+        // a parallel mode only splits runs reaching its threshold, so try to give it that much, but
+        // don't block waiting for more once we have something to pass on.
+        int total = 0;
+        while (total < fillInBuf)
+        {
+            int read = in.read(inBuf, total, fillInBuf - total);
+            if (read == -1)
+            {
+                return (total == 0) ? -1 : total;
+            }
+            total += read;
+            if (in.available() <= 0)
+            {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static ParallelBlockCipherProcessor getParallelProcessor(Object cipher)
+    {
+        if (cipher instanceof ParallelModeCipher)
+        {
+            return ((ParallelModeCipher)cipher).getParallelProcessor();
+        }
+        return null;
+    }
+
+    private static int getFillSize(Object cipher, int bufSize)
+    {
+        ParallelBlockCipherProcessor processor = getParallelProcessor(cipher);
+        if (processor != null)
+        {
+            return Math.min(bufSize, processor.getThreshold());
+        }
+        return 0;
+    }
+
+    private static int getBufSize(Object cipher)
+    {
+        ParallelBlockCipherProcessor processor = getParallelProcessor(cipher);
+        if (processor != null)
+        {
+            return Math.max(INPUT_BUF_SIZE, processor.getStreamBufferSize());
+        }
+        return INPUT_BUF_SIZE;
+    }
+
     private void finaliseCipher()
         throws IOException
     {
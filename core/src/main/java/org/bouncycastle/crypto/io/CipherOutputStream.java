@@ -8,6 +8,8 @@
 import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.crypto.StreamCipher;
 import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.ParallelBlockCipherProcessor;
+import org.bouncycastle.crypto.modes.ParallelModeCipher;
 
 /**
  * A CipherOutputStream is composed of an OutputStream and a cipher so that write() methods process
@@ -17,6 +19,10 @@
  * <p>
  * For example, if the cipher is initialized for encryption, the CipherOutputStream will encrypt the
  * data before writing the encrypted data to the underlying stream.
+ * <p>
+ * If the cipher's mode has a {@link ParallelBlockCipherProcessor}, small writes are collected until there is
+ * enough data for the processor to split before being passed to the cipher. Collected data is processed on
+ * flush() and close().
  */
 public class CipherOutputStream
     extends FilterOutputStream
@@ -28,6 +34,9 @@
     private final byte[] oneByte = new byte[1];
     private byte[] buf;
 
+    private byte[] pending;
+    private int pendingOff;
+
     /**
      * Constructs a CipherOutputStream from an OutputStream and a
      * BufferedBlockCipher.
@@ -38,6 +47,7 @@ public CipherOutputStream(
     {
         super(os);
         this.bufferedBlockCipher = cipher;
+        this.pending = createPending(cipher.getUnderlyingCipher());
     }
 
     /**
@@ -50,6 +60,7 @@ public CipherOutputStream(
     {
         super(os);
         this.streamCipher = cipher;
+        this.pending = createPending(cipher);
     }
 
     /**
@@ -73,7 +84,7 @@ public void write(
     {
         oneByte[0] = (byte)b;
 
-        if (streamCipher != null)
+        if (streamCipher != null && pending == null)
         {
             out.write(streamCipher.returnByte((byte)b));
         }
@@ -117,6 +128,42 @@ public void write(
         int off,
         int len)
         throws IOException
+    {
+        if (pending != null)
+        {
+            if (pendingOff != 0 || len < pending.length)
+            {
+                int copyLen = Math.min(len, pending.length - pendingOff);
+
+                System.arraycopy(b, off, pending, pendingOff, copyLen);
+                pendingOff += copyLen;
+                off += copyLen;
+                len -= copyLen;
+
+                if (pendingOff < pending.length)
+                {
+                    return;
+                }
+
+                processPending();
+            }
+
+            if (len < pending.length)
+            {
+                System.arraycopy(b, off, pending, 0, len);
+                pendingOff = len;
+                return;
+            }
+        }
+
+        processInput(b, off, len);
+    }
+
+    private void processInput(
+        byte[] b,
+        int off,
+        int len)
+        throws IOException
     {
         ensureCapacity(len, false);
 
@@ -146,6 +193,31 @@ else if (aeadBlockCipher != null)
         }
     }
 
+    private void processPending()
+        throws IOException
+    {
+        if (pendingOff != 0)
+        {
+            int len = pendingOff;
+
+            pendingOff = 0;
+            processInput(pending, 0, len);
+        }
+    }
+
+    private static byte[] createPending(Object cipher)
+    {
+        if (cipher instanceof ParallelModeCipher)
+        {
+            ParallelBlockCipherProcessor processor = ((ParallelModeCipher)cipher).getParallelProcessor();
+            if (processor != null)
+            {
+                return new byte[processor.getStreamBufferSize()];
+            }
+        }
+        return null;
+    }
+
     /**
      * Ensure the ciphertext buffer has space sufficient to accept an upcoming output.
      *
@@ -200,6 +272,7 @@ else if (aeadBlockCipher != null)
     public void flush()
         throws IOException
     {
+        processPending();
         out.flush();
     }
 
@@ -223,10 +296,12 @@ public void flush()
     public void close()
         throws IOException
     {
-        ensureCapacity(0, true);
         IOException error = null;
         try
         {
+            processPending();
+            ensureCapacity(0, true);
+
             if (bufferedBlockCipher != null)
             {
                 int outLen = bufferedBlockCipher.doFinal(buf, 0);
@@ -9,14 +9,19 @@
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.util.Integers;
 import org.bouncycastle.util.Memoable;
+import org.bouncycastle.util.MemoableResetException;
 
 /**
  * HMAC implementation based on RFC2104
  *
  * H(K XOR opad, H(K XOR ipad, text))
+ * <p>
+ * If the underlying digest is {@link Memoable} so is the HMac. A copy taken straight after init() is a snapshot
+ * of the keyed state, restoring it with reset(Memoable) re-keys the HMac without repeating the key set up.
+ * </p>
  */
 public class HMac
-    implements Mac
+    implements Mac, Memoable
 {
     private final static byte IPAD = (byte)0x36;
     private final static byte OPAD = (byte)0x5C;
@@ -96,6 +101,24 @@ private HMac(
         this.outputBuf = new byte[blockLength + digestSize];
     }
 
+    private HMac(
+        HMac other)
+    {
+        if (!(other.digest instanceof Memoable))
+        {
+            throw new IllegalStateException(
+                "underlying digest " + other.digest.getAlgorithmName() + " is not Memoable");
+        }
+
+        this.digest = (Digest)((Memoable)other.digest).copy();
+        this.digestSize = other.digestSize;
+        this.blockLength = other.blockLength;
+        this.inputPad = new byte[blockLength];
+        this.outputBuf = new byte[blockLength + digestSize];
+
+        copyIn(other);
+    }
+
     public String getAlgorithmName()
     {
         return digest.getAlgorithmName() + "/HMAC";
@@ -221,6 +244,38 @@ public void reset()
         }
     }
 
+    public Memoable copy()
+    {
+        return new HMac(this);
+    }
+
+    public void reset(Memoable other)
+    {
+        HMac h = (HMac)other;
+
+        if (!(digest instanceof Memoable) || !digest.getAlgorithmName().equals(h.digest.getAlgorithmName())
+            || blockLength != h.blockLength)
+        {
+            throw new MemoableResetException("HMac state cannot be restored from " + h.getAlgorithmName());
+        }
+
+        ((Memoable)digest).reset((Memoable)h.digest);
+
+        copyIn(h);
+    }
+
+    /*
+     * the pad states are never updated once set, so they can be shared.
+     */
+    private void copyIn(HMac other)
+    {
+        System.arraycopy(other.inputPad, 0, inputPad, 0, blockLength);
+        System.arraycopy(other.outputBuf, 0, outputBuf, 0, blockLength);
+
+        this.ipadState = other.ipadState;
+        this.opadState = other.opadState;
+    }
+
     private static void xorPad(byte[] pad, int len, byte n)
     {
         for (int i = 0; i < len; ++i)
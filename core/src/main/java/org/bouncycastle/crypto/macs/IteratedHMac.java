@@ -0,0 +1,298 @@
+package org.bouncycastle.crypto.macs;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+
+/**
+ * HMAC applied repeatedly to its own output, U_(i+1) = HMAC(K, U_i), as in the inner loop of PBKDF2.
+ * <p>
+ * The inner and outer padded key states are computed once, and every iteration after that is exactly two calls
+ * of the digest's compression function on words, with the padding of the fixed length messages built in. There is
+ * no byte buffering, no finalisation and no state copying per iteration. Supported for SHA-1, SHA-256 and SHA-512.
+ * </p><p>
+ * Instances are immutable once created, so one may be used from several threads at once.
+ * </p>
+ */
+public abstract class IteratedHMac
+{
+    private static final byte IPAD = (byte)0x36;
+    private static final byte OPAD = (byte)0x5C;
+
+    /**
+     * Return true if an IteratedHMac can be created for the passed in digest.
+     *
+     * @param digest the digest the HMAC is to be based on.
+     * @return true if the digest is supported, false otherwise.
+     */
+    public static boolean isSupported(Digest digest)
+    {
+        return digest instanceof SHA1Digest || digest instanceof SHA256Digest || digest instanceof SHA512Digest;
+    }
+
+    /**
+     * Create an IteratedHMac for the passed in digest and key.
+     *
+     * @param digest the digest the HMAC is based on, used to hash the key if it is longer than a block.
+     * @param key the HMAC key.
+     * @return an IteratedHMac.
+     * @throws IllegalArgumentException if the digest is not supported.
+     */
+    public static IteratedHMac create(Digest digest, byte[] key)
+    {
+        if (digest instanceof SHA1Digest)
+        {
+            return new IntHMac(new SHA1Compressor(), padKey(digest, key, 64), 5);
+        }
+        if (digest instanceof SHA256Digest)
+        {
+            return new IntHMac(new SHA256Compressor(), padKey(digest, key, 64), 8);
+        }
+        if (digest instanceof SHA512Digest)
+        {
+            return new SHA512HMac(padKey(digest, key, 128));
+        }
+
+        throw new IllegalArgumentException("digest " + digest.getAlgorithmName() + " not supported");
+    }
+
+    /**
+     * Return the size of the HMAC output in bytes.
+     *
+     * @return the MAC size.
+     */
+    public abstract int getMacSize();
+
+    /**
+     * Starting from U_1 = u, calculate U_2 to U_count and XOR each of them into out.
+     *
+     * @param u the first MAC value in the sequence.
+     * @param uOff the offset into u the MAC value starts at.
+     * @param count the number of MAC values in the sequence, including u.
+     * @param out the array the MAC values are XORed into.
+     * @param outOff the offset into out to start at.
+     */
+    public abstract void iterate(byte[] u, int uOff, int count, byte[] out, int outOff);
+
+    private static byte[] padKey(Digest digest, byte[] key, int blockSize)
+    {
+        byte[] block = new byte[blockSize];
+
+        if (key.length > blockSize)
+        {
+            digest.reset();
+            digest.update(key, 0, key.length);
+            digest.doFinal(block, 0);
+        }
+        else
+        {
+            System.arraycopy(key, 0, block, 0, key.length);
+        }
+
+        return block;
+    }
+
+    private static void xorPad(byte[] block, byte pad)
+    {
+        for (int i = 0; i != block.length; i++)
+        {
+            block[i] ^= pad;
+        }
+    }
+
+    /*
+     * the compression function of a digest with 32 bit words and a 64 byte block.
+     */
+    private interface IntCompressor
+    {
+        IntCompressor newCompressor();
+
+        void compress(int[] H, int[] M, int[] out);
+
+        void reset();
+    }
+
+    private static class SHA1Compressor
+        extends SHA1Digest
+        implements IntCompressor
+    {
+        public IntCompressor newCompressor()
+        {
+            return new SHA1Compressor();
+        }
+
+        public void compress(int[] H, int[] M, int[] out)
+        {
+            processBlock(H, M, out);
+        }
+    }
+
+    private static class SHA256Compressor
+        extends SHA256Digest
+        implements IntCompressor
+    {
+        public IntCompressor newCompressor()
+        {
+            return new SHA256Compressor();
+        }
+
+        public void compress(int[] H, int[] M, int[] out)
+        {
+            processBlock(H, M, out);
+        }
+    }
+
+    private static class IntHMac
+        extends IteratedHMac
+    {
+        private final IntCompressor compressor;
+        private final int words;
+        private final int[] ipadH;
+        private final int[] opadH;
+
+        IntHMac(IntCompressor compressor, byte[] key, int words)
+        {
+            this.compressor = compressor;
+            this.words = words;
+            this.ipadH = new int[words];
+            this.opadH = new int[words];
+
+            int[] M = new int[16];
+
+            xorPad(key, IPAD);
+            Pack.bigEndianToInt(key, 0, M, 0, 16);
+            compressor.compress(null, M, ipadH);
+
+            compressor.reset();
+
+            xorPad(key, (byte)(IPAD ^ OPAD));
+            Pack.bigEndianToInt(key, 0, M, 0, 16);
+            compressor.compress(null, M, opadH);
+
+            compressor.reset();
+
+            Arrays.fill(key, (byte)0);
+            Arrays.fill(M, 0);
+        }
+
+        public int getMacSize()
+        {
+            return words * 4;
+        }
+
+        public void iterate(byte[] u, int uOff, int count, byte[] out, int outOff)
+        {
+            IntCompressor c = compressor.newCompressor();
+            int[] M = new int[16];
+            int[] U = new int[words];
+            int[] T = new int[words];
+
+            // a digest sized message following a one block key, padded.
+            M[words] = 0x80000000;
+            M[15] = (64 + words * 4) * 8;
+
+            Pack.bigEndianToInt(u, uOff, U, 0, words);
+            Pack.bigEndianToInt(out, outOff, T, 0, words);
+
+            for (int i = 1; i < count; ++i)
+            {
+                System.arraycopy(U, 0, M, 0, words);
+                c.compress(ipadH, M, U);
+                System.arraycopy(U, 0, M, 0, words);
+                c.compress(opadH, M, U);
+
+                for (int j = 0; j < words; ++j)
+                {
+                    T[j] ^= U[j];
+                }
+            }
+
+            Pack.intToBigEndian(T, 0, words, out, outOff);
+
+            c.reset();
+            Arrays.fill(M, 0);
+            Arrays.fill(U, 0);
+            Arrays.fill(T, 0);
+        }
+    }
+
+    private static class SHA512Compressor
+        extends SHA512Digest
+    {
+        void compress(long[] H, long[] M, long[] out)
+        {
+            processBlock(H, M, out);
+        }
+    }
+
+    private static class SHA512HMac
+        extends IteratedHMac
+    {
+        private final long[] ipadH = new long[8];
+        private final long[] opadH = new long[8];
+
+        SHA512HMac(byte[] key)
+        {
+            SHA512Compressor c = new SHA512Compressor();
+            long[] M = new long[16];
+
+            xorPad(key, IPAD);
+            Pack.bigEndianToLong(key, 0, M);
+            c.compress(null, M, ipadH);
+
+            c.reset();
+
+            xorPad(key, (byte)(IPAD ^ OPAD));
+            Pack.bigEndianToLong(key, 0, M);
+            c.compress(null, M, opadH);
+
+            c.reset();
+
+            Arrays.fill(key, (byte)0);
+            Arrays.fill(M, 0L);
+        }
+
+        public int getMacSize()
+        {
+            return 64;
+        }
+
+        public void iterate(byte[] u, int uOff, int count, byte[] out, int outOff)
+        {
+            SHA512Compressor c = new SHA512Compressor();
+            long[] M = new long[16];
+            long[] U = new long[8];
+            long[] T = new long[8];
+
+            // a digest sized message following a one block key, padded.
+            M[8] = 0x8000000000000000L;
+            M[15] = (128 + 64) * 8;
+
+            Pack.bigEndianToLong(u, uOff, U);
+            Pack.bigEndianToLong(out, outOff, T);
+
+            for (int i = 1; i < count; ++i)
+            {
+                System.arraycopy(U, 0, M, 0, 8);
+                c.compress(ipadH, M, U);
+                System.arraycopy(U, 0, M, 0, 8);
+                c.compress(opadH, M, U);
+
+                for (int j = 0; j < 8; ++j)
+                {
+                    T[j] ^= U[j];
+                }
+            }
+
+            Pack.longToBigEndian(T, out, outOff);
+
+            c.reset();
+            Arrays.fill(M, 0L);
+            Arrays.fill(U, 0L);
+            Arrays.fill(T, 0L);
+        }
+    }
+}
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.generators.Poly1305KeyGenerator;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.math.raw.Mul64;
 import org.bouncycastle.util.Pack;
 
 /**
@@ -53,6 +54,22 @@
     /** Polynomial accumulator */
     private int h0, h1, h2, h3, h4;
 
+    /**
+     * Return a Poly1305 MAC, where the key passed to init() will be used directly, using the
+     * {@link Poly1305Long} core where the JVM provides a fast 64 x 64 bit multiply.
+     *
+     * @return a new Poly1305 MAC.
+     */
+    public static Poly1305 newInstance()
+    {
+        if (Mul64.isIntrinsic())
+        {
+            return new Poly1305Long();
+        }
+
+        return new Poly1305();
+    }
+
     /**
      * Constructs a Poly1305 MAC, where the key passed to init() will be used directly.
      */
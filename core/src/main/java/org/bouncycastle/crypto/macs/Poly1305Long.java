@@ -0,0 +1,385 @@
+package org.bouncycastle.crypto.macs;
+
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.OutputLengthException;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.math.raw.Mul64;
+import org.bouncycastle.util.Pack;
+
+/**
+ * Poly1305 message authentication code, using 44 bit limbs in 64 bit arithmetic.
+ * <p>
+ * The accumulator is held in three limbs of 44, 44 and 42 bits, as in the 64 bit version of poly1305-donna,
+ * with the 128 bit partial products formed using {@link Mul64}. Whole blocks are taken straight from the
+ * input two at a time, as h = (h + m[i]) * r^2 + m[i+1] * r, so only one reduction is needed per pair of blocks.
+ * </p><p>
+ * This only pays off where Mul64 maps to a single instruction (Java 9 and later, from the multi-release jar),
+ * {@link Poly1305#newInstance()} will only return this class where that is the case.
+ * </p>
+ */
+public class Poly1305Long
+    extends Poly1305
+{
+    private static final int BLOCK_SIZE = 16;
+
+    private static final long M42 = 0x3FFFFFFFFFFL;
+    private static final long M44 = 0xFFFFFFFFFFFL;
+
+    private final BlockCipher cipher;
+
+    private final byte[] singleByte = new byte[1];
+
+    // Initialised state
+
+    /** Polynomial key, with 20 * r[1..2] */
+    private long r0, r1, r2, s1, s2;
+
+    /** Square of the polynomial key, with 20 * rr[1..2] */
+    private long rr0, rr1, rr2, ss1, ss2;
+
+    /** Encrypted nonce */
+    private long k0, k1;
+
+    // Accumulating state
+
+    /** Current block of buffered input */
+    private final byte[] currentBlock = new byte[BLOCK_SIZE];
+
+    /** Current offset in input buffer */
+    private int currentBlockOffset = 0;
+
+    /** Polynomial accumulator */
+    private long h0, h1, h2;
+
+    /**
+     * Constructs a Poly1305 MAC, where the key passed to init() will be used directly.
+     */
+    public Poly1305Long()
+    {
+        this.cipher = null;
+    }
+
+    /**
+     * Constructs a Poly1305 MAC, using a 128 bit block cipher.
+     */
+    public Poly1305Long(final BlockCipher cipher)
+    {
+        super(cipher);
+
+        this.cipher = cipher;
+    }
+
+    public void init(CipherParameters params)
+        throws IllegalArgumentException
+    {
+        byte[] nonce = null;
+
+        if (cipher != null)
+        {
+            if (!(params instanceof ParametersWithIV))
+            {
+                throw new IllegalArgumentException("Poly1305 requires an IV when used with a block cipher.");
+            }
+
+            ParametersWithIV ivParams = (ParametersWithIV)params;
+            nonce = ivParams.getIV();
+            params = ivParams.getParameters();
+        }
+
+        if (!(params instanceof KeyParameter))
+        {
+            throw new IllegalArgumentException("Poly1305 requires a key.");
+        }
+
+        KeyParameter keyParams = (KeyParameter)params;
+
+        setKey(keyParams.getKey(), nonce);
+
+        reset();
+    }
+
+    private void setKey(final byte[] key, final byte[] nonce)
+    {
+        if (key.length != 32)
+        {
+            throw new IllegalArgumentException("Poly1305 key must be 256 bits.");
+        }
+        if (cipher != null && (nonce == null || nonce.length != BLOCK_SIZE))
+        {
+            throw new IllegalArgumentException("Poly1305 requires a 128 bit IV.");
+        }
+
+        // Extract r portion of key, "clamping" the values
+        long t0 = Pack.littleEndianToLong(key, 0) & 0x0FFFFFFC0FFFFFFFL;
+        long t1 = Pack.littleEndianToLong(key, 8) & 0x0FFFFFFC0FFFFFFCL;
+
+        r0 =   t0                        & M44;
+        r1 = ((t0 >>> 44) | (t1 << 20))  & M44;
+        r2 =  (t1 >>> 24)                & M42;
+
+        s1 = r1 * 20;
+        s2 = r2 * 20;
+
+        // r^2, calculated in the accumulator as h = r * r
+        h0 = r0;
+        h1 = r1;
+        h2 = r2;
+        multiply(r0, r1, r2, s1, s2);
+
+        rr0 = h0;
+        rr1 = h1;
+        rr2 = h2;
+        ss1 = rr1 * 20;
+        ss2 = rr2 * 20;
+
+        final byte[] kBytes;
+        final int kOff;
+
+        if (cipher == null)
+        {
+            kBytes = key;
+            kOff = BLOCK_SIZE;
+        }
+        else
+        {
+            // Compute encrypted nonce
+            kBytes = new byte[BLOCK_SIZE];
+            kOff = 0;
+
+            cipher.initBlock(true, new KeyParameter(key, BLOCK_SIZE, BLOCK_SIZE));
+            cipher.processBlock(nonce, 0, kBytes, 0);
+        }
+
+        k0 = Pack.littleEndianToLong(kBytes, kOff);
+        k1 = Pack.littleEndianToLong(kBytes, kOff + 8);
+    }
+
+    public void update(final byte in)
+        throws IllegalStateException
+    {
+        singleByte[0] = in;
+        update(singleByte, 0, 1);
+    }
+
+    public void update(final byte[] in, final int inOff, final int len)
+        throws DataLengthException,
+        IllegalStateException
+    {
+        if (inOff + len > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        int pos = 0;
+
+        if (currentBlockOffset > 0)
+        {
+            int toCopy = Math.min(len, BLOCK_SIZE - currentBlockOffset);
+            System.arraycopy(in, inOff, currentBlock, currentBlockOffset, toCopy);
+            pos = toCopy;
+            currentBlockOffset += toCopy;
+
+            if (currentBlockOffset < BLOCK_SIZE)
+            {
+                return;
+            }
+
+            processBlock(currentBlock, 0, 1);
+            currentBlockOffset = 0;
+        }
+
+        while (len - pos >= 2 * BLOCK_SIZE)
+        {
+            processBlocks2(in, inOff + pos);
+            pos += 2 * BLOCK_SIZE;
+        }
+
+        if (len - pos >= BLOCK_SIZE)
+        {
+            processBlock(in, inOff + pos, 1);
+            pos += BLOCK_SIZE;
+        }
+
+        System.arraycopy(in, inOff + pos, currentBlock, 0, len - pos);
+        currentBlockOffset = len - pos;
+    }
+
+    /**
+     * h = (h + m) * r, where m is the block with the extra bit hiBit added at 2^128.
+     */
+    private void processBlock(byte[] m, int mOff, long hiBit)
+    {
+        long t0 = Pack.littleEndianToLong(m, mOff);
+        long t1 = Pack.littleEndianToLong(m, mOff + 8);
+
+        h0 +=   t0                         & M44;
+        h1 += ((t0 >>> 44) | (t1 << 20))   & M44;
+        h2 +=  (t1 >>> 24) | (hiBit << 40);
+
+        multiply(r0, r1, r2, s1, s2);
+    }
+
+    /**
+     * h = (h + m[0]) * r^2 + m[1] * r, for two whole blocks.
+     */
+    private void processBlocks2(byte[] m, int mOff)
+    {
+        long t0 = Pack.littleEndianToLong(m, mOff);
+        long t1 = Pack.littleEndianToLong(m, mOff + 8);
+        long t2 = Pack.littleEndianToLong(m, mOff + 16);
+        long t3 = Pack.littleEndianToLong(m, mOff + 24);
+
+        long a0 = h0 + ( t0                        & M44);
+        long a1 = h1 + (((t0 >>> 44) | (t1 << 20)) & M44);
+        long a2 = h2 + ((t1 >>> 24) | (1L << 40));
+
+        long b0 =   t2                        & M44;
+        long b1 = ((t2 >>> 44) | (t3 << 20))  & M44;
+        long b2 =  (t3 >>> 24) | (1L << 40);
+
+        long p, q, lo, hi;
+
+        // d0 = a0.rr0 + a1.ss2 + a2.ss1 + b0.r0 + b1.s2 + b2.s1
+        lo = a0 * rr0; hi = Mul64.multiplyHigh(a0, rr0);
+        p = a1 * ss2; q = lo + p; hi += Mul64.multiplyHigh(a1, ss2) + carry(lo, p, q); lo = q;
+        p = a2 * ss1; q = lo + p; hi += Mul64.multiplyHigh(a2, ss1) + carry(lo, p, q); lo = q;
+        p = b0 * r0;  q = lo + p; hi += Mul64.multiplyHigh(b0, r0)  + carry(lo, p, q); lo = q;
+        p = b1 * s2;  q = lo + p; hi += Mul64.multiplyHigh(b1, s2)  + carry(lo, p, q); lo = q;
+        p = b2 * s1;  q = lo + p; hi += Mul64.multiplyHigh(b2, s1)  + carry(lo, p, q); lo = q;
+        long d0lo = lo, d0hi = hi;
+
+        // d1 = a0.rr1 + a1.rr0 + a2.ss2 + b0.r1 + b1.r0 + b2.s2
+        lo = a0 * rr1; hi = Mul64.multiplyHigh(a0, rr1);
+        p = a1 * rr0; q = lo + p; hi += Mul64.multiplyHigh(a1, rr0) + carry(lo, p, q); lo = q;
+        p = a2 * ss2; q = lo + p; hi += Mul64.multiplyHigh(a2, ss2) + carry(lo, p, q); lo = q;
+        p = b0 * r1;  q = lo + p; hi += Mul64.multiplyHigh(b0, r1)  + carry(lo, p, q); lo = q;
+        p = b1 * r0;  q = lo + p; hi += Mul64.multiplyHigh(b1, r0)  + carry(lo, p, q); lo = q;
+        p = b2 * s2;  q = lo + p; hi += Mul64.multiplyHigh(b2, s2)  + carry(lo, p, q); lo = q;
+        long d1lo = lo, d1hi = hi;
+
+        // d2 = a0.rr2 + a1.rr1 + a2.rr0 + b0.r2 + b1.r1 + b2.r0
+        lo = a0 * rr2; hi = Mul64.multiplyHigh(a0, rr2);
+        p = a1 * rr1; q = lo + p; hi += Mul64.multiplyHigh(a1, rr1) + carry(lo, p, q); lo = q;
+        p = a2 * rr0; q = lo + p; hi += Mul64.multiplyHigh(a2, rr0) + carry(lo, p, q); lo = q;
+        p = b0 * r2;  q = lo + p; hi += Mul64.multiplyHigh(b0, r2)  + carry(lo, p, q); lo = q;
+        p = b1 * r1;  q = lo + p; hi += Mul64.multiplyHigh(b1, r1)  + carry(lo, p, q); lo = q;
+        p = b2 * r0;  q = lo + p; hi += Mul64.multiplyHigh(b2, r0)  + carry(lo, p, q); lo = q;
+
+        reduce(d0lo, d0hi, d1lo, d1hi, lo, hi);
+    }
+
+    /**
+     * h = h * x, where y1 and y2 are 20 * x[1..2].
+     */
+    private void multiply(long x0, long x1, long x2, long y1, long y2)
+    {
+        long p, q, lo, hi;
+
+        // d0 = h0.x0 + h1.y2 + h2.y1
+        lo = h0 * x0; hi = Mul64.multiplyHigh(h0, x0);
+        p = h1 * y2; q = lo + p; hi += Mul64.multiplyHigh(h1, y2) + carry(lo, p, q); lo = q;
+        p = h2 * y1; q = lo + p; hi += Mul64.multiplyHigh(h2, y1) + carry(lo, p, q); lo = q;
+        long d0lo = lo, d0hi = hi;
+
+        // d1 = h0.x1 + h1.x0 + h2.y2
+        lo = h0 * x1; hi = Mul64.multiplyHigh(h0, x1);
+        p = h1 * x0; q = lo + p; hi += Mul64.multiplyHigh(h1, x0) + carry(lo, p, q); lo = q;
+        p = h2 * y2; q = lo + p; hi += Mul64.multiplyHigh(h2, y2) + carry(lo, p, q); lo = q;
+        long d1lo = lo, d1hi = hi;
+
+        // d2 = h0.x2 + h1.x1 + h2.x0
+        lo = h0 * x2; hi = Mul64.multiplyHigh(h0, x2);
+        p = h1 * x1; q = lo + p; hi += Mul64.multiplyHigh(h1, x1) + carry(lo, p, q); lo = q;
+        p = h2 * x0; q = lo + p; hi += Mul64.multiplyHigh(h2, x0) + carry(lo, p, q); lo = q;
+
+        reduce(d0lo, d0hi, d1lo, d1hi, lo, hi);
+    }
+
+    /**
+     * Carry the 128 bit column sums d0, d1, d2 back into h, folding the part above 2^130 back in times 5.
+     */
+    private void reduce(long d0lo, long d0hi, long d1lo, long d1hi, long d2lo, long d2hi)
+    {
+        long c, q;
+
+        c = (d0lo >>> 44) | (d0hi << 20); h0 = d0lo & M44;
+        q = d1lo + c; d1hi += carry(d1lo, c, q); d1lo = q;
+        c = (d1lo >>> 44) | (d1hi << 20); h1 = d1lo & M44;
+        q = d2lo + c; d2hi += carry(d2lo, c, q); d2lo = q;
+        c = (d2lo >>> 42) | (d2hi << 22); h2 = d2lo & M42;
+
+        h0 += c * 5;
+        h1 += h0 >>> 44; h0 &= M44;
+    }
+
+    /**
+     * Return the carry out of the 64 bit addition s = a + b.
+     */
+    private static long carry(long a, long b, long s)
+    {
+        return ((a & b) | ((a | b) & ~s)) >>> 63;
+    }
+
+    public int doFinal(final byte[] out, final int outOff)
+        throws DataLengthException,
+        IllegalStateException
+    {
+        if (outOff + BLOCK_SIZE > out.length)
+        {
+            throw new OutputLengthException("Output buffer is too short.");
+        }
+
+        if (currentBlockOffset > 0)
+        {
+            // Process padded final block
+            currentBlock[currentBlockOffset] = 1;
+            for (int i = currentBlockOffset + 1; i < BLOCK_SIZE; i++)
+            {
+                currentBlock[i] = 0;
+            }
+            processBlock(currentBlock, 0, 0);
+        }
+
+        long c;
+        c = h1 >>> 44; h1 &= M44; h2 += c;
+        c = h2 >>> 42; h2 &= M42; h0 += c * 5;
+        c = h0 >>> 44; h0 &= M44; h1 += c;
+        c = h1 >>> 44; h1 &= M44; h2 += c;
+        c = h2 >>> 42; h2 &= M42; h0 += c * 5;
+        c = h0 >>> 44; h0 &= M44; h1 += c;
+
+        // g = h + 5 - 2^130, use it if h >= p
+        long g0, g1, g2;
+        g0 = h0 + 5; c = g0 >>> 44; g0 &= M44;
+        g1 = h1 + c; c = g1 >>> 44; g1 &= M44;
+        g2 = h2 + c - (1L << 42);
+
+        long b = (g2 >>> 63) - 1;
+        long nb = ~b;
+        h0 = (h0 & nb) | (g0 & b);
+        h1 = (h1 & nb) | (g1 & b);
+        h2 = (h2 & nb) | (g2 & b);
+
+        long f0 = h0 | (h1 << 44);
+        long f1 = (h1 >>> 20) | (h2 << 24);
+
+        long s = f0 + k0;
+        f1 += k1 + carry(f0, k0, s);
+
+        Pack.longToLittleEndian(s, out, outOff);
+        Pack.longToLittleEndian(f1, out, outOff + 8);
+
+        reset();
+        return BLOCK_SIZE;
+    }
+
+    public void reset()
+    {
+        currentBlockOffset = 0;
+
+        h0 = h1 = h2 = 0;
+    }
+}
@@ -4,15 +4,20 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.DefaultMultiBlockCipher;
+import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
 
 /**
  * implements Cipher-Block-Chaining (CBC) mode on top of a simple cipher.
+ * <p>
+ * If a {@link ParallelBlockCipherProcessor} is set, long runs of blocks passed to processBlocks() when
+ * decrypting are split across threads.
+ * </p>
  */
 public class CBCBlockCipher
     extends DefaultMultiBlockCipher
-    implements CBCModeCipher
+    implements CBCModeCipher, ParallelModeCipher
 {
     private byte[]          IV;
     private byte[]          cbcV;
@@ -22,6 +27,9 @@
     private BlockCipher     cipher = null;
     private boolean         encrypting;
 
+    private CipherParameters             key;
+    private ParallelBlockCipherProcessor parallelProcessor;
+
     /**
      * Return a new CBC mode cipher based on the passed in base cipher
      *
@@ -103,6 +111,7 @@ public void initBlock(
         if (params != null)
         {
             cipher.initBlock(encrypting, params);
+            key = params;
         }
         else if (oldEncrypting != encrypting)
         {
@@ -153,6 +162,55 @@ public int processBlock(
         return (encrypting) ? encryptBlock(in, inOff, out, outOff) : decryptBlock(in, inOff, out, outOff);
     }
 
+    /**
+     * Process blockCount blocks of input, splitting the work across threads if the cipher is decrypting
+     * and a parallel processor is set and the run reaches its threshold.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int len = blockCount * blockSize;
+
+        if (!encrypting && key != null && parallelProcessor != null
+            && parallelProcessor.isParallel(in, inOff, len, out, outOff))
+        {
+            if (inOff + len > in.length)
+            {
+                throw new DataLengthException("input buffer too short");
+            }
+            if (outOff + len > out.length)
+            {
+                throw new OutputLengthException("output buffer too short");
+            }
+
+            parallelProcessor.processCBCDecryption(key, cbcV, in, inOff, blockCount, out, outOff);
+
+            return len;
+        }
+
+        return super.processBlocks(in, inOff, blockCount, out, outOff);
+    }
+
+    public void setParallelProcessor(ParallelBlockCipherProcessor processor)
+    {
+        this.parallelProcessor = processor;
+    }
+
+    public ParallelBlockCipherProcessor getParallelProcessor()
+    {
+        return parallelProcessor;
+    }
+
     /**
      * reset the chaining vector back to the IV and reset the underlying
      * cipher.
@@ -10,6 +10,7 @@
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.macs.CBCBlockCipherMac;
 import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.CCMStreamingParameters;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
 
@@ -17,7 +18,11 @@
  * Implements the Counter with Cipher Block Chaining mode (CCM) detailed in
  * NIST Special Publication 800-38C.
  * <p>
- * <b>Note</b>: this mode is a packet mode - it needs all the data up front.
+ * <b>Note</b>: this mode is a packet mode - it needs all the data up front. If the lengths of the
+ * associated text and the data are declared at initialisation, using {@link CCMStreamingParameters},
+ * the data is instead processed as it arrives with a fixed amount of memory. As with the other
+ * online AEAD modes, decrypted data is then released before the MAC has been checked, so it must
+ * not be acted upon until doFinal() has returned successfully.
  */
 public class CCMBlockCipher
     implements CCMModeCipher
@@ -33,6 +38,19 @@
     private ExposedByteArrayOutputStream associatedText = new ExposedByteArrayOutputStream();
     private ExposedByteArrayOutputStream data = new ExposedByteArrayOutputStream();
 
+    // streaming state, used when the lengths are declared up front
+    private boolean               streaming;
+    private long                  declaredTextLength;
+    private long                  declaredDataLength;
+    private Mac                   streamMac;
+    private CTRModeCipher         streamCipher;
+    private byte[]                streamS0;
+    private byte[]                streamReceivedMac;
+    private long                  streamTextCount;
+    private long                  streamDataCount;
+    private int                   streamMacCount;
+    private boolean               streamTextComplete;
+
     /**
      * Return a new CCM mode cipher based on the passed in base cipher
      *
@@ -86,6 +104,13 @@ public void init(boolean forEncryption, CipherParameters params)
             initialAssociatedText = param.getAssociatedText();
             macSize = getMacSize(forEncryption, param.getMacSize());
             cipherParameters = param.getKey();
+
+            streaming = param instanceof CCMStreamingParameters;
+            if (streaming)
+            {
+                declaredTextLength = ((CCMStreamingParameters)param).getAssociatedTextLength();
+                declaredDataLength = ((CCMStreamingParameters)param).getDataLength();
+            }
         }
         else if (params instanceof ParametersWithIV)
         {
@@ -95,6 +120,7 @@ else if (params instanceof ParametersWithIV)
             initialAssociatedText = null;
             macSize = getMacSize(forEncryption, 64);
             cipherParameters = param.getParameters();
+            streaming = false;
         }
         else
         {
@@ -112,6 +138,20 @@ else if (params instanceof ParametersWithIV)
             throw new IllegalArgumentException("nonce must have length from 7 to 13 octets");
         }
 
+        if (streaming)
+        {
+            if (keyParam == null)
+            {
+                throw new IllegalArgumentException("CCM streaming requires a key");
+            }
+
+            int q = 15 - nonce.length;
+            if (q < 8 && (declaredDataLength >>> (8 * q)) != 0)
+            {
+                throw new IllegalArgumentException("CCM data length too large for choice of q");
+            }
+        }
+
         reset();
     }
 
@@ -122,18 +162,34 @@ public String getAlgorithmName()
 
     public void processAADByte(byte in)
     {
+        if (streaming)
+        {
+            processStreamAAD(new byte[]{ in }, 0, 1);
+            return;
+        }
+
         associatedText.write(in);
     }
 
     public void processAADBytes(byte[] in, int inOff, int len)
     {
-        // TODO: Process AAD online
+        if (streaming)
+        {
+            processStreamAAD(in, inOff, len);
+            return;
+        }
+
         associatedText.write(in, inOff, len);
     }
 
     public int processByte(byte in, byte[] out, int outOff)
         throws DataLengthException, IllegalStateException
     {
+        if (streaming)
+        {
+            return processStreamBytes(new byte[]{ in }, 0, 1, out, outOff);
+        }
+
         data.write(in);
 
         return 0;
@@ -146,6 +202,12 @@ public int processBytes(byte[] in, int inOff, int inLen, byte[] out, int outOff)
         {
             throw new DataLengthException("Input buffer too short");
         }
+
+        if (streaming)
+        {
+            return processStreamBytes(in, inOff, inLen, out, outOff);
+        }
+
         data.write(in, inOff, inLen);
 
         return 0;
@@ -154,6 +216,11 @@ public int processBytes(byte[] in, int inOff, int inLen, byte[] out, int outOff)
     public int doFinal(byte[] out, int outOff)
         throws IllegalStateException, InvalidCipherTextException
     {
+        if (streaming)
+        {
+            return doFinalStream(out, outOff);
+        }
+
         int len = processPacket(data.getBuffer(), 0, data.size(), out, outOff);
 
         reset();
@@ -166,6 +233,11 @@ public void reset()
         cipher.resetBlock();
         associatedText.reset();
         data.reset();
+
+        if (streaming)
+        {
+            resetStream();
+        }
     }
 
     /**
@@ -185,11 +257,23 @@ public byte[] getMac()
 
     public int getUpdateOutputSize(int len)
     {
+        if (streaming)
+        {
+            return (int)Math.min(len, declaredDataLength - streamDataCount);
+        }
+
         return 0;
     }
 
     public int getOutputSize(int len)
     {
+        if (streaming)
+        {
+            int dataLen = (int)Math.min(len, declaredDataLength - streamDataCount);
+
+            return forEncryption ? dataLen + macSize : dataLen;
+        }
+
         int totalData = len + data.size();
 
         if (forEncryption)
@@ -256,6 +340,18 @@ public int processPacket(byte[] in, int inOff, int inLen, byte[] output, int out
             throw new IllegalStateException("CCM cipher unitialized.");
         }
 
+        if (streaming)
+        {
+            if (output.length < outOff + getOutputSize(inLen))
+            {
+                throw new OutputLengthException("Output buffer too short.");
+            }
+
+            int len = processBytes(in, inOff, inLen, output, outOff);
+
+            return len + doFinal(output, outOff + len);
+        }
+
         int n = nonce.length;
         int q = 15 - n;
         if (q < 4)
@@ -455,6 +551,214 @@ private int calculateMac(byte[] data, int dataOff, int dataLen, byte[] macBlock)
         return cMac.doFinal(macBlock, 0);
     }
 
+    private void resetStream()
+    {
+        int q = 15 - nonce.length;
+
+        byte[] iv = new byte[blockSize];
+        iv[0] = (byte)((q - 1) & 0x7);
+        System.arraycopy(nonce, 0, iv, 1, nonce.length);
+
+        streamCipher = SICBlockCipher.newInstance(cipher);
+        streamCipher.init(true, new ParametersWithIV(keyParam, iv));
+
+        // S0, the first key stream block, masks the MAC
+        streamS0 = new byte[blockSize];
+        streamCipher.processBlock(streamS0, 0, streamS0, 0);
+
+        streamMac = new CBCBlockCipherMac(cipher, macSize * 8);
+        streamMac.init(keyParam);
+
+        //
+        // build b0
+        //
+        byte[] b0 = new byte[16];
+
+        if (declaredTextLength > 0)
+        {
+            b0[0] |= 0x40;
+        }
+
+        b0[0] |= (((macSize - 2) / 2) & 0x7) << 3;
+
+        b0[0] |= (q - 1) & 0x7;
+
+        System.arraycopy(nonce, 0, b0, 1, nonce.length);
+
+        long dataLen = declaredDataLength;
+        for (int count = 1; dataLen > 0; count++)
+        {
+            b0[b0.length - count] = (byte)dataLen;
+            dataLen >>>= 8;
+        }
+
+        streamMac.update(b0, 0, b0.length);
+
+        if (declaredTextLength > 0)
+        {
+            int textLength = (int)declaredTextLength;
+            if (declaredTextLength < ((1 << 16) - (1 << 8)))
+            {
+                streamMac.update((byte)(textLength >> 8));
+                streamMac.update((byte)textLength);
+            }
+            else
+            {
+                streamMac.update((byte)0xff);
+                streamMac.update((byte)0xfe);
+                streamMac.update((byte)(textLength >> 24));
+                streamMac.update((byte)(textLength >> 16));
+                streamMac.update((byte)(textLength >> 8));
+                streamMac.update((byte)textLength);
+            }
+        }
+
+        streamReceivedMac = new byte[blockSize];
+        streamTextCount = 0;
+        streamDataCount = 0;
+        streamMacCount = 0;
+        streamTextComplete = false;
+
+        if (initialAssociatedText != null)
+        {
+            processStreamAAD(initialAssociatedText, 0, initialAssociatedText.length);
+        }
+    }
+
+    private void processStreamAAD(byte[] in, int inOff, int len)
+    {
+        if (streamTextComplete)
+        {
+            throw new IllegalStateException("AAD data cannot be added after encryption/decryption processing has begun.");
+        }
+        if (len > declaredTextLength - streamTextCount)
+        {
+            throw new DataLengthException("associated text exceeds declared length");
+        }
+
+        streamMac.update(in, inOff, len);
+        streamTextCount += len;
+    }
+
+    private void completeStreamAAD()
+    {
+        if (streamTextComplete)
+        {
+            return;
+        }
+        if (streamTextCount != declaredTextLength)
+        {
+            throw new IllegalStateException("associated text shorter than declared length");
+        }
+
+        if (declaredTextLength > 0)
+        {
+            int extra = (int)(((declaredTextLength < ((1 << 16) - (1 << 8))) ? 2 : 6) + declaredTextLength) & 15;
+            if (extra != 0)
+            {
+                for (int i = extra; i != 16; i++)
+                {
+                    streamMac.update((byte)0x00);
+                }
+            }
+        }
+
+        streamTextComplete = true;
+    }
+
+    private int processStreamBytes(byte[] in, int inOff, int inLen, byte[] out, int outOff)
+    {
+        completeStreamAAD();
+
+        int dataLen = (int)Math.min(inLen, declaredDataLength - streamDataCount);
+        if (forEncryption ? dataLen != inLen : inLen - dataLen > macSize - streamMacCount)
+        {
+            throw new DataLengthException("data exceeds declared length");
+        }
+        if (out.length < outOff + dataLen)
+        {
+            throw new OutputLengthException("Output buffer too short.");
+        }
+
+        if (forEncryption)
+        {
+            streamMac.update(in, inOff, dataLen);
+            streamCipher.processBytes(in, inOff, dataLen, out, outOff);
+        }
+        else
+        {
+            streamCipher.processBytes(in, inOff, dataLen, out, outOff);
+            streamMac.update(out, outOff, dataLen);
+
+            // anything after the data is the MAC
+            System.arraycopy(in, inOff + dataLen, streamReceivedMac, streamMacCount, inLen - dataLen);
+            streamMacCount += inLen - dataLen;
+        }
+        streamDataCount += dataLen;
+
+        return dataLen;
+    }
+
+    private int doFinalStream(byte[] out, int outOff)
+        throws InvalidCipherTextException
+    {
+        completeStreamAAD();
+
+        try
+        {
+            byte[] calculatedMacBlock = new byte[blockSize];
+
+            if (forEncryption)
+            {
+                if (streamDataCount != declaredDataLength)
+                {
+                    throw new IllegalStateException("data shorter than declared length");
+                }
+                if (out.length < outOff + macSize)
+                {
+                    throw new OutputLengthException("Output buffer too short.");
+                }
+
+                streamMac.doFinal(calculatedMacBlock, 0);
+                System.arraycopy(calculatedMacBlock, 0, macBlock, 0, blockSize);
+
+                for (int i = 0; i != macSize; i++)
+                {
+                    out[outOff + i] = (byte)(calculatedMacBlock[i] ^ streamS0[i]);
+                }
+
+                return macSize;
+            }
+
+            if (streamDataCount != declaredDataLength || streamMacCount != macSize)
+            {
+                throw new InvalidCipherTextException("data too short");
+            }
+
+            for (int i = 0; i != macSize; i++)
+            {
+                macBlock[i] = (byte)(streamReceivedMac[i] ^ streamS0[i]);
+            }
+            for (int i = macSize; i != macBlock.length; i++)
+            {
+                macBlock[i] = 0;
+            }
+
+            streamMac.doFinal(calculatedMacBlock, 0);
+
+            if (!Arrays.constantTimeAreEqual(macBlock, calculatedMacBlock))
+            {
+                throw new InvalidCipherTextException("mac check in CCM failed");
+            }
+
+            return 0;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
     private int getMacSize(boolean forEncryption, int requestedMacBits)
     {
         if (forEncryption && (requestedMacBits < 32 || requestedMacBits > 128 || 0 != (requestedMacBits & 15)))
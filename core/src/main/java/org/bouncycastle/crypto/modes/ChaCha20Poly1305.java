@@ -30,6 +30,7 @@
     }
 
     private static final int BUF_SIZE = 64;
+    private static final int CHUNK_SIZE = 16 * BUF_SIZE;
     private static final int KEY_SIZE = 32;
     private static final int NONCE_SIZE = 12;
     private static final int MAC_SIZE = 16;
@@ -55,7 +56,7 @@
 
     public ChaCha20Poly1305()
     {
-        this(new Poly1305());
+        this(Poly1305.newInstance());
     }
 
     public ChaCha20Poly1305(Mac poly1305)
@@ -316,7 +317,36 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff) t
         {
         case State.DEC_DATA:
         {
-            for (int i = 0; i < len; ++i)
+            int i = 0;
+
+            /*
+             * While at least a chunk plus a possible tag remains, MAC each chunk of ciphertext and then decrypt
+             * it, so it is only brought into cache once. Buffered input is released first, unless it would be
+             * overwritten by output for the same array.
+             */
+            if ((bufPos == 0 || in != out) && bufPos + len >= CHUNK_SIZE + MAC_SIZE)
+            {
+                if (bufPos > 0)
+                {
+                    poly1305.update(buf, 0, bufPos);
+                    processData(buf, 0, bufPos, out, outOff);
+                    resultLen = bufPos;
+                    this.bufPos = 0;
+                }
+
+                // the first chunk may be short, so later ones start on a block boundary
+                int chunkLen = CHUNK_SIZE - ((int)dataCount & (BUF_SIZE - 1));
+                while (len - i >= chunkLen + MAC_SIZE)
+                {
+                    poly1305.update(in, inOff + i, chunkLen);
+                    processData(in, inOff + i, chunkLen, out, outOff + resultLen);
+                    i += chunkLen;
+                    resultLen += chunkLen;
+                    chunkLen = CHUNK_SIZE;
+                }
+            }
+
+            for (; i < len; ++i)
             {
                 buf[bufPos] = in[inOff + i];
                 if (++bufPos == buf.length)
@@ -349,6 +379,16 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff) t
                 }
             }
 
+            // encrypt then MAC a chunk at a time, so the ciphertext is still in cache when it is MACed.
+            while (len >= CHUNK_SIZE)
+            {
+                processData(in, inOff, CHUNK_SIZE, out, outOff + resultLen);
+                poly1305.update(out, outOff + resultLen, CHUNK_SIZE);
+                inOff += CHUNK_SIZE;
+                len -= CHUNK_SIZE;
+                resultLen += CHUNK_SIZE;
+            }
+
             while (len >= BUF_SIZE)
             {
                 processData(in, inOff, BUF_SIZE, out, outOff + resultLen);
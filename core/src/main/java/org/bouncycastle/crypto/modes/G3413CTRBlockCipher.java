@@ -3,17 +3,24 @@
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.MultiBlockCipher;
+import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.StreamBlockCipher;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Bytes;
 
 /**
  * implements the GOST 3412 2015 CTR counter mode (GCTR).
+ * <p>
+ * If the underlying cipher is a {@link MultiBlockCipher}, runs of whole segments passed to processBytes()
+ * have their counter blocks encrypted in batches with a single call to processBlocks().
+ * </p>
  */
 public class G3413CTRBlockCipher
     extends StreamBlockCipher
 {
-
+    private static final int BATCH_BLOCKS = 16;
 
     private final int s;
     private byte[] CTR;
@@ -21,6 +28,9 @@
     private byte[] buf;
     private final int blockSize;
     private final BlockCipher cipher;
+    private final MultiBlockCipher mbCipher;
+    private byte[] ctrBatch;
+    private byte[] ctrBatchOut;
     private int byteCount = 0;
     private boolean initialized;
 
@@ -58,6 +68,17 @@ public G3413CTRBlockCipher(BlockCipher cipher, int bitBlockSize)
         this.blockSize = cipher.getBlockSize();
         this.s = bitBlockSize / 8;
         CTR = new byte[blockSize];
+
+        if (cipher instanceof MultiBlockCipher)
+        {
+            this.mbCipher = (MultiBlockCipher)cipher;
+            this.ctrBatch = new byte[blockSize * BATCH_BLOCKS];
+            this.ctrBatchOut = new byte[blockSize * BATCH_BLOCKS];
+        }
+        else
+        {
+            this.mbCipher = null;
+        }
     }
 
     /**
@@ -170,6 +191,60 @@ public int processBlock(
         return s;
     }
 
+    public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+        throws DataLengthException
+    {
+        if (mbCipher == null || s == 0)
+        {
+            return super.processBytes(in, inOff, len, out, outOff);
+        }
+
+        if (inOff + len > in.length)
+        {
+            throw new DataLengthException("input buffer too small");
+        }
+        if (outOff + len > out.length)
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        int i = 0;
+
+        // finish off any partially used segment first
+        while (byteCount != 0 && i < len)
+        {
+            out[outOff + i] = calculateByte(in[inOff + i]);
+            ++i;
+        }
+
+        while (len - i >= s)
+        {
+            int blocks = Math.min((len - i) / s, BATCH_BLOCKS);
+
+            for (int b = 0; b < blocks; ++b)
+            {
+                System.arraycopy(CTR, 0, ctrBatch, b * blockSize, blockSize);
+                generateCRT();
+            }
+
+            mbCipher.processBlocks(ctrBatch, 0, blocks, ctrBatchOut, 0);
+
+            for (int b = 0; b < blocks; ++b)
+            {
+                Bytes.xor(s, ctrBatchOut, b * blockSize, in, inOff + i, out, outOff + i);
+                i += s;
+            }
+        }
+
+        while (i < len)
+        {
+            out[outOff + i] = calculateByte(in[inOff + i]);
+            ++i;
+        }
+
+        return len;
+    }
+
     protected byte calculateByte(byte in)
     {
 
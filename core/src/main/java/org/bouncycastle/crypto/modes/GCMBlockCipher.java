@@ -4,12 +4,14 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMExponentiator;
+import org.bouncycastle.crypto.modes.gcm.GCMAggregateMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMExponentiator;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMUtil;
-import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
+import org.bouncycastle.crypto.modes.gcm.Tables4kAggregateGCMMultiplier;
 import org.bouncycastle.crypto.params.AEADParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
@@ -19,15 +21,29 @@
 /**
  * Implements the Galois/Counter mode (GCM) detailed in
  * NIST Special Publication 800-38D.
+ * <p>
+ * If the multiplier is a {@link GCMAggregateMultiplier} (the default is a {@link Tables4kAggregateGCMMultiplier}),
+ * bulk data is hashed several blocks at a time with a single reduction per group of blocks. If the base cipher
+ * is a {@link MultiBlockCipher}, the counter blocks for bulk data are encrypted with a single call to
+ * processBlocks() per group of blocks.
+ * </p><p>
+ * The default multiplier holds 16k of tables per instance, where a
+ * {@link org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier} holds 4k, so applications creating very many
+ * instances may prefer to pass in the smaller multiplier.
+ * </p>
  */
 public class GCMBlockCipher
     implements GCMModeCipher
 {
     private static final int BLOCK_SIZE = 16;
+    private static final int MULTI_BLOCKS = 8;
 
     // not final due to a compiler bug
     private BlockCipher   cipher;
+    private MultiBlockCipher mbCipher;
     private GCMMultiplier multiplier;
+    private GCMAggregateMultiplier aggMultiplier;
+    private int           multiBlockLen;
     private GCMExponentiator exp;
 
     // These fields are set by init and not modified by processing
@@ -45,6 +61,7 @@
     private byte[]      macBlock;
     private byte[]      S, S_at, S_atPre;
     private byte[]      counter;
+    private byte[]      ctrBlocks, ctrBlocksOut;
     private int         blocksRemaining;
     private int         bufOff;
     private long        totalLength;
@@ -102,11 +119,32 @@ public GCMBlockCipher(BlockCipher c, GCMMultiplier m)
 
         if (m == null)
         {
-            m = new Tables4kGCMMultiplier();
+            m = new Tables4kAggregateGCMMultiplier();
         }
 
         this.cipher = c;
         this.multiplier = m;
+
+        if (m instanceof GCMAggregateMultiplier)
+        {
+            this.aggMultiplier = (GCMAggregateMultiplier)m;
+            this.multiBlockLen = aggMultiplier.getAggregateBlockCount() * BLOCK_SIZE;
+        }
+
+        if (c instanceof MultiBlockCipher)
+        {
+            this.mbCipher = (MultiBlockCipher)c;
+            if (multiBlockLen == 0)
+            {
+                this.multiBlockLen = MULTI_BLOCKS * BLOCK_SIZE;
+            }
+        }
+
+        if (multiBlockLen > 0)
+        {
+            this.ctrBlocks = new byte[multiBlockLen];
+            this.ctrBlocksOut = new byte[multiBlockLen];
+        }
     }
 
     public BlockCipher getUnderlyingCipher()
@@ -318,6 +356,18 @@ public void processAADBytes(byte[] in, int inOff, int len)
 
         int inLimit = inOff + len - BLOCK_SIZE;
 
+        if (aggMultiplier != null)
+        {
+            int aggLimit = inLimit - (multiBlockLen - BLOCK_SIZE);
+
+            while (inOff <= aggLimit)
+            {
+                aggMultiplier.multiplyHBlocks(S_at, in, inOff);
+                atLength += multiBlockLen;
+                inOff += multiBlockLen;
+            }
+        }
+
         while (inOff <= inLimit)
         {
             gHASHBlock(S_at, in, inOff);
@@ -408,6 +458,18 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
 
             int inLimit = inOff + len - BLOCK_SIZE;
 
+            if (multiBlockLen > 0)
+            {
+                int multiLimit = inLimit - (multiBlockLen - BLOCK_SIZE);
+
+                while (inOff <= multiLimit)
+                {
+                    encryptBlocks(in, inOff, out, outOff + resultLen);
+                    inOff += multiBlockLen;
+                    resultLen += multiBlockLen;
+                }
+            }
+
             while (inOff <= inLimit)
             {
                 encryptBlock(in, inOff, out, outOff + resultLen);
@@ -452,6 +514,18 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             resultLen += BLOCK_SIZE;
             //bufOff = 0;
 
+            if (multiBlockLen > 0)
+            {
+                int multiLimit = inLimit - (multiBlockLen - BLOCK_SIZE);
+
+                while (inOff <= multiLimit)
+                {
+                    decryptBlocks(in, inOff, out, outOff + resultLen);
+                    inOff += multiBlockLen;
+                    resultLen += multiBlockLen;
+                }
+            }
+
             while (inOff <= inLimit)
             {
                 decryptBlock(in, inOff, out, outOff + resultLen);
@@ -674,6 +748,51 @@ private void encryptBlock(byte[] buf, int bufOff, byte[] out, int outOff)
         totalLength += BLOCK_SIZE;
     }
 
+    private void decryptBlocks(byte[] buf, int bufOff, byte[] out, int outOff)
+    {
+        if ((out.length - outOff) < multiBlockLen)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        // hash the cipher text before out (which may overlap buf) is written
+        gHASHBlocks(S, buf, bufOff);
+
+        getNextCTRBlocks();
+        for (int pos = 0; pos < multiBlockLen; pos += BLOCK_SIZE)
+        {
+            GCMUtil.xor(ctrBlocksOut, pos, buf, bufOff + pos, out, outOff + pos);
+        }
+
+        totalLength += multiBlockLen;
+    }
+
+    private void encryptBlocks(byte[] buf, int bufOff, byte[] out, int outOff)
+    {
+        if ((out.length - outOff) < multiBlockLen)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        getNextCTRBlocks();
+        for (int pos = 0; pos < multiBlockLen; pos += BLOCK_SIZE)
+        {
+            GCMUtil.xor(ctrBlocksOut, pos, buf, bufOff + pos, out, outOff + pos);
+        }
+
+        gHASHBlocks(S, out, outOff);
+
+        totalLength += multiBlockLen;
+    }
+
     private void processPartial(byte[] buf, int off, int len, byte[] out, int outOff)
     {
         byte[] ctrBlock = new byte[BLOCK_SIZE];
@@ -715,6 +834,21 @@ private void gHASHBlock(byte[] Y, byte[] b, int off)
         multiplier.multiplyH(Y);
     }
 
+    private void gHASHBlocks(byte[] Y, byte[] b, int off)
+    {
+        if (aggMultiplier != null)
+        {
+            aggMultiplier.multiplyHBlocks(Y, b, off);
+        }
+        else
+        {
+            for (int pos = 0; pos < multiBlockLen; pos += BLOCK_SIZE)
+            {
+                gHASHBlock(Y, b, off + pos);
+            }
+        }
+    }
+
     private void gHASHPartial(byte[] Y, byte[] b, int off, int len)
     {
         GCMUtil.xor(Y, b, off, len);
@@ -738,6 +872,37 @@ private void getNextCTRBlock(byte[] block)
         cipher.processBlock(counter, 0, block, 0);
     }
 
+    private void getNextCTRBlocks()
+    {
+        int blockCount = multiBlockLen / BLOCK_SIZE;
+
+        // blocksRemaining is unsigned, near the limit we go a block at a time so the limit is enforced exactly
+        if (mbCipher == null || (blocksRemaining & 0xFFFFFFFFL) < blockCount)
+        {
+            for (int pos = 0; pos < multiBlockLen; pos += BLOCK_SIZE)
+            {
+                getNextCTRBlock(ctrBlocks);
+                System.arraycopy(ctrBlocks, 0, ctrBlocksOut, pos, BLOCK_SIZE);
+            }
+            return;
+        }
+
+        blocksRemaining -= blockCount;
+
+        for (int pos = 0; pos < multiBlockLen; pos += BLOCK_SIZE)
+        {
+            int c = 1;
+            c += counter[15] & 0xFF; counter[15] = (byte)c; c >>>= 8;
+            c += counter[14] & 0xFF; counter[14] = (byte)c; c >>>= 8;
+            c += counter[13] & 0xFF; counter[13] = (byte)c; c >>>= 8;
+            c += counter[12] & 0xFF; counter[12] = (byte)c;
+
+            System.arraycopy(counter, 0, ctrBlocks, pos, BLOCK_SIZE);
+        }
+
+        mbCipher.processBlocks(ctrBlocks, 0, blockCount, ctrBlocksOut, 0);
+    }
+
     private void checkStatus()
     {
         if (!initialised)
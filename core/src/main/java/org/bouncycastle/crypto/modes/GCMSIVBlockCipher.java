@@ -1,6 +1,9 @@
 package org.bouncycastle.crypto.modes;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
@@ -29,10 +32,39 @@
  * which would use multiple arrays to store the data. In addition, a new <b>doOutput</b> method would be required (similar
  * to that in <b>XOF</b> digests), which would allow the data to be output over multiple calls. Alternatively an extended
  * form of <b>ByteArrayInputStream</b> could be used to deliver the data.</p>
+ * <p>For larger messages, or where the message should not be held in memory, {@link #doFinal(DataSource, OutputStream)}
+ * works in two passes over a {@link DataSource} that can be re-read, such as a file. This supports the full
+ * 2<sup>36</sup> byte limit with only a small, fixed, amount of memory.</p>
  */
 public class GCMSIVBlockCipher
          implements AEADBlockCipher
 {
+     /**
+      * A source of data for the two pass {@link #doFinal(DataSource, OutputStream)}, which must return the same
+      * content each time it is read. This maps directly on to a FileChannel (read(ByteBuffer, long)),
+      * a RandomAccessFile, or a mapped region of a file.
+      */
+     public interface DataSource
+     {
+         /**
+          * Return the length of the data.
+          * @return the length in bytes
+          * @throws IOException on a read error
+          */
+         long length() throws IOException;
+
+         /**
+          * Read data from a given position, without changing the position of any other reads.
+          * @param pPosition the position in the data to read from
+          * @param pBuffer the buffer to read into
+          * @param pOffset the offset in the buffer
+          * @param pLen the maximum number of bytes to read
+          * @return the number of bytes read, which may be less than pLen, or -1 at the end of the data
+          * @throws IOException on a read error
+          */
+         int read(long pPosition, byte[] pBuffer, int pOffset, int pLen) throws IOException;
+     }
+
      /**
       * The buffer length.
       */
@@ -54,6 +86,16 @@
       */
      private static final int MAX_DATALEN = Integer.MAX_VALUE - 8 - BUFLEN;
 
+     /**
+      * The maximum data length (PlainText) for the two pass doFinal, as given in RFC 8452.
+      */
+     private static final long MAX_STREAM_DATALEN = 1L << 36;
+
+     /**
+      * The chunk size for the two pass doFinal.
+      */
+     private static final int STREAM_CHUNK = 8192;
+
      /**
       * The top bit mask.
       */
@@ -415,6 +457,193 @@ public int doFinal(final byte[] pOutput,
          }
      }
 
+     /**
+      * Complete the operation on a message held in a re-readable source, writing the result to an output stream.
+      * <p>
+      * When encrypting, the first pass over the plain text calculates the tag, and the second encrypts it to the output
+      * followed by the tag. When decrypting, the source is the cipher text followed by the tag, the first pass decrypts
+      * to check the tag without releasing anything, and the second decrypts again to the output. Any associated data
+      * must be supplied before the call, and no message data may have been passed to processByte/processBytes.
+      * </p><p>
+      * <b>Note:</b> the source must return the same data on both passes. The second pass is hashed again and checked
+      * against the tag, and the length of the source is checked again once it is complete, so a change is detected, but
+      * only after output has been written. If an exception is thrown anything already written to pOutput must be
+      * discarded - it may be plain text which has not been authenticated, or cipher text which does not match the tag.
+      * </p>
+      * @param pSource the source of the plain text, or the cipher text and tag
+      * @param pOutput the stream to write the result to
+      * @return the number of bytes written
+      * @throws IOException on a read or write error, or if the source changed between passes when encrypting
+      * @throws InvalidCipherTextException on data too short, or mac check failed on either pass when decrypting
+      */
+     public long doFinal(final DataSource pSource,
+                         final OutputStream pOutput) throws IOException, InvalidCipherTextException
+     {
+         /* Check that we have initialised */
+         checkStatus(0);
+
+         /* Check that no data has been buffered */
+         if (thePlain.size() != 0 || (!forEncryption && theEncData.size() != 0))
+         {
+             throw new IllegalStateException("data has already been processed");
+         }
+
+         final byte[] myBuffer = new byte[STREAM_CHUNK];
+         final byte[] myMask = new byte[BUFLEN];
+
+         /* Save the hash of the AEAD data so that the second pass can be hashed again */
+         final byte[] myAEADHash = Arrays.clone(theGHash);
+         try
+         {
+             final long mySrcLen = pSource.length();
+
+             /* If we are encrypting */
+             if (forEncryption)
+             {
+                 if (mySrcLen > MAX_STREAM_DATALEN)
+                 {
+                     throw new DataLengthException("byte count exceeded");
+                 }
+
+                 /* Hash the plain text and derive the tag */
+                 for (long myPos = 0; myPos < mySrcLen; myPos += STREAM_CHUNK)
+                 {
+                     final int myLen = (int) Math.min(STREAM_CHUNK, mySrcLen - myPos);
+                     readFully(pSource, myPos, myBuffer, myLen);
+                     theDataHasher.updateHash(myBuffer, 0, myLen);
+                 }
+                 final byte[] myTag = calculateTag();
+
+                 /* hash and encrypt the plain text */
+                 restartDataHash(myAEADHash);
+                 final byte[] myCounter = Arrays.clone(myTag);
+                 myCounter[BUFLEN - 1] |= MASK;
+                 for (long myPos = 0; myPos < mySrcLen; myPos += STREAM_CHUNK)
+                 {
+                     final int myLen = (int) Math.min(STREAM_CHUNK, mySrcLen - myPos);
+                     readFully(pSource, myPos, myBuffer, myLen);
+                     theDataHasher.updateHash(myBuffer, 0, myLen);
+                     xorKeyStream(myCounter, myMask, myBuffer, myLen);
+                     pOutput.write(myBuffer, 0, myLen);
+                 }
+
+                 /* Check that what was encrypted is what the tag was derived from */
+                 checkSourceLength(pSource, mySrcLen);
+                 if (!Arrays.areEqual(myTag, calculateTag()))
+                 {
+                     throw new IOException("DataSource changed between passes");
+                 }
+
+                 /* Add the tag to the output */
+                 pOutput.write(myTag, 0, BUFLEN);
+                 System.arraycopy(myTag, 0, macBlock, 0, macBlock.length);
+
+                 /* Reset the streams */
+                 resetStreams();
+                 return mySrcLen + BUFLEN;
+             }
+
+             /* else we are decrypting */
+             final long myDataLen = mySrcLen - BUFLEN;
+             if (myDataLen < 0)
+             {
+                 throw new InvalidCipherTextException("Data too short");
+             }
+             if (myDataLen > MAX_STREAM_DATALEN)
+             {
+                 throw new DataLengthException("byte count exceeded");
+             }
+
+             /* Access counter */
+             final byte[] myExpected = new byte[BUFLEN];
+             readFully(pSource, myDataLen, myExpected, BUFLEN);
+             final byte[] myCounter = new byte[BUFLEN];
+
+             /* Decrypt and hash the plain text, without releasing it */
+             System.arraycopy(myExpected, 0, myCounter, 0, BUFLEN);
+             myCounter[BUFLEN - 1] |= MASK;
+             for (long myPos = 0; myPos < myDataLen; myPos += STREAM_CHUNK)
+             {
+                 final int myLen = (int) Math.min(STREAM_CHUNK, myDataLen - myPos);
+                 readFully(pSource, myPos, myBuffer, myLen);
+                 xorKeyStream(myCounter, myMask, myBuffer, myLen);
+                 theDataHasher.updateHash(myBuffer, 0, myLen);
+             }
+
+             /* Derive and check the tag */
+             final byte[] myTag = calculateTag();
+             if (!Arrays.constantTimeAreEqual(myTag, myExpected))
+             {
+                 reset();
+                 throw new InvalidCipherTextException("mac check failed");
+             }
+
+             /* Decrypt and hash again to the output */
+             restartDataHash(myAEADHash);
+             System.arraycopy(myExpected, 0, myCounter, 0, BUFLEN);
+             myCounter[BUFLEN - 1] |= MASK;
+             for (long myPos = 0; myPos < myDataLen; myPos += STREAM_CHUNK)
+             {
+                 final int myLen = (int) Math.min(STREAM_CHUNK, myDataLen - myPos);
+                 readFully(pSource, myPos, myBuffer, myLen);
+                 xorKeyStream(myCounter, myMask, myBuffer, myLen);
+                 theDataHasher.updateHash(myBuffer, 0, myLen);
+                 pOutput.write(myBuffer, 0, myLen);
+             }
+
+             /* Check the tag again, the output must be discarded if this fails */
+             checkSourceLength(pSource, mySrcLen);
+             if (!Arrays.constantTimeAreEqual(calculateTag(), myExpected))
+             {
+                 reset();
+                 throw new InvalidCipherTextException("mac check failed");
+             }
+
+             System.arraycopy(myTag, 0, macBlock, 0, macBlock.length);
+
+             /* Reset the streams */
+             resetStreams();
+             return myDataLen;
+         }
+         catch (IOException e)
+         {
+             /* Don't leave a partial hash behind */
+             reset();
+             throw e;
+         }
+         finally
+         {
+             Arrays.fill(myBuffer, (byte) 0);
+             Arrays.fill(myMask, (byte) 0);
+             Arrays.fill(myAEADHash, (byte) 0);
+         }
+     }
+
+     /**
+      * Restart the hash of the message data, from the saved hash of the AEAD data.
+      * @param pAEADHash the hash of the AEAD data
+      */
+     private void restartDataHash(final byte[] pAEADHash)
+     {
+         System.arraycopy(pAEADHash, 0, theGHash, 0, BUFLEN);
+         theDataHasher.reset();
+     }
+
+     /**
+      * Check that a source still has its original length.
+      * @param pSource the source
+      * @param pLength the original length
+      * @throws IOException if the length has changed
+      */
+     private static void checkSourceLength(final DataSource pSource,
+                                           final long pLength) throws IOException
+     {
+         if (pSource.length() != pLength)
+         {
+             throw new IOException("DataSource changed length");
+         }
+     }
+
      public byte[] getMac()
      {
          return Arrays.clone(macBlock);
@@ -546,6 +775,59 @@ private int encryptPlain(final byte[] pCounter,
          return thePlain.size();
      }
 
+     /**
+      * Read a block of data from a source.
+      * @param pSource the source
+      * @param pPosition the position to read from
+      * @param pBuffer the buffer to read into
+      * @param pLen the length of data to read
+      * @throws IOException on read error or the source ending early
+      */
+     private static void readFully(final DataSource pSource,
+                                   final long pPosition,
+                                   final byte[] pBuffer,
+                                   final int pLen) throws IOException
+     {
+         int myOff = 0;
+         while (myOff < pLen)
+         {
+             final int myRead = pSource.read(pPosition + myOff, pBuffer, myOff, pLen - myOff);
+             if (myRead < 0)
+             {
+                 throw new EOFException("DataSource ended early");
+             }
+             myOff += myRead;
+         }
+     }
+
+     /**
+      * xor the key stream into a buffer, in place.
+      * @param pCounter the counter, which is advanced past the blocks used
+      * @param pMask the mask buffer
+      * @param pBuffer the buffer
+      * @param pLen the length of data in the buffer
+      */
+     private void xorKeyStream(final byte[] pCounter,
+                               final byte[] pMask,
+                               final byte[] pBuffer,
+                               final int pLen)
+     {
+         /* While we have data to process */
+         for (int myOff = 0; myOff < pLen; myOff += BUFLEN)
+         {
+             /* Generate the next mask */
+             theCipher.processBlock(pCounter, 0, pMask, 0);
+             incrementCounter(pCounter);
+
+             /* Xor mask into data */
+             final int myLen = Math.min(BUFLEN, pLen - myOff);
+             for (int i = 0; i < myLen; i++)
+             {
+                 pBuffer[myOff + i] ^= pMask[i];
+             }
+         }
+     }
+
      /**
       * decrypt data stream.
       * @throws InvalidCipherTextException on data too short or mac check failed
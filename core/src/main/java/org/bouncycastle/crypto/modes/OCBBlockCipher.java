@@ -1,11 +1,10 @@
 package org.bouncycastle.crypto.modes;
 
-import java.util.Vector;
-
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.params.AEADParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
@@ -36,6 +35,10 @@
     implements AEADBlockCipher
 {
     private static final int BLOCK_SIZE = 16;
+    // number of L values, enough for any block count that fits in a long
+    private static final int L_COUNT = 64;
+    // whole blocks handed to the main cipher at a time
+    private static final int BATCH_BLOCKS = 8;
 
     private BlockCipher hashCipher;
     private BlockCipher mainCipher;
@@ -50,8 +53,8 @@
     /*
      * KEY-DEPENDENT
      */
-    // NOTE: elements are lazily calculated
-    private Vector L;
+    // L_i, for i = 0 to L_COUNT - 1, at offset i * 16
+    private byte[] L;
     private byte[] L_Asterisk, L_Dollar;
 
     /*
@@ -72,6 +75,10 @@
     private byte[] OffsetMAIN = new byte[16];
     private byte[] Checksum;
 
+    // workspace for processing several whole blocks at once
+    private final byte[] batchBlocks = new byte[BATCH_BLOCKS * BLOCK_SIZE];
+    private final byte[] batchOffsets = new byte[BATCH_BLOCKS * BLOCK_SIZE];
+
     // NOTE: The MAC value is preserved after doFinal
     private byte[] macBlock;
 
@@ -179,19 +186,28 @@ else if (parameters instanceof ParametersWithIV)
             hashCipher.initBlock(true, keyParameter);
             mainCipher.initBlock(forEncryption, keyParameter);
             KtopInput = null;
+            L = null;
         }
         else if (oldForEncryption != forEncryption)
         {
             throw new IllegalArgumentException("cannot change encrypting state without providing key.");
         }
 
-        this.L_Asterisk = new byte[16];
-        hashCipher.processBlock(L_Asterisk, 0, L_Asterisk, 0);
+        if (L == null)
+        {
+            this.L_Asterisk = new byte[16];
+            hashCipher.processBlock(L_Asterisk, 0, L_Asterisk, 0);
 
-        this.L_Dollar = OCB_double(L_Asterisk);
+            this.L_Dollar = OCB_double(L_Asterisk);
 
-        this.L = new Vector();
-        this.L.addElement(OCB_double(L_Dollar));
+            this.L = new byte[L_COUNT * 16];
+            byte[] L_i = OCB_double(L_Dollar);
+            for (int i = 0; i < L_COUNT; ++i)
+            {
+                System.arraycopy(L_i, 0, L, i * 16, 16);
+                L_i = OCB_double(L_i);
+            }
+        }
 
         /*
          * NONCE-DEPENDENT AND PER-ENCRYPTION/DECRYPTION INITIALISATION
@@ -332,18 +348,50 @@ public int processBytes(byte[] input, int inOff, int len, byte[] output, int out
         {
             throw new DataLengthException("Input buffer too short");
         }
+
+        /*
+         * When decrypting, the last macSize bytes seen may be the tag, so are always held back.
+         */
+        int available = mainBlockPos + len - (forEncryption ? 0 : macSize);
+        int blocks = available < BLOCK_SIZE ? 0 : available / BLOCK_SIZE;
+        if (output.length < (outOff + blocks * BLOCK_SIZE))
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+
         int resultLen = 0;
 
-        for (int i = 0; i < len; ++i)
+        while (blocks > 0)
         {
-            mainBlock[mainBlockPos] = input[inOff + i];
-            if (++mainBlockPos == mainBlock.length)
-            {
-                processMainBlock(output, outOff + resultLen);
-                resultLen += BLOCK_SIZE;
-            }
+            int count = Math.min(blocks, BATCH_BLOCKS);
+            int batchLen = count * BLOCK_SIZE;
+
+            // the batch starts with any bytes held in mainBlock, the rest comes from the input
+            int held = mainBlockPos;
+            int fromBlock = Math.min(held, batchLen);
+            System.arraycopy(mainBlock, 0, batchBlocks, 0, fromBlock);
+            System.arraycopy(input, inOff, batchBlocks, fromBlock, batchLen - fromBlock);
+            inOff += batchLen - fromBlock;
+            len -= batchLen - fromBlock;
+
+            // refill mainBlock before the output is written, in case the output overwrites the input
+            int left = held - fromBlock;
+            System.arraycopy(mainBlock, fromBlock, mainBlock, 0, left);
+            int carry = Math.min(fromBlock, len);
+            System.arraycopy(input, inOff, mainBlock, left, carry);
+            inOff += carry;
+            len -= carry;
+            mainBlockPos = left + carry;
+
+            processMainBlocks(count, output, outOff + resultLen);
+
+            resultLen += batchLen;
+            blocks -= count;
         }
 
+        System.arraycopy(input, inOff, mainBlock, mainBlockPos, len);
+        mainBlockPos += len;
+
         return resultLen;
     }
 
@@ -461,11 +509,7 @@ protected void clear(byte[] bs)
 
     protected byte[] getLSub(int n)
     {
-        while (n >= L.size())
-        {
-            L.addElement(OCB_double((byte[])L.lastElement()));
-        }
-        return (byte[])L.elementAt(n);
+        return Arrays.copyOfRange(L, n * 16, n * 16 + 16);
     }
 
     protected void processHashBlock()
@@ -473,7 +517,10 @@ protected void processHashBlock()
         /*
          * HASH: Process any whole blocks
          */
-        updateHASH(getLSub(OCB_ntz(++hashBlockCount)));
+        Bytes.xorTo(16, L, OCB_ntz(++hashBlockCount) * 16, OffsetHASH, 0);
+        xor(hashBlock, OffsetHASH);
+        hashCipher.processBlock(hashBlock, 0, hashBlock, 0);
+        xor(Sum, hashBlock);
         hashBlockPos = 0;
     }
 
@@ -494,7 +541,7 @@ protected void processMainBlock(byte[] output, int outOff)
             mainBlockPos = 0;
         }
 
-        xor(OffsetMAIN, getLSub(OCB_ntz(++mainBlockCount)));
+        Bytes.xorTo(16, L, OCB_ntz(++mainBlockCount) * 16, OffsetMAIN, 0);
 
         xor(mainBlock, OffsetMAIN);
         mainCipher.processBlock(mainBlock, 0, mainBlock, 0);
@@ -510,6 +557,52 @@ protected void processMainBlock(byte[] output, int outOff)
         }
     }
 
+    /*
+     * OCB-ENCRYPT/OCB-DECRYPT: Process count whole blocks from batchBlocks, calculating all the offsets
+     * first so the main cipher can work on the blocks together.
+     */
+    private void processMainBlocks(int count, byte[] output, int outOff)
+    {
+        int len = count * BLOCK_SIZE;
+
+        for (int off = 0; off < len; off += BLOCK_SIZE)
+        {
+            if (forEncryption)
+            {
+                Bytes.xorTo(BLOCK_SIZE, batchBlocks, off, Checksum, 0);
+            }
+
+            Bytes.xorTo(16, L, OCB_ntz(++mainBlockCount) * 16, OffsetMAIN, 0);
+            System.arraycopy(OffsetMAIN, 0, batchOffsets, off, BLOCK_SIZE);
+        }
+
+        Bytes.xorTo(len, batchOffsets, batchBlocks);
+
+        if (mainCipher instanceof MultiBlockCipher)
+        {
+            ((MultiBlockCipher)mainCipher).processBlocks(batchBlocks, 0, count, batchBlocks, 0);
+        }
+        else
+        {
+            for (int off = 0; off < len; off += BLOCK_SIZE)
+            {
+                mainCipher.processBlock(batchBlocks, off, batchBlocks, off);
+            }
+        }
+
+        Bytes.xorTo(len, batchOffsets, batchBlocks);
+
+        if (!forEncryption)
+        {
+            for (int off = 0; off < len; off += BLOCK_SIZE)
+            {
+                Bytes.xorTo(BLOCK_SIZE, batchBlocks, off, Checksum, 0);
+            }
+        }
+
+        System.arraycopy(batchBlocks, 0, output, outOff, len);
+    }
+
     protected void reset(boolean clearMac)
     {
         hashCipher.resetBlock();
@@ -528,6 +621,7 @@ protected void reset(boolean clearMac)
         clear(Sum);
         System.arraycopy(OffsetMAIN_0, 0, OffsetMAIN, 0, 16);
         clear(Checksum);
+        clear(batchBlocks);
 
         if (clearMac)
         {
@@ -0,0 +1,319 @@
+package org.bouncycastle.crypto.modes;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.MultiBlockCipher;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Bytes;
+
+/**
+ * Spreads the parts of a mode's work where the blocks do not depend on each other - CBC decryption
+ * and the CTR keystream - over a {@link ForkJoinPool}.
+ * <p>
+ * A mode only hands work to the processor once it has a run of at least {@link #getThreshold()} bytes,
+ * anything smaller is processed on the calling thread as usual. Each piece of work runs on its own
+ * instance of the underlying cipher, taken from the {@link BlockCipherProvider} and initialised with the
+ * mode's key, so the provider must return a new engine on every call. The processor holds no key state
+ * of its own and may be shared between modes.
+ * </p>
+ * <p>
+ * The processor should be set on the mode before it is wrapped in a CipherInputStream or
+ * CipherOutputStream, as the streams size their buffers from it.
+ * </p>
+ */
+public class ParallelBlockCipherProcessor
+{
+    /**
+     * Source of fresh, uninitialised, block cipher engines for the worker threads.
+     */
+    public interface BlockCipherProvider
+    {
+        BlockCipher get();
+    }
+
+    /**
+     * Default size in bytes an input must reach before it is split across threads (1 MiB).
+     */
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+    // size of the pieces the input is split into.
+    private static final int SPLIT_SIZE = 64 * 1024;
+    // blocks handed to the engine at a time within a piece.
+    private static final int BATCH_BLOCKS = 16;
+    // a buffered cipher may be holding back up to two blocks of the largest block size we support.
+    private static final int STREAM_BUFFER_SLACK = 256;
+
+    private final BlockCipherProvider provider;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    /**
+     * Base constructor - use the default threshold and the common pool.
+     *
+     * @param provider source of engines for the worker threads.
+     */
+    public ParallelBlockCipherProcessor(BlockCipherProvider provider)
+    {
+        this(provider, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor with a specific threshold, using the common pool.
+     *
+     * @param provider source of engines for the worker threads.
+     * @param threshold the number of bytes an input must reach to be processed in parallel.
+     */
+    public ParallelBlockCipherProcessor(BlockCipherProvider provider, int threshold)
+    {
+        this(provider, threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with a specific threshold and pool.
+     *
+     * @param provider source of engines for the worker threads.
+     * @param threshold the number of bytes an input must reach to be processed in parallel.
+     * @param pool the pool to run the work on.
+     */
+    public ParallelBlockCipherProcessor(BlockCipherProvider provider, int threshold, ForkJoinPool pool)
+    {
+        if (provider == null)
+        {
+            throw new NullPointerException("'provider' cannot be null");
+        }
+        if (threshold <= 0)
+        {
+            throw new IllegalArgumentException("'threshold' must be positive");
+        }
+        if (pool == null)
+        {
+            throw new NullPointerException("'pool' cannot be null");
+        }
+
+        this.provider = provider;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Return the number of bytes an input must reach before it is processed in parallel.
+     *
+     * @return the threshold in bytes.
+     */
+    public int getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Return the size of buffer a stream should use to feed a mode running this processor. This is the
+     * threshold plus room for any partial block the cipher is holding back, so a full buffer always
+     * produces a run long enough to be split.
+     *
+     * @return a buffer size in bytes.
+     */
+    public int getStreamBufferSize()
+    {
+        return threshold + STREAM_BUFFER_SLACK;
+    }
+
+    /**
+     * Return true if a run of len bytes should be processed in parallel. Overlapping input and output
+     * are only supported if they start at the same offset.
+     */
+    boolean isParallel(byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
+        return len >= threshold && (in != out || inOff == outOff);
+    }
+
+    /**
+     * CBC decrypt blockCount blocks. On return iv holds the last ciphertext block processed.
+     */
+    void processCBCDecryption(CipherParameters key, byte[] iv, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        int blockSize = iv.length;
+        byte[] last = Arrays.copyOfRange(in, inOff + (blockCount - 1) * blockSize, inOff + blockCount * blockSize);
+
+        pool.invoke(new CBCDecryptTask(key, Arrays.clone(iv), in, inOff, blockCount, out, outOff));
+
+        System.arraycopy(last, 0, iv, 0, blockSize);
+    }
+
+    /**
+     * CTR process blockCount blocks starting at counter. The counter itself is not changed.
+     */
+    void processCTR(CipherParameters key, byte[] counter, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        pool.invoke(new CTRTask(key, Arrays.clone(counter), in, inOff, blockCount, out, outOff));
+    }
+
+    /**
+     * Add n to a big endian counter, wrapping at the top as the CTR modes do.
+     */
+    static void addToCounter(byte[] counter, long n)
+    {
+        for (int i = counter.length - 1; i >= 0 && n != 0; i--)
+        {
+            n += counter[i] & 0xff;
+            counter[i] = (byte)n;
+            n >>>= 8;
+        }
+    }
+
+    private BlockCipher newEngine(boolean forEncryption, CipherParameters key)
+    {
+        BlockCipher engine = provider.get();
+
+        engine.initBlock(forEncryption, key);
+
+        return engine;
+    }
+
+    private static void processBlocks(BlockCipher engine, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        if (engine instanceof MultiBlockCipher)
+        {
+            ((MultiBlockCipher)engine).processBlocks(in, inOff, blockCount, out, outOff);
+        }
+        else
+        {
+            int blockSize = engine.getBlockSize();
+            for (int i = 0; i != blockCount; i++)
+            {
+                engine.processBlock(in, inOff + i * blockSize, out, outOff + i * blockSize);
+            }
+        }
+    }
+
+    private class CBCDecryptTask
+        extends RecursiveAction
+    {
+        private final CipherParameters key;
+        private final byte[] prev;
+        private final byte[] in;
+        private final int inOff;
+        private final int blockCount;
+        private final byte[] out;
+        private final int outOff;
+
+        CBCDecryptTask(CipherParameters key, byte[] prev, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        {
+            this.key = key;
+            this.prev = prev;
+            this.in = in;
+            this.inOff = inOff;
+            this.blockCount = blockCount;
+            this.out = out;
+            this.outOff = outOff;
+        }
+
+        protected void compute()
+        {
+            int blockSize = prev.length;
+
+            if (blockCount > 1 && blockCount * blockSize > SPLIT_SIZE)
+            {
+                int half = blockCount / 2;
+                int split = half * blockSize;
+
+                // the right half chains from the last ciphertext block of the left half, take it before
+                // the left half has a chance to overwrite it.
+                byte[] rightPrev = Arrays.copyOfRange(in, inOff + split - blockSize, inOff + split);
+
+                invokeAll(new CBCDecryptTask(key, prev, in, inOff, half, out, outOff),
+                    new CBCDecryptTask(key, rightPrev, in, inOff + split, blockCount - half, out, outOff + split));
+                return;
+            }
+
+            BlockCipher engine = newEngine(false, key);
+            byte[] cipherText = new byte[BATCH_BLOCKS * blockSize];
+
+            int done = 0;
+            while (done < blockCount)
+            {
+                int blocks = Math.min(BATCH_BLOCKS, blockCount - done);
+                int len = blocks * blockSize;
+                int off = done * blockSize;
+
+                System.arraycopy(in, inOff + off, cipherText, 0, len);
+
+                processBlocks(engine, cipherText, 0, blocks, out, outOff + off);
+
+                Bytes.xorTo(blockSize, prev, 0, out, outOff + off);
+                Bytes.xorTo(len - blockSize, cipherText, 0, out, outOff + off + blockSize);
+
+                System.arraycopy(cipherText, len - blockSize, prev, 0, blockSize);
+
+                done += blocks;
+            }
+        }
+    }
+
+    private class CTRTask
+        extends RecursiveAction
+    {
+        private final CipherParameters key;
+        private final byte[] counter;
+        private final byte[] in;
+        private final int inOff;
+        private final int blockCount;
+        private final byte[] out;
+        private final int outOff;
+
+        CTRTask(CipherParameters key, byte[] counter, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        {
+            this.key = key;
+            this.counter = counter;
+            this.in = in;
+            this.inOff = inOff;
+            this.blockCount = blockCount;
+            this.out = out;
+            this.outOff = outOff;
+        }
+
+        protected void compute()
+        {
+            int blockSize = counter.length;
+
+            if (blockCount > 1 && blockCount * blockSize > SPLIT_SIZE)
+            {
+                int half = blockCount / 2;
+                int split = half * blockSize;
+
+                byte[] rightCounter = Arrays.clone(counter);
+                addToCounter(rightCounter, half);
+
+                invokeAll(new CTRTask(key, counter, in, inOff, half, out, outOff),
+                    new CTRTask(key, rightCounter, in, inOff + split, blockCount - half, out, outOff + split));
+                return;
+            }
+
+            BlockCipher engine = newEngine(true, key);
+            byte[] counters = new byte[BATCH_BLOCKS * blockSize];
+            byte[] keyStream = new byte[BATCH_BLOCKS * blockSize];
+
+            int done = 0;
+            while (done < blockCount)
+            {
+                int blocks = Math.min(BATCH_BLOCKS, blockCount - done);
+                int len = blocks * blockSize;
+                int off = done * blockSize;
+
+                for (int pos = 0; pos < len; pos += blockSize)
+                {
+                    System.arraycopy(counter, 0, counters, pos, blockSize);
+                    addToCounter(counter, 1);
+                }
+
+                processBlocks(engine, counters, 0, blocks, keyStream, 0);
+
+                Bytes.xor(len, keyStream, 0, in, inOff + off, out, outOff + off);
+
+                done += blocks;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.bouncycastle.crypto.modes;
+
+/**
+ * A block cipher mode which can hand long runs of independent blocks to a {@link ParallelBlockCipherProcessor}.
+ */
+public interface ParallelModeCipher
+{
+    /**
+     * Set the processor to use for runs at or over its threshold, null to always process on the calling thread.
+     *
+     * @param processor the parallel processor to use, may be null.
+     */
+    void setParallelProcessor(ParallelBlockCipherProcessor processor);
+
+    /**
+     * Return the parallel processor in use, if any.
+     *
+     * @return the parallel processor, null if there isn't one.
+     */
+    ParallelBlockCipherProcessor getParallelProcessor();
+}
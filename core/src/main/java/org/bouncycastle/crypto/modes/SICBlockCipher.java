@@ -3,21 +3,32 @@
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.StreamBlockCipher;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Bytes;
 import org.bouncycastle.util.Pack;
 
 /**
  * Implements the Segmented Integer Counter (SIC) mode on top of a simple
  * block cipher. This mode is also known as CTR mode.
+ * <p>
+ * If the underlying cipher is a {@link MultiBlockCipher}, runs of whole blocks passed to processBytes()
+ * have their counter blocks built up in a batch and encrypted with a single call to processBlocks().
+ * If a {@link ParallelBlockCipherProcessor} is set, runs of whole blocks reaching its threshold are split
+ * across threads instead.
+ * </p>
  */
 public class SICBlockCipher
     extends StreamBlockCipher
-    implements CTRModeCipher
+    implements CTRModeCipher, ParallelModeCipher
 {
+    private static final int BATCH_BLOCKS = 16;
+
     private final BlockCipher     cipher;
+    private final MultiBlockCipher mbCipher;
     private final int             blockSize;
 
     private byte[]          IV;
@@ -25,6 +36,12 @@
     private byte[]          counterOut;
     private int             byteCount;
 
+    private byte[]          counterBatch;
+    private byte[]          counterBatchOut;
+
+    private CipherParameters             key;
+    private ParallelBlockCipherProcessor parallelProcessor;
+
     /**
      * Return a new SIC/CTR mode cipher based on the passed in base cipher
      *
@@ -51,6 +68,17 @@ public SICBlockCipher(BlockCipher c)
         this.counter = new byte[blockSize];
         this.counterOut = new byte[blockSize];
         this.byteCount = 0;
+
+        if (c instanceof MultiBlockCipher)
+        {
+            this.mbCipher = (MultiBlockCipher)c;
+            this.counterBatch = new byte[blockSize * BATCH_BLOCKS];
+            this.counterBatchOut = new byte[blockSize * BATCH_BLOCKS];
+        }
+        else
+        {
+            this.mbCipher = null;
+        }
     }
 
     public void initBlock(
@@ -79,6 +107,7 @@ public void initBlock(
             if (ivParam.getParameters() != null)
             {
                 cipher.initBlock(true, ivParam.getParameters());
+                key = ivParam.getParameters();
             }
 
             resetBlock();
@@ -138,7 +167,52 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             throw new OutputLengthException("output buffer too short");
         }
 
-        for (int i = 0; i < len; ++i)
+        int i = 0;
+
+        if (mbCipher != null || parallelProcessor != null)
+        {
+            // finish off any partially used block first
+            while (byteCount != 0 && i < len)
+            {
+                out[outOff + i] = calculateByte(in[inOff + i]);
+                ++i;
+            }
+
+            if (parallelProcessor != null)
+            {
+                i += processParallel(in, inOff + i, len - i, out, outOff + i);
+            }
+        }
+
+        if (mbCipher != null)
+        {
+            while (len - i >= blockSize)
+            {
+                int blocks = Math.min((len - i) / blockSize, BATCH_BLOCKS);
+
+                // a batch that would run out of counter is left to the block by block path below, so the
+                // range exception leaves the counter and the output as they would be without batching.
+                if (!counterHasRoom(blocks))
+                {
+                    break;
+                }
+
+                int batchLen = blocks * blockSize;
+
+                for (int pos = 0; pos < batchLen; pos += blockSize)
+                {
+                    System.arraycopy(counter, 0, counterBatch, pos, blockSize);
+                    incrementCounter();
+                }
+
+                mbCipher.processBlocks(counterBatch, 0, blocks, counterBatchOut, 0);
+                Bytes.xor(batchLen, counterBatchOut, 0, in, inOff + i, out, outOff + i);
+
+                i += batchLen;
+            }
+        }
+
+        for (; i < len; ++i)
         {
             byte next;
 
@@ -164,6 +238,57 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
         return len;
     }
 
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int len = blockCount * blockSize;
+
+        processBytes(in, inOff, len, out, outOff);
+
+        return len;
+    }
+
+    public void setParallelProcessor(ParallelBlockCipherProcessor processor)
+    {
+        this.parallelProcessor = processor;
+    }
+
+    public ParallelBlockCipherProcessor getParallelProcessor()
+    {
+        return parallelProcessor;
+    }
+
+    /**
+     * Hand the whole blocks at the start of the input to the parallel processor if there are enough of them,
+     * returning the number of bytes processed.
+     */
+    private int processParallel(byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
+        int blocks = len / blockSize;
+        int bulkLen = blocks * blockSize;
+
+        if (key == null || !parallelProcessor.isParallel(in, inOff, bulkLen, out, outOff))
+        {
+            return 0;
+        }
+
+        // if the counter would run into the IV part, leave it to the sequential path to fail at the right place.
+        if (!counterHasRoom(blocks))
+        {
+            return 0;
+        }
+
+        byte[] last = Arrays.clone(counter);
+        ParallelBlockCipherProcessor.addToCounter(last, blocks - 1);
+
+        parallelProcessor.processCTR(key, counter, in, inOff, blocks, out, outOff);
+
+        System.arraycopy(last, 0, counter, 0, blockSize);
+        incrementCounter();
+
+        return bulkLen;
+    }
+
     protected byte calculateByte(byte in)
           throws DataLengthException, IllegalStateException
     {
@@ -214,6 +339,37 @@ private void checkLastIncrement()
         }
     }
 
+    /**
+     * Return true if blocks counter blocks, starting with the current one, can be used before the counter
+     * runs into the IV part.
+     */
+    private boolean counterHasRoom(int blocks)
+    {
+        // if the IV is the same as the blocksize we assume the user knows what they are doing
+        if (IV.length >= blockSize)
+        {
+            return true;
+        }
+
+        if (counter[IV.length - 1] != IV[IV.length - 1])
+        {
+            return false;
+        }
+
+        // the counter part can count up to all ones, which leaves its complement as the further blocks available
+        long room = 0;
+        for (int i = IV.length; i < blockSize; ++i)
+        {
+            if (room > (Integer.MAX_VALUE >>> 8))
+            {
+                return true;
+            }
+            room = (room << 8) | (~counter[i] & 0xFF);
+        }
+
+        return blocks - 1 <= room;
+    }
+
     private void incrementCounter()
     {
         int i = counter.length;
@@ -0,0 +1,26 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+/**
+ * A GCM multiplier that can also fold several consecutive blocks into the hash, sharing a single
+ * reduction across all of them ("aggregated reduction").
+ */
+public interface GCMAggregateMultiplier
+    extends GCMMultiplier
+{
+    /**
+     * Return the number of blocks consumed by each call to {@link #multiplyHBlocks(byte[], byte[], int)}.
+     *
+     * @return the aggregation factor, in blocks.
+     */
+    int getAggregateBlockCount();
+
+    /**
+     * Hash getAggregateBlockCount() blocks into x. The result is identical to, for each block X_i in turn,
+     * x = (x ^ X_i).H.
+     *
+     * @param x the current hash value, replaced by the updated hash value.
+     * @param b the array holding the blocks to be hashed.
+     * @param off the offset into b of the first block.
+     */
+    void multiplyHBlocks(byte[] x, byte[] b, int off);
+}
@@ -0,0 +1,153 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+import org.bouncycastle.util.Pack;
+
+/**
+ * A table driven GCM multiplier holding a 4k table for each of H, H^2, ..., H^n, where n is either 4 or 8.
+ * <p>
+ * Each instance therefore holds 4k of tables per aggregated block: 16k for the default of
+ * {@link #DEFAULT_BLOCK_COUNT} blocks, 32k for 8, against the 4k of {@link Tables4kGCMMultiplier}.
+ * </p>
+ * <p>
+ * Single blocks are multiplied by H as in {@link Tables4kGCMMultiplier}. Runs of n blocks X_1..X_n are
+ * hashed as (x ^ X_1).H^n ^ X_2.H^(n-1) ^ ... ^ X_n.H, walking all n blocks a byte at a time in step so that
+ * the shift and reduction by the field polynomial is done once per byte position for the whole run rather
+ * than once per byte position for every block.
+ * </p>
+ */
+public class Tables4kAggregateGCMMultiplier
+    implements GCMAggregateMultiplier
+{
+    /**
+     * The number of blocks aggregated by default, as used by {@link org.bouncycastle.crypto.modes.GCMBlockCipher}.
+     */
+    public static final int DEFAULT_BLOCK_COUNT = 4;
+
+    private final int blockCount;
+
+    private byte[] H;
+    private long[][][] T;
+
+    /**
+     * Base constructor - aggregate {@link #DEFAULT_BLOCK_COUNT} blocks at a time.
+     */
+    public Tables4kAggregateGCMMultiplier()
+    {
+        this(DEFAULT_BLOCK_COUNT);
+    }
+
+    /**
+     * Constructor allowing the aggregation factor to be chosen.
+     *
+     * @param blockCount the number of blocks to hash per reduction, 4 or 8.
+     */
+    public Tables4kAggregateGCMMultiplier(int blockCount)
+    {
+        if (blockCount != 4 && blockCount != 8)
+        {
+            throw new IllegalArgumentException("blockCount must be 4 or 8");
+        }
+
+        this.blockCount = blockCount;
+    }
+
+    public int getAggregateBlockCount()
+    {
+        return blockCount;
+    }
+
+    public void init(byte[] H)
+    {
+        if (T == null)
+        {
+            T = new long[blockCount][256][2];
+        }
+        else if (0 != GCMUtil.areEqual(this.H, H))
+        {
+            return;
+        }
+
+        this.H = new byte[GCMUtil.SIZE_BYTES];
+        GCMUtil.copy(H, this.H);
+
+        long[] h = GCMUtil.asLongs(this.H);
+        long[] hPow = GCMUtil.asLongs(this.H);
+
+        for (int i = 0; i < blockCount; ++i)
+        {
+            long[][] t = T[i];
+
+            if (i > 0)
+            {
+                // hPow = H^(i + 1)
+                GCMUtil.multiply(hPow, h);
+            }
+
+            // t[0] = 0
+
+            // t[1] = H^(i + 1).p^7
+            GCMUtil.multiplyP7(hPow, t[1]);
+
+            for (int n = 2; n < 256; n += 2)
+            {
+                // t[2.n] = t[n].p^-1
+                GCMUtil.divideP(t[n >> 1], t[n]);
+
+                // t[2.n + 1] = t[2.n] + t[1]
+                GCMUtil.xor(t[n], t[1], t[n + 1]);
+            }
+        }
+    }
+
+    public void multiplyH(byte[] x)
+    {
+        long[][] T0 = T[0];
+
+        long[] t = T0[x[15] & 0xFF];
+        long z0 = t[0], z1 = t[1];
+
+        for (int i = 14; i >= 0; --i)
+        {
+            t = T0[x[i] & 0xFF];
+
+            long c = z1 << 56;
+            z1 = t[1] ^ ((z1 >>> 8) | (z0 << 56));
+            z0 = t[0] ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+
+    public void multiplyHBlocks(byte[] x, byte[] b, int off)
+    {
+        // the first block carries the running hash and is multiplied by the highest power of H
+        int last = blockCount - 1;
+
+        long z0 = 0, z1 = 0;
+
+        for (int i = 15; i >= 0; --i)
+        {
+            if (i < 15)
+            {
+                long c = z1 << 56;
+                z1 = (z1 >>> 8) | (z0 << 56);
+                z0 = (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+            }
+
+            long[] t = T[last][(x[i] ^ b[off + i]) & 0xFF];
+            z0 ^= t[0];
+            z1 ^= t[1];
+
+            for (int j = 1, pos = off + 16 + i; j <= last; ++j, pos += 16)
+            {
+                t = T[last - j][b[pos] & 0xFF];
+                z0 ^= t[0];
+                z1 ^= t[1];
+            }
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+}
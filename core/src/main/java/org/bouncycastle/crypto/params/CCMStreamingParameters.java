@@ -0,0 +1,69 @@
+package org.bouncycastle.crypto.params;
+
+/**
+ * Parameters for CCM which declare the message and associated text lengths up front. With the lengths
+ * known at initialisation CCM can MAC and encrypt, or decrypt, as the data arrives rather than holding
+ * it all until doFinal().
+ */
+public class CCMStreamingParameters
+    extends AEADParameters
+{
+    private final long dataLength;
+    private final long associatedTextLength;
+
+    /**
+     * Base constructor.
+     *
+     * @param key key to be used by underlying cipher
+     * @param macSize macSize in bits
+     * @param nonce nonce to be used
+     * @param associatedTextLength total length of the associated text
+     * @param dataLength length of the plain text, not including the MAC
+     */
+    public CCMStreamingParameters(KeyParameter key, int macSize, byte[] nonce, long associatedTextLength, long dataLength)
+    {
+        this(key, macSize, nonce, null, associatedTextLength, dataLength);
+    }
+
+    /**
+     * Constructor with initial associated text.
+     *
+     * @param key key to be used by underlying cipher
+     * @param macSize macSize in bits
+     * @param nonce nonce to be used
+     * @param associatedText initial associated text, if any
+     * @param associatedTextLength total length of the associated text, including the initial associated text
+     * @param dataLength length of the plain text, not including the MAC
+     */
+    public CCMStreamingParameters(KeyParameter key, int macSize, byte[] nonce, byte[] associatedText,
+        long associatedTextLength, long dataLength)
+    {
+        super(key, macSize, nonce, associatedText);
+
+        if (associatedTextLength < 0 || associatedTextLength > 0xFFFFFFFFL)
+        {
+            throw new IllegalArgumentException("associatedTextLength out of range");
+        }
+        if (associatedText != null && associatedText.length > associatedTextLength)
+        {
+            throw new IllegalArgumentException("initial associated text longer than associatedTextLength");
+        }
+        if (dataLength < 0)
+        {
+            throw new IllegalArgumentException("dataLength cannot be negative");
+        }
+
+        this.associatedTextLength = associatedTextLength;
+        this.dataLength = dataLength;
+    }
+
+    public long getAssociatedTextLength()
+    {
+        return associatedTextLength;
+    }
+
+    public long getDataLength()
+    {
+        return dataLength;
+    }
+}
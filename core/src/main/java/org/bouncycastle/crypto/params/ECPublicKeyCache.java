@@ -0,0 +1,199 @@
+package org.bouncycastle.crypto.params;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
+
+/**
+ * A bounded cache of validated EC public points, keyed by curve and point encoding.
+ * <p>
+ * Precomputation for a point, such as the validity check and the wNAF tables built when the point is
+ * multiplied, is kept with the point itself, so by handing out the same point each time a key is seen the
+ * cache lets repeat verifications against that key skip decoding, validation and table building. The cache is
+ * opt-in: it is only used by the library if a default has been set with {@link #setDefault(ECPublicKeyCache)},
+ * or if the system property {@link #CACHE_SIZE_PROPERTY} gives it a size.
+ * </p>
+ * <p>
+ * Curves are matched by identity, as a point is only of use to calculations on the curve instance it belongs
+ * to. When the cache is full an arbitrary entry is evicted to make room.
+ * </p>
+ */
+public final class ECPublicKeyCache
+{
+    /**
+     * System property giving the size of the default cache. If unset or 0 there is no default cache.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "org.bouncycastle.ec.public_key_cache_size";
+
+    private static final Object DEFAULT_LOCK = new Object();
+    private static volatile boolean defaultSet = false;
+    private static volatile ECPublicKeyCache defaultCache = null;
+
+    private final Map points = new ConcurrentHashMap();
+    private final int maxSize;
+
+    /**
+     * Create a cache holding at most maxSize points.
+     *
+     * @param maxSize the maximum number of points kept.
+     */
+    public ECPublicKeyCache(int maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the default cache, configured from {@link #CACHE_SIZE_PROPERTY} on first use unless
+     * {@link #setDefault(ECPublicKeyCache)} was called first.
+     *
+     * @return the default cache, or null if there is none.
+     */
+    public static ECPublicKeyCache getDefault()
+    {
+        if (!defaultSet)
+        {
+            synchronized (DEFAULT_LOCK)
+            {
+                if (!defaultSet)
+                {
+                    int size = Properties.asInteger(CACHE_SIZE_PROPERTY, 0);
+                    defaultCache = size > 0 ? new ECPublicKeyCache(size) : null;
+                    defaultSet = true;
+                }
+            }
+        }
+
+        return defaultCache;
+    }
+
+    /**
+     * Set the cache used by default.
+     *
+     * @param cache the new default cache, null to stop caching.
+     */
+    public static void setDefault(ECPublicKeyCache cache)
+    {
+        synchronized (DEFAULT_LOCK)
+        {
+            defaultCache = cache;
+            defaultSet = true;
+        }
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public int size()
+    {
+        return points.size();
+    }
+
+    public void clear()
+    {
+        points.clear();
+    }
+
+    /**
+     * Return the validated point for encoding on the curve of parameters, decoding and validating it only if it
+     * is not already in the cache.
+     *
+     * @param parameters the domain parameters the point belongs to.
+     * @param encoding the encoded point.
+     * @return a validated, normalized point.
+     * @throws IllegalArgumentException if the encoding is not of a valid public point.
+     */
+    public ECPoint decodePoint(ECDomainParameters parameters, byte[] encoding)
+    {
+        ECCurve curve = parameters.getCurve();
+        Key key = new Key(curve, encoding);
+
+        ECPoint q = (ECPoint)points.get(key);
+        if (q == null)
+        {
+            q = parameters.validatePublicPoint(curve.decodePoint(encoding));
+            put(new Key(curve, Arrays.clone(encoding)), q);
+        }
+        return q;
+    }
+
+    /**
+     * Return the cached instance of an already validated point, adding q to the cache if the point is not
+     * already there.
+     *
+     * @param q a validated public point, such as that of an {@link ECPublicKeyParameters}.
+     * @return the cached point equal to q.
+     */
+    public ECPoint intern(ECPoint q)
+    {
+        if (q.isInfinity())
+        {
+            return q;
+        }
+
+        Key key = new Key(q.getCurve(), q.getEncoded(false));
+
+        ECPoint cached = (ECPoint)points.get(key);
+        if (cached == null)
+        {
+            put(key, q);
+            return q;
+        }
+        return cached;
+    }
+
+    private void put(Key key, ECPoint q)
+    {
+        if (points.size() >= maxSize)
+        {
+            Iterator it = points.keySet().iterator();
+            if (it.hasNext())
+            {
+                points.remove(it.next());
+            }
+        }
+
+        points.put(key, q);
+    }
+
+    private static final class Key
+    {
+        private final ECCurve curve;
+        private final byte[] encoding;
+        private final int hashCode;
+
+        Key(ECCurve curve, byte[] encoding)
+        {
+            this.curve = curve;
+            this.encoding = encoding;
+            this.hashCode = System.identityHashCode(curve) * 31 + Arrays.hashCode(encoding);
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return curve == other.curve && Arrays.areEqual(encoding, other.encoding);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+}
@@ -6,9 +6,11 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.crypto.DSAExt;
+import org.bouncycastle.crypto.ec.FixedCurveEngine;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.ECKeyParameters;
 import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyCache;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.math.ec.ECAlgorithms;
@@ -30,6 +32,7 @@
 
     private ECKeyParameters key;
     private SecureRandom    random;
+    private FixedCurveEngine engine;
 
     /**
      * Default configuration, random K values.
@@ -77,6 +80,9 @@ public void init(
         CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("ECDSA", key, forSigning));
 
         this.random = initSecureRandom(forSigning && !kCalculator.isDeterministic(), providedRandom);
+
+        // k * G may be taken from the fixed curve engine, if there is one, verification stays with ECPoint
+        this.engine = forSigning ? FixedCurveEngine.getInstance(key.getParameters()) : null;
     }
 
     public BigInteger getOrder()
@@ -113,6 +119,9 @@ public BigInteger[] generateSignature(
 
         ECMultiplier basePointMultiplier = createBasePointMultiplier();
 
+        // the engine only stands in for the default multiplier, anything else from createBasePointMultiplier() is used
+        FixedCurveEngine baseEngine = (basePointMultiplier.getClass() == FixedPointCombMultiplier.class) ? engine : null;
+
         // 5.3.2
         do // generate s
         {
@@ -121,10 +130,20 @@ public BigInteger[] generateSignature(
             {
                 k = kCalculator.nextK();
 
-                ECPoint p = basePointMultiplier.multiply(ec.getG(), k).normalize();
+                BigInteger x;
+                if (baseEngine != null)
+                {
+                    x = baseEngine.multiplyBaseX(k);
+                }
+                else
+                {
+                    ECPoint p = basePointMultiplier.multiply(ec.getG(), k).normalize();
+
+                    x = p.getAffineXCoord().toBigInteger();
+                }
 
                 // 5.3.3
-                r = p.getAffineXCoord().toBigInteger().mod(n);
+                r = x.mod(n);
             }
             while (r.equals(ZERO));
 
@@ -170,6 +189,13 @@ public boolean verifySignature(
         ECPoint G = ec.getG();
         ECPoint Q = ((ECPublicKeyParameters)key).getQ();
 
+        // a cached instance of Q keeps the precomputation from earlier verifications with the same key
+        ECPublicKeyCache cache = ECPublicKeyCache.getDefault();
+        if (cache != null)
+        {
+            Q = cache.intern(Q);
+        }
+
         ECPoint point = ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
 
         // components must be bogus.
@@ -0,0 +1,136 @@
+package org.bouncycastle.crypto.signers;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.math.ec.rfc8032.Ed448;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Verifier for batches of Ed448 signatures made with a common context. Entries are collected with {@link #add} and checked together
+ * by {@link #verify()}, which for larger batches is considerably cheaper than verifying each signature with
+ * an {@link Ed448Signer}. After verification the entries which failed are available from
+ * {@link #getFailedIndices()}.
+ */
+public class Ed448BatchVerifier
+{
+    private final byte[] context;
+    private final SecureRandom random;
+    private final List publicKeys = new ArrayList();
+    private final List messages = new ArrayList();
+    private final List signatures = new ArrayList();
+
+    private boolean[] results;
+
+    public Ed448BatchVerifier(byte[] context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Constructor with the source of the random weights used to combine the signatures.
+     *
+     * @param context the context shared by all the signatures in the batch.
+     * @param random the source of randomness, or null for the default.
+     */
+    public Ed448BatchVerifier(byte[] context, SecureRandom random)
+    {
+        if (null == context)
+        {
+            throw new NullPointerException("'context' cannot be null");
+        }
+
+        this.context = Arrays.clone(context);
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify against.
+     * @param message the signed message.
+     * @param signature the signature.
+     */
+    public void add(Ed448PublicKeyParameters publicKey, byte[] message, byte[] signature)
+    {
+        CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties("Ed448", 224, publicKey, false));
+
+        publicKeys.add(publicKey.getEncoded());
+        messages.add(Arrays.clone(message));
+        signatures.add(Arrays.clone(signature));
+        results = null;
+    }
+
+    /**
+     * Return the number of signatures added since the last reset.
+     *
+     * @return the batch size.
+     */
+    public int size()
+    {
+        return signatures.size();
+    }
+
+    /**
+     * Verify every signature in the batch.
+     *
+     * @return true if all the signatures verified, false otherwise.
+     */
+    public boolean verify()
+    {
+        int count = signatures.size();
+
+        results = new boolean[count];
+
+        return Ed448.verifyBatch(random, context, (byte[][])signatures.toArray(new byte[count][]),
+            (byte[][])publicKeys.toArray(new byte[count][]), (byte[][])messages.toArray(new byte[count][]), results);
+    }
+
+    /**
+     * Return the indices, in the order they were added, of the signatures which failed the last call to
+     * {@link #verify()}.
+     *
+     * @return the indices of the failed signatures, empty if all verified.
+     * @throws IllegalStateException if the batch has not been verified since it was last changed.
+     */
+    public int[] getFailedIndices()
+    {
+        if (results == null)
+        {
+            throw new IllegalStateException("Ed448BatchVerifier batch not verified");
+        }
+
+        int failed = 0;
+        for (int i = 0; i != results.length; i++)
+        {
+            if (!results[i])
+            {
+                failed++;
+            }
+        }
+
+        int[] indices = new int[failed];
+        for (int i = 0, pos = 0; i != results.length; i++)
+        {
+            if (!results[i])
+            {
+                indices[pos++] = i;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Remove all the signatures from the batch.
+     */
+    public void reset()
+    {
+        publicKeys.clear();
+        messages.clear();
+        signatures.clear();
+        results = null;
+    }
+}
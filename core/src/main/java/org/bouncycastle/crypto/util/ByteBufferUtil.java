@@ -0,0 +1,367 @@
+package org.bouncycastle.crypto.util;
+
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.Mac;
+import org.bouncycastle.crypto.OutputLengthException;
+import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * ByteBuffer versions of the processing methods of the lightweight cipher, MAC and digest interfaces.
+ * <p>
+ * Buffers backed by an accessible array are passed straight through to the byte[] methods. Anything else,
+ * direct or read-only buffers for example, is moved through a scratch array in bounded chunks with bulk
+ * get/put, the scratch array is cleared afterwards. On return the input buffer's position is at its limit
+ * and the output buffer's position has been advanced by the number of bytes written.
+ * </p><p>
+ * Input and output may be the same heap buffer region. Otherwise, if they are views on the same memory, they
+ * must not overlap.
+ * </p>
+ */
+public final class ByteBufferUtil
+{
+    private static final int CHUNK_SIZE = 4096;
+
+    private static interface Processor
+    {
+        int getUpdateOutputSize(int len);
+
+        int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff);
+    }
+
+    private ByteBufferUtil()
+    {
+    }
+
+    /**
+     * Process the remaining bytes of in through a stream cipher, writing the result to out.
+     *
+     * @param cipher the stream cipher to use.
+     * @param in the input buffer.
+     * @param out the output buffer.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if out does not have enough space remaining.
+     */
+    public static int processBytes(final StreamCipher cipher, ByteBuffer in, ByteBuffer out)
+        throws DataLengthException
+    {
+        return process(new Processor()
+        {
+            public int getUpdateOutputSize(int len)
+            {
+                return len;
+            }
+
+            public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+            {
+                return cipher.processBytes(in, inOff, len, out, outOff);
+            }
+        }, in, out);
+    }
+
+    /**
+     * Process the remaining bytes of in through a buffered block cipher, writing any output produced to out.
+     *
+     * @param cipher the buffered cipher to use.
+     * @param in the input buffer.
+     * @param out the output buffer.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if out does not have enough space remaining.
+     */
+    public static int processBytes(final BufferedBlockCipher cipher, ByteBuffer in, ByteBuffer out)
+        throws DataLengthException
+    {
+        return process(new Processor()
+        {
+            public int getUpdateOutputSize(int len)
+            {
+                return cipher.getUpdateOutputSize(len);
+            }
+
+            public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+            {
+                return cipher.processBytes(in, inOff, len, out, outOff);
+            }
+        }, in, out);
+    }
+
+    /**
+     * Process the remaining bytes of in through an AEAD cipher, writing any output produced to out.
+     *
+     * @param cipher the AEAD cipher to use.
+     * @param in the input buffer.
+     * @param out the output buffer.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if out does not have enough space remaining.
+     */
+    public static int processBytes(final AEADCipher cipher, ByteBuffer in, ByteBuffer out)
+        throws DataLengthException
+    {
+        return process(new Processor()
+        {
+            public int getUpdateOutputSize(int len)
+            {
+                return cipher.getUpdateOutputSize(len);
+            }
+
+            public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+            {
+                return cipher.processBytes(in, inOff, len, out, outOff);
+            }
+        }, in, out);
+    }
+
+    /**
+     * Add the remaining bytes of aad to the associated data of an AEAD cipher.
+     *
+     * @param cipher the AEAD cipher to use.
+     * @param aad the associated data.
+     */
+    public static void processAADBytes(AEADCipher cipher, ByteBuffer aad)
+    {
+        int remaining = aad.remaining();
+        if (aad.hasArray())
+        {
+            cipher.processAADBytes(aad.array(), aad.arrayOffset() + aad.position(), remaining);
+            aad.position(aad.limit());
+            return;
+        }
+
+        byte[] buf = new byte[Math.min(remaining, CHUNK_SIZE)];
+        while (remaining > 0)
+        {
+            int len = Math.min(remaining, buf.length);
+            aad.get(buf, 0, len);
+            cipher.processAADBytes(buf, 0, len);
+            remaining -= len;
+        }
+        Arrays.fill(buf, (byte)0);
+    }
+
+    /**
+     * Finish a buffered block cipher operation, writing any remaining output to out.
+     *
+     * @param cipher the buffered cipher to use.
+     * @param out the output buffer.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if out does not have enough space remaining.
+     * @throws InvalidCipherTextException if padding is expected and not found.
+     */
+    public static int doFinal(BufferedBlockCipher cipher, ByteBuffer out)
+        throws DataLengthException, InvalidCipherTextException
+    {
+        int outLen = cipher.getOutputSize(0);
+        checkOutput(out, outLen);
+
+        if (out.hasArray())
+        {
+            int len = cipher.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+            return len;
+        }
+
+        byte[] buf = new byte[outLen];
+        try
+        {
+            int len = cipher.doFinal(buf, 0);
+            out.put(buf, 0, len);
+            return len;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /**
+     * Finish an AEAD cipher operation, writing any remaining output, and the MAC if encrypting, to out.
+     *
+     * @param cipher the AEAD cipher to use.
+     * @param out the output buffer.
+     * @return the number of bytes written to out.
+     * @throws DataLengthException if out does not have enough space remaining.
+     * @throws InvalidCipherTextException if the MAC fails to match.
+     */
+    public static int doFinal(AEADCipher cipher, ByteBuffer out)
+        throws DataLengthException, InvalidCipherTextException
+    {
+        int outLen = cipher.getOutputSize(0);
+        checkOutput(out, outLen);
+
+        if (out.hasArray())
+        {
+            int len = cipher.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+            return len;
+        }
+
+        byte[] buf = new byte[outLen];
+        try
+        {
+            int len = cipher.doFinal(buf, 0);
+            out.put(buf, 0, len);
+            return len;
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+
+    /**
+     * Add the remaining bytes of in to a MAC.
+     *
+     * @param mac the MAC to update.
+     * @param in the input buffer.
+     */
+    public static void update(Mac mac, ByteBuffer in)
+    {
+        int remaining = in.remaining();
+        if (in.hasArray())
+        {
+            mac.update(in.array(), in.arrayOffset() + in.position(), remaining);
+            in.position(in.limit());
+            return;
+        }
+
+        byte[] buf = new byte[Math.min(remaining, CHUNK_SIZE)];
+        while (remaining > 0)
+        {
+            int len = Math.min(remaining, buf.length);
+            in.get(buf, 0, len);
+            mac.update(buf, 0, len);
+            remaining -= len;
+        }
+        Arrays.fill(buf, (byte)0);
+    }
+
+    /**
+     * Add the remaining bytes of in to a digest.
+     *
+     * @param digest the digest to update.
+     * @param in the input buffer.
+     */
+    public static void update(Digest digest, ByteBuffer in)
+    {
+        int remaining = in.remaining();
+        if (in.hasArray())
+        {
+            digest.update(in.array(), in.arrayOffset() + in.position(), remaining);
+            in.position(in.limit());
+            return;
+        }
+
+        byte[] buf = new byte[Math.min(remaining, CHUNK_SIZE)];
+        while (remaining > 0)
+        {
+            int len = Math.min(remaining, buf.length);
+            in.get(buf, 0, len);
+            digest.update(buf, 0, len);
+            remaining -= len;
+        }
+        Arrays.fill(buf, (byte)0);
+    }
+
+    private static int process(Processor processor, ByteBuffer in, ByteBuffer out)
+    {
+        int remaining = in.remaining();
+        checkOutput(out, processor.getUpdateOutputSize(remaining));
+
+        if (in.hasArray() && out.hasArray())
+        {
+            byte[] inBuf = in.array();
+            int inOff = in.arrayOffset() + in.position();
+            byte[] outBuf = out.array();
+            int outOff = out.arrayOffset() + out.position();
+
+            // the ciphers only handle overlap if it is exact.
+            if (inBuf == outBuf && inOff != outOff && inOff < outOff + out.remaining() && outOff < inOff + remaining)
+            {
+                inBuf = Arrays.copyOfRange(inBuf, inOff, inOff + remaining);
+                inOff = 0;
+            }
+
+            int len = processor.processBytes(inBuf, inOff, remaining, outBuf, outOff);
+            in.position(in.limit());
+            out.position(out.position() + len);
+            return len;
+        }
+
+        byte[] inBuf = in.hasArray() ? null : new byte[Math.min(remaining, CHUNK_SIZE)];
+        byte[] outBuf = null;
+
+        try
+        {
+            int total = 0;
+            while (remaining > 0)
+            {
+                int chunk = Math.min(remaining, CHUNK_SIZE);
+
+                byte[] input;
+                int inOff;
+                if (inBuf == null)
+                {
+                    input = in.array();
+                    inOff = in.arrayOffset() + in.position();
+                    in.position(in.position() + chunk);
+                }
+                else
+                {
+                    input = inBuf;
+                    inOff = 0;
+                    in.get(inBuf, 0, chunk);
+                }
+
+                int len;
+                if (out.hasArray())
+                {
+                    len = processor.processBytes(input, inOff, chunk, out.array(), out.arrayOffset() + out.position());
+                    out.position(out.position() + len);
+                }
+                else
+                {
+                    int outLen = processor.getUpdateOutputSize(chunk);
+                    if (outBuf == null || outBuf.length < outLen)
+                    {
+                        if (outBuf != null)
+                        {
+                            Arrays.fill(outBuf, (byte)0);
+                        }
+                        outBuf = new byte[outLen];
+                    }
+                    len = processor.processBytes(input, inOff, chunk, outBuf, 0);
+                    out.put(outBuf, 0, len);
+                }
+
+                total += len;
+                remaining -= chunk;
+            }
+            return total;
+        }
+        finally
+        {
+            if (inBuf != null)
+            {
+                Arrays.fill(inBuf, (byte)0);
+            }
+            if (outBuf != null)
+            {
+                Arrays.fill(outBuf, (byte)0);
+            }
+        }
+    }
+
+    private static void checkOutput(ByteBuffer out, int len)
+    {
+        if (out.remaining() < len)
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+    }
+}
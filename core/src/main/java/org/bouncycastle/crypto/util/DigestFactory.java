@@ -1,7 +1,9 @@
 package org.bouncycastle.crypto.util;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.bouncycastle.crypto.CryptoServicePurpose;
 import org.bouncycastle.crypto.Digest;
@@ -21,6 +23,7 @@
 public final class DigestFactory
 {
     private static final Map cloneMap = new HashMap();
+    private static final Map prototypeMap = new HashMap();
 
     private static interface Cloner
     {
@@ -40,7 +43,7 @@ public Digest createClone(Digest original)
         {
             public Digest createClone(Digest original)
             {
-                return new MD5Digest((MD5Digest)original);
+                return new SHA1Digest((SHA1Digest)original);
             }
         });
         cloneMap.put(createSHA224().getAlgorithmName(), new Cloner()
@@ -115,6 +118,19 @@ public Digest createClone(Digest original)
                 return new SHAKEDigest((SHAKEDigest)original);
             }
         });
+
+        Digest[] prototypes = { createMD5(), createSHA1(), createSHA224(), createSHA256(), createSHA384(),
+            createSHA512(), createSHA3_224(), createSHA3_256(), createSHA3_384(), createSHA3_512(), createSHAKE128(),
+            createSHAKE256() };
+        for (int i = 0; i != prototypes.length; i++)
+        {
+            prototypeMap.put(prototypes[i].getAlgorithmName(), prototypes[i]);
+        }
+    }
+
+    private static class PoolHolder
+    {
+        static final DigestPool INSTANCE = new DigestPool();
     }
 
     public static Digest createMD5()
@@ -251,4 +267,27 @@ public static Digest cloneDigest(Digest hashAlg)
     {
         return ((Cloner)cloneMap.get(hashAlg.getAlgorithmName())).createClone(hashAlg);
     }
+
+    /**
+     * Return the shared digest pool, covering the algorithms this factory creates.
+     *
+     * @return the default DigestPool.
+     */
+    public static DigestPool getDigestPool()
+    {
+        return PoolHolder.INSTANCE;
+    }
+
+    static Set getAlgorithmNames()
+    {
+        return Collections.unmodifiableSet(prototypeMap.keySet());
+    }
+
+    /*
+     * the prototypes are never updated, so a clone of one is a new digest in its initial state.
+     */
+    static Digest createDigest(String algorithmName)
+    {
+        return cloneDigest((Digest)prototypeMap.get(algorithmName));
+    }
 }
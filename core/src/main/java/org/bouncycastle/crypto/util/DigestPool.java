@@ -0,0 +1,254 @@
+package org.bouncycastle.crypto.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.ExtendedDigest;
+
+/**
+ * A pool of reusable message digests, keyed by algorithm name, for callers which would otherwise create a
+ * new digest for every calculation.
+ * <p>
+ * The pool covers the algorithms {@link DigestFactory} creates. Each algorithm has a fixed number of slots
+ * which are claimed and freed with compare-and-set, so the pool never locks and, once warm, never allocates.
+ * If every slot is empty a new digest is created, if every slot is full a returned digest is simply dropped.
+ * Digests are reset on their way back into the pool.
+ * </p>
+ */
+public final class DigestPool
+{
+    private final Map pools = new HashMap();
+    private final int capacity;
+
+    /**
+     * Base constructor - two slots per available processor per algorithm, with a minimum of 8.
+     */
+    public DigestPool()
+    {
+        this(Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor with a given number of slots per algorithm.
+     *
+     * @param capacity the maximum number of idle digests kept for each algorithm.
+     */
+    public DigestPool(int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+
+        this.capacity = capacity;
+
+        for (Iterator it = DigestFactory.getAlgorithmNames().iterator(); it.hasNext();)
+        {
+            String algorithmName = (String)it.next();
+            Digest digest = DigestFactory.createDigest(algorithmName);
+
+            Slots slots = new Slots(digest, capacity);
+            slots.free.set(0, digest);
+
+            pools.put(algorithmName, slots);
+        }
+    }
+
+    /**
+     * Return the maximum number of idle digests kept for each algorithm.
+     *
+     * @return the per algorithm capacity.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Return true if digests for algorithmName can be taken from this pool.
+     *
+     * @param algorithmName the algorithm name, as returned by {@link Digest#getAlgorithmName()}.
+     * @return true if the algorithm is pooled, false otherwise.
+     */
+    public boolean isPooled(String algorithmName)
+    {
+        return pools.containsKey(algorithmName);
+    }
+
+    /**
+     * Return a digest in its initial state for algorithmName, taken from the pool if one is idle, otherwise
+     * newly created. The caller has sole use of the digest until it passes it to {@link #release(Digest)}.
+     *
+     * @param algorithmName the algorithm name, as returned by {@link Digest#getAlgorithmName()}.
+     * @return a digest for the algorithm.
+     * @throws IllegalArgumentException if the algorithm is not pooled.
+     */
+    public Digest acquire(String algorithmName)
+    {
+        Slots slots = getSlots(algorithmName);
+        AtomicReferenceArray free = slots.free;
+
+        for (int i = 0; i != capacity; i++)
+        {
+            Digest digest = (Digest)free.get(i);
+            if (digest != null && free.compareAndSet(i, digest, null))
+            {
+                return digest;
+            }
+        }
+
+        return DigestFactory.createDigest(algorithmName);
+    }
+
+    /**
+     * Reset a digest and return it to the pool. The digest must not be used by the caller afterwards.
+     * <p>
+     * Digests for algorithms which are not pooled, or whose class differs from the one {@link DigestFactory}
+     * creates for the algorithm, are ignored, as are digests arriving when all the slots are full.
+     * </p>
+     *
+     * @param digest the digest to return.
+     */
+    public void release(Digest digest)
+    {
+        Slots slots = (Slots)pools.get(digest.getAlgorithmName());
+        if (slots == null || digest.getClass() != slots.type)
+        {
+            return;
+        }
+
+        digest.reset();
+
+        AtomicReferenceArray free = slots.free;
+        for (int i = 0; i != capacity; i++)
+        {
+            if (free.get(i) == null && free.compareAndSet(i, null, digest))
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return a digest for algorithmName which borrows from the pool for the length of each calculation. A pooled
+     * digest is acquired when the first data arrives and released again by doFinal() or reset(), so the
+     * returned object can be held on to and reused like any other digest, by one thread at a time, while only
+     * tying up pooled state when it is actually hashing.
+     * <p>
+     * The returned digest is not {@link org.bouncycastle.util.Memoable} or cloneable through {@link DigestFactory},
+     * so it is only suitable for callers which keep it to themselves, not for handing on to code such as HMac.
+     * </p>
+     *
+     * @param algorithmName the algorithm name, as returned by {@link Digest#getAlgorithmName()}.
+     * @return a digest drawing on this pool.
+     * @throws IllegalArgumentException if the algorithm is not pooled.
+     */
+    public ExtendedDigest lease(String algorithmName)
+    {
+        return new LeasedDigest(this, getSlots(algorithmName));
+    }
+
+    private Slots getSlots(String algorithmName)
+    {
+        Slots slots = (Slots)pools.get(algorithmName);
+        if (slots == null)
+        {
+            throw new IllegalArgumentException("digest " + algorithmName + " not pooled");
+        }
+        return slots;
+    }
+
+    private static final class Slots
+    {
+        final String algorithmName;
+        final Class type;
+        final int digestSize;
+        final int byteLength;
+        final AtomicReferenceArray free;
+
+        Slots(Digest digest, int capacity)
+        {
+            this.algorithmName = digest.getAlgorithmName();
+            this.type = digest.getClass();
+            this.digestSize = digest.getDigestSize();
+            this.byteLength = ((ExtendedDigest)digest).getByteLength();
+            this.free = new AtomicReferenceArray(capacity);
+        }
+    }
+
+    private static final class LeasedDigest
+        implements ExtendedDigest
+    {
+        private final DigestPool pool;
+        private final Slots slots;
+
+        private Digest digest;
+
+        LeasedDigest(DigestPool pool, Slots slots)
+        {
+            this.pool = pool;
+            this.slots = slots;
+        }
+
+        public String getAlgorithmName()
+        {
+            return slots.algorithmName;
+        }
+
+        public int getDigestSize()
+        {
+            return slots.digestSize;
+        }
+
+        public int getByteLength()
+        {
+            return slots.byteLength;
+        }
+
+        public void update(byte in)
+        {
+            borrow().update(in);
+        }
+
+        public void update(byte[] in, int inOff, int len)
+        {
+            borrow().update(in, inOff, len);
+        }
+
+        public int doFinal(byte[] out, int outOff)
+        {
+            Digest d = borrow();
+            digest = null;
+            try
+            {
+                return d.doFinal(out, outOff);
+            }
+            finally
+            {
+                pool.release(d);
+            }
+        }
+
+        public void reset()
+        {
+            if (digest != null)
+            {
+                Digest d = digest;
+                digest = null;
+                pool.release(d);
+            }
+        }
+
+        private Digest borrow()
+        {
+            if (digest == null)
+            {
+                digest = pool.acquire(slots.algorithmName);
+            }
+            return digest;
+        }
+    }
+}
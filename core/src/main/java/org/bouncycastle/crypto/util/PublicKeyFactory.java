@@ -47,6 +47,7 @@
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.bouncycastle.crypto.params.ECGOST3410Parameters;
 import org.bouncycastle.crypto.params.ECNamedDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyCache;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
 import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
@@ -326,6 +327,12 @@ else if (params.isImplicitlyCA())
                 }
             }
 
+            ECPublicKeyCache cache = ECPublicKeyCache.getDefault();
+            if (cache != null)
+            {
+                return new ECPublicKeyParameters(cache.decodePoint(dParams, key.getOctets()), dParams);
+            }
+
             X9ECPoint derQ = new X9ECPoint(dParams.getCurve(), key);
 
             return new ECPublicKeyParameters(derQ.getPoint(), dParams);
@@ -11,6 +11,13 @@
 
 public class ECAlgorithms
 {
+    /**
+     * The number of points at which {@link #sumOfMultiplies(ECPoint[], BigInteger[])} switches from interleaved
+     * wNAF to the bucket (Pippenger) method. Where a GLV endomorphism splits each point in two, the split points
+     * are what is counted.
+     */
+    public static final int PIPPENGER_THRESHOLD = 96;
+
     public static boolean isF2mCurve(ECCurve c)
     {
         return isF2mField(c.getField());
@@ -63,9 +70,19 @@ public static ECPoint sumOfMultiplies(ECPoint[] ps, BigInteger[] ks)
         ECEndomorphism endomorphism = c.getEndomorphism();
         if (endomorphism instanceof GLVEndomorphism)
         {
+            if ((count << 1) >= PIPPENGER_THRESHOLD)
+            {
+                return implCheckResult(implSumOfMultipliesPippengerGLV(imported, ks, (GLVEndomorphism)endomorphism));
+            }
+
             return implCheckResult(implSumOfMultipliesGLV(imported, ks, (GLVEndomorphism)endomorphism));
         }
 
+        if (count >= PIPPENGER_THRESHOLD)
+        {
+            return implCheckResult(implSumOfMultipliesPippenger(imported, ks));
+        }
+
         return implCheckResult(implSumOfMultiplies(imported, ks));
     }
 
@@ -487,6 +504,109 @@ static ECPoint implSumOfMultiplies(ECEndomorphism endomorphism, ECPoint[] ps, Bi
         return implSumOfMultiplies(negs, infos, wnafs);
     }
 
+    static ECPoint implSumOfMultipliesPippenger(ECPoint[] ps, BigInteger[] ks)
+    {
+        /*
+         * Bucket method: each scalar is split into signed windows of 'width' bits, and for each window the points
+         * are first sorted into buckets by digit, then the buckets are combined with a running sum so that
+         * bucket j is counted j times. Cost per window is roughly one addition per point plus two per bucket,
+         * rather than a table and an addition per point per nonzero wNAF digit.
+         */
+        int count = ps.length, bits = 0;
+
+        ECPoint[] points = new ECPoint[count];
+        BigInteger[] abs = new BigInteger[count];
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger ki = ks[i];
+            points[i] = ki.signum() < 0 ? ps[i].negate() : ps[i];
+            abs[i] = ki = ki.abs();
+            bits = Math.max(bits, ki.bitLength());
+        }
+
+        ECCurve c = points[0].getCurve();
+        c.normalizeAll(points);
+
+        int width = 2;
+        for (int w = 3; w <= 20; ++w)
+        {
+            if ((long)(bits / w + 1) * (count + (1 << w)) < (long)(bits / width + 1) * (count + (1 << width)))
+            {
+                width = w;
+            }
+        }
+
+        int windows = bits / width + 1, buckets = 1 << (width - 1);
+
+        int[][] digits = new int[count][];
+        ECPoint[] negPoints = new ECPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            digits[i] = getSignedFixedDigits(abs[i], width, windows);
+            negPoints[i] = points[i].negate();
+        }
+
+        ECPoint infinity = c.getInfinity();
+        ECPoint[] bucket = new ECPoint[buckets];
+
+        ECPoint R = infinity;
+        for (int w = windows - 1; w >= 0; --w)
+        {
+            for (int j = 0; j < buckets; ++j)
+            {
+                bucket[j] = infinity;
+            }
+
+            for (int i = 0; i < count; ++i)
+            {
+                int d = digits[i][w];
+                if (d > 0)
+                {
+                    bucket[d - 1] = bucket[d - 1].add(points[i]);
+                }
+                else if (d < 0)
+                {
+                    bucket[-d - 1] = bucket[-d - 1].add(negPoints[i]);
+                }
+            }
+
+            // One inversion per window lets the running sum below use mixed additions.
+            c.normalizeAll(bucket);
+
+            ECPoint running = infinity, sum = infinity;
+            for (int j = buckets - 1; j >= 0; --j)
+            {
+                running = running.add(bucket[j]);
+                sum = sum.add(running);
+            }
+
+            R = R.timesPow2(width).add(sum);
+        }
+
+        return R;
+    }
+
+    static ECPoint implSumOfMultipliesPippengerGLV(ECPoint[] ps, BigInteger[] ks, GLVEndomorphism glvEndomorphism)
+    {
+        BigInteger n = ps[0].getCurve().getOrder();
+
+        int len = ps.length;
+
+        ECPoint[] pqs = new ECPoint[len << 1];
+        BigInteger[] abs = new BigInteger[len << 1];
+        for (int i = 0, j = 0; i < len; ++i)
+        {
+            BigInteger[] ab = glvEndomorphism.decomposeScalar(ks[i].mod(n));
+            ECPoint p = ps[i];
+            pqs[j] = p;
+            abs[j++] = ab[0];
+            pqs[j] = EndoUtil.mapPoint(glvEndomorphism, p);
+            abs[j++] = ab[1];
+        }
+
+        return implSumOfMultipliesPippenger(pqs, abs);
+    }
+
     private static ECPoint implSumOfMultiplies(boolean[] negs, WNafPreCompInfo[] infos, byte[][] wnafs)
     {
         int len = 0, count = wnafs.length;
@@ -541,6 +661,29 @@ private static ECPoint implSumOfMultiplies(boolean[] negs, WNafPreCompInfo[] inf
         return R;
     }
 
+    private static int[] getSignedFixedDigits(BigInteger k, int width, int count)
+    {
+        int[] n = Nat.fromBigInteger(count * width, k);
+        int[] digits = new int[count];
+
+        int mask = (1 << width) - 1, half = 1 << (width - 1), carry = 0;
+        for (int i = 0, bit = 0; i < count; ++i, bit += width)
+        {
+            int word = bit >>> 5, shift = bit & 31;
+            int bits = n[word] >>> shift;
+            if (shift + width > 32 && word + 1 < n.length)
+            {
+                bits |= n[word + 1] << (32 - shift);
+            }
+
+            int d = (bits & mask) + carry;
+            carry = (half - d) >>> 31;
+            digits[i] = d - (carry << width);
+        }
+
+        return digits;
+    }
+
     private static ECPoint implShamirsTrickFixedPoint(ECPoint p, BigInteger k, ECPoint q, BigInteger l)
     {
         ECCurve c = p.getCurve();
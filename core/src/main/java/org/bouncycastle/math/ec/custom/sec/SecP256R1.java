@@ -0,0 +1,617 @@
+package org.bouncycastle.math.ec.custom.sec;
+
+import org.bouncycastle.math.raw.Nat;
+import org.bouncycastle.util.Pack;
+
+/**
+ * Scalar multiplication on the NIST P-256 (secp256r1) curve over byte arrays, without allocation.
+ * <p>
+ * Scalars are 32 byte big-endian values and points use the uncompressed SEC 1 encoding of {@link #POINT_SIZE}
+ * bytes. Points are held in homogeneous projective coordinates and combined with the complete formulas of Renes,
+ * Costello and Batina ("Complete addition formulas for prime order elliptic curves", 2016), so doubling and the
+ * point at infinity need no special cases. Scalars are taken in signed 4 bit windows, with every window processed
+ * and every table entry read, so the sequence of operations does not depend on the scalar. Multiples of the base
+ * point come from a table of affine points built once by {@link #precompute()}, multiples of other points from a
+ * table of 8 projective points built on each call.
+ * </p><p>
+ * All working storage is held in a {@link Workspace}, which the caller creates once and reuses. A workspace must
+ * not be used by more than one thread at a time.
+ * </p>
+ */
+public abstract class SecP256R1
+{
+    public static final int POINT_SIZE = 65;
+    public static final int SCALAR_SIZE = 32;
+
+    private static final int FE = 8;
+    private static final int WINDOWS = 65;
+    private static final int TABLE_POINTS = 8;
+
+    private static final int[] B = new int[]{ 0x27D2604B, 0x3BCE3C3E, 0xCC53B0F6, 0x651D06B0, 0x769886BC, 0xB3EBBD55,
+        0xAA3A93E7, 0x5AC635D8 };
+    private static final int[] G_X = new int[]{ 0xD898C296, 0xF4A13945, 0x2DEB33A0, 0x77037D81, 0x63A440F2, 0xF8BCE6E5,
+        0xE12C4247, 0x6B17D1F2 };
+    private static final int[] G_Y = new int[]{ 0x37BF51F5, 0xCBB64068, 0x6B315ECE, 0x2BCE3357, 0x7C0F9E16, 0x8EE7EB4A,
+        0xFE1A7F9B, 0x4FE342E2 };
+
+    private static final Object PRECOMP_LOCK = new Object();
+    // WINDOWS rows of TABLE_POINTS affine points, row i holding 1..8 * 16^i * G
+    private static int[] PRECOMP_BASE = null;
+
+    private static class PointAffine
+    {
+        final int[] x = Nat.create(FE);
+        final int[] y = Nat.create(FE);
+    }
+
+    private static class PointProjective
+    {
+        final int[] x = Nat.create(FE);
+        final int[] y = Nat.create(FE);
+        final int[] z = Nat.create(FE);
+    }
+
+    /**
+     * Working storage for the scalar multiplications.
+     */
+    public static final class Workspace
+    {
+        private final int[] tt = Nat.create(FE * 2);
+        private final int[] t0 = Nat.create(FE), t1 = Nat.create(FE), t2 = Nat.create(FE);
+        private final int[] t3 = Nat.create(FE), t4 = Nat.create(FE);
+        private final int[] x3 = Nat.create(FE), y3 = Nat.create(FE), z3 = Nat.create(FE);
+        private final int[] n = Nat.create(FE);
+        private final int[] digits = new int[WINDOWS];
+        private final PointAffine a = new PointAffine();
+        private final PointProjective p = new PointProjective();
+        private final PointProjective q = new PointProjective();
+        private final PointProjective r = new PointProjective();
+        private final PointProjective[] table = new PointProjective[TABLE_POINTS];
+
+        public Workspace()
+        {
+            for (int i = 0; i < TABLE_POINTS; ++i)
+            {
+                table[i] = new PointProjective();
+            }
+        }
+    }
+
+    private static boolean checkPoint(int[] x, int[] y, Workspace w)
+    {
+        int[] t0 = w.t0, t1 = w.t1, tt = w.tt;
+
+        SecP256R1Field.square(x, t0, tt);
+        SecP256R1Field.multiply(t0, x, t0, tt);
+        SecP256R1Field.twice(x, t1);
+        SecP256R1Field.add(t1, x, t1);
+        SecP256R1Field.subtract(t0, t1, t0);
+        SecP256R1Field.add(t0, B, t0);
+        SecP256R1Field.square(y, t1, tt);
+
+        return Nat.eq(FE, t0, t1);
+    }
+
+    private static boolean decodePoint(byte[] p, int pOff, PointProjective r, Workspace w)
+    {
+        if (p[pOff] != 0x04)
+        {
+            return false;
+        }
+
+        decodeFieldElement(p, pOff + 1, r.x);
+        decodeFieldElement(p, pOff + 1 + FE * 4, r.y);
+
+        if (Nat.gte(FE, r.x, SecP256R1Field.P) || Nat.gte(FE, r.y, SecP256R1Field.P)
+            || !checkPoint(r.x, r.y, w))
+        {
+            return false;
+        }
+
+        Nat.zero(FE, r.z);
+        r.z[0] = 1;
+        return true;
+    }
+
+    private static void decodeFieldElement(byte[] bs, int off, int[] z)
+    {
+        for (int i = 0; i < FE; ++i)
+        {
+            z[FE - 1 - i] = Pack.bigEndianToInt(bs, off + i * 4);
+        }
+    }
+
+    private static void decodeScalar(byte[] k, int kOff, Workspace w)
+    {
+        int[] n = w.n, digits = w.digits;
+
+        decodeFieldElement(k, kOff, n);
+
+        // signed digits in [-8, 7], the last (carry) digit is 0 or 1
+        int carry = 0;
+        for (int i = 0; i < WINDOWS - 1; ++i)
+        {
+            int d = ((n[i >>> 3] >>> ((i & 7) << 2)) & 15) + carry;
+            carry = (d + 8) >>> 4;
+            digits[i] = d - (carry << 4);
+        }
+        digits[WINDOWS - 1] = carry;
+    }
+
+    private static boolean encodePoint(PointProjective p, byte[] r, int rOff, Workspace w)
+    {
+        if (Nat.isZero(FE, p.z))
+        {
+            return false;
+        }
+
+        int[] zInv = w.y3, tt = w.tt;
+        invert(p.z, zInv, w);
+
+        r[rOff] = 0x04;
+
+        SecP256R1Field.multiply(p.x, zInv, w.t0, tt);
+        encodeFieldElement(w.t0, r, rOff + 1);
+
+        SecP256R1Field.multiply(p.y, zInv, w.t0, tt);
+        encodeFieldElement(w.t0, r, rOff + 1 + FE * 4);
+
+        return true;
+    }
+
+    private static void encodeFieldElement(int[] x, byte[] bs, int off)
+    {
+        for (int i = 0; i < FE; ++i)
+        {
+            Pack.intToBigEndian(x[FE - 1 - i], bs, off + i * 4);
+        }
+    }
+
+    private static void invert(int[] x, int[] z, Workspace w)
+    {
+        // z = x^(p - 2), p - 2 = 2^256 - 2^224 + 2^192 + 2^96 - 3
+        int[] x2 = w.t0, x4 = w.t1, x8 = w.t2, x16 = w.t3, x32 = w.t4, tt = w.tt;
+
+        SecP256R1Field.square(x, x2, tt);
+        SecP256R1Field.multiply(x2, x, x2, tt);
+        SecP256R1Field.squareN(x2, 2, x4, tt);
+        SecP256R1Field.multiply(x4, x2, x4, tt);
+        SecP256R1Field.squareN(x4, 4, x8, tt);
+        SecP256R1Field.multiply(x8, x4, x8, tt);
+        SecP256R1Field.squareN(x8, 8, x16, tt);
+        SecP256R1Field.multiply(x16, x8, x16, tt);
+        SecP256R1Field.squareN(x16, 16, x32, tt);
+        SecP256R1Field.multiply(x32, x16, x32, tt);
+
+        SecP256R1Field.squareN(x32, 32, z, tt);
+        SecP256R1Field.multiply(z, x, z, tt);
+        SecP256R1Field.squareN(z, 96, z, tt);
+        SecP256R1Field.squareN(z, 32, z, tt);
+        SecP256R1Field.multiply(z, x32, z, tt);
+        SecP256R1Field.squareN(z, 32, z, tt);
+        SecP256R1Field.multiply(z, x32, z, tt);
+
+        int[] x30 = x16;
+        SecP256R1Field.squareN(x16, 8, x30, tt);
+        SecP256R1Field.multiply(x30, x8, x30, tt);
+        SecP256R1Field.squareN(x30, 4, x30, tt);
+        SecP256R1Field.multiply(x30, x4, x30, tt);
+        SecP256R1Field.squareN(x30, 2, x30, tt);
+        SecP256R1Field.multiply(x30, x2, x30, tt);
+
+        SecP256R1Field.squareN(z, 30, z, tt);
+        SecP256R1Field.multiply(z, x30, z, tt);
+        SecP256R1Field.squareN(z, 2, z, tt);
+        SecP256R1Field.multiply(z, x, z, tt);
+    }
+
+    private static void pointAdd(PointProjective p, PointProjective q, PointProjective r, Workspace w)
+    {
+        int[] X1 = p.x, Y1 = p.y, Z1 = p.z, X2 = q.x, Y2 = q.y, Z2 = q.z;
+        int[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, t4 = w.t4, X3 = w.x3, Y3 = w.y3, Z3 = w.z3, tt = w.tt;
+
+        // Renes-Costello-Batina, algorithm 4 (a = -3)
+        SecP256R1Field.multiply(X1, X2, t0, tt);
+        SecP256R1Field.multiply(Y1, Y2, t1, tt);
+        SecP256R1Field.multiply(Z1, Z2, t2, tt);
+        SecP256R1Field.add(X1, Y1, t3);
+        SecP256R1Field.add(X2, Y2, t4);
+        SecP256R1Field.multiply(t3, t4, t3, tt);
+        SecP256R1Field.add(t0, t1, t4);
+        SecP256R1Field.subtract(t3, t4, t3);
+        SecP256R1Field.add(Y1, Z1, t4);
+        SecP256R1Field.add(Y2, Z2, X3);
+        SecP256R1Field.multiply(t4, X3, t4, tt);
+        SecP256R1Field.add(t1, t2, X3);
+        SecP256R1Field.subtract(t4, X3, t4);
+        SecP256R1Field.add(X1, Z1, X3);
+        SecP256R1Field.add(X2, Z2, Y3);
+        SecP256R1Field.multiply(X3, Y3, X3, tt);
+        SecP256R1Field.add(t0, t2, Y3);
+        SecP256R1Field.subtract(X3, Y3, Y3);
+        SecP256R1Field.multiply(B, t2, Z3, tt);
+        SecP256R1Field.subtract(Y3, Z3, X3);
+        SecP256R1Field.twice(X3, Z3);
+        SecP256R1Field.add(X3, Z3, X3);
+        SecP256R1Field.subtract(t1, X3, Z3);
+        SecP256R1Field.add(t1, X3, X3);
+        SecP256R1Field.multiply(B, Y3, Y3, tt);
+        SecP256R1Field.twice(t2, t1);
+        SecP256R1Field.add(t1, t2, t2);
+        SecP256R1Field.subtract(Y3, t2, Y3);
+        SecP256R1Field.subtract(Y3, t0, Y3);
+        SecP256R1Field.twice(Y3, t1);
+        SecP256R1Field.add(t1, Y3, Y3);
+        SecP256R1Field.twice(t0, t1);
+        SecP256R1Field.add(t1, t0, t0);
+        SecP256R1Field.subtract(t0, t2, t0);
+        SecP256R1Field.multiply(t4, Y3, t1, tt);
+        SecP256R1Field.multiply(t0, Y3, t2, tt);
+        SecP256R1Field.multiply(X3, Z3, Y3, tt);
+        SecP256R1Field.add(Y3, t2, Y3);
+        SecP256R1Field.multiply(X3, t3, X3, tt);
+        SecP256R1Field.subtract(X3, t1, X3);
+        SecP256R1Field.multiply(t4, Z3, Z3, tt);
+        SecP256R1Field.multiply(t3, t0, t1, tt);
+        SecP256R1Field.add(Z3, t1, Z3);
+
+        Nat.copy(FE, X3, r.x);
+        Nat.copy(FE, Y3, r.y);
+        Nat.copy(FE, Z3, r.z);
+    }
+
+    private static void pointAddAffine(PointProjective p, PointAffine q, PointProjective r, Workspace w)
+    {
+        int[] X1 = p.x, Y1 = p.y, Z1 = p.z, X2 = q.x, Y2 = q.y;
+        int[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, t4 = w.t4, X3 = w.x3, Y3 = w.y3, Z3 = w.z3, tt = w.tt;
+
+        // Renes-Costello-Batina, algorithm 5 (a = -3, q not at infinity)
+        SecP256R1Field.multiply(X1, X2, t0, tt);
+        SecP256R1Field.multiply(Y1, Y2, t1, tt);
+        SecP256R1Field.add(X2, Y2, t3);
+        SecP256R1Field.add(X1, Y1, t4);
+        SecP256R1Field.multiply(t3, t4, t3, tt);
+        SecP256R1Field.add(t0, t1, t4);
+        SecP256R1Field.subtract(t3, t4, t3);
+        SecP256R1Field.multiply(Y2, Z1, t4, tt);
+        SecP256R1Field.add(t4, Y1, t4);
+        SecP256R1Field.multiply(X2, Z1, Y3, tt);
+        SecP256R1Field.add(Y3, X1, Y3);
+        SecP256R1Field.multiply(B, Z1, Z3, tt);
+        SecP256R1Field.subtract(Y3, Z3, X3);
+        SecP256R1Field.twice(X3, Z3);
+        SecP256R1Field.add(X3, Z3, X3);
+        SecP256R1Field.subtract(t1, X3, Z3);
+        SecP256R1Field.add(t1, X3, X3);
+        SecP256R1Field.multiply(B, Y3, Y3, tt);
+        SecP256R1Field.twice(Z1, t1);
+        SecP256R1Field.add(t1, Z1, t2);
+        SecP256R1Field.subtract(Y3, t2, Y3);
+        SecP256R1Field.subtract(Y3, t0, Y3);
+        SecP256R1Field.twice(Y3, t1);
+        SecP256R1Field.add(t1, Y3, Y3);
+        SecP256R1Field.twice(t0, t1);
+        SecP256R1Field.add(t1, t0, t0);
+        SecP256R1Field.subtract(t0, t2, t0);
+        SecP256R1Field.multiply(t4, Y3, t1, tt);
+        SecP256R1Field.multiply(t0, Y3, t2, tt);
+        SecP256R1Field.multiply(X3, Z3, Y3, tt);
+        SecP256R1Field.add(Y3, t2, Y3);
+        SecP256R1Field.multiply(X3, t3, X3, tt);
+        SecP256R1Field.subtract(X3, t1, X3);
+        SecP256R1Field.multiply(t4, Z3, Z3, tt);
+        SecP256R1Field.multiply(t3, t0, t1, tt);
+        SecP256R1Field.add(Z3, t1, Z3);
+
+        Nat.copy(FE, X3, r.x);
+        Nat.copy(FE, Y3, r.y);
+        Nat.copy(FE, Z3, r.z);
+    }
+
+    private static void pointCopy(PointProjective p, PointProjective r)
+    {
+        Nat.copy(FE, p.x, r.x);
+        Nat.copy(FE, p.y, r.y);
+        Nat.copy(FE, p.z, r.z);
+    }
+
+    private static void pointDouble(PointProjective p, PointProjective r, Workspace w)
+    {
+        int[] X = p.x, Y = p.y, Z = p.z;
+        int[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, X3 = w.x3, Y3 = w.y3, Z3 = w.z3, tt = w.tt;
+
+        // Renes-Costello-Batina, algorithm 6 (a = -3)
+        SecP256R1Field.square(X, t0, tt);
+        SecP256R1Field.square(Y, t1, tt);
+        SecP256R1Field.square(Z, t2, tt);
+        SecP256R1Field.multiply(X, Y, t3, tt);
+        SecP256R1Field.twice(t3, t3);
+        SecP256R1Field.multiply(X, Z, Z3, tt);
+        SecP256R1Field.twice(Z3, Z3);
+        SecP256R1Field.multiply(B, t2, Y3, tt);
+        SecP256R1Field.subtract(Y3, Z3, Y3);
+        SecP256R1Field.twice(Y3, X3);
+        SecP256R1Field.add(X3, Y3, Y3);
+        SecP256R1Field.subtract(t1, Y3, X3);
+        SecP256R1Field.add(t1, Y3, Y3);
+        SecP256R1Field.multiply(X3, Y3, Y3, tt);
+        SecP256R1Field.multiply(X3, t3, X3, tt);
+        SecP256R1Field.twice(t2, t3);
+        SecP256R1Field.add(t2, t3, t2);
+        SecP256R1Field.multiply(B, Z3, Z3, tt);
+        SecP256R1Field.subtract(Z3, t2, Z3);
+        SecP256R1Field.subtract(Z3, t0, Z3);
+        SecP256R1Field.twice(Z3, t3);
+        SecP256R1Field.add(Z3, t3, Z3);
+        SecP256R1Field.twice(t0, t3);
+        SecP256R1Field.add(t3, t0, t0);
+        SecP256R1Field.subtract(t0, t2, t0);
+        SecP256R1Field.multiply(t0, Z3, t0, tt);
+        SecP256R1Field.add(Y3, t0, Y3);
+        SecP256R1Field.multiply(Y, Z, t0, tt);
+        SecP256R1Field.twice(t0, t0);
+        SecP256R1Field.multiply(t0, Z3, Z3, tt);
+        SecP256R1Field.subtract(X3, Z3, X3);
+        SecP256R1Field.multiply(t0, t1, Z3, tt);
+        SecP256R1Field.twice(Z3, Z3);
+        SecP256R1Field.twice(Z3, Z3);
+
+        Nat.copy(FE, X3, r.x);
+        Nat.copy(FE, Y3, r.y);
+        Nat.copy(FE, Z3, r.z);
+    }
+
+    private static void pointLookup(int[] table, int row, int digit, PointAffine r, Workspace w)
+    {
+        int sign = digit >> 31;
+        int abs = (digit ^ sign) - sign;
+
+        // a zero digit reads the first entry, the caller discards the addition
+        int off = row * TABLE_POINTS * 2 * FE;
+        Nat.copy(FE, table, off, r.x, 0);
+        Nat.copy(FE, table, off + FE, r.y, 0);
+
+        for (int i = 1; i < TABLE_POINTS; ++i)
+        {
+            off += 2 * FE;
+            int cond = (((i + 1) ^ abs) - 1) >> 31;
+            Nat.cmov(FE, cond, table, off, r.x, 0);
+            Nat.cmov(FE, cond, table, off + FE, r.y, 0);
+        }
+
+        Nat.sub(FE, SecP256R1Field.P, r.y, w.t0);
+        Nat.cmov(FE, sign, w.t0, 0, r.y, 0);
+    }
+
+    private static void pointLookup(PointProjective[] table, int digit, PointProjective r, Workspace w)
+    {
+        int sign = digit >> 31;
+        int abs = (digit ^ sign) - sign;
+
+        pointSetNeutral(r);
+
+        for (int i = 0; i < TABLE_POINTS; ++i)
+        {
+            PointProjective t = table[i];
+            int cond = (((i + 1) ^ abs) - 1) >> 31;
+            Nat.cmov(FE, cond, t.x, 0, r.x, 0);
+            Nat.cmov(FE, cond, t.y, 0, r.y, 0);
+            Nat.cmov(FE, cond, t.z, 0, r.z, 0);
+        }
+
+        Nat.sub(FE, SecP256R1Field.P, r.y, w.t0);
+        Nat.cmov(FE, sign, w.t0, 0, r.y, 0);
+    }
+
+    private static void pointPrecompute(PointProjective p, PointProjective[] table, Workspace w)
+    {
+        pointCopy(p, table[0]);
+        pointDouble(p, table[1], w);
+
+        for (int i = 2; i < TABLE_POINTS; ++i)
+        {
+            pointAdd(table[i - 1], p, table[i], w);
+        }
+    }
+
+    private static void pointSetNeutral(PointProjective p)
+    {
+        Nat.zero(FE, p.x);
+        Nat.zero(FE, p.y);
+        p.y[0] = 1;
+        Nat.zero(FE, p.z);
+    }
+
+    public static void precompute()
+    {
+        synchronized (PRECOMP_LOCK)
+        {
+            if (PRECOMP_BASE != null)
+            {
+                return;
+            }
+
+            int totalPoints = WINDOWS * TABLE_POINTS;
+            Workspace w = new Workspace();
+
+            PointProjective[] points = new PointProjective[totalPoints];
+            for (int i = 0; i < totalPoints; ++i)
+            {
+                points[i] = new PointProjective();
+            }
+
+            PointProjective[] row = w.table;
+            PointProjective b = w.p;
+            Nat.copy(FE, G_X, b.x);
+            Nat.copy(FE, G_Y, b.y);
+            Nat.zero(FE, b.z);
+            b.z[0] = 1;
+
+            for (int i = 0; i < WINDOWS; ++i)
+            {
+                pointPrecompute(b, row, w);
+                for (int j = 0; j < TABLE_POINTS; ++j)
+                {
+                    pointCopy(row[j], points[i * TABLE_POINTS + j]);
+                }
+
+                // 16 * b = 2 * (8 * b)
+                pointDouble(row[TABLE_POINTS - 1], b, w);
+            }
+
+            // normalise all the points with a single inversion
+            int[] zs = new int[totalPoints * FE];
+            int[] acc = w.q.x, u = w.q.y, zInv = w.q.z;
+            Nat.copy(FE, points[0].z, acc);
+            Nat.copy(FE, acc, 0, zs, 0);
+            for (int i = 1; i < totalPoints; ++i)
+            {
+                SecP256R1Field.multiply(acc, points[i].z, acc, w.tt);
+                Nat.copy(FE, acc, 0, zs, i * FE);
+            }
+
+            invert(acc, u, w);
+
+            int[] table = new int[totalPoints * 2 * FE];
+            for (int i = totalPoints - 1; i >= 0; --i)
+            {
+                PointProjective p = points[i];
+                if (i > 0)
+                {
+                    Nat.copy(FE, zs, (i - 1) * FE, acc, 0);
+                    SecP256R1Field.multiply(u, acc, zInv, w.tt);
+                    SecP256R1Field.multiply(u, p.z, u, w.tt);
+                }
+                else
+                {
+                    Nat.copy(FE, u, zInv);
+                }
+
+                SecP256R1Field.multiply(p.x, zInv, w.t0, w.tt);
+                Nat.copy(FE, w.t0, 0, table, i * 2 * FE);
+                SecP256R1Field.multiply(p.y, zInv, w.t0, w.tt);
+                Nat.copy(FE, w.t0, 0, table, i * 2 * FE + FE);
+            }
+
+            PRECOMP_BASE = table;
+        }
+    }
+
+    private static void scalarMultBase(byte[] k, int kOff, PointProjective r, Workspace w)
+    {
+        precompute();
+
+        decodeScalar(k, kOff, w);
+
+        int[] table = PRECOMP_BASE, digits = w.digits;
+        PointAffine a = w.a;
+        PointProjective q = w.q;
+
+        pointSetNeutral(r);
+
+        for (int i = 0; i < WINDOWS; ++i)
+        {
+            int digit = digits[i];
+            pointLookup(table, i, digit, a, w);
+            pointAddAffine(r, a, q, w);
+
+            int nonZero = (digit | -digit) >>> 31;
+            Nat.cmov(FE, nonZero, q.x, 0, r.x, 0);
+            Nat.cmov(FE, nonZero, q.y, 0, r.y, 0);
+            Nat.cmov(FE, nonZero, q.z, 0, r.z, 0);
+        }
+    }
+
+    private static void scalarMult(byte[] k, int kOff, PointProjective p, PointProjective r, Workspace w)
+    {
+        decodeScalar(k, kOff, w);
+
+        PointProjective[] table = w.table;
+        pointPrecompute(p, table, w);
+
+        int[] digits = w.digits;
+        PointProjective q = w.q;
+
+        pointLookup(table, digits[WINDOWS - 1], r, w);
+
+        for (int i = WINDOWS - 2; i >= 0; --i)
+        {
+            pointDouble(r, r, w);
+            pointDouble(r, r, w);
+            pointDouble(r, r, w);
+            pointDouble(r, r, w);
+
+            pointLookup(table, digits[i], q, w);
+            pointAdd(r, q, r, w);
+        }
+    }
+
+    /**
+     * Calculate k * G for the base point G.
+     *
+     * @param k the scalar, {@link #SCALAR_SIZE} bytes big-endian.
+     * @param kOff offset of the scalar.
+     * @param r buffer for the encoded result point, {@link #POINT_SIZE} bytes.
+     * @param rOff offset for the result.
+     * @param w working storage.
+     * @return false if the result is the point at infinity (nothing is written to r), true otherwise.
+     */
+    public static boolean scalarMultBase(byte[] k, int kOff, byte[] r, int rOff, Workspace w)
+    {
+        scalarMultBase(k, kOff, w.r, w);
+        return encodePoint(w.r, r, rOff, w);
+    }
+
+    /**
+     * Calculate k * P.
+     *
+     * @param k the scalar, {@link #SCALAR_SIZE} bytes big-endian.
+     * @param kOff offset of the scalar.
+     * @param p the encoded point P, {@link #POINT_SIZE} bytes.
+     * @param pOff offset of the point.
+     * @param r buffer for the encoded result point, {@link #POINT_SIZE} bytes.
+     * @param rOff offset for the result.
+     * @param w working storage.
+     * @return false if P is not a valid point or the result is the point at infinity (nothing is written to r in
+     * either case), true otherwise.
+     */
+    public static boolean scalarMult(byte[] k, int kOff, byte[] p, int pOff, byte[] r, int rOff, Workspace w)
+    {
+        if (!decodePoint(p, pOff, w.p, w))
+        {
+            return false;
+        }
+
+        scalarMult(k, kOff, w.p, w.r, w);
+        return encodePoint(w.r, r, rOff, w);
+    }
+
+    /**
+     * Calculate a * G + b * P for the base point G, as used in signature verification.
+     *
+     * @param a the scalar for G, {@link #SCALAR_SIZE} bytes big-endian.
+     * @param aOff offset of a.
+     * @param b the scalar for P, {@link #SCALAR_SIZE} bytes big-endian.
+     * @param bOff offset of b.
+     * @param p the encoded point P, {@link #POINT_SIZE} bytes.
+     * @param pOff offset of the point.
+     * @param r buffer for the encoded result point, {@link #POINT_SIZE} bytes.
+     * @param rOff offset for the result.
+     * @param w working storage.
+     * @return false if P is not a valid point or the result is the point at infinity (nothing is written to r in
+     * either case), true otherwise.
+     */
+    public static boolean sumOfTwoMultiplies(byte[] a, int aOff, byte[] b, int bOff, byte[] p, int pOff, byte[] r,
+        int rOff, Workspace w)
+    {
+        if (!decodePoint(p, pOff, w.p, w))
+        {
+            return false;
+        }
+
+        scalarMult(b, bOff, w.p, w.r, w);
+        scalarMultBase(a, aOff, w.p, w);
+        pointAdd(w.r, w.p, w.r, w);
+        return encodePoint(w.r, r, rOff, w);
+    }
+}
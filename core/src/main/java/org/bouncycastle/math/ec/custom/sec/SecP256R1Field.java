@@ -4,8 +4,10 @@
 import java.security.SecureRandom;
 
 import org.bouncycastle.math.raw.Mod;
+import org.bouncycastle.math.raw.Mul64;
 import org.bouncycastle.math.raw.Nat;
 import org.bouncycastle.math.raw.Nat256;
+import org.bouncycastle.math.raw.Nat256Long;
 import org.bouncycastle.util.Pack;
 
 public class SecP256R1Field
@@ -21,6 +23,9 @@
     private static final int P7 = 0xFFFFFFFF;
     private static final int PExt15s1 = 0xFFFFFFFE >>> 1;
 
+    // the unreduced products use 64 bit limbs where the JVM has a 64 x 64 -> 128 bit multiply
+    private static final boolean LONG_MUL = Mul64.isIntrinsic();
+
     public static void add(int[] x, int[] y, int[] z)
     {
         int c = Nat256.add(x, y, z);
@@ -90,13 +95,13 @@ public static int isZero(int[] x)
     public static void multiply(int[] x, int[] y, int[] z)
     {
         int[] tt = Nat256.createExt();
-        Nat256.mul(x, y, tt);
+        implMultiply(x, y, tt);
         reduce(tt, z);
     }
 
     public static void multiply(int[] x, int[] y, int[] z, int[] tt)
     {
-        Nat256.mul(x, y, tt);
+        implMultiply(x, y, tt);
         reduce(tt, z);
     }
 
@@ -242,13 +247,13 @@ public static void reduce32(int x, int[] z)
     public static void square(int[] x, int[] z)
     {
         int[] tt = Nat256.createExt();
-        Nat256.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
     }
 
     public static void square(int[] x, int[] z, int[] tt)
     {
-        Nat256.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
     }
 
@@ -257,12 +262,12 @@ public static void squareN(int[] x, int n, int[] z)
 //        assert n > 0;
 
         int[] tt = Nat256.createExt();
-        Nat256.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
 
         while (--n > 0)
         {
-            Nat256.square(z, tt);
+            implSquare(z, tt);
             reduce(tt, z);
         }
     }
@@ -271,12 +276,12 @@ public static void squareN(int[] x, int n, int[] z, int[] tt)
     {
 //        assert n > 0;
 
-        Nat256.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
 
         while (--n > 0)
         {
-            Nat256.square(z, tt);
+            implSquare(z, tt);
             reduce(tt, z);
         }
     }
@@ -308,6 +313,30 @@ public static void twice(int[] x, int[] z)
         }
     }
 
+    static void implMultiply(int[] x, int[] y, int[] zz)
+    {
+        if (LONG_MUL)
+        {
+            Nat256Long.mul(x, y, zz);
+        }
+        else
+        {
+            Nat256.mul(x, y, zz);
+        }
+    }
+
+    static void implSquare(int[] x, int[] zz)
+    {
+        if (LONG_MUL)
+        {
+            Nat256Long.square(x, zz);
+        }
+        else
+        {
+            Nat256.square(x, zz);
+        }
+    }
+
     private static void addPInvTo(int[] z)
     {
         long c = (z[0] & M) + 1;
@@ -120,7 +120,7 @@ public ECPoint add(ECPoint b)
         SecP256R1Field.multiply(HSquared, U1, V, tt0);
 
         SecP256R1Field.negate(G, G);
-        Nat256.mul(S1, G, tt1);
+        SecP256R1Field.implMultiply(S1, G, tt1);
 
         c = Nat256.addBothTo(V, V, G);
         SecP256R1Field.reduce32(c, G);
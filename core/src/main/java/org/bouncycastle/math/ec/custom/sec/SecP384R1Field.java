@@ -4,8 +4,10 @@
 import java.security.SecureRandom;
 
 import org.bouncycastle.math.raw.Mod;
+import org.bouncycastle.math.raw.Mul64;
 import org.bouncycastle.math.raw.Nat;
 import org.bouncycastle.math.raw.Nat384;
+import org.bouncycastle.math.raw.Nat384Long;
 import org.bouncycastle.util.Pack;
 
 public class SecP384R1Field
@@ -24,6 +26,9 @@
     private static final int P11 = 0xFFFFFFFF;
     private static final int PExt23 = 0xFFFFFFFF;
 
+    // the unreduced products use 64 bit limbs where the JVM has a 64 x 64 -> 128 bit multiply
+    private static final boolean LONG_MUL = Mul64.isIntrinsic();
+
     public static void add(int[] x, int[] y, int[] z)
     {
         int c = Nat.add(12, x, y, z);
@@ -96,13 +101,13 @@ public static int isZero(int[] x)
     public static void multiply(int[] x, int[] y, int[] z)
     {
         int[] tt = Nat.create(24);
-        Nat384.mul(x, y, tt);
+        implMultiply(x, y, tt);
         reduce(tt, z);
     }
 
     public static void multiply(int[] x, int[] y, int[] z, int[] tt)
     {
-        Nat384.mul(x, y, tt);
+        implMultiply(x, y, tt);
         reduce(tt, z);
     }
 
@@ -238,13 +243,13 @@ public static void reduce32(int x, int[] z)
     public static void square(int[] x, int[] z)
     {
         int[] tt = Nat.create(24);
-        Nat384.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
     }
 
     public static void square(int[] x, int[] z, int[] tt)
     {
-        Nat384.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
     }
 
@@ -253,12 +258,12 @@ public static void squareN(int[] x, int n, int[] z)
 //        assert n > 0;
 
         int[] tt = Nat.create(24);
-        Nat384.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
 
         while (--n > 0)
         {
-            Nat384.square(z, tt);
+            implSquare(z, tt);
             reduce(tt, z);
         }
     }
@@ -267,12 +272,12 @@ public static void squareN(int[] x, int n, int[] z, int[] tt)
     {
 //        assert n > 0;
 
-        Nat384.square(x, tt);
+        implSquare(x, tt);
         reduce(tt, z);
 
         while (--n > 0)
         {
-            Nat384.square(z, tt);
+            implSquare(z, tt);
             reduce(tt, z);
         }
     }
@@ -307,6 +312,30 @@ public static void twice(int[] x, int[] z)
         }
     }
 
+    static void implMultiply(int[] x, int[] y, int[] zz)
+    {
+        if (LONG_MUL)
+        {
+            Nat384Long.mul(x, y, zz);
+        }
+        else
+        {
+            Nat384.mul(x, y, zz);
+        }
+    }
+
+    static void implSquare(int[] x, int[] zz)
+    {
+        if (LONG_MUL)
+        {
+            Nat384Long.square(x, zz);
+        }
+        else
+        {
+            Nat384.square(x, zz);
+        }
+    }
+
     private static void addPInvTo(int[] z)
     {
         long c = (z[0] & M) + 1;
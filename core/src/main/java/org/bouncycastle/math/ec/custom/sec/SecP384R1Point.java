@@ -4,7 +4,6 @@
 import org.bouncycastle.math.ec.ECFieldElement;
 import org.bouncycastle.math.ec.ECPoint;
 import org.bouncycastle.math.raw.Nat;
-import org.bouncycastle.math.raw.Nat384;
 
 public class SecP384R1Point extends ECPoint.AbstractFp
 {
@@ -120,7 +119,7 @@ public ECPoint add(ECPoint b)
         SecP384R1Field.multiply(HSquared, U1, V, tt0);
 
         SecP384R1Field.negate(G, G);
-        Nat384.mul(S1, G, tt1);
+        SecP384R1Field.implMultiply(S1, G, tt1);
 
         c = Nat.addBothTo(12, V, V, G);
         SecP384R1Field.reduce32(c, G);
@@ -131,7 +130,7 @@ public ECPoint add(ECPoint b)
 
         SecP384R1FieldElement Y3 = new SecP384R1FieldElement(G);
         SecP384R1Field.subtract(V, X3.x, Y3.x);
-        Nat384.mul(Y3.x, R, tt2);
+        SecP384R1Field.implMultiply(Y3.x, R, tt2);
         SecP384R1Field.addExt(tt1, tt2, tt1);
         SecP384R1Field.reduce(tt1, Y3.x);
 
@@ -8,6 +8,7 @@
 import org.bouncycastle.math.ec.rfc7748.X25519Field;
 import org.bouncycastle.math.raw.Interleave;
 import org.bouncycastle.math.raw.Nat256;
+import org.bouncycastle.util.Arrays;
 
 /**
  * A low-level implementation of the Ed25519, Ed25519ctx, and Ed25519ph instantiations of the Edwards-Curve
@@ -89,6 +90,8 @@ private static class F extends X25519Field {};
     private static final int WNAF_WIDTH_128 = 4;
     private static final int WNAF_WIDTH_BASE = 6;
 
+    private static final int BATCH_MIN_SIZE = 16;
+
     // scalarMultBase is hard-coded for these values of blocks, teeth, spacing so they can't be freely changed
     private static final int PRECOMP_BLOCKS = 8;
     private static final int PRECOMP_TEETH = 4;
@@ -147,6 +150,16 @@ private static class F extends X25519Field {};
         int[] r1 = F.create();;
     }
 
+    // A decoded signature awaiting batch verification; R and A are stored negated.
+    private static class BatchEntry
+    {
+        int index;
+        PointAffine pR = new PointAffine();
+        PointAffine pA = new PointAffine();
+        int[] nS = new int[SCALAR_INTS];
+        int[] nA = new int[SCALAR_INTS];
+    }
+
     private static byte[] calculateS(byte[] r, byte[] k, byte[] s)
     {
         int[] t = new int[SCALAR_INTS * 2];     Scalar25519.decode(r, t);
@@ -160,6 +173,53 @@ private static byte[] calculateS(byte[] r, byte[] k, byte[] s)
         return Scalar25519.reduce512(result);
     }
 
+    private static boolean checkBatchVar(SecureRandom random, BatchEntry[] entries, int off, int len)
+    {
+        int count = len * 2 + 1;
+        int[][] ns = new int[count][];
+        PointAffine[] ps = new PointAffine[count];
+
+        byte[] zs = new byte[len * 16];
+        random.nextBytes(zs);
+
+        // Each signature is weighted by a random 127-bit z, so that [8]([s]B + sum(z.(-R) + z.k.(-A))) == 0,
+        // where s = sum(z.S), only holds (except with negligible probability) if every signature is valid.
+        int[] nB = new int[SCALAR_INTS];
+        int[] t = new int[SCALAR_INTS];
+        for (int i = 0; i < len; ++i)
+        {
+            BatchEntry e = entries[off + i];
+
+            int[] nZ = new int[SCALAR_INTS];
+            Codec.decode32(zs, i * 16, nZ, 0, 4);
+            nZ[3] &= 0x7FFFFFFF;
+
+            int[] nZA = new int[SCALAR_INTS];
+            Scalar25519.multiply128Var(e.nA, nZ, nZA);
+            Scalar25519.multiply128Var(e.nS, nZ, t);
+            Scalar25519.addVar(nB, t, nB);
+
+            ns[i * 2] = nZ;
+            ps[i * 2] = e.pR;
+            ns[i * 2 + 1] = nZA;
+            ps[i * 2 + 1] = e.pA;
+        }
+
+        PointAffine B = new PointAffine();
+        F.copy(B_x, 0, B.x, 0);
+        F.copy(B_y, 0, B.y, 0);
+        ns[count - 1] = nB;
+        ps[count - 1] = B;
+
+        PointAccum pZ = new PointAccum();
+        scalarMultPippengerVar(count, ns, ps, pZ);
+
+        pointDouble(pZ);
+        pointDouble(pZ);
+        pointDouble(pZ);
+        return normalizeToNeutralElementVar(pZ);
+    }
+
     private static boolean checkContextVar(byte[] ctx , byte phflag)
     {
         return ctx == null && phflag == 0x00 
@@ -287,6 +347,33 @@ public static Digest createPrehash()
         return createDigest();
     }
 
+    private static BatchEntry decodeBatchEntryVar(Digest d, byte[] h, byte[] sig, byte[] pk, byte[] m)
+    {
+        if (sig == null || sig.length != SIGNATURE_SIZE || pk == null || pk.length != PUBLIC_KEY_SIZE)
+        {
+            return null;
+        }
+
+        byte[] R = copy(sig, 0, POINT_BYTES);
+        byte[] S = copy(sig, POINT_BYTES, SCALAR_BYTES);
+
+        BatchEntry e = new BatchEntry();
+
+        if (!checkPointVar(R) || !Scalar25519.checkVar(S, e.nS) || !checkPointFullVar(pk)
+            || !decodePointVar(R, true, e.pR) || !decodePointVar(pk, true, e.pA))
+        {
+            return null;
+        }
+
+        d.update(R, 0, POINT_BYTES);
+        d.update(pk, 0, POINT_BYTES);
+        d.update(m, 0, m.length);
+        d.doFinal(h, 0);
+
+        Scalar25519.decode(Scalar25519.reduce512(h), e.nA);
+        return e;
+    }
+
     private static boolean decodePointVar(byte[] p, boolean negate, PointAffine r)
     {
         int x_0 = (p[POINT_BYTES - 1] & 0x80) >>> 7;
@@ -564,19 +651,7 @@ private static boolean implVerify(byte[] sig, int sigOff, byte[] pk, int pkOff,
         int[] nA = new int[SCALAR_INTS];
         Scalar25519.decode(k, nA);
 
-        int[] v0 = new int[4];
-        int[] v1 = new int[4];
-
-        if (!Scalar25519.reduceBasisVar(nA, v0, v1))
-        {
-            throw new IllegalStateException();
-        }
-
-        Scalar25519.multiply128Var(nS, v1, nS);
-
-        PointAccum pZ = new PointAccum();
-        scalarMultStraus128Var(nS, v0, pA, v1, pR, pZ);
-        return normalizeToNeutralElementVar(pZ);
+        return implVerify(nS, nA, pA, pR);
     }
 
     private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoint, byte[] ctx, byte phflag,
@@ -631,6 +706,11 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         int[] nA = new int[SCALAR_INTS];
         Scalar25519.decode(k, nA);
 
+        return implVerify(nS, nA, pA, pR);
+    }
+
+    private static boolean implVerify(int[] nS, int[] nA, PointAffine pA, PointAffine pR)
+    {
         int[] v0 = new int[4];
         int[] v1 = new int[4];
 
@@ -646,6 +726,35 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         return normalizeToNeutralElementVar(pZ);
     }
 
+    private static void implVerifyBatchVar(SecureRandom random, BatchEntry[] entries, int off, int len,
+        boolean[] results)
+    {
+        // Below this size the fixed cost of the combined check outweighs the savings over single verifications.
+        if (len < BATCH_MIN_SIZE)
+        {
+            for (int i = 0; i < len; ++i)
+            {
+                BatchEntry e = entries[off + i];
+                results[e.index] = implVerify(Arrays.clone(e.nS), Arrays.clone(e.nA), e.pA, e.pR);
+            }
+            return;
+        }
+
+        if (checkBatchVar(random, entries, off, len))
+        {
+            for (int i = 0; i < len; ++i)
+            {
+                results[entries[off + i].index] = true;
+            }
+            return;
+        }
+
+        // At least one signature is bad; narrow it down by halves.
+        int half = len >>> 1;
+        implVerifyBatchVar(random, entries, off, half, results);
+        implVerifyBatchVar(random, entries, off + half, len - half, results);
+    }
+
     private static void invertDoubleZs(PointExtended[] points)
     {
         int count = points.length;
@@ -1339,6 +1448,113 @@ private static void scalarMultOrderVar(PointAffine p, PointAccum r)
         }
     }
 
+    private static void scalarMultPippengerVar(int count, int[][] ns, PointAffine[] ps, PointAccum r)
+    {
+//        assert every ns[i] is reduced mod L
+
+        // Pick the window width minimising the additions, (bits/width) * (count + 2^width)
+        int width = 2;
+        for (int w = 3; w <= 16; ++w)
+        {
+            if ((253 / w + 1) * (count + (1 << w)) < (253 / width + 1) * (count + (1 << width)))
+            {
+                width = w;
+            }
+        }
+
+        int windows = 253 / width + 1, buckets = 1 << (width - 1);
+
+        int[][] ws = new int[count][windows];
+        PointPrecompZ[] pz = new PointPrecompZ[count];
+        PointExtended q = new PointExtended();
+        for (int i = 0; i < count; ++i)
+        {
+            Wnaf.getSignedFixedVar(ns[i], width, windows, ws[i]);
+
+            pointCopy(ps[i], q);
+            pointCopy(q, pz[i] = new PointPrecompZ());
+        }
+
+        PointAccum[] bs = new PointAccum[buckets];
+        for (int j = 0; j < buckets; ++j)
+        {
+            bs[j] = new PointAccum();
+        }
+        boolean[] used = new boolean[buckets];
+
+        PointAccum running = new PointAccum();
+        PointAccum sum = new PointAccum();
+        PointPrecompZ qz = new PointPrecompZ();
+        PointTemp t = new PointTemp();
+
+        pointSetNeutral(r);
+
+        for (int w = windows - 1; w >= 0; --w)
+        {
+            for (int j = 0; j < buckets; ++j)
+            {
+                used[j] = false;
+            }
+
+            boolean any = false;
+            for (int i = 0; i < count; ++i)
+            {
+                int digit = ws[i][w];
+                if (digit != 0)
+                {
+                    int index = (digit ^ (digit >> 31)) - (digit >> 31) - 1;
+                    if (!used[index])
+                    {
+                        pointSetNeutral(bs[index]);
+                        used[index] = true;
+                    }
+                    pointAddVar(digit < 0, pz[i], bs[index], t);
+                    any = true;
+                }
+            }
+
+            if (w < windows - 1)
+            {
+                for (int k = 0; k < width; ++k)
+                {
+                    pointDouble(r);
+                }
+            }
+
+            if (!any)
+            {
+                continue;
+            }
+
+            // sum = 1.bs[0] + 2.bs[1] + ... , accumulated as a running sum from the top bucket down
+            pointSetNeutral(running);
+            pointSetNeutral(sum);
+
+            int top = buckets;
+            while (!used[--top])
+            {
+            }
+
+            for (int j = top; j >= 0; --j)
+            {
+                if (used[j])
+                {
+                    pointCopy(bs[j], q);
+                    pointCopy(q, qz);
+                    pointAdd(qz, running, t);
+                }
+
+                pointCopy(running, q);
+                pointCopy(q, qz);
+                pointAdd(qz, sum, t);
+            }
+
+            pointCopy(sum, q);
+            pointCopy(q, qz);
+            pointAdd(qz, r, t);
+        }
+    }
+
     private static void scalarMultStraus128Var(int[] nb, int[] np, PointAffine p, int[] nq, PointAffine q, PointAccum r)
     {
 //        assert nb.length == SCALAR_INTS;
@@ -1589,6 +1805,63 @@ public static boolean verify(byte[] sig, int sigOff, PublicPoint publicPoint, by
         return implVerify(sig, sigOff, publicPoint, ctx, phflag, m, mOff, mLen);
     }
 
+    /**
+     * Verify a batch of (pure) Ed25519 signatures together. The signatures are combined with random weights
+     * drawn from random and checked with a single multi-scalar multiplication, which for larger batches is
+     * considerably cheaper than verifying each signature on its own. If the combined check fails the batch is
+     * split to locate the invalid signatures, so the outcome per signature is the same as from
+     * {@link #verify(byte[], int, byte[], int, byte[], int, int)}.
+     *
+     * @param random source of the random weights.
+     * @param sigs the signatures, each of {@link #SIGNATURE_SIZE} bytes.
+     * @param pks the public keys, each of {@link #PUBLIC_KEY_SIZE} bytes.
+     * @param msgs the messages.
+     * @param results if not null, set to the verification result of each signature.
+     * @return true if every signature verified, false otherwise.
+     */
+    public static boolean verifyBatch(SecureRandom random, byte[][] sigs, byte[][] pks, byte[][] msgs,
+        boolean[] results)
+    {
+        int count = sigs.length;
+        if (pks.length != count || msgs.length != count || (results != null && results.length != count))
+        {
+            throw new IllegalArgumentException("batch arrays must all be the same length");
+        }
+
+        if (results == null)
+        {
+            results = new boolean[count];
+        }
+
+        Digest d = createDigest();
+        byte[] h = new byte[64];
+
+        BatchEntry[] entries = new BatchEntry[count];
+        int len = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            results[i] = false;
+
+            BatchEntry e = decodeBatchEntryVar(d, h, sigs[i], pks[i], msgs[i]);
+            if (e != null)
+            {
+                e.index = i;
+                entries[len++] = e;
+            }
+        }
+
+        implVerifyBatchVar(random, entries, 0, len, results);
+
+        for (int i = 0; i < count; ++i)
+        {
+            if (!results[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static boolean verifyPrehash(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[] ctx, byte[] ph, int phOff)
     {
         byte phflag = 0x01;
@@ -2,6 +2,34 @@
 
 abstract class Wnaf
 {
+    static void getSignedFixedVar(int[] n, int width, int count, int[] ws)
+    {
+//        assert 2 <= width && width <= 16;
+//        assert n is non-negative and count * width covers its bit length plus one
+
+        final int mask = (1 << width) - 1, half = 1 << (width - 1);
+
+        int carry = 0;
+        for (int i = 0, bit = 0; i < count; ++i, bit += width)
+        {
+            int word = bit >>> 5, shift = bit & 31, bits = 0;
+            if (word < n.length)
+            {
+                bits = n[word] >>> shift;
+                if (shift + width > 32 && word + 1 < n.length)
+                {
+                    bits |= n[word + 1] << (32 - shift);
+                }
+            }
+
+            int digit = (bits & mask) + carry;
+            carry = (half - digit) >>> 31;
+            ws[i] = digit - (carry << width);
+        }
+
+//        assert carry == 0;
+    }
+
     static void getSignedVar(int[] n, int width, byte[] ws)
     {
 //        assert 2 <= width && width <= 8;
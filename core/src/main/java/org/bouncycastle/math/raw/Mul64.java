@@ -0,0 +1,38 @@
+package org.bouncycastle.math.raw;
+
+/**
+ * High halves of 64 x 64 bit products. This is the portable version, on Java 9 and later the
+ * multi-release jar replaces it with one using Math.multiplyHigh().
+ */
+public abstract class Mul64
+{
+    /**
+     * Return true if multiplyHigh() maps to a single machine instruction on this JVM.
+     */
+    public static boolean isIntrinsic()
+    {
+        return false;
+    }
+
+    /**
+     * Return the high 64 bits of the signed 128 bit product of x and y.
+     */
+    public static long multiplyHigh(long x, long y)
+    {
+        long x1 = x >> 32, x0 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32, y0 = y & 0xFFFFFFFFL;
+
+        long t = x1 * y0 + ((x0 * y0) >>> 32);
+        long u = x0 * y1 + (t & 0xFFFFFFFFL);
+
+        return x1 * y1 + (t >> 32) + (u >> 32);
+    }
+
+    /**
+     * Return the high 64 bits of the unsigned 128 bit product of x and y.
+     */
+    public static long unsignedMultiplyHigh(long x, long y)
+    {
+        return multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+}
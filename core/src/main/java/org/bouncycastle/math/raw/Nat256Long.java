@@ -0,0 +1,163 @@
+package org.bouncycastle.math.raw;
+
+/**
+ * Products of 256 bit values for 64 bit platforms, giving the same results as {@link Nat256#mul(int[], int[], int[])}
+ * and {@link Nat256#square(int[], int[])}.
+ * <p>
+ * The inputs are split into 5 limbs of 52 bits held in longs, which keeps each column sum well inside 64 bits so no
+ * carries need tracking until the end. The low half of each limb product is taken directly and the high half with
+ * {@link Mul64#multiplyHigh(long, long)}, the operands being pre-shifted so that it lands on the limb boundary. This is
+ * only faster where Mul64 is intrinsic, see {@link Mul64#isIntrinsic()}.
+ * </p>
+ */
+public abstract class Nat256Long
+{
+    private static final long M = 0xFFFFFFFFL;
+    private static final int W = 52;
+    private static final long MW = (1L << W) - 1;
+
+    public static void mul(int[] x, int[] y, int[] zz)
+    {
+        long x0 = (x[0] & M) | (x[1] & 0xFFFFFL) << 32;
+        long x1 = (x[1] >>> 20) | (x[2] & M) << 12 | (x[3] & 0xFFL) << 44;
+        long x2 = (x[3] >>> 8) | (x[4] & 0xFFFFFFFL) << 24;
+        long x3 = (x[4] >>> 28) | (x[5] & M) << 4 | (x[6] & 0xFFFFL) << 36;
+        long x4 = (x[6] >>> 16) | (x[7] & M) << 16;
+        long y0 = (y[0] & M) | (y[1] & 0xFFFFFL) << 32;
+        long y1 = (y[1] >>> 20) | (y[2] & M) << 12 | (y[3] & 0xFFL) << 44;
+        long y2 = (y[3] >>> 8) | (y[4] & 0xFFFFFFFL) << 24;
+        long y3 = (y[4] >>> 28) | (y[5] & M) << 4 | (y[6] & 0xFFFFL) << 36;
+        long y4 = (y[6] >>> 16) | (y[7] & M) << 16;
+
+        long u0 = x0 << 11, u1 = x1 << 11, u2 = x2 << 11, u3 = x3 << 11, u4 = x4 << 11;
+        long v0 = y0 << 1, v1 = y1 << 1, v2 = y2 << 1, v3 = y3 << 1, v4 = y4 << 1;
+
+        long l0 = x0 * y0 & MW;
+        long h0 = Mul64.multiplyHigh(u0, v0);
+        long l1 = (x0 * y1 & MW) + (x1 * y0 & MW);
+        long h1 = Mul64.multiplyHigh(u0, v1) + Mul64.multiplyHigh(u1, v0);
+        long l2 = (x0 * y2 & MW) + (x1 * y1 & MW) + (x2 * y0 & MW);
+        long h2 = Mul64.multiplyHigh(u0, v2) + Mul64.multiplyHigh(u1, v1) + Mul64.multiplyHigh(u2, v0);
+        long l3 = (x0 * y3 & MW) + (x1 * y2 & MW) + (x2 * y1 & MW) + (x3 * y0 & MW);
+        long h3 = Mul64.multiplyHigh(u0, v3) + Mul64.multiplyHigh(u1, v2) + Mul64.multiplyHigh(u2, v1)
+            + Mul64.multiplyHigh(u3, v0);
+        long l4 = (x0 * y4 & MW) + (x1 * y3 & MW) + (x2 * y2 & MW) + (x3 * y1 & MW) + (x4 * y0 & MW);
+        long h4 = Mul64.multiplyHigh(u0, v4) + Mul64.multiplyHigh(u1, v3) + Mul64.multiplyHigh(u2, v2)
+            + Mul64.multiplyHigh(u3, v1) + Mul64.multiplyHigh(u4, v0);
+        long l5 = (x1 * y4 & MW) + (x2 * y3 & MW) + (x3 * y2 & MW) + (x4 * y1 & MW);
+        long h5 = Mul64.multiplyHigh(u1, v4) + Mul64.multiplyHigh(u2, v3) + Mul64.multiplyHigh(u3, v2)
+            + Mul64.multiplyHigh(u4, v1);
+        long l6 = (x2 * y4 & MW) + (x3 * y3 & MW) + (x4 * y2 & MW);
+        long h6 = Mul64.multiplyHigh(u2, v4) + Mul64.multiplyHigh(u3, v3) + Mul64.multiplyHigh(u4, v2);
+        long l7 = (x3 * y4 & MW) + (x4 * y3 & MW);
+        long h7 = Mul64.multiplyHigh(u3, v4) + Mul64.multiplyHigh(u4, v3);
+        long l8 = x4 * y4 & MW;
+        long h8 = Mul64.multiplyHigh(u4, v4);
+
+        long c = l0;
+        long z0 = c & MW; c >>>= W;
+        c += l1 + h0;
+        long z1 = c & MW; c >>>= W;
+        c += l2 + h1;
+        long z2 = c & MW; c >>>= W;
+        c += l3 + h2;
+        long z3 = c & MW; c >>>= W;
+        c += l4 + h3;
+        long z4 = c & MW; c >>>= W;
+        c += l5 + h4;
+        long z5 = c & MW; c >>>= W;
+        c += l6 + h5;
+        long z6 = c & MW; c >>>= W;
+        c += l7 + h6;
+        long z7 = c & MW; c >>>= W;
+        c += l8 + h7;
+        long z8 = c & MW; c >>>= W;
+        long z9 = c + h8;
+
+        zz[0] = (int)z0;
+        zz[1] = (int)(z0 >>> 32) | (int)(z1 << 20);
+        zz[2] = (int)(z1 >>> 12);
+        zz[3] = (int)(z1 >>> 44) | (int)(z2 << 8);
+        zz[4] = (int)(z2 >>> 24) | (int)(z3 << 28);
+        zz[5] = (int)(z3 >>> 4);
+        zz[6] = (int)(z3 >>> 36) | (int)(z4 << 16);
+        zz[7] = (int)(z4 >>> 16);
+        zz[8] = (int)(z4 >>> 48) | (int)(z5 << 4);
+        zz[9] = (int)(z5 >>> 28) | (int)(z6 << 24);
+        zz[10] = (int)(z6 >>> 8);
+        zz[11] = (int)(z6 >>> 40) | (int)(z7 << 12);
+        zz[12] = (int)(z7 >>> 20);
+        zz[13] = (int)z8;
+        zz[14] = (int)(z8 >>> 32) | (int)(z9 << 20);
+        zz[15] = (int)(z9 >>> 12);
+    }
+
+    public static void square(int[] x, int[] zz)
+    {
+        long x0 = (x[0] & M) | (x[1] & 0xFFFFFL) << 32;
+        long x1 = (x[1] >>> 20) | (x[2] & M) << 12 | (x[3] & 0xFFL) << 44;
+        long x2 = (x[3] >>> 8) | (x[4] & 0xFFFFFFFL) << 24;
+        long x3 = (x[4] >>> 28) | (x[5] & M) << 4 | (x[6] & 0xFFFFL) << 36;
+        long x4 = (x[6] >>> 16) | (x[7] & M) << 16;
+
+        long u0 = x0 << 11, u1 = x1 << 11, u2 = x2 << 11, u3 = x3 << 11, u4 = x4 << 11;
+        long v0 = x0 << 1, v1 = x1 << 1, v2 = x2 << 1, v3 = x3 << 1, v4 = x4 << 1;
+        long d1 = x1 << 2, d2 = x2 << 2, d3 = x3 << 2, d4 = x4 << 2;
+
+        long l0 = x0 * x0 & MW;
+        long h0 = Mul64.multiplyHigh(u0, v0);
+        long l1 = x0 * x1 << 1 & MW;
+        long h1 = Mul64.multiplyHigh(u0, d1);
+        long l2 = (x0 * x2 << 1 & MW) + (x1 * x1 & MW);
+        long h2 = Mul64.multiplyHigh(u0, d2) + Mul64.multiplyHigh(u1, v1);
+        long l3 = (x0 * x3 << 1 & MW) + (x1 * x2 << 1 & MW);
+        long h3 = Mul64.multiplyHigh(u0, d3) + Mul64.multiplyHigh(u1, d2);
+        long l4 = (x0 * x4 << 1 & MW) + (x1 * x3 << 1 & MW) + (x2 * x2 & MW);
+        long h4 = Mul64.multiplyHigh(u0, d4) + Mul64.multiplyHigh(u1, d3) + Mul64.multiplyHigh(u2, v2);
+        long l5 = (x1 * x4 << 1 & MW) + (x2 * x3 << 1 & MW);
+        long h5 = Mul64.multiplyHigh(u1, d4) + Mul64.multiplyHigh(u2, d3);
+        long l6 = (x2 * x4 << 1 & MW) + (x3 * x3 & MW);
+        long h6 = Mul64.multiplyHigh(u2, d4) + Mul64.multiplyHigh(u3, v3);
+        long l7 = x3 * x4 << 1 & MW;
+        long h7 = Mul64.multiplyHigh(u3, d4);
+        long l8 = x4 * x4 & MW;
+        long h8 = Mul64.multiplyHigh(u4, v4);
+
+        long c = l0;
+        long z0 = c & MW; c >>>= W;
+        c += l1 + h0;
+        long z1 = c & MW; c >>>= W;
+        c += l2 + h1;
+        long z2 = c & MW; c >>>= W;
+        c += l3 + h2;
+        long z3 = c & MW; c >>>= W;
+        c += l4 + h3;
+        long z4 = c & MW; c >>>= W;
+        c += l5 + h4;
+        long z5 = c & MW; c >>>= W;
+        c += l6 + h5;
+        long z6 = c & MW; c >>>= W;
+        c += l7 + h6;
+        long z7 = c & MW; c >>>= W;
+        c += l8 + h7;
+        long z8 = c & MW; c >>>= W;
+        long z9 = c + h8;
+
+        zz[0] = (int)z0;
+        zz[1] = (int)(z0 >>> 32) | (int)(z1 << 20);
+        zz[2] = (int)(z1 >>> 12);
+        zz[3] = (int)(z1 >>> 44) | (int)(z2 << 8);
+        zz[4] = (int)(z2 >>> 24) | (int)(z3 << 28);
+        zz[5] = (int)(z3 >>> 4);
+        zz[6] = (int)(z3 >>> 36) | (int)(z4 << 16);
+        zz[7] = (int)(z4 >>> 16);
+        zz[8] = (int)(z4 >>> 48) | (int)(z5 << 4);
+        zz[9] = (int)(z5 >>> 28) | (int)(z6 << 24);
+        zz[10] = (int)(z6 >>> 8);
+        zz[11] = (int)(z6 >>> 40) | (int)(z7 << 12);
+        zz[12] = (int)(z7 >>> 20);
+        zz[13] = (int)z8;
+        zz[14] = (int)(z8 >>> 32) | (int)(z9 << 20);
+        zz[15] = (int)(z9 >>> 12);
+    }
+}
@@ -0,0 +1,226 @@
+package org.bouncycastle.math.raw;
+
+/**
+ * Products of 384 bit values for 64 bit platforms, giving the same results as {@link Nat384#mul(int[], int[], int[])}
+ * and {@link Nat384#square(int[], int[])}.
+ * <p>
+ * The inputs are split into 7 limbs of 55 bits held in longs, which keeps each column sum well inside 64 bits so no
+ * carries need tracking until the end. The low half of each limb product is taken directly and the high half with
+ * {@link Mul64#multiplyHigh(long, long)}, the operands being pre-shifted so that it lands on the limb boundary. This is
+ * only faster where Mul64 is intrinsic, see {@link Mul64#isIntrinsic()}.
+ * </p>
+ */
+public abstract class Nat384Long
+{
+    private static final long M = 0xFFFFFFFFL;
+    private static final int W = 55;
+    private static final long MW = (1L << W) - 1;
+
+    public static void mul(int[] x, int[] y, int[] zz)
+    {
+        long x0 = (x[0] & M) | (x[1] & 0x7FFFFFL) << 32;
+        long x1 = (x[1] >>> 23) | (x[2] & M) << 9 | (x[3] & 0x3FFFL) << 41;
+        long x2 = (x[3] >>> 14) | (x[4] & M) << 18 | (x[5] & 0x1FL) << 50;
+        long x3 = (x[5] >>> 5) | (x[6] & 0xFFFFFFFL) << 27;
+        long x4 = (x[6] >>> 28) | (x[7] & M) << 4 | (x[8] & 0x7FFFFL) << 36;
+        long x5 = (x[8] >>> 19) | (x[9] & M) << 13 | (x[10] & 0x3FFL) << 45;
+        long x6 = (x[10] >>> 10) | (x[11] & M) << 22;
+        long y0 = (y[0] & M) | (y[1] & 0x7FFFFFL) << 32;
+        long y1 = (y[1] >>> 23) | (y[2] & M) << 9 | (y[3] & 0x3FFFL) << 41;
+        long y2 = (y[3] >>> 14) | (y[4] & M) << 18 | (y[5] & 0x1FL) << 50;
+        long y3 = (y[5] >>> 5) | (y[6] & 0xFFFFFFFL) << 27;
+        long y4 = (y[6] >>> 28) | (y[7] & M) << 4 | (y[8] & 0x7FFFFL) << 36;
+        long y5 = (y[8] >>> 19) | (y[9] & M) << 13 | (y[10] & 0x3FFL) << 45;
+        long y6 = (y[10] >>> 10) | (y[11] & M) << 22;
+
+        long u0 = x0 << 8, u1 = x1 << 8, u2 = x2 << 8, u3 = x3 << 8, u4 = x4 << 8, u5 = x5 << 8, u6 = x6 << 8;
+        long v0 = y0 << 1, v1 = y1 << 1, v2 = y2 << 1, v3 = y3 << 1, v4 = y4 << 1, v5 = y5 << 1, v6 = y6 << 1;
+
+        long l0 = x0 * y0 & MW;
+        long h0 = Mul64.multiplyHigh(u0, v0);
+        long l1 = (x0 * y1 & MW) + (x1 * y0 & MW);
+        long h1 = Mul64.multiplyHigh(u0, v1) + Mul64.multiplyHigh(u1, v0);
+        long l2 = (x0 * y2 & MW) + (x1 * y1 & MW) + (x2 * y0 & MW);
+        long h2 = Mul64.multiplyHigh(u0, v2) + Mul64.multiplyHigh(u1, v1) + Mul64.multiplyHigh(u2, v0);
+        long l3 = (x0 * y3 & MW) + (x1 * y2 & MW) + (x2 * y1 & MW) + (x3 * y0 & MW);
+        long h3 = Mul64.multiplyHigh(u0, v3) + Mul64.multiplyHigh(u1, v2) + Mul64.multiplyHigh(u2, v1)
+            + Mul64.multiplyHigh(u3, v0);
+        long l4 = (x0 * y4 & MW) + (x1 * y3 & MW) + (x2 * y2 & MW) + (x3 * y1 & MW) + (x4 * y0 & MW);
+        long h4 = Mul64.multiplyHigh(u0, v4) + Mul64.multiplyHigh(u1, v3) + Mul64.multiplyHigh(u2, v2)
+            + Mul64.multiplyHigh(u3, v1) + Mul64.multiplyHigh(u4, v0);
+        long l5 = (x0 * y5 & MW) + (x1 * y4 & MW) + (x2 * y3 & MW) + (x3 * y2 & MW) + (x4 * y1 & MW)
+            + (x5 * y0 & MW);
+        long h5 = Mul64.multiplyHigh(u0, v5) + Mul64.multiplyHigh(u1, v4) + Mul64.multiplyHigh(u2, v3)
+            + Mul64.multiplyHigh(u3, v2) + Mul64.multiplyHigh(u4, v1) + Mul64.multiplyHigh(u5, v0);
+        long l6 = (x0 * y6 & MW) + (x1 * y5 & MW) + (x2 * y4 & MW) + (x3 * y3 & MW) + (x4 * y2 & MW)
+            + (x5 * y1 & MW) + (x6 * y0 & MW);
+        long h6 = Mul64.multiplyHigh(u0, v6) + Mul64.multiplyHigh(u1, v5) + Mul64.multiplyHigh(u2, v4)
+            + Mul64.multiplyHigh(u3, v3) + Mul64.multiplyHigh(u4, v2) + Mul64.multiplyHigh(u5, v1)
+            + Mul64.multiplyHigh(u6, v0);
+        long l7 = (x1 * y6 & MW) + (x2 * y5 & MW) + (x3 * y4 & MW) + (x4 * y3 & MW) + (x5 * y2 & MW)
+            + (x6 * y1 & MW);
+        long h7 = Mul64.multiplyHigh(u1, v6) + Mul64.multiplyHigh(u2, v5) + Mul64.multiplyHigh(u3, v4)
+            + Mul64.multiplyHigh(u4, v3) + Mul64.multiplyHigh(u5, v2) + Mul64.multiplyHigh(u6, v1);
+        long l8 = (x2 * y6 & MW) + (x3 * y5 & MW) + (x4 * y4 & MW) + (x5 * y3 & MW) + (x6 * y2 & MW);
+        long h8 = Mul64.multiplyHigh(u2, v6) + Mul64.multiplyHigh(u3, v5) + Mul64.multiplyHigh(u4, v4)
+            + Mul64.multiplyHigh(u5, v3) + Mul64.multiplyHigh(u6, v2);
+        long l9 = (x3 * y6 & MW) + (x4 * y5 & MW) + (x5 * y4 & MW) + (x6 * y3 & MW);
+        long h9 = Mul64.multiplyHigh(u3, v6) + Mul64.multiplyHigh(u4, v5) + Mul64.multiplyHigh(u5, v4)
+            + Mul64.multiplyHigh(u6, v3);
+        long l10 = (x4 * y6 & MW) + (x5 * y5 & MW) + (x6 * y4 & MW);
+        long h10 = Mul64.multiplyHigh(u4, v6) + Mul64.multiplyHigh(u5, v5) + Mul64.multiplyHigh(u6, v4);
+        long l11 = (x5 * y6 & MW) + (x6 * y5 & MW);
+        long h11 = Mul64.multiplyHigh(u5, v6) + Mul64.multiplyHigh(u6, v5);
+        long l12 = x6 * y6 & MW;
+        long h12 = Mul64.multiplyHigh(u6, v6);
+
+        long c = l0;
+        long z0 = c & MW; c >>>= W;
+        c += l1 + h0;
+        long z1 = c & MW; c >>>= W;
+        c += l2 + h1;
+        long z2 = c & MW; c >>>= W;
+        c += l3 + h2;
+        long z3 = c & MW; c >>>= W;
+        c += l4 + h3;
+        long z4 = c & MW; c >>>= W;
+        c += l5 + h4;
+        long z5 = c & MW; c >>>= W;
+        c += l6 + h5;
+        long z6 = c & MW; c >>>= W;
+        c += l7 + h6;
+        long z7 = c & MW; c >>>= W;
+        c += l8 + h7;
+        long z8 = c & MW; c >>>= W;
+        c += l9 + h8;
+        long z9 = c & MW; c >>>= W;
+        c += l10 + h9;
+        long z10 = c & MW; c >>>= W;
+        c += l11 + h10;
+        long z11 = c & MW; c >>>= W;
+        c += l12 + h11;
+        long z12 = c & MW; c >>>= W;
+        long z13 = c + h12;
+
+        zz[0] = (int)z0;
+        zz[1] = (int)(z0 >>> 32) | (int)(z1 << 23);
+        zz[2] = (int)(z1 >>> 9);
+        zz[3] = (int)(z1 >>> 41) | (int)(z2 << 14);
+        zz[4] = (int)(z2 >>> 18);
+        zz[5] = (int)(z2 >>> 50) | (int)(z3 << 5);
+        zz[6] = (int)(z3 >>> 27) | (int)(z4 << 28);
+        zz[7] = (int)(z4 >>> 4);
+        zz[8] = (int)(z4 >>> 36) | (int)(z5 << 19);
+        zz[9] = (int)(z5 >>> 13);
+        zz[10] = (int)(z5 >>> 45) | (int)(z6 << 10);
+        zz[11] = (int)(z6 >>> 22);
+        zz[12] = (int)(z6 >>> 54) | (int)(z7 << 1);
+        zz[13] = (int)(z7 >>> 31) | (int)(z8 << 24);
+        zz[14] = (int)(z8 >>> 8);
+        zz[15] = (int)(z8 >>> 40) | (int)(z9 << 15);
+        zz[16] = (int)(z9 >>> 17);
+        zz[17] = (int)(z9 >>> 49) | (int)(z10 << 6);
+        zz[18] = (int)(z10 >>> 26) | (int)(z11 << 29);
+        zz[19] = (int)(z11 >>> 3);
+        zz[20] = (int)(z11 >>> 35) | (int)(z12 << 20);
+        zz[21] = (int)(z12 >>> 12);
+        zz[22] = (int)(z12 >>> 44) | (int)(z13 << 11);
+        zz[23] = (int)(z13 >>> 21);
+    }
+
+    public static void square(int[] x, int[] zz)
+    {
+        long x0 = (x[0] & M) | (x[1] & 0x7FFFFFL) << 32;
+        long x1 = (x[1] >>> 23) | (x[2] & M) << 9 | (x[3] & 0x3FFFL) << 41;
+        long x2 = (x[3] >>> 14) | (x[4] & M) << 18 | (x[5] & 0x1FL) << 50;
+        long x3 = (x[5] >>> 5) | (x[6] & 0xFFFFFFFL) << 27;
+        long x4 = (x[6] >>> 28) | (x[7] & M) << 4 | (x[8] & 0x7FFFFL) << 36;
+        long x5 = (x[8] >>> 19) | (x[9] & M) << 13 | (x[10] & 0x3FFL) << 45;
+        long x6 = (x[10] >>> 10) | (x[11] & M) << 22;
+
+        long u0 = x0 << 8, u1 = x1 << 8, u2 = x2 << 8, u3 = x3 << 8, u4 = x4 << 8, u5 = x5 << 8, u6 = x6 << 8;
+        long v0 = x0 << 1, v1 = x1 << 1, v2 = x2 << 1, v3 = x3 << 1, v4 = x4 << 1, v5 = x5 << 1, v6 = x6 << 1;
+        long d1 = x1 << 2, d2 = x2 << 2, d3 = x3 << 2, d4 = x4 << 2, d5 = x5 << 2, d6 = x6 << 2;
+
+        long l0 = x0 * x0 & MW;
+        long h0 = Mul64.multiplyHigh(u0, v0);
+        long l1 = x0 * x1 << 1 & MW;
+        long h1 = Mul64.multiplyHigh(u0, d1);
+        long l2 = (x0 * x2 << 1 & MW) + (x1 * x1 & MW);
+        long h2 = Mul64.multiplyHigh(u0, d2) + Mul64.multiplyHigh(u1, v1);
+        long l3 = (x0 * x3 << 1 & MW) + (x1 * x2 << 1 & MW);
+        long h3 = Mul64.multiplyHigh(u0, d3) + Mul64.multiplyHigh(u1, d2);
+        long l4 = (x0 * x4 << 1 & MW) + (x1 * x3 << 1 & MW) + (x2 * x2 & MW);
+        long h4 = Mul64.multiplyHigh(u0, d4) + Mul64.multiplyHigh(u1, d3) + Mul64.multiplyHigh(u2, v2);
+        long l5 = (x0 * x5 << 1 & MW) + (x1 * x4 << 1 & MW) + (x2 * x3 << 1 & MW);
+        long h5 = Mul64.multiplyHigh(u0, d5) + Mul64.multiplyHigh(u1, d4) + Mul64.multiplyHigh(u2, d3);
+        long l6 = (x0 * x6 << 1 & MW) + (x1 * x5 << 1 & MW) + (x2 * x4 << 1 & MW) + (x3 * x3 & MW);
+        long h6 = Mul64.multiplyHigh(u0, d6) + Mul64.multiplyHigh(u1, d5) + Mul64.multiplyHigh(u2, d4)
+            + Mul64.multiplyHigh(u3, v3);
+        long l7 = (x1 * x6 << 1 & MW) + (x2 * x5 << 1 & MW) + (x3 * x4 << 1 & MW);
+        long h7 = Mul64.multiplyHigh(u1, d6) + Mul64.multiplyHigh(u2, d5) + Mul64.multiplyHigh(u3, d4);
+        long l8 = (x2 * x6 << 1 & MW) + (x3 * x5 << 1 & MW) + (x4 * x4 & MW);
+        long h8 = Mul64.multiplyHigh(u2, d6) + Mul64.multiplyHigh(u3, d5) + Mul64.multiplyHigh(u4, v4);
+        long l9 = (x3 * x6 << 1 & MW) + (x4 * x5 << 1 & MW);
+        long h9 = Mul64.multiplyHigh(u3, d6) + Mul64.multiplyHigh(u4, d5);
+        long l10 = (x4 * x6 << 1 & MW) + (x5 * x5 & MW);
+        long h10 = Mul64.multiplyHigh(u4, d6) + Mul64.multiplyHigh(u5, v5);
+        long l11 = x5 * x6 << 1 & MW;
+        long h11 = Mul64.multiplyHigh(u5, d6);
+        long l12 = x6 * x6 & MW;
+        long h12 = Mul64.multiplyHigh(u6, v6);
+
+        long c = l0;
+        long z0 = c & MW; c >>>= W;
+        c += l1 + h0;
+        long z1 = c & MW; c >>>= W;
+        c += l2 + h1;
+        long z2 = c & MW; c >>>= W;
+        c += l3 + h2;
+        long z3 = c & MW; c >>>= W;
+        c += l4 + h3;
+        long z4 = c & MW; c >>>= W;
+        c += l5 + h4;
+        long z5 = c & MW; c >>>= W;
+        c += l6 + h5;
+        long z6 = c & MW; c >>>= W;
+        c += l7 + h6;
+        long z7 = c & MW; c >>>= W;
+        c += l8 + h7;
+        long z8 = c & MW; c >>>= W;
+        c += l9 + h8;
+        long z9 = c & MW; c >>>= W;
+        c += l10 + h9;
+        long z10 = c & MW; c >>>= W;
+        c += l11 + h10;
+        long z11 = c & MW; c >>>= W;
+        c += l12 + h11;
+        long z12 = c & MW; c >>>= W;
+        long z13 = c + h12;
+
+        zz[0] = (int)z0;
+        zz[1] = (int)(z0 >>> 32) | (int)(z1 << 23);
+        zz[2] = (int)(z1 >>> 9);
+        zz[3] = (int)(z1 >>> 41) | (int)(z2 << 14);
+        zz[4] = (int)(z2 >>> 18);
+        zz[5] = (int)(z2 >>> 50) | (int)(z3 << 5);
+        zz[6] = (int)(z3 >>> 27) | (int)(z4 << 28);
+        zz[7] = (int)(z4 >>> 4);
+        zz[8] = (int)(z4 >>> 36) | (int)(z5 << 19);
+        zz[9] = (int)(z5 >>> 13);
+        zz[10] = (int)(z5 >>> 45) | (int)(z6 << 10);
+        zz[11] = (int)(z6 >>> 22);
+        zz[12] = (int)(z6 >>> 54) | (int)(z7 << 1);
+        zz[13] = (int)(z7 >>> 31) | (int)(z8 << 24);
+        zz[14] = (int)(z8 >>> 8);
+        zz[15] = (int)(z8 >>> 40) | (int)(z9 << 15);
+        zz[16] = (int)(z9 >>> 17);
+        zz[17] = (int)(z9 >>> 49) | (int)(z10 << 6);
+        zz[18] = (int)(z10 >>> 26) | (int)(z11 << 29);
+        zz[19] = (int)(z11 >>> 3);
+        zz[20] = (int)(z11 >>> 35) | (int)(z12 << 20);
+        zz[21] = (int)(z12 >>> 12);
+        zz[22] = (int)(z12 >>> 44) | (int)(z13 << 11);
+        zz[23] = (int)(z13 >>> 21);
+    }
+}
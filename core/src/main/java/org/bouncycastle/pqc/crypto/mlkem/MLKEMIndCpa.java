@@ -340,9 +340,9 @@ public void generateMatrix(PolyVec[] aMatrix, byte[] seed, boolean transposed)
                     {
                         buf[k] = buf[buflen - off + k];
                     }
-                    symmetric.xofSqueezeBlocks(buf, off, symmetric.xofBlockBytes * 2);
+                    // only one block is used, so only one is squeezed, the next continuation carries on from it
+                    symmetric.xofSqueezeBlocks(buf, off, symmetric.xofBlockBytes);
                     buflen = off + symmetric.xofBlockBytes;
-                    // Error in code Section Unsure
                     ctr += rejectionSampling(aMatrix[i].getVectorIndex(j), ctr, MLKEMEngine.KyberN - ctr, buf, buflen);
                 }
             }
@@ -2,6 +2,7 @@
 
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.Xof;
+import org.bouncycastle.crypto.digests.MultiSHA256Digest;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.digests.SHAKEDigest;
@@ -104,6 +105,24 @@ else if (N <= 256)
 
     abstract byte[] PRF_msg(byte[] prf, byte[] randomiser, byte[] msgPrefix, byte[] msg);
 
+    // F for count independent inputs, m[i] is replaced by F(pkSeed, adrs[i], m[i])
+    void F(byte[] pkSeed, ADRS[] adrs, byte[][] m, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            m[i] = F(pkSeed, adrs[i], m[i]);
+        }
+    }
+
+    // PRF for count addresses, out[i] is set to PRF(pkSeed, skSeed, adrs[i])
+    void PRF(byte[] pkSeed, byte[] skSeed, ADRS[] adrs, byte[][] out, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            out[i] = PRF(pkSeed, skSeed, adrs[i]);
+        }
+    }
+
     static class Sha2Engine
         extends SLHDSAEngine
     {
@@ -118,6 +137,9 @@ else if (N <= 256)
 
         private Memoable msgMemo;
         private Memoable sha256Memo;
+        private MultiSHA256Digest sha256Multi;
+        private byte[][] multiIn;
+        private byte[] multiOut;
 
         public Sha2Engine(int n, int w, int d, int a, int k, int h)
         {
@@ -154,6 +176,7 @@ void init(byte[] pkSeed)
             sha256.update(pkSeed, 0, pkSeed.length);
             sha256.update(padding, 0, 64 - pkSeed.length); // toByte(0, 64 - n)
             sha256Memo = ((Memoable)sha256).copy();
+            sha256Multi = new MultiSHA256Digest((SHA256Digest)sha256);
 
             sha256.reset();
         }
@@ -171,6 +194,51 @@ public byte[] F(byte[] pkSeed, ADRS adrs, byte[] m1)
             return Arrays.copyOfRange(sha256Buf, 0, N);
         }
 
+        void F(byte[] pkSeed, ADRS[] adrs, byte[][] m, int count)
+        {
+            multiSHA256(adrs, m, count);
+
+            for (int i = 0; i < count; i++)
+            {
+                m[i] = Arrays.copyOfRange(multiOut, i * 32, i * 32 + N);
+            }
+        }
+
+        void PRF(byte[] pkSeed, byte[] skSeed, ADRS[] adrs, byte[][] out, int count)
+        {
+            byte[][] skSeeds = new byte[count][];
+            Arrays.fill(skSeeds, skSeed);
+
+            multiSHA256(adrs, skSeeds, count);
+
+            for (int i = 0; i < count; i++)
+            {
+                out[i] = Arrays.copyOfRange(multiOut, i * 32, i * 32 + skSeed.length);
+                Arrays.fill(multiIn[i], (byte)0);
+            }
+
+            // the PRF outputs are secret WOTS+/FORS keys, don't leave them behind
+            Arrays.fill(multiOut, 0, count * 32, (byte)0);
+        }
+
+        // SHA-256(PK.seed || toByte(0, 64 - n) || ADRSc || m[i]) for each i, left in multiOut
+        private void multiSHA256(ADRS[] adrs, byte[][] m, int count)
+        {
+            if (multiIn == null || multiIn.length < count || multiIn[0].length != 22 + m[0].length)
+            {
+                multiIn = new byte[count][22 + m[0].length];
+                multiOut = new byte[count * 32];
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                compressedADRS(adrs[i], multiIn[i]);
+                System.arraycopy(m[i], 0, multiIn[i], 22, m[i].length);
+            }
+
+            sha256Multi.digestAll(multiIn, count, multiOut, 0);
+        }
+
         public byte[] H(byte[] pkSeed, ADRS adrs, byte[] m1, byte[] m2)
         {
             byte[] compressedADRS = compressedADRS(adrs);
@@ -271,12 +339,17 @@ public byte[] PRF_msg(byte[] prf, byte[] randomiser, byte[] msgPrefix, byte[] ms
         private byte[] compressedADRS(ADRS adrs)
         {
             byte[] rv = new byte[22];
+            compressedADRS(adrs, rv);
+
+            return rv;
+        }
+
+        private void compressedADRS(ADRS adrs, byte[] rv)
+        {
             System.arraycopy(adrs.value, ADRS.OFFSET_LAYER + 3, rv, 0, 1); // LSB layer address
             System.arraycopy(adrs.value, ADRS.OFFSET_TREE + 4, rv, 1, 8); // LS 8 bytes Tree address
             System.arraycopy(adrs.value, ADRS.OFFSET_TYPE + 3, rv, 9, 1); // LSB type
             System.arraycopy(adrs.value, 20, rv, 10, 12);
-
-            return rv;
         }
 
         protected byte[] bitmask(byte[] key, byte[] m)
@@ -18,23 +18,12 @@ byte[] pkGen(byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
     {
         ADRS wotspkADRS = new ADRS(paramAdrs); // copy address to create OTS public key address
 
-        byte[][] tmp = new byte[engine.WOTS_LEN][];
-        for (int i = 0; i < engine.WOTS_LEN; i++)
-        {
-            ADRS adrs = new ADRS(paramAdrs);
-            adrs.setTypeAndClear(ADRS.WOTS_PRF);
-            adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
-            adrs.setChainAddress(i);
-            adrs.setHashAddress(0);
-
-            byte[] sk = engine.PRF(pkSeed, skSeed, adrs);
-
-            adrs.setTypeAndClear(ADRS.WOTS_HASH);
-            adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
-            adrs.setChainAddress(i);
-            adrs.setHashAddress(0);
-            tmp[i] = chain(sk, 0, w - 1, pkSeed, adrs);
-        }
+        int[] start = new int[engine.WOTS_LEN];
+        int[] steps = new int[engine.WOTS_LEN];
+        Arrays.fill(steps, w - 1);
+
+        byte[][] tmp = secretKeys(skSeed, pkSeed, paramAdrs);
+        chains(tmp, start, steps, pkSeed, chainAddresses(paramAdrs));
 
         wotspkADRS.setTypeAndClear(ADRS.WOTS_PK);
         wotspkADRS.setKeyPairAddress(paramAdrs.getKeyPairAddress());
@@ -42,33 +31,82 @@ byte[] pkGen(byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
         return engine.T_l(pkSeed, wotspkADRS, Arrays.concatenate(tmp));
     }
 
-    // #Input: Input string X, start index i, number of steps s, public seed PK.seed, address ADRS
-    // #Output: value of F iterated s times on X
-    byte[] chain(byte[] X, int i, int s, byte[] pkSeed, ADRS adrs)
+    /*
+     * Run every chain i from start[i] for steps[i] steps, replacing X[i] with the result. The chains are
+     * independent, so each round of steps is passed to the engine as a single batch.
+     */
+    private void chains(byte[][] X, int[] start, int[] steps, byte[] pkSeed, ADRS[] adrs)
     {
-        if (s == 0)
+        int count = X.length;
+        byte[][] batch = new byte[count][];
+        ADRS[] batchAdrs = new ADRS[count];
+        int[] batchIndex = new int[count];
+
+        for (int j = 0; ; ++j)
         {
-            return Arrays.clone(X);
+            int n = 0;
+            for (int i = 0; i < count; i++)
+            {
+                if (j < steps[i])
+                {
+                    adrs[i].setHashAddress(start[i] + j);
+                    batch[n] = X[i];
+                    batchAdrs[n] = adrs[i];
+                    batchIndex[n++] = i;
+                }
+            }
+
+            if (n == 0)
+            {
+                break;
+            }
+
+            engine.F(pkSeed, batchAdrs, batch, n);
+
+            for (int k = 0; k < n; k++)
+            {
+                X[batchIndex[k]] = batch[k];
+            }
         }
-        if ((i + s) > (this.w - 1))
+    }
+
+    // the WOTS+ secret keys, one for each chain
+    private byte[][] secretKeys(byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
+    {
+        ADRS[] adrs = new ADRS[engine.WOTS_LEN];
+        for (int i = 0; i < engine.WOTS_LEN; i++)
         {
-            return null;
+            adrs[i] = new ADRS(paramAdrs);
+            adrs[i].setTypeAndClear(ADRS.WOTS_PRF);
+            adrs[i].setKeyPairAddress(paramAdrs.getKeyPairAddress());
+            adrs[i].setChainAddress(i);
+            adrs[i].setHashAddress(0);
         }
-        byte[] result = X;
-        for (int j = 0; j < s; ++j)
+
+        byte[][] sk = new byte[engine.WOTS_LEN][];
+        engine.PRF(pkSeed, skSeed, adrs, sk, engine.WOTS_LEN);
+        return sk;
+    }
+
+    // the WOTS_HASH addresses, one for each chain
+    private ADRS[] chainAddresses(ADRS paramAdrs)
+    {
+        ADRS[] adrs = new ADRS[engine.WOTS_LEN];
+        for (int i = 0; i < engine.WOTS_LEN; i++)
         {
-            adrs.setHashAddress(i + j);
-            result = engine.F(pkSeed, adrs, result);
+            adrs[i] = new ADRS(paramAdrs);
+            adrs[i].setTypeAndClear(ADRS.WOTS_HASH);
+            adrs[i].setKeyPairAddress(paramAdrs.getKeyPairAddress());
+            adrs[i].setChainAddress(i);
+            adrs[i].setHashAddress(0);
         }
-        return result;
+        return adrs;
     }
 
     // #Input: Message M, secret seed SK.seed, public seed PK.seed, address ADRS
     // #Output: WOTS+ signature sig
     public byte[] sign(byte[] M, byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
     {
-        ADRS adrs = new ADRS(paramAdrs);
-
         int[] msg = new int[engine.WOTS_LEN];
 
         // convert message to base w
@@ -90,20 +128,8 @@ public byte[] sign(byte[] M, byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
         byte[] csum_bytes = Pack.intToBigEndian(csum);
         base_w(csum_bytes, 4 - len_2_bytes, w, msg, engine.WOTS_LEN1, engine.WOTS_LEN2);
 
-        byte[][] sig = new byte[engine.WOTS_LEN][];
-        for (int i = 0; i < engine.WOTS_LEN; i++)
-        {
-            adrs.setTypeAndClear(ADRS.WOTS_PRF);
-            adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
-            adrs.setChainAddress(i);
-            adrs.setHashAddress(0);
-            byte[] sk = engine.PRF(pkSeed, skSeed, adrs);
-            adrs.setTypeAndClear(ADRS.WOTS_HASH);
-            adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
-            adrs.setChainAddress(i);
-            adrs.setHashAddress(0);
-            sig[i] = chain(sk, 0, msg[i], pkSeed, adrs);
-        }
+        byte[][] sig = secretKeys(skSeed, pkSeed, paramAdrs);
+        chains(sig, new int[engine.WOTS_LEN], msg, pkSeed, chainAddresses(paramAdrs));
         return Arrays.concatenate(sig);
     }
 
@@ -149,14 +175,17 @@ public byte[] pkFromSig(byte[] sig, byte[] M, byte[] pkSeed, ADRS adrs)
         byte[] csum_bytes = Pack.intToBigEndian(csum);
         base_w(csum_bytes, 4 - len_2_bytes, w, msg, engine.WOTS_LEN1, engine.WOTS_LEN2);
 
-        byte[] sigI = new byte[engine.N];
         byte[][] tmp = new byte[engine.WOTS_LEN][];
+        int[] steps = new int[engine.WOTS_LEN];
+        ADRS[] chainAdrs = new ADRS[engine.WOTS_LEN];
         for (int  i = 0; i < engine.WOTS_LEN; i++ )
         {
-            adrs.setChainAddress(i);
-            System.arraycopy(sig, i * engine.N, sigI, 0, engine.N);
-            tmp[i] = chain(sigI, msg[i], w - 1 - msg[i], pkSeed, adrs);
+            tmp[i] = Arrays.copyOfRange(sig, i * engine.N, (i + 1) * engine.N);
+            steps[i] = w - 1 - msg[i];
+            chainAdrs[i] = new ADRS(adrs);
+            chainAdrs[i].setChainAddress(i);
         }
+        chains(tmp, msg, steps, pkSeed, chainAdrs);
 
         wotspkADRS.setTypeAndClear(ADRS.WOTS_PK);
         wotspkADRS.setKeyPairAddress(adrs.getKeyPairAddress());
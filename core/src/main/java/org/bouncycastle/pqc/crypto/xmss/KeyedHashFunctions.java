@@ -3,6 +3,11 @@
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.Xof;
+import org.bouncycastle.crypto.digests.MultiSHA256Digest;
+import org.bouncycastle.crypto.digests.MultiSHA512Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.util.Arrays;
 
 /**
  * Crypto functions for XMSS.
@@ -11,6 +16,9 @@
 {
     private final Digest digest;
     private final int digestSize;
+    // multi-buffer versions of digest, if available
+    private final MultiSHA256Digest multiSHA256;
+    private final MultiSHA512Digest multiSHA512;
 
     protected KeyedHashFunctions(ASN1ObjectIdentifier treeDigest, int digestSize)
     {
@@ -21,6 +29,8 @@ protected KeyedHashFunctions(ASN1ObjectIdentifier treeDigest, int digestSize)
         }
         this.digest = DigestUtil.getDigest(treeDigest);
         this.digestSize = digestSize;
+        this.multiSHA256 = (digest instanceof SHA256Digest && digestSize == 32) ? new MultiSHA256Digest() : null;
+        this.multiSHA512 = (digest instanceof SHA512Digest && digestSize == 64) ? new MultiSHA512Digest() : null;
     }
 
     private byte[] coreDigest(int fixedValue, byte[] key, byte[] index)
@@ -45,6 +55,54 @@ private byte[] coreDigest(int fixedValue, byte[] key, byte[] index)
         return out;
     }
 
+    /*
+     * coreDigest() for count independent inputs, using the multi-buffer digests where we can.
+     */
+    private byte[][] coreDigests(int fixedValue, byte[][] keys, byte[][] indexes, int count)
+    {
+        byte[][] out = new byte[count][];
+
+        if (multiSHA256 == null && multiSHA512 == null)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                out[i] = coreDigest(fixedValue, keys[i], indexes[i]);
+            }
+            return out;
+        }
+
+        byte[] in = XMSSUtil.toBytesBigEndian(fixedValue, digestSize);
+        byte[][] msgs = new byte[count][];
+        for (int i = 0; i < count; i++)
+        {
+            msgs[i] = Arrays.concatenate(in, keys[i], indexes[i]);
+        }
+
+        byte[] digests = new byte[count * digestSize];
+        if (multiSHA256 != null)
+        {
+            multiSHA256.digestAll(msgs, count, digests, 0);
+        }
+        else
+        {
+            multiSHA512.digestAll(msgs, count, digests, 0);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            out[i] = Arrays.copyOfRange(digests, i * digestSize, (i + 1) * digestSize);
+        }
+
+        // the keys may be secret, as may the outputs of PRF, don't leave copies of either behind
+        for (int i = 0; i < count; i++)
+        {
+            Arrays.fill(msgs[i], (byte)0);
+        }
+        Arrays.fill(digests, (byte)0);
+
+        return out;
+    }
+
     protected byte[] F(byte[] key, byte[] in)
     {
         if (key.length != digestSize)
@@ -58,6 +116,25 @@ protected byte[] F(byte[] key, byte[] in)
         return coreDigest(0, key, in);
     }
 
+    /**
+     * F for count independent key and input pairs.
+     */
+    protected byte[][] F(byte[][] keys, byte[][] ins, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (keys[i].length != digestSize)
+            {
+                throw new IllegalArgumentException("wrong key length");
+            }
+            if (ins[i].length != digestSize)
+            {
+                throw new IllegalArgumentException("wrong in length");
+            }
+        }
+        return coreDigests(0, keys, ins, count);
+    }
+
     protected byte[] H(byte[] key, byte[] in)
     {
         if (key.length != digestSize)
@@ -92,4 +169,25 @@ protected byte[] PRF(byte[] key, byte[] address)
         }
         return coreDigest(3, key, address);
     }
+
+    /**
+     * PRF for count addresses under the same key.
+     */
+    protected byte[][] PRF(byte[] key, byte[][] addresses, int count)
+    {
+        if (key.length != digestSize)
+        {
+            throw new IllegalArgumentException("wrong key length");
+        }
+        byte[][] keys = new byte[count][];
+        for (int i = 0; i < count; i++)
+        {
+            if (addresses[i].length != 32)
+            {
+                throw new IllegalArgumentException("wrong address length");
+            }
+            keys[i] = key;
+        }
+        return coreDigests(3, keys, addresses, count);
+    }
 }
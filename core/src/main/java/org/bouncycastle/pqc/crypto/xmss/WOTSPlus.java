@@ -114,16 +114,12 @@ WOTSPlusSignature sign(byte[] messageDigest, OTSHashAddress otsHashAddress)
         baseWMessage.addAll(baseWChecksum);
 
         /* create signature */
-        byte[][] signature = new byte[params.getLen()][];
+        int[] steps = new int[params.getLen()];
         for (int i = 0; i < params.getLen(); i++)
         {
-            otsHashAddress = (OTSHashAddress)new OTSHashAddress.Builder()
-                .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
-                .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(i)
-                .withHashAddress(otsHashAddress.getHashAddress()).withKeyAndMask(otsHashAddress.getKeyAndMask())
-                .build();
-            signature[i] = chain(expandSecretKeySeed(i), 0, baseWMessage.get(i), otsHashAddress);
+            steps[i] = baseWMessage.get(i);
         }
+        byte[][] signature = chains(expandSecretKeySeed(), new int[params.getLen()], steps, otsHashAddress);
         return new WOTSPlusSignature(params, signature);
     }
 
@@ -170,41 +166,33 @@ WOTSPlusPublicKeyParameters getPublicKeyFromSignature(byte[] messageDigest, WOTS
         /* msg || checksum */
         baseWMessage.addAll(baseWChecksum);
 
-        byte[][] publicKey = new byte[params.getLen()][];
+        int[] startIndexes = new int[params.getLen()];
+        int[] steps = new int[params.getLen()];
         for (int i = 0; i < params.getLen(); i++)
         {
-            otsHashAddress = (OTSHashAddress)new OTSHashAddress.Builder()
-                .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
-                .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(i)
-                .withHashAddress(otsHashAddress.getHashAddress()).withKeyAndMask(otsHashAddress.getKeyAndMask())
-                .build();
-            publicKey[i] = chain(signature.toByteArray()[i], baseWMessage.get(i),
-                params.getWinternitzParameter() - 1 - baseWMessage.get(i), otsHashAddress);
+            startIndexes[i] = baseWMessage.get(i);
+            steps[i] = params.getWinternitzParameter() - 1 - baseWMessage.get(i);
         }
+        byte[][] publicKey = chains(signature.toByteArray(), startIndexes, steps, otsHashAddress);
         return new WOTSPlusPublicKeyParameters(params, publicKey);
     }
 
     /**
-     * Computes an iteration of F on an n-byte input using outputs of PRF.
+     * Computes the iterations of F on all the chains at once, using outputs of PRF. Chain i
+     * starts with startHashes[i] at startIndexes[i] and takes steps[i] steps. The chains are
+     * independent, so each round of steps is hashed as a single batch.
      *
-     * @param startHash      Starting point.
-     * @param startIndex     Start index.
+     * @param startHashes    Starting points.
+     * @param startIndexes   Start indexes.
      * @param steps          Steps to take.
      * @param otsHashAddress OTS hash address for randomization.
-     * @return Value obtained by iterating F for steps times on input startHash,
+     * @return Values obtained by iterating F for steps[i] times on input startHashes[i],
      * using the outputs of PRF.
      */
-    private byte[] chain(byte[] startHash, int startIndex, int steps, OTSHashAddress otsHashAddress)
+    private byte[][] chains(byte[][] startHashes, int[] startIndexes, int[] steps, OTSHashAddress otsHashAddress)
     {
         int n = params.getTreeDigestSize();
-        if (startHash == null)
-        {
-            throw new NullPointerException("startHash == null");
-        }
-        if (startHash.length != n)
-        {
-            throw new IllegalArgumentException("startHash needs to be " + n + "bytes");
-        }
+        int len = params.getLen();
         if (otsHashAddress == null)
         {
             throw new NullPointerException("otsHashAddress == null");
@@ -213,33 +201,72 @@ private byte[] chain(byte[] startHash, int startIndex, int steps, OTSHashAddress
         {
             throw new NullPointerException("otsHashAddress byte array == null");
         }
-        if ((startIndex + steps) > params.getWinternitzParameter() - 1)
-        {
-            throw new IllegalArgumentException("max chain length must not be greater than w");
-        }
 
-        if (steps == 0)
+        byte[][] tmp = new byte[len][];
+        for (int i = 0; i < len; i++)
         {
-            return startHash;
+            if (startHashes[i] == null)
+            {
+                throw new NullPointerException("startHash == null");
+            }
+            if (startHashes[i].length != n)
+            {
+                throw new IllegalArgumentException("startHash needs to be " + n + "bytes");
+            }
+            if ((startIndexes[i] + steps[i]) > params.getWinternitzParameter() - 1)
+            {
+                throw new IllegalArgumentException("max chain length must not be greater than w");
+            }
+            tmp[i] = startHashes[i];
         }
 
-        byte[] tmp = chain(startHash, startIndex, steps - 1, otsHashAddress);
-        otsHashAddress = (OTSHashAddress)new OTSHashAddress.Builder()
-            .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
-            .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(otsHashAddress.getChainAddress())
-            .withHashAddress(startIndex + steps - 1).withKeyAndMask(0).build();
-        byte[] key = khf.PRF(publicSeed, otsHashAddress.toByteArray());
-        otsHashAddress = (OTSHashAddress)new OTSHashAddress.Builder()
-            .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
-            .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(otsHashAddress.getChainAddress())
-            .withHashAddress(otsHashAddress.getHashAddress()).withKeyAndMask(1).build();
-        byte[] bitmask = khf.PRF(publicSeed, otsHashAddress.toByteArray());
-        byte[] tmpMasked = new byte[n];
-        for (int i = 0; i < n; i++)
+        byte[][] addresses = new byte[2 * len][];
+        byte[][] keys = new byte[len][];
+        byte[][] tmpMasked = new byte[len][];
+        int[] chainIndex = new int[len];
+
+        for (int j = 0; ; j++)
         {
-            tmpMasked[i] = (byte)(tmp[i] ^ bitmask[i]);
+            int count = 0;
+            for (int i = 0; i < len; i++)
+            {
+                if (j < steps[i])
+                {
+                    OTSHashAddress.Builder builder = new OTSHashAddress.Builder()
+                        .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
+                        .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(i)
+                        .withHashAddress(startIndexes[i] + j);
+                    addresses[2 * count] = builder.withKeyAndMask(0).build().toByteArray();
+                    addresses[2 * count + 1] = builder.withKeyAndMask(1).build().toByteArray();
+                    chainIndex[count++] = i;
+                }
+            }
+
+            if (count == 0)
+            {
+                break;
+            }
+
+            byte[][] prfs = khf.PRF(publicSeed, addresses, 2 * count);
+            for (int k = 0; k < count; k++)
+            {
+                byte[] bitmask = prfs[2 * k + 1];
+                byte[] value = tmp[chainIndex[k]];
+
+                keys[k] = prfs[2 * k];
+                tmpMasked[k] = new byte[n];
+                for (int i = 0; i < n; i++)
+                {
+                    tmpMasked[k][i] = (byte)(value[i] ^ bitmask[i]);
+                }
+            }
+
+            byte[][] results = khf.F(keys, tmpMasked, count);
+            for (int k = 0; k < count; k++)
+            {
+                tmp[chainIndex[k]] = results[k];
+            }
         }
-        tmp = khf.F(key, tmpMasked);
         return tmp;
     }
 
@@ -297,6 +324,21 @@ protected byte[] getWOTSPlusSecretKey(byte[] secretKeySeed, OTSHashAddress otsHa
         return khf.PRF(secretKeySeed, otsHashAddress.toByteArray());
     }
 
+    /**
+     * Derive all the private keys from secret key seed.
+     *
+     * @return Private keys, in index order.
+     */
+    private byte[][] expandSecretKeySeed()
+    {
+        byte[][] indexes = new byte[params.getLen()][];
+        for (int i = 0; i < indexes.length; i++)
+        {
+            indexes[i] = XMSSUtil.toBytesBigEndian(i, 32);
+        }
+        return khf.PRF(secretKeySeed, indexes, indexes.length);
+    }
+
     /**
      * Derive private key at index from secret key seed.
      *
@@ -380,17 +422,10 @@ WOTSPlusPublicKeyParameters getPublicKey(OTSHashAddress otsHashAddress)
         {
             throw new NullPointerException("otsHashAddress == null");
         }
-        byte[][] publicKey = new byte[params.getLen()][];
         /* derive public key from secretKeySeed */
-        for (int i = 0; i < params.getLen(); i++)
-        {
-            otsHashAddress = (OTSHashAddress)new OTSHashAddress.Builder()
-                .withLayerAddress(otsHashAddress.getLayerAddress()).withTreeAddress(otsHashAddress.getTreeAddress())
-                .withOTSAddress(otsHashAddress.getOTSAddress()).withChainAddress(i)
-                .withHashAddress(otsHashAddress.getHashAddress()).withKeyAndMask(otsHashAddress.getKeyAndMask())
-                .build();
-            publicKey[i] = chain(expandSecretKeySeed(i), 0, params.getWinternitzParameter() - 1, otsHashAddress);
-        }
+        int[] steps = new int[params.getLen()];
+        Arrays.fill(steps, params.getWinternitzParameter() - 1);
+        byte[][] publicKey = chains(expandSecretKeySeed(), new int[params.getLen()], steps, otsHashAddress);
         return new WOTSPlusPublicKeyParameters(params, publicKey);
     }
 }
@@ -8,7 +8,9 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DefaultBufferedBlockCipher;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESBitslicedEngine;
 import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.AESLightEngine;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.modes.CFBBlockCipher;
 import org.bouncycastle.crypto.modes.CTRModeCipher;
@@ -393,6 +395,92 @@ private void skipTest()
         }
     }
 
+    private void multiBlockCTRTest()
+    {
+        CipherParameters params = new ParametersWithIV(new KeyParameter(Hex.decode("5F060D3716B345C253F6749ABAC10917")), Hex.decode("000000000000000000000000000000f0"));
+        CTRModeCipher reference = SICBlockCipher.newInstance(new AESLightEngine());
+        CTRModeCipher engine = SICBlockCipher.newInstance(new AESBitslicedEngine());
+
+        SecureRandom rand = new SecureRandom();
+        byte[]       plain = new byte[10000];
+        byte[]       expected = new byte[plain.length];
+        byte[]       cipher = new byte[plain.length];
+
+        rand.nextBytes(plain);
+
+        reference.initBlock(true, params);
+        reference.processBytes(plain, 0, plain.length, expected, 0);
+
+        engine.initBlock(true, params);
+        for (int off = 0; off < plain.length;)
+        {
+            int len = Math.min(rand.nextInt(1000), plain.length - off);
+            engine.processBytes(plain, off, len, cipher, off);
+            off += len;
+        }
+
+        if (!areEqual(expected, cipher))
+        {
+            fail("multi-block CTR mismatch");
+        }
+
+        for (int i = 0; i != 100; i++)
+        {
+            int pos = rand.nextInt(plain.length / 2);
+            int len = rand.nextInt(plain.length - pos);
+            byte[] fragment = new byte[len];
+
+            engine.seekTo(pos);
+            engine.processBytes(plain, pos, len, fragment, 0);
+
+            if (!areEqual(expected, pos, fragment, 0) || engine.getPosition() != pos + len)
+            {
+                fail("multi-block CTR seek to " + pos + " failed");
+            }
+        }
+    }
+
+    private void multiBlockCTRCounterTest()
+    {
+        // a 15 byte IV leaves 256 blocks, the second call runs out part way through a batch
+        CipherParameters params = new ParametersWithIV(new KeyParameter(Hex.decode("5F060D3716B345C253F6749ABAC10917")), Hex.decode("000000000000000000000000000000"));
+        CTRModeCipher reference = SICBlockCipher.newInstance(new AESLightEngine());
+        CTRModeCipher engine = SICBlockCipher.newInstance(new AESBitslicedEngine());
+
+        byte[] plain = new byte[250 * 16];
+        byte[] expected = new byte[20 * 16];
+        byte[] cipher = new byte[20 * 16];
+
+        reference.initBlock(true, params);
+        engine.initBlock(true, params);
+        reference.processBytes(plain, 0, plain.length, plain, 0);
+        engine.processBytes(plain, 0, plain.length, plain, 0);
+
+        checkCounterOverflow(reference, expected);
+        checkCounterOverflow(engine, cipher);
+
+        if (!areEqual(expected, cipher) || engine.getPosition() != reference.getPosition())
+        {
+            fail("multi-block CTR state differs after counter overflow");
+        }
+    }
+
+    private void checkCounterOverflow(CTRModeCipher engine, byte[] out)
+    {
+        try
+        {
+            engine.processBytes(new byte[out.length], 0, out.length, out, 0);
+            fail("out of range data not caught");
+        }
+        catch (IllegalStateException e)
+        {
+            if (!"Counter in CTR/SIC mode out of range.".equals(e.getMessage()))
+            {
+                fail("wrong exception");
+            }
+        }
+    }
+
     private void ctrCounterTest()
     {
         CipherParameters params = new ParametersWithIV(new KeyParameter(Hex.decode("5F060D3716B345C253F6749ABAC10917")), Hex.decode("000000000000000000000000000000"));
@@ -539,6 +627,8 @@ public void performTest()
 
         skipTest();
         ctrCounterTest();
+        multiBlockCTRTest();
+        multiBlockCTRCounterTest();
         ctrFragmentedTest();
         testLastByte();
         testCounter();
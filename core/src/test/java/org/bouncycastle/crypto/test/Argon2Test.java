@@ -3,6 +3,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
 import org.bouncycastle.crypto.params.Argon2Parameters;
@@ -34,6 +35,7 @@ public void performTest()
 
         testPermutations();
         testVectorsFromInternetDraft();
+        testParallel();
 
         int version = Argon2Parameters.ARGON2_VERSION_10;
 
@@ -315,6 +317,68 @@ private void testVectorsFromInternetDraft()
 
     }
 
+    private void testParallel()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            int[] types = { Argon2Parameters.ARGON2_d, Argon2Parameters.ARGON2_i, Argon2Parameters.ARGON2_id };
+            int[] lanes = { 1, 2, 3, 4, 7 };
+
+            for (int t = 0; t != types.length; t++)
+            {
+                for (int l = 0; l != lanes.length; l++)
+                {
+                    Argon2Parameters params = new Argon2Parameters.Builder(types[t])
+                        .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                        .withIterations(3)
+                        .withMemoryAsKB(256)
+                        .withParallelism(lanes[l])
+                        .withSalt(Strings.toByteArray("somesalt"))
+                        .build();
+
+                    Argon2BytesGenerator gen = new Argon2BytesGenerator();
+                    gen.init(params);
+                    byte[] expected = new byte[32];
+                    gen.generateBytes(Strings.toByteArray("password"), expected);
+
+                    gen.setParallelPool(pool);
+                    byte[] result = new byte[32];
+                    gen.generateBytes(Strings.toByteArray("password"), result);
+                    isTrue("parallel type " + types[t] + " lanes " + lanes[l], areEqual(expected, result));
+
+                    // and again, checking the generator can be reused
+                    Arrays.clear(result);
+                    gen.generateBytes(Strings.toByteArray("password"), result);
+                    isTrue("parallel reuse type " + types[t] + " lanes " + lanes[l], areEqual(expected, result));
+                }
+            }
+
+            Argon2Parameters params = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withIterations(3)
+                .withMemoryAsKB(32)
+                .withParallelism(4)
+                .withAdditional(Hex.decode("040404040404040404040404"))
+                .withSecret(Hex.decode("0303030303030303"))
+                .withSalt(Hex.decode("02020202020202020202020202020202"))
+                .build();
+
+            Argon2BytesGenerator gen = new Argon2BytesGenerator();
+            gen.setParallelPool(pool);
+            gen.init(params);
+
+            byte[] result = new byte[32];
+            gen.generateBytes(Hex.decode("0101010101010101010101010101010101010101010101010101010101010101"), result);
+            isTrue("parallel Argon 2id Failed", areEqual(result, Hex.decode("0d640df58d78766c08c037a34a8b53c9d01ef0452" +
+                "d75b65eb52520e96b01e659")));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
     private static int getJvmVersion()
     {
         String version = System.getProperty("java.specification.version");
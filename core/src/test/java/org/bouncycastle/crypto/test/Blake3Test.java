@@ -1,5 +1,12 @@
 package org.bouncycastle.crypto.test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
+
 import org.bouncycastle.crypto.digests.Blake3Digest;
 import org.bouncycastle.crypto.params.Blake3Parameters;
 import org.bouncycastle.util.Arrays;
@@ -257,6 +264,106 @@ public void performTest()
         runTestCase(TEST16384);
         runTestCase(TEST31744);
         runTestCase(TEST102400);
+
+        testParallel();
+    }
+
+    /**
+     * Check the parallel update methods match the sequential one.
+     */
+    private void testParallel()
+        throws Exception
+    {
+        final SecureRandom myRandom = new SecureRandom();
+        final ForkJoinPool myPool = new ForkJoinPool(4);
+        final Blake3Parameters[] myParams = {null, Blake3Parameters.key(BLAKE3KEY), Blake3Parameters.context(BLAKE3CTX)};
+        final int[] myLeads = {0, 1, 64, 1000, 1024, 5000, 65 * 1024 + 7};
+        final int[] myLengths = {Blake3Digest.PARALLEL_THRESHOLD, Blake3Digest.PARALLEL_THRESHOLD + 1,
+            3 * Blake3Digest.PARALLEL_THRESHOLD + 1024 * 37 + 11, 100};
+
+        try
+        {
+            for (int i = 0; i != myLengths.length; i++)
+            {
+                final byte[] myData = new byte[myLengths[i] + 65 * 1024 + 7];
+                myRandom.nextBytes(myData);
+
+                for (int j = 0; j != myParams.length; j++)
+                {
+                    for (int k = 0; k != myLeads.length; k++)
+                    {
+                        final int myLead = myLeads[k];
+                        final byte[] myExpected = parallelReference(myParams[j], myData, myLead, myLengths[i]);
+
+                        final Blake3Digest myDigest = new Blake3Digest();
+                        myDigest.init(myParams[j]);
+                        myDigest.update(myData, 0, myLead);
+                        ByteBuffer myInput = ByteBuffer.wrap(myData, myLead, myLengths[i]);
+                        myDigest.update(myInput, myPool);
+                        isTrue("parallel input not consumed", !myInput.hasRemaining());
+                        isTrue("parallel mismatch", Arrays.areEqual(myExpected, finish(myDigest)));
+
+                        myDigest.init(myParams[j]);
+                        myDigest.update(myData, 0, myLead);
+                        myInput = ByteBuffer.allocateDirect(myLengths[i]);
+                        myInput.put(myData, myLead, myLengths[i]).flip();
+                        myDigest.update(myInput, myPool);
+                        isTrue("direct parallel mismatch", Arrays.areEqual(myExpected, finish(myDigest)));
+                    }
+                }
+            }
+
+            /* A file hashed through its channel, starting part way in */
+            final byte[] myData = new byte[2 * Blake3Digest.PARALLEL_THRESHOLD + 12345];
+            myRandom.nextBytes(myData);
+            final File myFile = File.createTempFile("blake3", ".dat");
+            try
+            {
+                final FileOutputStream myOut = new FileOutputStream(myFile);
+                myOut.write(myData);
+                myOut.close();
+
+                final RandomAccessFile myIn = new RandomAccessFile(myFile, "r");
+                try
+                {
+                    myIn.getChannel().position(3);
+
+                    final Blake3Digest myDigest = new Blake3Digest();
+                    myDigest.update(myIn.getChannel(), myPool);
+                    isEquals("channel position", myData.length, myIn.getChannel().position());
+                    final byte[] myExpected = parallelReference(null, Arrays.copyOfRange(myData, 3, myData.length), 0,
+                        myData.length - 3);
+                    isTrue("file mismatch", Arrays.areEqual(myExpected, finish(myDigest)));
+                }
+                finally
+                {
+                    myIn.close();
+                }
+            }
+            finally
+            {
+                myFile.delete();
+            }
+        }
+        finally
+        {
+            myPool.shutdown();
+        }
+    }
+
+    private byte[] parallelReference(final Blake3Parameters pParams, final byte[] pData, final int pLead, final int pLen)
+    {
+        final Blake3Digest myDigest = new Blake3Digest();
+        myDigest.init(pParams);
+        myDigest.update(pData, 0, pLead + pLen);
+        return finish(myDigest);
+    }
+
+    private byte[] finish(final Blake3Digest pDigest)
+    {
+        final byte[] myOutput = new byte[100];
+        pDigest.doFinal(myOutput, 0, myOutput.length);
+        return myOutput;
     }
 
     /**
@@ -0,0 +1,304 @@
+package org.bouncycastle.crypto.test;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.Mac;
+import org.bouncycastle.crypto.OutputLengthException;
+import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.ChaCha7539Engine;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.crypto.util.ByteBufferUtil;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check the ByteBuffer methods in ByteBufferUtil give the same results as the byte[] methods for heap,
+ * direct and read-only buffers.
+ */
+public class ByteBufferUtilTest
+    extends SimpleTest
+{
+    private static final int HEAP = 0;
+    private static final int DIRECT = 1;
+    private static final int READ_ONLY = 2;
+    private static final int OFFSET_HEAP = 3;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ByteBufferUtil";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        int[] lengths = { 0, 1, 15, 16, 17, 4095, 4096, 4097, 10000 };
+
+        for (int i = 0; i != lengths.length; i++)
+        {
+            byte[] data = new byte[lengths[i]];
+            random.nextBytes(data);
+
+            for (int inType = HEAP; inType <= OFFSET_HEAP; inType++)
+            {
+                for (int outType = HEAP; outType <= OFFSET_HEAP; outType++)
+                {
+                    if (outType == READ_ONLY)
+                    {
+                        continue;
+                    }
+
+                    streamCipherTest(data, inType, outType);
+                    bufferedCipherTest(data, inType, outType);
+                    aeadCipherTest(data, inType, outType);
+                }
+
+                macAndDigestTest(data, inType);
+            }
+
+            inPlaceTest(data);
+        }
+
+        shortOutputTest();
+    }
+
+    private void streamCipherTest(byte[] data, int inType, int outType)
+    {
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(32)), randomBytes(12));
+
+        StreamCipher ref = new ChaCha7539Engine();
+        ref.init(true, params);
+        byte[] expected = new byte[data.length];
+        ref.processBytes(data, 0, data.length, expected, 0);
+
+        StreamCipher cipher = new ChaCha7539Engine();
+        cipher.init(true, params);
+        ByteBuffer in = createInput(data, inType);
+        ByteBuffer out = createOutput(data.length, outType);
+        int len = ByteBufferUtil.processBytes(cipher, in, out);
+
+        checkOutput("stream cipher", expected, len, in, out);
+    }
+
+    private void bufferedCipherTest(byte[] data, int inType, int outType)
+        throws Exception
+    {
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(16)), randomBytes(16));
+
+        BufferedBlockCipher ref = new PaddedBufferedBlockCipher(CBCBlockCipher.newInstance(AESEngine.newInstance()));
+        ref.init(true, params);
+        byte[] expected = new byte[ref.getOutputSize(data.length)];
+        int expectedLen = ref.processBytes(data, 0, data.length, expected, 0);
+        expectedLen += ref.doFinal(expected, expectedLen);
+
+        BufferedBlockCipher cipher = new PaddedBufferedBlockCipher(CBCBlockCipher.newInstance(AESEngine.newInstance()));
+        cipher.init(true, params);
+        ByteBuffer in = createInput(data, inType);
+        ByteBuffer out = createOutput(cipher.getOutputSize(data.length), outType);
+        int len = ByteBufferUtil.processBytes(cipher, in, out);
+        len += ByteBufferUtil.doFinal(cipher, out);
+
+        checkOutput("buffered cipher", Arrays.copyOfRange(expected, 0, expectedLen), len, in, out);
+    }
+
+    private void aeadCipherTest(byte[] data, int inType, int outType)
+        throws Exception
+    {
+        AEADParameters params = new AEADParameters(new KeyParameter(randomBytes(16)), 128, randomBytes(12));
+        byte[] aad = randomBytes(random.nextInt(100));
+
+        AEADCipher ref = GCMBlockCipher.newInstance(AESEngine.newInstance());
+        ref.init(true, params);
+        ref.processAADBytes(aad, 0, aad.length);
+        byte[] expected = new byte[ref.getOutputSize(data.length)];
+        int expectedLen = ref.processBytes(data, 0, data.length, expected, 0);
+        expectedLen += ref.doFinal(expected, expectedLen);
+
+        AEADCipher cipher = GCMBlockCipher.newInstance(AESEngine.newInstance());
+        cipher.init(true, params);
+        ByteBufferUtil.processAADBytes(cipher, createInput(aad, inType));
+        ByteBuffer in = createInput(data, inType);
+        ByteBuffer out = createOutput(cipher.getOutputSize(data.length), outType);
+        int len = ByteBufferUtil.processBytes(cipher, in, out);
+        len += ByteBufferUtil.doFinal(cipher, out);
+
+        checkOutput("AEAD encryption", expected, len, in, out);
+
+        cipher.init(false, params);
+        ByteBufferUtil.processAADBytes(cipher, createInput(aad, inType));
+        in = createInput(expected, inType);
+        out = createOutput(cipher.getOutputSize(expected.length), outType);
+        len = ByteBufferUtil.processBytes(cipher, in, out);
+        len += ByteBufferUtil.doFinal(cipher, out);
+
+        checkOutput("AEAD decryption", data, len, in, out);
+    }
+
+    private void macAndDigestTest(byte[] data, int inType)
+    {
+        Digest ref = new SHA256Digest();
+        ref.update(data, 0, data.length);
+        byte[] expected = new byte[ref.getDigestSize()];
+        ref.doFinal(expected, 0);
+
+        Digest digest = new SHA256Digest();
+        ByteBuffer in = createInput(data, inType);
+        ByteBufferUtil.update(digest, in);
+        byte[] result = new byte[digest.getDigestSize()];
+        digest.doFinal(result, 0);
+
+        isTrue("digest input not consumed", !in.hasRemaining());
+        isTrue("digest mismatch", Arrays.areEqual(expected, result));
+
+        KeyParameter key = new KeyParameter(randomBytes(32));
+        Mac refMac = new HMac(new SHA256Digest());
+        refMac.init(key);
+        refMac.update(data, 0, data.length);
+        expected = new byte[refMac.getMacSize()];
+        refMac.doFinal(expected, 0);
+
+        Mac mac = new HMac(new SHA256Digest());
+        mac.init(key);
+        in = createInput(data, inType);
+        ByteBufferUtil.update(mac, in);
+        result = new byte[mac.getMacSize()];
+        mac.doFinal(result, 0);
+
+        isTrue("mac input not consumed", !in.hasRemaining());
+        isTrue("mac mismatch", Arrays.areEqual(expected, result));
+    }
+
+    /*
+     * input and output share a backing array, both exactly and offset by a little.
+     */
+    private void inPlaceTest(byte[] data)
+    {
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(32)), randomBytes(12));
+
+        StreamCipher ref = new ChaCha7539Engine();
+        ref.init(true, params);
+        byte[] expected = new byte[data.length];
+        ref.processBytes(data, 0, data.length, expected, 0);
+
+        for (int shift = -3; shift <= 3; shift++)
+        {
+            byte[] buf = new byte[data.length + 6];
+            System.arraycopy(data, 0, buf, 3, data.length);
+
+            ByteBuffer in = ByteBuffer.wrap(buf, 3, data.length);
+            ByteBuffer out = ByteBuffer.wrap(buf, 3 + shift, data.length);
+
+            StreamCipher cipher = new ChaCha7539Engine();
+            cipher.init(true, params);
+            int len = ByteBufferUtil.processBytes(cipher, in, out);
+
+            isEquals("in place length", data.length, len);
+            isTrue("in place mismatch at shift " + shift,
+                Arrays.areEqual(expected, Arrays.copyOfRange(buf, 3 + shift, 3 + shift + data.length)));
+        }
+    }
+
+    private void shortOutputTest()
+    {
+        StreamCipher cipher = new ChaCha7539Engine();
+        cipher.init(true, new ParametersWithIV(new KeyParameter(new byte[32]), new byte[12]));
+
+        ByteBuffer in = ByteBuffer.allocateDirect(100);
+        try
+        {
+            ByteBufferUtil.processBytes(cipher, in, ByteBuffer.allocateDirect(99));
+            fail("no exception on short output");
+        }
+        catch (OutputLengthException e)
+        {
+            isEquals("output buffer too short", e.getMessage());
+        }
+        isEquals("input consumed on failure", 100, in.remaining());
+    }
+
+    private void checkOutput(String label, byte[] expected, int len, ByteBuffer in, ByteBuffer out)
+    {
+        isTrue(label + " input not consumed", !in.hasRemaining());
+        isEquals(label + " length", expected.length, len);
+        isEquals(label + " output position", expected.length, out.position() - 5);
+
+        byte[] result = new byte[len];
+        out.flip();
+        out.position(5);
+        out.get(result);
+
+        isTrue(label + " mismatch", Arrays.areEqual(expected, result));
+    }
+
+    private ByteBuffer createInput(byte[] data, int type)
+    {
+        ByteBuffer buf;
+        switch (type)
+        {
+        case HEAP:
+            return ByteBuffer.wrap(Arrays.clone(data));
+        case OFFSET_HEAP:
+            buf = ByteBuffer.allocate(data.length + 10);
+            buf.position(7);
+            buf = buf.slice();
+            buf.put(data).flip();
+            return buf;
+        case READ_ONLY:
+            return ByteBuffer.wrap(Arrays.clone(data)).asReadOnlyBuffer();
+        default:
+            buf = ByteBuffer.allocateDirect(data.length);
+            buf.put(data).flip();
+            return buf;
+        }
+    }
+
+    /*
+     * all outputs start at position 5 to check offsets are honoured.
+     */
+    private ByteBuffer createOutput(int len, int type)
+    {
+        ByteBuffer buf;
+        switch (type)
+        {
+        case HEAP:
+            buf = ByteBuffer.allocate(len + 5);
+            break;
+        case OFFSET_HEAP:
+            buf = ByteBuffer.allocate(len + 16);
+            buf.position(11);
+            buf = buf.slice();
+            break;
+        default:
+            buf = ByteBuffer.allocateDirect(len + 5);
+            break;
+        }
+        buf.position(5);
+        return buf;
+    }
+
+    private byte[] randomBytes(int len)
+    {
+        byte[] bytes = new byte[len];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ByteBufferUtilTest());
+    }
+}
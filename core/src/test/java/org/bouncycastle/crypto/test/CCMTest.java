@@ -1,10 +1,14 @@
 package org.bouncycastle.crypto.test;
 
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.engines.DESEngine;
 import org.bouncycastle.crypto.modes.CCMBlockCipher;
 import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.CCMStreamingParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
@@ -198,6 +202,8 @@ public void performTest()
             }
         }
 
+        streamingTest();
+
         AEADTestUtil.testReset(this, new CCMBlockCipher(AESEngine.newInstance()), new CCMBlockCipher(AESEngine.newInstance()), new AEADParameters(new KeyParameter(K1), 32, N2));
         AEADTestUtil.testTampering(this, ccm, new AEADParameters(new KeyParameter(K1), 32, N2));
         AEADTestUtil.testOutputSizes(this, new CCMBlockCipher(AESEngine.newInstance()), new AEADParameters(
@@ -303,6 +309,161 @@ private void checkVectors(
         {
             fail("MAC fails to match in test " + count + " with " + additionalDataType);
         }
+
+        //
+        // repeat with the lengths declared up front, feeding the data in pieces.
+        //
+        int aadLen = ((a == null) ? 0 : a.length) + ((sa == null) ? 0 : sa.length);
+
+        ccm.init(true, new CCMStreamingParameters(keyParam, macSize, n, a, aadLen, p.length));
+
+        if (sa != null)
+        {
+            processAADInPieces(ccm, sa);
+        }
+
+        enc = new byte[c.length];
+        len = processInPieces(ccm, p, enc);
+        len += ccm.doFinal(enc, len);
+
+        if (len != c.length || !areEqual(c, enc))
+        {
+            fail("streaming encrypted stream fails to match in test " + count + " with " + additionalDataType);
+        }
+
+        ccm.init(false, new CCMStreamingParameters(keyParam, macSize, n, a, aadLen, p.length));
+
+        if (sa != null)
+        {
+            processAADInPieces(ccm, sa);
+        }
+
+        dec = new byte[p.length];
+        len = processInPieces(ccm, enc, dec);
+        len += ccm.doFinal(dec, len);
+
+        if (len != p.length || !areEqual(p, dec))
+        {
+            fail("streaming decrypted stream fails to match in test " + count + " with " + additionalDataType);
+        }
+
+        if (!areEqual(t, ccm.getMac()))
+        {
+            fail("streaming MAC fails to match in test " + count + " with " + additionalDataType);
+        }
+    }
+
+    private void processAADInPieces(CCMBlockCipher ccm, byte[] aad)
+    {
+        int off = 0;
+        while (off < aad.length)
+        {
+            int len = Math.min(aad.length - off, 1 + off % 23);
+            ccm.processAADBytes(aad, off, len);
+            off += len;
+        }
+    }
+
+    private int processInPieces(CCMBlockCipher ccm, byte[] in, byte[] out)
+    {
+        int inOff = 0, outOff = 0;
+        while (inOff < in.length)
+        {
+            int len = Math.min(in.length - inOff, 1 + inOff % 37);
+            if (len == 1)
+            {
+                outOff += ccm.processByte(in[inOff], out, outOff);
+            }
+            else
+            {
+                outOff += ccm.processBytes(in, inOff, len, out, outOff);
+            }
+            inOff += len;
+        }
+        return outOff;
+    }
+
+    private void streamingTest()
+        throws InvalidCipherTextException
+    {
+        SecureRandom random = new SecureRandom();
+        byte[] aad = new byte[70000];
+        byte[] data = new byte[100000];
+        random.nextBytes(aad);
+        random.nextBytes(data);
+
+        CCMBlockCipher ccm = new CCMBlockCipher(AESEngine.newInstance());
+
+        // packet mode reference, with the long form of the associated text length.
+        ccm.init(true, new AEADParameters(new KeyParameter(K1), 128, N1, aad));
+        byte[] expected = ccm.processPacket(data, 0, data.length);
+
+        ccm.init(true, new CCMStreamingParameters(new KeyParameter(K1), 128, N1, aad.length, data.length));
+        ccm.processAADBytes(aad, 0, aad.length);
+        byte[] enc = new byte[ccm.getOutputSize(data.length)];
+        int len = processInPieces(ccm, data, enc);
+        isEquals("streaming output not released", data.length, len);
+        len += ccm.doFinal(enc, len);
+
+        if (!areEqual(expected, enc))
+        {
+            fail("streaming encryption fails to match packet mode");
+        }
+
+        // processPacket works with declared lengths too
+        ccm.init(false, new CCMStreamingParameters(new KeyParameter(K1), 128, N1, aad, aad.length, data.length));
+        if (!areEqual(data, ccm.processPacket(expected, 0, expected.length)))
+        {
+            fail("streaming processPacket fails to match");
+        }
+
+        // tampering with the MAC
+        expected[expected.length - 1] ^= 1;
+        ccm.init(false, new CCMStreamingParameters(new KeyParameter(K1), 128, N1, aad, aad.length, data.length));
+        byte[] dec = new byte[data.length];
+        len = ccm.processBytes(expected, 0, expected.length, dec, 0);
+        try
+        {
+            ccm.doFinal(dec, len);
+            fail("streaming tampered MAC not picked up");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            isEquals("mac check in CCM failed", e.getMessage());
+        }
+
+        // declared lengths are enforced
+        ccm.init(true, new CCMStreamingParameters(new KeyParameter(K1), 128, N1, 8, 16));
+        try
+        {
+            ccm.processBytes(data, 0, 16, enc, 0);
+            fail("short associated text not picked up");
+        }
+        catch (IllegalStateException e)
+        {
+            isEquals("associated text shorter than declared length", e.getMessage());
+        }
+
+        ccm.init(true, new CCMStreamingParameters(new KeyParameter(K1), 128, N1, 0, 16));
+        try
+        {
+            ccm.processBytes(data, 0, 17, enc, 0);
+            fail("long data not picked up");
+        }
+        catch (DataLengthException e)
+        {
+            isEquals("data exceeds declared length", e.getMessage());
+        }
+
+        try
+        {
+            ccm.init(true, new CCMStreamingParameters(new KeyParameter(K1), 128, N4, 0, 1 << 16));
+            fail("data length too large for q not picked up");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("CCM data length too large for choice of q", e.getMessage());
+        }
     }
 
     private void ivParamTest(
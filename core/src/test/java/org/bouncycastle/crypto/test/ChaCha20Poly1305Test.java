@@ -7,6 +7,7 @@
 import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
 import org.bouncycastle.crypto.params.AEADParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.Times;
 import org.bouncycastle.util.encoders.Hex;
@@ -55,6 +56,7 @@ public void performTest() throws Exception
 
         outputSizeTests();
         randomTests();
+        splitTests();
         testExceptions();
     }
 
@@ -195,6 +197,78 @@ private void randomTests() throws InvalidCipherTextException
         }
     }
 
+    private void splitTests() throws InvalidCipherTextException
+    {
+        SecureRandom random = new SecureRandom();
+
+        for (int i = 0; i < 20; ++i)
+        {
+            splitTest(random);
+        }
+    }
+
+    /*
+     * process the data in random sized pieces, with and without the output overwriting the input.
+     */
+    private void splitTest(SecureRandom random) throws InvalidCipherTextException
+    {
+        byte[] K = new byte[32];
+        byte[] nonce = new byte[12];
+        byte[] P = new byte[nextInt(random, 20000)];
+        random.nextBytes(K);
+        random.nextBytes(nonce);
+        random.nextBytes(P);
+
+        AEADParameters parameters = new AEADParameters(new KeyParameter(K), 16 * 8, nonce);
+
+        ChaCha20Poly1305 cipher = initCipher(true, parameters);
+        byte[] C = new byte[cipher.getOutputSize(P.length)];
+        int len = cipher.processBytes(P, 0, P.length, C, 0);
+        cipher.doFinal(C, len);
+
+        for (int inPlace = 0; inPlace != 2; inPlace++)
+        {
+            cipher = initCipher(true, parameters);
+            byte[] splitC = new byte[C.length];
+            System.arraycopy(P, 0, splitC, 0, P.length);
+            byte[] in = (inPlace == 0) ? Arrays.clone(P) : splitC;
+
+            int inOff = 0, outOff = 0;
+            while (inOff < P.length)
+            {
+                int pieceLen = Math.min(P.length - inOff, nextInt(random, 3000));
+                outOff += cipher.processBytes(in, inOff, pieceLen, splitC, outOff);
+                inOff += pieceLen;
+            }
+            cipher.doFinal(splitC, outOff);
+
+            if (!areEqual(C, splitC))
+            {
+                fail("split encryption mismatch");
+            }
+
+            cipher = initCipher(false, parameters);
+            byte[] splitP = new byte[C.length];
+            System.arraycopy(C, 0, splitP, 0, C.length);
+            in = (inPlace == 0) ? Arrays.clone(C) : splitP;
+
+            inOff = 0;
+            outOff = 0;
+            while (inOff < C.length)
+            {
+                int pieceLen = Math.min(C.length - inOff, nextInt(random, 3000));
+                outOff += cipher.processBytes(in, inOff, pieceLen, splitP, outOff);
+                inOff += pieceLen;
+            }
+            outOff += cipher.doFinal(splitP, outOff);
+
+            if (outOff != P.length || !areEqual(P, 0, P.length, splitP, 0, P.length))
+            {
+                fail("split decryption mismatch");
+            }
+        }
+    }
+
     private void randomTest(SecureRandom random) throws InvalidCipherTextException
     {
         int kLength = 32;
@@ -3,10 +3,13 @@
 import java.security.SecureRandom;
 
 import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.SkippingStreamCipher;
 import org.bouncycastle.crypto.StreamCipher;
+import org.bouncycastle.crypto.engines.ChaCha7539Engine;
 import org.bouncycastle.crypto.engines.ChaChaEngine;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
 
@@ -159,6 +162,11 @@ public void performTest()
                   set6v1_0, set6v1_65472, set6v1_65536);
         reinitBug();
         skipTest();
+        wideCoreTest();
+        bulkTest(new ChaChaEngine(), new ChaChaEngine(), 8, 0);
+        bulkTest(new ChaChaEngine(), new ChaChaEngine(), 8, (1L << 32) * 64 - 1000);
+        bulkTest(new ChaCha7539Engine(), new ChaCha7539Engine(), 12, 0);
+        bulkTest(new ChaCha7539Engine(), new ChaCha7539Engine(), 12, (1L << 32) * 64 - 2000);
     }
 
     private void chachaTest1(int rounds, CipherParameters params, String v0, String v192, String v256, String v448)
@@ -281,6 +289,101 @@ private boolean areEqual(byte[] a, int aOff, byte[] b, int bOff)
         return true;
     }
 
+    private void wideCoreTest()
+    {
+        SecureRandom rand = new SecureRandom();
+        int[] state = new int[16];
+        int[] x = new int[16];
+        int[] x4 = new int[64];
+
+        for (int i = 0; i != 100; i++)
+        {
+            for (int j = 0; j != 16; j++)
+            {
+                state[j] = rand.nextInt();
+            }
+            state[12] &= 0x7fffffff;
+
+            ChaChaEngine.chachaCore4(20, state, x4);
+
+            for (int block = 0; block != 4; block++)
+            {
+                ChaChaEngine.chachaCore(20, state, x);
+                if (!Arrays.areEqual(x, Arrays.copyOfRange(x4, block * 16, block * 16 + 16)))
+                {
+                    fail("4 block core mismatch at block " + block);
+                }
+                state[12]++;
+            }
+        }
+    }
+
+    /*
+     * compare processBytes() over random length runs with returnByte(), starting at the passed in position.
+     */
+    private void bulkTest(SkippingStreamCipher bulk, SkippingStreamCipher bytewise, int ivLength, long position)
+    {
+        SecureRandom rand = new SecureRandom();
+        byte[] key = new byte[32];
+        byte[] iv = new byte[ivLength];
+        byte[] plain = new byte[2500];
+
+        rand.nextBytes(key);
+        rand.nextBytes(iv);
+        rand.nextBytes(plain);
+
+        CipherParameters params = new ParametersWithIV(new KeyParameter(key), iv);
+
+        bulk.init(true, params);
+        bytewise.init(true, params);
+        bulk.seekTo(position);
+        bytewise.seekTo(position);
+
+        byte[] expected = new byte[plain.length];
+        int expectedLen = 0;
+        try
+        {
+            for (; expectedLen != plain.length; expectedLen++)
+            {
+                expected[expectedLen] = bytewise.returnByte(plain[expectedLen]);
+            }
+        }
+        catch (IllegalStateException e)
+        {
+            // counter exhausted, ChaCha7539 only.
+        }
+
+        byte[] output = new byte[plain.length];
+        int off = 0;
+        try
+        {
+            while (off < plain.length)
+            {
+                int len = Math.min(plain.length - off, rand.nextInt(700));
+                bulk.processBytes(plain, off, len, output, off);
+                off += len;
+            }
+        }
+        catch (IllegalStateException e)
+        {
+            if (expectedLen == plain.length)
+            {
+                fail("unexpected exception: " + e.getMessage());
+            }
+            off = expectedLen;
+        }
+
+        if (off != expectedLen || !areEqual(expected, 0, output, 0, expectedLen))
+        {
+            fail(bulk.getAlgorithmName() + " bulk processing mismatch at position " + position);
+        }
+    }
+
+    private boolean areEqual(byte[] a, int aOff, byte[] b, int bOff, int len)
+    {
+        return Arrays.areEqual(a, aOff, aOff + len, b, bOff, bOff + len);
+    }
+
     private void skipTest()
     {
         SecureRandom rand = new SecureRandom();
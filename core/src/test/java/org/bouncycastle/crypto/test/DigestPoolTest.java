@@ -0,0 +1,256 @@
+package org.bouncycastle.crypto.test;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.ExtendedDigest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.util.DigestFactory;
+import org.bouncycastle.crypto.util.DigestPool;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check DigestPool hands out digests in their initial state, takes back only its own kind of digest, and
+ * that leased digests give the same results as ordinary ones, including across threads.
+ */
+public class DigestPoolTest
+    extends SimpleTest
+{
+    private final SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "DigestPool";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        acquireReleaseTest();
+        leaseTest();
+        threadTest();
+        cloneTest();
+        argumentTest();
+    }
+
+    private void acquireReleaseTest()
+    {
+        DigestPool pool = new DigestPool(2);
+
+        isTrue(pool.isPooled("SHA-256"));
+        isTrue(pool.isPooled("SHA3-512"));
+        isTrue(!pool.isPooled("BLAKE2b"));
+
+        Digest d1 = pool.acquire("SHA-256");
+        Digest d2 = pool.acquire("SHA-256");
+        Digest d3 = pool.acquire("SHA-256");
+        isTrue("distinct digests", d1 != d2 && d2 != d3 && d1 != d3);
+
+        // released mid calculation, must come back reset
+        d1.update(new byte[10], 0, 10);
+        pool.release(d1);
+        pool.release(d2);
+        pool.release(d3);       // pool full, dropped
+
+        Digest d4 = pool.acquire("SHA-256");
+        Digest d5 = pool.acquire("SHA-256");
+        isTrue("pooled digests reused", (d4 == d1 || d4 == d2) && (d5 == d1 || d5 == d2) && d4 != d5);
+        isTrue("dropped digest not pooled", pool.acquire("SHA-256") != d3);
+
+        byte[] data = randomBytes(100);
+        isTrue("released digest not reset", Arrays.areEqual(digest(new SHA256Digest(), data), digest(d1, data)));
+
+        // a digest of the right name but the wrong class is not accepted
+        Digest foreign = new SHA256Digest()
+        {
+        };
+        pool.release(foreign);
+        pool.release(new SHA512Digest());
+        isTrue(pool.acquire("SHA-256") != foreign);
+        isTrue(pool.acquire("SHA-256") != foreign);
+    }
+
+    private void leaseTest()
+    {
+        DigestPool pool = DigestFactory.getDigestPool();
+
+        checkLease(pool, "SHA-1", new SHA1Digest());
+        checkLease(pool, "SHA-256", new SHA256Digest());
+        checkLease(pool, "SHA-512", new SHA512Digest());
+        checkLease(pool, "SHA3-256", new SHA3Digest(256));
+
+        ExtendedDigest leased = pool.lease("SHA-512");
+        isEquals(128, leased.getByteLength());
+
+        // reset part way through discards the partial input
+        byte[] data = randomBytes(50);
+        leased.update(data, 0, 25);
+        leased.reset();
+        isTrue("reset lease", Arrays.areEqual(digest(new SHA512Digest(), data), digest(leased, data)));
+
+        // two leases in use at once do not share state
+        ExtendedDigest l1 = pool.lease("SHA-256");
+        ExtendedDigest l2 = pool.lease("SHA-256");
+        byte[] m1 = randomBytes(70);
+        byte[] m2 = randomBytes(90);
+        l1.update(m1, 0, m1.length);
+        l2.update(m2, 0, m2.length);
+        byte[] r1 = new byte[32];
+        byte[] r2 = new byte[32];
+        l1.doFinal(r1, 0);
+        l2.doFinal(r2, 0);
+        isTrue("interleaved lease 1", Arrays.areEqual(digest(new SHA256Digest(), m1), r1));
+        isTrue("interleaved lease 2", Arrays.areEqual(digest(new SHA256Digest(), m2), r2));
+    }
+
+    private void checkLease(DigestPool pool, String algorithm, Digest reference)
+    {
+        ExtendedDigest leased = pool.lease(algorithm);
+
+        isEquals(algorithm, reference.getAlgorithmName(), leased.getAlgorithmName());
+        isEquals(algorithm, reference.getDigestSize(), leased.getDigestSize());
+        isEquals(algorithm, ((ExtendedDigest)reference).getByteLength(), leased.getByteLength());
+
+        for (int len = 0; len < 300; len += 37)
+        {
+            byte[] data = randomBytes(len);
+
+            // the lease is reused, as a caller holding on to it would
+            isTrue(algorithm + " mismatch at " + len, Arrays.areEqual(digest(reference, data), digest(leased, data)));
+
+            leased.update((byte)len);
+            reference.update((byte)len);
+            isTrue(algorithm + " single byte mismatch at " + len,
+                Arrays.areEqual(digest(reference, data), digest(leased, data)));
+        }
+    }
+
+    private void threadTest()
+        throws Exception
+    {
+        final DigestPool pool = new DigestPool(3);
+        final byte[][] msgs = new byte[64][];
+        final byte[][] expected = new byte[msgs.length][];
+        for (int i = 0; i != msgs.length; i++)
+        {
+            msgs[i] = randomBytes(i * 13);
+            expected[i] = digest(new SHA256Digest(), msgs[i]);
+        }
+
+        final boolean[] failed = new boolean[1];
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t != threads.length; t++)
+        {
+            threads[t] = new Thread()
+            {
+                public void run()
+                {
+                    ExtendedDigest leased = pool.lease("SHA-256");
+                    for (int round = 0; round != 50; round++)
+                    {
+                        for (int i = 0; i != msgs.length; i++)
+                        {
+                            byte[] out = new byte[32];
+                            leased.update(msgs[i], 0, msgs[i].length);
+                            leased.doFinal(out, 0);
+
+                            Digest acquired = pool.acquire("SHA-256");
+                            byte[] out2 = new byte[32];
+                            acquired.update(msgs[i], 0, msgs[i].length);
+                            acquired.doFinal(out2, 0);
+                            pool.release(acquired);
+
+                            if (!Arrays.areEqual(expected[i], out) || !Arrays.areEqual(expected[i], out2))
+                            {
+                                failed[0] = true;
+                            }
+                        }
+                    }
+                }
+            };
+        }
+
+        for (int t = 0; t != threads.length; t++)
+        {
+            threads[t].start();
+        }
+        for (int t = 0; t != threads.length; t++)
+        {
+            threads[t].join();
+        }
+
+        isTrue("concurrent use gave wrong digest", !failed[0]);
+    }
+
+    private void cloneTest()
+    {
+        Digest sha1 = new SHA1Digest();
+        byte[] data = randomBytes(30);
+        sha1.update(data, 0, 10);
+
+        Digest clone = DigestFactory.cloneDigest(sha1);
+        isTrue(clone instanceof SHA1Digest);
+
+        sha1.update(data, 10, 20);
+        clone.update(data, 10, 20);
+        isTrue("SHA-1 clone", Arrays.areEqual(digest(sha1, new byte[0]), digest(clone, new byte[0])));
+    }
+
+    private void argumentTest()
+    {
+        try
+        {
+            new DigestPool(0);
+            fail("no exception on zero capacity");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("capacity must be at least 1", e.getMessage());
+        }
+
+        try
+        {
+            new DigestPool().acquire("RIPEMD160");
+            fail("no exception on unpooled algorithm");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("digest RIPEMD160 not pooled", e.getMessage());
+        }
+
+        try
+        {
+            new DigestPool().lease("Tiger");
+            fail("no exception on unpooled lease");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("digest Tiger not pooled", e.getMessage());
+        }
+    }
+
+    private static byte[] digest(Digest digest, byte[] data)
+    {
+        byte[] out = new byte[digest.getDigestSize()];
+        digest.update(data, 0, data.length);
+        digest.doFinal(out, 0);
+        return out;
+    }
+
+    private byte[] randomBytes(int len)
+    {
+        byte[] bytes = new byte[len];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new DigestPoolTest());
+    }
+}
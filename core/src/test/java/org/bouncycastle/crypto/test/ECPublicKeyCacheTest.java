@@ -0,0 +1,182 @@
+package org.bouncycastle.crypto.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.asn1.sec.SECObjectIdentifiers;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECNamedDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyCache;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.util.PublicKeyFactory;
+import org.bouncycastle.crypto.util.SubjectPublicKeyInfoFactory;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.WNafUtil;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check ECPublicKeyCache hands back the same validated point for a key, stays within its bound, and is
+ * picked up by PublicKeyFactory and ECDSASigner when set as the default.
+ */
+public class ECPublicKeyCacheTest
+    extends SimpleTest
+{
+    private final SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ECPublicKeyCache";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        X9ECParameters x9 = CustomNamedCurves.getByOID(SECObjectIdentifiers.secp256r1);
+        ECDomainParameters params = new ECNamedDomainParameters(SECObjectIdentifiers.secp256r1, x9);
+
+        decodeTest(params);
+        boundTest(params);
+        defaultTest(params);
+        argumentTest();
+    }
+
+    private void decodeTest(ECDomainParameters params)
+    {
+        ECPublicKeyCache cache = new ECPublicKeyCache(16);
+
+        ECPoint q = randomPoint(params);
+        byte[] compressed = q.getEncoded(true);
+        byte[] uncompressed = q.getEncoded(false);
+
+        ECPoint q1 = cache.decodePoint(params, compressed);
+        isTrue("decoded point", q.equals(q1) && q1.isNormalized());
+        isTrue("cached decode", q1 == cache.decodePoint(params, (byte[])compressed.clone()));
+
+        // the cache keeps its own copy of the encoding
+        compressed[1] ^= 0x01;
+        isTrue("encoding copied", q1 == cache.decodePoint(params, q.getEncoded(true)));
+
+        ECPoint q2 = cache.decodePoint(params, uncompressed);
+        isTrue(q2.equals(q1));
+        isTrue("intern of decoded point", q2 == cache.intern(params.getCurve().decodePoint(uncompressed).normalize()));
+
+        ECPoint other = randomPoint(params);
+        isTrue("intern of new point", other == cache.intern(other));
+        isTrue("intern of equal point", other == cache.intern(params.getCurve().decodePoint(other.getEncoded(false))
+            .normalize()));
+
+        isTrue(params.getCurve().getInfinity() == cache.intern(params.getCurve().getInfinity()));
+
+        // not on the curve
+        uncompressed[uncompressed.length - 1] ^= 0x01;
+        try
+        {
+            cache.decodePoint(params, uncompressed);
+            fail("no exception on invalid point");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        cache.clear();
+        isEquals(0, cache.size());
+    }
+
+    private void boundTest(ECDomainParameters params)
+    {
+        ECPublicKeyCache cache = new ECPublicKeyCache(3);
+        isEquals(3, cache.getMaxSize());
+
+        for (int i = 0; i != 10; i++)
+        {
+            cache.intern(randomPoint(params));
+            isTrue("cache over bound", cache.size() <= 3);
+        }
+    }
+
+    private void defaultTest(ECDomainParameters params)
+        throws Exception
+    {
+        ECKeyPairGenerator kpg = new ECKeyPairGenerator();
+        kpg.init(new ECKeyGenerationParameters(params, random));
+        AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+
+        SubjectPublicKeyInfo info = SubjectPublicKeyInfoFactory.createSubjectPublicKeyInfo(kp.getPublic());
+
+        ECDSASigner signer = new ECDSASigner();
+        signer.init(true, kp.getPrivate());
+        byte[] message = new byte[32];
+        random.nextBytes(message);
+        BigInteger[] sig = signer.generateSignature(message);
+
+        ECPublicKeyCache cache = new ECPublicKeyCache(8);
+        ECPublicKeyCache.setDefault(cache);
+        try
+        {
+            isTrue(ECPublicKeyCache.getDefault() == cache);
+
+            ECPublicKeyParameters k1 = (ECPublicKeyParameters)PublicKeyFactory.createKey(info);
+            ECPublicKeyParameters k2 = (ECPublicKeyParameters)PublicKeyFactory.createKey(info);
+            isTrue("factory keys not shared", k1.getQ() == k2.getQ());
+            isEquals(1, cache.size());
+
+            // a key built without the cache still ends up verifying with the cached point
+            ECPublicKeyParameters k3 = new ECPublicKeyParameters(
+                params.getCurve().decodePoint(k1.getQ().getEncoded(true)), params);
+            isTrue(k3.getQ() != k1.getQ());
+
+            ECDSASigner verifier = new ECDSASigner();
+            verifier.init(false, k3);
+            isTrue("verify with cache", verifier.verifySignature(message, sig[0], sig[1]));
+            isTrue("precomputation not kept", WNafUtil.getWNafPreCompInfo(k1.getQ()) != null);
+            isTrue("no precomputation on uncached point", WNafUtil.getWNafPreCompInfo(k3.getQ()) == null);
+
+            verifier.init(false, k2);
+            isTrue("verify with cache", verifier.verifySignature(message, sig[0], sig[1]));
+            isTrue("bad signature verified", !verifier.verifySignature(message, sig[0], sig[1].add(BigInteger.valueOf(1))));
+            isEquals(1, cache.size());
+        }
+        finally
+        {
+            ECPublicKeyCache.setDefault(null);
+        }
+
+        isTrue(ECPublicKeyCache.getDefault() == null);
+
+        ECPublicKeyParameters k4 = (ECPublicKeyParameters)PublicKeyFactory.createKey(info);
+        isTrue("cache used after reset", k4.getQ() != ((ECPublicKeyParameters)kp.getPublic()).getQ());
+        isEquals(1, cache.size());
+    }
+
+    private void argumentTest()
+    {
+        try
+        {
+            new ECPublicKeyCache(0);
+            fail("no exception on zero size");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("maxSize must be at least 1", e.getMessage());
+        }
+    }
+
+    private ECPoint randomPoint(ECDomainParameters params)
+    {
+        return params.getG().multiply(new BigInteger(params.getN().bitLength() - 1, random)).normalize();
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ECPublicKeyCacheTest());
+    }
+}
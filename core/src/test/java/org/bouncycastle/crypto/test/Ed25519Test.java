@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed25519KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.crypto.signers.Ed25519ctxSigner;
 import org.bouncycastle.crypto.signers.Ed25519phSigner;
@@ -47,6 +48,7 @@ public void performTest()
         }
 
         testRegressionInfiniteLoop();
+        testBatch();
     }
 
     private void basicSigTest()
@@ -849,4 +851,57 @@ private void testRegressionInfiniteLoop()
             isTrue("signature verification failed for test vector: " + error, shouldVerify);
         }
     }
+
+    private void testBatch()
+        throws Exception
+    {
+        Ed25519KeyPairGenerator kpg = new Ed25519KeyPairGenerator();
+        kpg.init(new Ed25519KeyGenerationParameters(RANDOM));
+
+        // large enough that the combined check, not individual verification, is exercised
+        int count = 40;
+        Ed25519PublicKeyParameters[] publicKeys = new Ed25519PublicKeyParameters[count];
+        byte[][] msgs = new byte[count][];
+        byte[][] sigs = new byte[count][];
+
+        Ed25519BatchVerifier batchVerifier = new Ed25519BatchVerifier();
+        for (int i = 0; i < count; ++i)
+        {
+            AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+            publicKeys[i] = (Ed25519PublicKeyParameters)kp.getPublic();
+
+            msgs[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msgs[i]);
+
+            Signer signer = new Ed25519Signer();
+            signer.init(true, kp.getPrivate());
+            signer.update(msgs[i], 0, msgs[i].length);
+            sigs[i] = signer.generateSignature();
+
+            batchVerifier.add(publicKeys[i], msgs[i], sigs[i]);
+        }
+
+        isEquals(count, batchVerifier.size());
+        isTrue("Ed25519 batch failed to verify", batchVerifier.verify());
+        isEquals(0, batchVerifier.getFailedIndices().length);
+
+        // a bad signature and a signature checked against the wrong key must both be reported
+        batchVerifier.reset();
+        for (int i = 0; i < count; ++i)
+        {
+            byte[] sig = Arrays.clone(sigs[i]);
+            if (i == 7)
+            {
+                sig[sig.length - 10] ^= 0x01;
+            }
+            batchVerifier.add(publicKeys[i == 31 ? 30 : i], msgs[i], sig);
+        }
+
+        isTrue("Ed25519 bad batch verified", !batchVerifier.verify());
+        isTrue("Ed25519 batch failures", Arrays.areEqual(new int[]{ 7, 31 }, batchVerifier.getFailedIndices()));
+
+        batchVerifier.reset();
+        isEquals(0, batchVerifier.size());
+        isTrue("Ed25519 empty batch", batchVerifier.verify());
+    }
 }
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed448KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed448PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed448BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed448Signer;
 import org.bouncycastle.crypto.signers.Ed448phSigner;
 import org.bouncycastle.math.ec.rfc8032.Ed448;
@@ -44,6 +45,7 @@ public void performTest()
         }
 
         testRegressionInfiniteLoop();
+        testBatch();
     }
 
     private void basicSigTest()
@@ -1247,4 +1249,59 @@ private void testRegressionInfiniteLoop()
             isTrue("signature verification failed for test vector: " + error, shouldVerify);
         }
     }
+
+    private void testBatch()
+        throws Exception
+    {
+        byte[] context = randomContext(RANDOM.nextInt() & 255);
+
+        Ed448KeyPairGenerator kpg = new Ed448KeyPairGenerator();
+        kpg.init(new Ed448KeyGenerationParameters(RANDOM));
+
+        // large enough that the combined check, not individual verification, is exercised
+        int count = 40;
+        Ed448PublicKeyParameters[] publicKeys = new Ed448PublicKeyParameters[count];
+        byte[][] msgs = new byte[count][];
+        byte[][] sigs = new byte[count][];
+
+        Ed448BatchVerifier batchVerifier = new Ed448BatchVerifier(context);
+        for (int i = 0; i < count; ++i)
+        {
+            AsymmetricCipherKeyPair kp = kpg.generateKeyPair();
+            publicKeys[i] = (Ed448PublicKeyParameters)kp.getPublic();
+
+            msgs[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msgs[i]);
+
+            Signer signer = new Ed448Signer(context);
+            signer.init(true, kp.getPrivate());
+            signer.update(msgs[i], 0, msgs[i].length);
+            sigs[i] = signer.generateSignature();
+
+            batchVerifier.add(publicKeys[i], msgs[i], sigs[i]);
+        }
+
+        isEquals(count, batchVerifier.size());
+        isTrue("Ed448 batch failed to verify", batchVerifier.verify());
+        isEquals(0, batchVerifier.getFailedIndices().length);
+
+        // a bad signature and a signature checked against the wrong key must both be reported
+        batchVerifier.reset();
+        for (int i = 0; i < count; ++i)
+        {
+            byte[] sig = Arrays.clone(sigs[i]);
+            if (i == 7)
+            {
+                sig[sig.length - 10] ^= 0x01;
+            }
+            batchVerifier.add(publicKeys[i == 31 ? 30 : i], msgs[i], sig);
+        }
+
+        isTrue("Ed448 bad batch verified", !batchVerifier.verify());
+        isTrue("Ed448 batch failures", Arrays.areEqual(new int[]{ 7, 31 }, batchVerifier.getFailedIndices()));
+
+        batchVerifier.reset();
+        isEquals(0, batchVerifier.size());
+        isTrue("Ed448 empty batch", batchVerifier.verify());
+    }
 }
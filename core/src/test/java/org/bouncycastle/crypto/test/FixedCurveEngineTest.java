@@ -0,0 +1,185 @@
+package org.bouncycastle.crypto.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.asn1.sec.SECNamedCurves;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.agreement.ECDHBasicAgreement;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.ec.FixedCurveEngine;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.math.ec.ECMultiplier;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.WNafL2RMultiplier;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check FixedCurveEngine is only picked for the P-256 and P-384 domain parameters, and that ECDH and ECDSA give
+ * the same results through it as through ECPoint.
+ */
+public class FixedCurveEngineTest
+    extends SimpleTest
+{
+    private final SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "FixedCurveEngine";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        selectionTest();
+
+        String[] names = new String[]{ "secp256r1", "secp384r1" };
+        for (int i = 0; i != names.length; i++)
+        {
+            // both the custom curve and the generic form of it are recognised
+            ECDomainParameters custom = new ECDomainParameters(CustomNamedCurves.getByName(names[i]));
+            ECDomainParameters generic = new ECDomainParameters(SECNamedCurves.getByName(names[i]));
+
+            isTrue(names[i], FixedCurveEngine.getInstance(custom) != null);
+            isTrue(names[i], FixedCurveEngine.getInstance(generic) != null);
+
+            multiplyTest(custom);
+            multiplyTest(generic);
+            agreementTest(custom);
+            signatureTest(custom);
+            signatureTest(generic);
+        }
+    }
+
+    private void selectionTest()
+    {
+        isTrue(FixedCurveEngine.getInstance(new ECDomainParameters(CustomNamedCurves.getByName("secp256k1"))) == null);
+        isTrue(FixedCurveEngine.getInstance(new ECDomainParameters(CustomNamedCurves.getByName("secp521r1"))) == null);
+
+        // the right curve with a different base point
+        X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
+        ECPoint g2 = x9.getG().twice().normalize();
+        isTrue(FixedCurveEngine.getInstance(new ECDomainParameters(x9.getCurve(), g2, x9.getN())) == null);
+    }
+
+    private void multiplyTest(ECDomainParameters params)
+    {
+        FixedCurveEngine engine = FixedCurveEngine.getInstance(params);
+        BigInteger n = params.getN();
+        ECPoint q = params.getG().multiply(randomScalar(n)).normalize();
+
+        for (int i = 0; i != 10; i++)
+        {
+            BigInteger k = randomScalar(n);
+
+            isEquals("base", params.getG().multiply(k).normalize().getAffineXCoord().toBigInteger(),
+                engine.multiplyBaseX(k));
+            isEquals("point", q.multiply(k).normalize().getAffineXCoord().toBigInteger(), engine.multiplyX(q, k));
+        }
+
+        isTrue(engine.multiplyBaseX(BigInteger.valueOf(0)) == null);
+        isTrue(engine.multiplyX(q, BigInteger.valueOf(0)) == null);
+        isTrue(engine.multiplyX(params.getCurve().getInfinity(), BigInteger.valueOf(1)) == null);
+        isEquals(q.getAffineXCoord().toBigInteger(), engine.multiplyX(q, BigInteger.valueOf(1)));
+    }
+
+    private void agreementTest(ECDomainParameters params)
+    {
+        AsymmetricCipherKeyPair kp1 = generateKeyPair(params);
+        AsymmetricCipherKeyPair kp2 = generateKeyPair(params);
+
+        // one side on the engine, the other on ECPoint
+        ECDHBasicAgreement a1 = new ECDHBasicAgreement(true);
+        ECDHBasicAgreement a2 = new ECDHBasicAgreement();
+        a1.init(kp1.getPrivate());
+        a2.init(kp2.getPrivate());
+
+        BigInteger k1 = a1.calculateAgreement(kp2.getPublic());
+        BigInteger k2 = a2.calculateAgreement(kp1.getPublic());
+        isEquals("agreement", k1, k2);
+
+        ECPoint expected = ((ECPublicKeyParameters)kp2.getPublic()).getQ()
+            .multiply(((ECPrivateKeyParameters)kp1.getPrivate()).getD()).normalize();
+        isEquals("agreement value", expected.getAffineXCoord().toBigInteger(), k1);
+
+        // the agreement can be reused
+        isEquals("second agreement", k1, a1.calculateAgreement(kp2.getPublic()));
+    }
+
+    private void signatureTest(ECDomainParameters params)
+    {
+        AsymmetricCipherKeyPair kp = generateKeyPair(params);
+
+        ECDSASigner signer = new ECDSASigner();
+        ECDSASigner verifier = new ECDSASigner();
+        signer.init(true, kp.getPrivate());
+        verifier.init(false, kp.getPublic());
+
+        for (int i = 0; i != 5; i++)
+        {
+            byte[] message = new byte[32];
+            random.nextBytes(message);
+
+            BigInteger[] sig = signer.generateSignature(message);
+            isTrue("signature failed", verifier.verifySignature(message, sig[0], sig[1]));
+
+            message[0] ^= 0x01;
+            isTrue("bad signature verified", !verifier.verifySignature(message, sig[0], sig[1]));
+        }
+
+        // an overridden createBasePointMultiplier() is always used
+        final int[] calls = new int[1];
+        ECDSASigner custom = new ECDSASigner()
+        {
+            protected ECMultiplier createBasePointMultiplier()
+            {
+                return new WNafL2RMultiplier()
+                {
+                    public ECPoint multiply(ECPoint p, BigInteger k)
+                    {
+                        calls[0]++;
+                        return super.multiply(p, k);
+                    }
+                };
+            }
+        };
+        custom.init(true, kp.getPrivate());
+
+        byte[] message = new byte[32];
+        random.nextBytes(message);
+
+        BigInteger[] sig = custom.generateSignature(message);
+        isTrue("custom signature failed", verifier.verifySignature(message, sig[0], sig[1]));
+        isTrue("base point multiplier not used", calls[0] > 0);
+    }
+
+    private AsymmetricCipherKeyPair generateKeyPair(ECDomainParameters params)
+    {
+        ECKeyPairGenerator kpg = new ECKeyPairGenerator();
+        kpg.init(new ECKeyGenerationParameters(params, random));
+        return kpg.generateKeyPair();
+    }
+
+    private BigInteger randomScalar(BigInteger n)
+    {
+        BigInteger k;
+        do
+        {
+            k = new BigInteger(n.bitLength(), random);
+        }
+        while (k.signum() == 0 || k.compareTo(n) >= 0);
+        return k;
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new FixedCurveEngineTest());
+    }
+}
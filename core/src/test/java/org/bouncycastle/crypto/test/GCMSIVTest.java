@@ -1,5 +1,9 @@
 package org.bouncycastle.crypto.test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.SecureRandom;
+
 import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.crypto.modes.GCMSIVBlockCipher;
 import org.bouncycastle.crypto.params.AEADParameters;
@@ -32,6 +36,7 @@ public void performTest()
         new AESGCMSIV256Test2().testTheCipher(this);
         new AESGCMSIV256Test3().testTheCipher(this);
         new AESGCMSIV256Test4().testTheCipher(this);
+        testTwoPass();
     }
 
     /**
@@ -97,11 +102,209 @@ void testSIVCipher(final GCMSIVBlockCipher pCipher,
             pCipher.processBytes(myOutput, 0, myOutput.length, null, 0);
             pCipher.doFinal(myFinal, 0);
             isTrue("Decryption mismatch", Arrays.areEqual(myData, myFinal));
+
+            /* Repeat using the two pass methods */
+            pCipher.init(true, myParams);
+            final ByteArrayOutputStream myStream = new ByteArrayOutputStream();
+            pCipher.doFinal(new ArraySource(myData), myStream);
+            isTrue("Two pass encryption mismatch", Arrays.areEqual(myExpected, myStream.toByteArray()));
+
+            pCipher.init(false, myParams);
+            myStream.reset();
+            pCipher.doFinal(new ArraySource(myOutput), myStream);
+            isTrue("Two pass decryption mismatch", Arrays.areEqual(myData, myStream.toByteArray()));
         }
         catch (InvalidCipherTextException e)
         {
             fail("Bad Text", e);
         }
+        catch (IOException e)
+        {
+            fail("IO failure", e);
+        }
+    }
+
+    /**
+     * Test the two pass methods on larger data, against the single pass methods.
+     */
+    private void testTwoPass()
+            throws Exception
+    {
+        final SecureRandom myRandom = new SecureRandom();
+        final byte[] myKey = new byte[32];
+        final byte[] myNonce = new byte[12];
+        final byte[] myAEAD = new byte[37];
+        final byte[] myData = new byte[100000 + myRandom.nextInt(100)];
+        myRandom.nextBytes(myKey);
+        myRandom.nextBytes(myNonce);
+        myRandom.nextBytes(myAEAD);
+        myRandom.nextBytes(myData);
+
+        final AEADParameters myParams = new AEADParameters(new KeyParameter(myKey), 128, myNonce);
+        final GCMSIVBlockCipher myCipher = new GCMSIVBlockCipher();
+
+        /* Single pass encryption */
+        myCipher.init(true, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        myCipher.processBytes(myData, 0, myData.length, null, 0);
+        final byte[] myExpected = new byte[myCipher.getOutputSize(0)];
+        myCipher.doFinal(myExpected, 0);
+
+        /* Two pass encryption */
+        myCipher.init(true, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        final ByteArrayOutputStream myStream = new ByteArrayOutputStream();
+        isEquals("Two pass length", myExpected.length, (int) myCipher.doFinal(new ArraySource(myData), myStream));
+        isTrue("Two pass encryption mismatch", Arrays.areEqual(myExpected, myStream.toByteArray()));
+
+        /* Two pass decryption */
+        myCipher.init(false, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        myStream.reset();
+        myCipher.doFinal(new ArraySource(myExpected), myStream);
+        isTrue("Two pass decryption mismatch", Arrays.areEqual(myData, myStream.toByteArray()));
+
+        final byte[] myCipherText = Arrays.clone(myExpected);
+
+        /* Tampered data must release nothing */
+        myExpected[myRandom.nextInt(myData.length)] ^= 1;
+        myCipher.init(false, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        myStream.reset();
+        try
+        {
+            myCipher.doFinal(new ArraySource(myExpected), myStream);
+            fail("Tampered data accepted");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            isEquals("mac check failed", e.getMessage());
+        }
+        isEquals("Data released on failure", 0, myStream.size());
+
+        /* Data changed between the passes must be detected */
+        final byte[] myChanged = Arrays.clone(myData);
+        myChanged[myRandom.nextInt(myData.length)] ^= 1;
+        myCipher.init(true, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        myStream.reset();
+        try
+        {
+            myCipher.doFinal(new SwitchingSource(myData, myChanged), myStream);
+            fail("Changed plain text accepted");
+        }
+        catch (IOException e)
+        {
+            isEquals("DataSource changed between passes", e.getMessage());
+        }
+
+        myCipher.init(true, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        try
+        {
+            myCipher.doFinal(new SwitchingSource(myData, Arrays.append(myData, (byte) 0)), myStream);
+            fail("Changed length accepted");
+        }
+        catch (IOException e)
+        {
+            isEquals("DataSource changed length", e.getMessage());
+        }
+
+        final byte[] myTampered = Arrays.clone(myCipherText);
+        myTampered[myRandom.nextInt(myData.length)] ^= 1;
+        myCipher.init(false, myParams);
+        myCipher.processAADBytes(myAEAD, 0, myAEAD.length);
+        try
+        {
+            myCipher.doFinal(new SwitchingSource(myCipherText, myTampered), myStream);
+            fail("Changed cipher text accepted");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            isEquals("mac check failed", e.getMessage());
+        }
+
+        /* Data already passed in is rejected */
+        myCipher.init(true, myParams);
+        myCipher.processBytes(myData, 0, 1, null, 0);
+        try
+        {
+            myCipher.doFinal(new ArraySource(myData), myStream);
+            fail("Two pass accepted after processBytes");
+        }
+        catch (IllegalStateException e)
+        {
+            isEquals("data has already been processed", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-readable source over a byte array, returning short reads.
+     */
+    private static class ArraySource
+            implements GCMSIVBlockCipher.DataSource
+    {
+        private final byte[] theData;
+
+        ArraySource(final byte[] pData)
+        {
+            theData = pData;
+        }
+
+        public long length()
+        {
+            return theData.length;
+        }
+
+        public int read(final long pPosition,
+                        final byte[] pBuffer,
+                        final int pOffset,
+                        final int pLen)
+        {
+            if (pPosition >= theData.length)
+            {
+                return -1;
+            }
+            final int myLen = (int) Math.min(Math.min(pLen, 1000), theData.length - pPosition);
+            System.arraycopy(theData, (int) pPosition, pBuffer, pOffset, myLen);
+            return myLen;
+        }
+    }
+
+    /**
+     * Source which switches to different data when the start is read for the second time.
+     */
+    private static class SwitchingSource
+            extends ArraySource
+    {
+        private final ArraySource theChanged;
+        private int numStarts;
+
+        SwitchingSource(final byte[] pData,
+                        final byte[] pChanged)
+        {
+            super(pData);
+            theChanged = new ArraySource(pChanged);
+        }
+
+        public long length()
+        {
+            return numStarts < 2 ? super.length() : theChanged.length();
+        }
+
+        public int read(final long pPosition,
+                        final byte[] pBuffer,
+                        final int pOffset,
+                        final int pLen)
+        {
+            if (pPosition == 0)
+            {
+                numStarts++;
+            }
+            return numStarts < 2
+                   ? super.read(pPosition, pBuffer, pOffset, pLen)
+                   : theChanged.read(pPosition, pBuffer, pOffset, pLen);
+        }
     }
 
     /**
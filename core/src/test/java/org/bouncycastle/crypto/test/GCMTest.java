@@ -10,6 +10,7 @@
 import org.bouncycastle.crypto.modes.GCMModeCipher;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
+import org.bouncycastle.crypto.modes.gcm.Tables4kAggregateGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables64kGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables8kGCMMultiplier;
@@ -460,6 +461,8 @@ private void runTestCase(String[] testVector, int macLength)
         runTestCase(new Tables4kGCMMultiplier(), new Tables4kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables8kGCMMultiplier(), new Tables8kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables64kGCMMultiplier(), new Tables64kGCMMultiplier(), testName, K, IV, A, P, C, T);
+        runTestCase(new Tables4kAggregateGCMMultiplier(4), new Tables4kAggregateGCMMultiplier(4), testName, K, IV, A, P, C, T);
+        runTestCase(new Tables4kAggregateGCMMultiplier(8), new BasicGCMMultiplier(), testName, K, IV, A, P, C, T);
     }
 
     private void runTestCase(
@@ -598,6 +601,66 @@ private void randomTests()
         randomTests(srng, new Tables4kGCMMultiplier());
         randomTests(srng, new Tables8kGCMMultiplier());
         randomTests(srng, new Tables64kGCMMultiplier());
+        randomTests(srng, new Tables4kAggregateGCMMultiplier(4));
+        randomTests(srng, new Tables4kAggregateGCMMultiplier(8));
+
+        for (int i = 0; i < 10; ++i)
+        {
+            aggregateTest(srng, new Tables4kAggregateGCMMultiplier(4));
+            aggregateTest(srng, new Tables4kAggregateGCMMultiplier(8));
+        }
+    }
+
+    private void aggregateTest(SecureRandom srng, GCMMultiplier m)
+            throws InvalidCipherTextException
+    {
+        byte[] K = new byte[16];
+        srng.nextBytes(K);
+
+        byte[] P = new byte[srng.nextInt() >>> 20];
+        srng.nextBytes(P);
+
+        byte[] A = new byte[srng.nextInt() >>> 22];
+        srng.nextBytes(A);
+
+        byte[] IV = new byte[12];
+        srng.nextBytes(IV);
+
+        AEADParameters parameters = new AEADParameters(new KeyParameter(K), 16 * 8, IV);
+
+        GCMModeCipher reference = initCipher(new BasicGCMMultiplier(), true, parameters);
+        byte[] expected = new byte[reference.getOutputSize(P.length)];
+        reference.processAADBytes(A, 0, A.length);
+        int len = reference.processBytes(P, 0, P.length, expected, 0);
+        reference.doFinal(expected, len);
+
+        GCMModeCipher cipher = initCipher(m, true, parameters);
+        byte[] C = new byte[cipher.getOutputSize(P.length)];
+        int split = nextInt(srng, A.length + 1);
+        cipher.processAADBytes(A, 0, split);
+        cipher.processAADBytes(A, split, A.length - split);
+        split = nextInt(srng, P.length + 1);
+        len = cipher.processBytes(P, 0, split, C, 0);
+        len += cipher.processBytes(P, split, P.length - split, C, len);
+        cipher.doFinal(C, len);
+
+        if (!areEqual(expected, C))
+        {
+            fail("aggregate multiplier encryption differs from reference");
+        }
+
+        cipher = initCipher(m, false, parameters);
+        byte[] decP = new byte[cipher.getOutputSize(C.length)];
+        cipher.processAADBytes(A, 0, A.length);
+        split = nextInt(srng, C.length + 1);
+        len = cipher.processBytes(C, 0, split, decP, 0);
+        len += cipher.processBytes(C, split, C.length - split, decP, len);
+        cipher.doFinal(decP, len);
+
+        if (!areEqual(P, decP))
+        {
+            fail("aggregate multiplier decryption failed");
+        }
     }
 
     private void randomTests(SecureRandom srng, GCMMultiplier m)
@@ -1,5 +1,9 @@
 package org.bouncycastle.crypto.test;
 
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.engines.AESBitslicedEngine;
+import org.bouncycastle.crypto.engines.AESLightEngine;
 import org.bouncycastle.crypto.engines.GOST3412_2015Engine;
 import org.bouncycastle.crypto.modes.G3413CBCBlockCipher;
 import org.bouncycastle.crypto.modes.G3413CFBBlockCipher;
@@ -7,6 +11,7 @@
 import org.bouncycastle.crypto.modes.G3413OFBBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
 
@@ -89,6 +94,36 @@ public void performTest()
 
 //        cfbTest();
 //        ofbTest();
+
+        multiBlockCTRTest(128);
+        multiBlockCTRTest(64);
+    }
+
+    private void multiBlockCTRTest(int bitBlockSize)
+    {
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(Hex.decode("8899aabbccddeeff0011223344556677")),
+            Hex.decode("1234567890abcef0"));
+        G3413CTRBlockCipher reference = new G3413CTRBlockCipher(new AESLightEngine(), bitBlockSize);
+        G3413CTRBlockCipher cipher = new G3413CTRBlockCipher(new AESBitslicedEngine(), bitBlockSize);
+
+        SecureRandom random = new SecureRandom();
+        byte[] input = new byte[5000];
+        random.nextBytes(input);
+
+        byte[] expected = new byte[input.length];
+        reference.initBlock(true, params);
+        reference.processBytes(input, 0, input.length, expected, 0);
+
+        byte[] output = new byte[input.length];
+        cipher.initBlock(true, params);
+        for (int off = 0; off < input.length;)
+        {
+            int len = Math.min(random.nextInt(600), input.length - off);
+            cipher.processBytes(input, off, len, output, off);
+            off += len;
+        }
+
+        isTrue("multi-block GCTR mismatch", Arrays.areEqual(expected, output));
     }
 
     public static void main(
@@ -5,6 +5,7 @@
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
 import org.bouncycastle.crypto.params.HKDFParameters;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
@@ -350,6 +351,33 @@ public void performTest()
 
             compareOKM(9, genOkm, okm);
         }
+
+        {
+            // re-initialising with the same PRK restores the keyed HMAC state, with a different one re-keys.
+            byte[] prk = Hex.decode("077709362c2e32df0da0c5f17c0e5c55f5b7bca8f13d6bca2f3a8546bfbc6c5a");
+            byte[] otherPrk = Hex.decode("0bac3f57e4aab0eb4b3c3ed9f7d0c3a8e3ffcf07d8e1e2a0bb3e06ee3c6e3b2a");
+            byte[] info = Strings.toByteArray("info");
+
+            HKDFBytesGenerator hkdf = new HKDFBytesGenerator(new SHA256Digest());
+            byte[][] results = new byte[4][50];
+            byte[][] prks = { prk, otherPrk, prk, Arrays.clone(prk) };
+
+            for (int i = 0; i != prks.length; i++)
+            {
+                hkdf.init(HKDFParameters.skipExtractParameters(prks[i], info));
+                hkdf.generateBytes(results[i], 0, 20);
+                hkdf.generateBytes(results[i], 20, 30);
+
+                HKDFBytesGenerator fresh = new HKDFBytesGenerator(new SHA256Digest());
+                fresh.init(HKDFParameters.skipExtractParameters(prks[i], info));
+                byte[] expected = new byte[50];
+                fresh.generateBytes(expected, 0, expected.length);
+
+                compareOKM(200 + i, results[i], expected);
+            }
+
+            isTrue("different PRK, same output", !Arrays.areEqual(results[0], results[1]));
+        }
     }
 
     public String getName()
@@ -1,7 +1,12 @@
 package org.bouncycastle.crypto.test;
 
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bouncycastle.crypto.Xof;
 import org.bouncycastle.crypto.digests.Kangaroo.KangarooParameters;
 import org.bouncycastle.crypto.digests.Kangaroo.KangarooTwelve;
+import org.bouncycastle.crypto.digests.Kangaroo.MarsupilamiFourteen;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
@@ -35,6 +40,71 @@ public void performTest()
         throws Exception
     {
         new Kangaroo12Test().checkDigests(this);
+        testParallel();
+    }
+
+    /**
+     * Check hashing leaves on a pool gives the same results as hashing them in turn.
+     */
+    private void testParallel()
+    {
+        final SecureRandom myRandom = new SecureRandom();
+        final ForkJoinPool myPool = new ForkJoinPool(4);
+        final int[] myLeads = {0, 1, 8192, 8193, 20000};
+        final int[] myLengths = {KangarooTwelve.PARALLEL_THRESHOLD + 1, KangarooTwelve.PARALLEL_THRESHOLD + 8192,
+            KangarooTwelve.PARALLEL_THRESHOLD + 8193, 3 * KangarooTwelve.PARALLEL_THRESHOLD + 12345};
+        final KangarooParameters myParams = new KangarooParameters.Builder()
+            .setPersonalisation(Hex.decode("0102030405")).build();
+
+        try
+        {
+            for (int i = 0; i < myLengths.length; i++)
+            {
+                final byte[] myData = new byte[myLengths[i] + 20000];
+                myRandom.nextBytes(myData);
+
+                for (int j = 0; j < myLeads.length; j++)
+                {
+                    final int myLead = myLeads[j];
+
+                    final KangarooTwelve myRef = new KangarooTwelve();
+                    final KangarooTwelve myK12 = new KangarooTwelve();
+                    myK12.setParallelPool(myPool);
+                    if ((j & 1) != 0)
+                    {
+                        myRef.init(myParams);
+                        myK12.init(myParams);
+                    }
+                    checkParallel(myRef, myK12, myData, myLead, myLengths[i]);
+
+                    final MarsupilamiFourteen myM14 = new MarsupilamiFourteen();
+                    myM14.setParallelPool(myPool);
+                    checkParallel(new MarsupilamiFourteen(), myM14, myData, myLead, myLengths[i]);
+                }
+            }
+        }
+        finally
+        {
+            myPool.shutdown();
+        }
+    }
+
+    private void checkParallel(final Xof pRef,
+                               final Xof pParallel,
+                               final byte[] pData,
+                               final int pLead,
+                               final int pLen)
+    {
+        pRef.update(pData, 0, pLead + pLen);
+        pParallel.update(pData, 0, pLead);
+        pParallel.update(pData, pLead, pLen);
+
+        final byte[] myExpected = new byte[100];
+        final byte[] myResult = new byte[100];
+        pRef.doFinal(myExpected, 0, myExpected.length);
+        pParallel.doFinal(myResult, 0, myResult.length);
+
+        isTrue(pRef.getAlgorithmName() + " parallel mismatch", Arrays.areEqual(myExpected, myResult));
     }
 
     /**
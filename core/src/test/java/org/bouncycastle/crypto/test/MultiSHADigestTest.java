@@ -0,0 +1,127 @@
+package org.bouncycastle.crypto.test;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.MultiSHA256Digest;
+import org.bouncycastle.crypto.digests.MultiSHA512Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check the multi-buffer SHA-256 and SHA-512 digests agree with the single message ones, for messages of
+ * mixed lengths, with and without a common prefix.
+ */
+public class MultiSHADigestTest
+    extends SimpleTest
+{
+    private static final int[] LENGTHS = { 0, 1, 3, 55, 56, 63, 64, 65, 111, 112, 119, 127, 128, 129, 300 };
+    private static final int[] PREFIX_LENGTHS = { 0, 1, 4, 5, 60, 64, 100, 128, 200 };
+
+    private final SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "MultiSHADigest";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        byte[][] abc = new byte[][]{ new byte[0], "abc".getBytes() };
+        byte[][] digests = MultiSHA256Digest.digestAll(abc);
+        isTrue("SHA-256 empty", Arrays.areEqual(digests[0],
+            Hex.decode("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")));
+        isTrue("SHA-256 abc", Arrays.areEqual(digests[1],
+            Hex.decode("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad")));
+
+        digests = MultiSHA512Digest.digestAll(abc);
+        isTrue("SHA-512 abc", Arrays.areEqual(digests[1],
+            Hex.decode("ddaf35a193617abacc417349ae20413112e6fa4e89a97ea20a9eeee64b55d39a2192992a274fc1a836ba3c23a3feebbd454d4423643ce80e2a9ac94fa54ca49f")));
+
+        for (int i = 0; i != PREFIX_LENGTHS.length; i++)
+        {
+            byte[] prefix = new byte[PREFIX_LENGTHS[i]];
+            random.nextBytes(prefix);
+
+            for (int count = 0; count <= 5; count++)
+            {
+                sha256Test(prefix, createMessages(count, true));
+                sha512Test(prefix, createMessages(count, true));
+            }
+
+            sha256Test(prefix, createMessages(LENGTHS.length, false));
+            sha512Test(prefix, createMessages(LENGTHS.length, false));
+        }
+    }
+
+    private void sha256Test(byte[] prefix, byte[][] msgs)
+    {
+        SHA256Digest prefixDigest = new SHA256Digest();
+        prefixDigest.update(prefix, 0, prefix.length);
+
+        byte[] out = new byte[msgs.length * 32 + 3];
+        MultiSHA256Digest multi = new MultiSHA256Digest(prefixDigest);
+        isEquals(msgs.length * 32, multi.digestAll(msgs, msgs.length, out, 3));
+
+        checkDigests("SHA-256", prefixDigest, prefix, msgs, out, 3);
+
+        // the instance is reusable and the prefix digest unchanged
+        isEquals(msgs.length * 32, multi.digestAll(msgs, msgs.length, out, 0));
+        checkDigests("SHA-256 reuse", prefixDigest, prefix, msgs, out, 0);
+    }
+
+    private void sha512Test(byte[] prefix, byte[][] msgs)
+    {
+        SHA512Digest prefixDigest = new SHA512Digest();
+        prefixDigest.update(prefix, 0, prefix.length);
+
+        byte[] out = new byte[msgs.length * 64 + 3];
+        MultiSHA512Digest multi = new MultiSHA512Digest(prefixDigest);
+        isEquals(msgs.length * 64, multi.digestAll(msgs, msgs.length, out, 3));
+
+        checkDigests("SHA-512", prefixDigest, prefix, msgs, out, 3);
+
+        isEquals(msgs.length * 64, multi.digestAll(msgs, msgs.length, out, 0));
+        checkDigests("SHA-512 reuse", prefixDigest, prefix, msgs, out, 0);
+    }
+
+    private void checkDigests(String label, Digest prefixDigest, byte[] prefix, byte[][] msgs, byte[] out, int outOff)
+    {
+        int size = prefixDigest.getDigestSize();
+
+        for (int i = 0; i != msgs.length; i++)
+        {
+            Digest digest = prefixDigest instanceof SHA256Digest ? (Digest)new SHA256Digest() : new SHA512Digest();
+            digest.update(prefix, 0, prefix.length);
+            digest.update(msgs[i], 0, msgs[i].length);
+            byte[] expected = new byte[size];
+            digest.doFinal(expected, 0);
+
+            isTrue(label + " mismatch for prefix " + prefix.length + ", message " + msgs[i].length,
+                Arrays.areEqual(expected, Arrays.copyOfRange(out, outOff + i * size, outOff + (i + 1) * size)));
+        }
+    }
+
+    private byte[][] createMessages(int count, boolean sameLength)
+    {
+        int len = LENGTHS[random.nextInt(LENGTHS.length)];
+
+        byte[][] msgs = new byte[count][];
+        for (int i = 0; i != count; i++)
+        {
+            msgs[i] = new byte[sameLength ? len : LENGTHS[i]];
+            random.nextBytes(msgs[i]);
+        }
+        return msgs;
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new MultiSHADigestTest());
+    }
+}
@@ -134,6 +134,7 @@ public void performTest()
         runLongerTestCase(256, 64, "7D4EA5D445501CBE");
 
         randomTests();
+        splitTests();
         outputSizeTests();
         testExceptions();
     }
@@ -457,6 +458,69 @@ private void randomTest(SecureRandom srng)
         }
     }
 
+    /*
+     * whole blocks are processed in batches - check arbitrary splits, single bytes and in place
+     * processing all agree, including when the tag is split across calls to processBytes().
+     */
+    private void splitTests()
+        throws InvalidCipherTextException
+    {
+        SecureRandom srng = new SecureRandom();
+        for (int i = 0; i < 20; ++i)
+        {
+            byte[] K = new byte[16];
+            srng.nextBytes(K);
+            byte[] IV = new byte[12];
+            srng.nextBytes(IV);
+            byte[] P = new byte[nextInt(srng, 1000)];
+            srng.nextBytes(P);
+
+            AEADParameters parameters = new AEADParameters(new KeyParameter(K), 64 + 32 * nextInt(srng, 3), IV);
+
+            AEADBlockCipher cipher = initOCBCipher(true, parameters);
+            byte[] C = new byte[cipher.getOutputSize(P.length)];
+            int len = 0;
+            for (int j = 0; j < P.length; ++j)
+            {
+                len += cipher.processByte(P[j], C, len);
+            }
+            cipher.doFinal(C, len);
+
+            checkSplit(srng, parameters, true, P, C);
+            checkSplit(srng, parameters, false, C, P);
+        }
+    }
+
+    private void checkSplit(SecureRandom srng, AEADParameters parameters, boolean forEncryption, byte[] in,
+        byte[] expected)
+        throws InvalidCipherTextException
+    {
+        AEADBlockCipher cipher = initOCBCipher(forEncryption, parameters);
+
+        byte[] buf = new byte[Math.max(in.length, expected.length)];
+        System.arraycopy(in, 0, buf, 0, in.length);
+
+        int inOff = 0, outOff = 0;
+        while (inOff < in.length)
+        {
+            int len = Math.min(in.length - inOff, nextInt(srng, 200));
+            int predicted = cipher.getUpdateOutputSize(len);
+            int outLen = cipher.processBytes(buf, inOff, len, buf, outOff);
+            if (predicted != outLen)
+            {
+                fail("incorrect update length in split test");
+            }
+            inOff += len;
+            outOff += outLen;
+        }
+        outOff += cipher.doFinal(buf, outOff);
+
+        if (outOff != expected.length || !areEqual(expected, Arrays.copyOf(buf, outOff)))
+        {
+            fail("incorrect " + (forEncryption ? "encrypt" : "decrypt") + " in split test");
+        }
+    }
+
     private void outputSizeTests()
     {
         byte[] K = new byte[16];
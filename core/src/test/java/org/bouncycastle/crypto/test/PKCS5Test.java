@@ -1,6 +1,8 @@
 package org.bouncycastle.crypto.test;
 
 import java.io.ByteArrayInputStream;
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1OctetString;
@@ -12,15 +14,24 @@
 import org.bouncycastle.asn1.pkcs.RC2CBCParameter;
 import org.bouncycastle.crypto.BufferedBlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.Mac;
 import org.bouncycastle.crypto.PBEParametersGenerator;
+import org.bouncycastle.crypto.digests.SHA1Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA384Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.engines.DESEngine;
 import org.bouncycastle.crypto.engines.DESedeEngine;
 import org.bouncycastle.crypto.engines.RC2Engine;
 import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.paddings.PaddedBufferedBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Base64;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
@@ -254,6 +265,157 @@ public void performTest()
         {
             fail("192 (60000) test failed");
         }
+
+        rfc6070Test();
+        iteratedTest();
+        verifyAllTest();
+    }
+
+    private void rfc6070Test()
+    {
+        PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(new SHA1Digest());
+
+        generator.init(Strings.toByteArray("password"), Strings.toByteArray("salt"), 4096);
+        isTrue("RFC 6070 4096", areEqual(((KeyParameter)generator.generateDerivedParameters(160)).getKey(),
+            Hex.decode("4b007901b765489abead49d926f721d065a429c1")));
+
+        generator.init(Strings.toByteArray("passwordPASSWORDpassword"),
+            Strings.toByteArray("saltSALTsaltSALTsaltSALTsaltSALTsalt"), 4096);
+        isTrue("RFC 6070 25 bytes", areEqual(((KeyParameter)generator.generateDerivedParameters(200)).getKey(),
+            Hex.decode("3d2eec4fe41c849b80c8d83662c0e44a8b291a964cf2f07038")));
+
+        generator = new PKCS5S2ParametersGenerator(new SHA256Digest());
+        generator.init(Strings.toByteArray("password"), Strings.toByteArray("salt"), 4096);
+        isTrue("SHA-256 4096", areEqual(((KeyParameter)generator.generateDerivedParameters(256)).getKey(),
+            Hex.decode("c5e478d59288c841aa530db6845c4c8d962893a001ce4e11a4963873aa98134a")));
+    }
+
+    /*
+     * the compression function based iterations, with and without a pool, against a plain HMac loop.
+     */
+    private void iteratedTest()
+    {
+        SecureRandom random = new SecureRandom();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try
+        {
+            Digest[] digests = { new SHA1Digest(), new SHA256Digest(), new SHA512Digest(), new SHA384Digest() };
+            int[] passwordLengths = { 0, 5, 64, 128, 129, 200 };
+            int[] counts = { 1, 2, 3, 1000 };
+
+            for (int d = 0; d != digests.length; d++)
+            {
+                for (int p = 0; p != passwordLengths.length; p++)
+                {
+                    for (int c = 0; c != counts.length; c++)
+                    {
+                        byte[] password = new byte[passwordLengths[p]];
+                        byte[] salt = new byte[random.nextInt(40)];
+                        random.nextBytes(password);
+                        random.nextBytes(salt);
+                        int dkLen = 1 + random.nextInt(200);
+
+                        byte[] expected = referencePBKDF2(digests[d], password, salt, counts[c], dkLen);
+
+                        PKCS5S2ParametersGenerator generator = new PKCS5S2ParametersGenerator(digests[d]);
+                        generator.init(password, salt, counts[c]);
+                        byte[] dk = ((KeyParameter)generator.generateDerivedParameters(dkLen * 8)).getKey();
+                        isTrue(digests[d].getAlgorithmName() + " mismatch", areEqual(expected, dk));
+
+                        generator.setParallelPool(pool);
+                        dk = ((KeyParameter)generator.generateDerivedParameters(dkLen * 8)).getKey();
+                        isTrue(digests[d].getAlgorithmName() + " parallel mismatch", areEqual(expected, dk));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private void verifyAllTest()
+    {
+        int count = 7;
+        byte[][] passwords = new byte[count][];
+        byte[][] salts = new byte[count][];
+        int[] iterationCounts = new int[count];
+        byte[][] derivedKeys = new byte[count][];
+
+        for (int i = 0; i != count; i++)
+        {
+            passwords[i] = Strings.toByteArray("password" + i);
+            salts[i] = Strings.toByteArray("salt" + i);
+            iterationCounts[i] = 100 + i;
+            derivedKeys[i] = referencePBKDF2(new SHA256Digest(), passwords[i], salts[i], iterationCounts[i], 16 + 4 * i);
+        }
+        derivedKeys[3][0] ^= 1;
+        passwords[5] = Strings.toByteArray("wrong");
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try
+        {
+            boolean[] results = PKCS5S2ParametersGenerator.verifyAll(new SHA256Digest(), passwords, salts,
+                iterationCounts, derivedKeys, null);
+            boolean[] parallelResults = PKCS5S2ParametersGenerator.verifyAll(new SHA256Digest(), passwords, salts,
+                iterationCounts, derivedKeys, pool);
+
+            for (int i = 0; i != count; i++)
+            {
+                isTrue("verifyAll entry " + i, results[i] == (i != 3 && i != 5));
+                isTrue("parallel verifyAll entry " + i, parallelResults[i] == results[i]);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        try
+        {
+            PKCS5S2ParametersGenerator.verifyAll(new SHA256Digest(), passwords, salts, new int[1], derivedKeys, null);
+            fail("no exception on mismatched batch");
+        }
+        catch (IllegalArgumentException e)
+        {
+            isEquals("batch arrays must all be the same length", e.getMessage());
+        }
+    }
+
+    private static byte[] referencePBKDF2(Digest digest, byte[] password, byte[] salt, int c, int dkLen)
+    {
+        Mac mac = new HMac(digest);
+        mac.init(new KeyParameter(password));
+
+        int hLen = mac.getMacSize();
+        byte[] out = new byte[(dkLen + hLen - 1) / hLen * hLen];
+        byte[] u = new byte[hLen];
+
+        for (int i = 1; i * hLen <= out.length; i++)
+        {
+            mac.update(salt, 0, salt.length);
+            mac.update((byte)(i >>> 24));
+            mac.update((byte)(i >>> 16));
+            mac.update((byte)(i >>> 8));
+            mac.update((byte)i);
+            mac.doFinal(u, 0);
+
+            for (int n = 1; n <= c; n++)
+            {
+                if (n > 1)
+                {
+                    mac.update(u, 0, hLen);
+                    mac.doFinal(u, 0);
+                }
+                for (int j = 0; j != hLen; j++)
+                {
+                    out[(i - 1) * hLen + j] ^= u[j];
+                }
+            }
+        }
+
+        return Arrays.copyOfRange(out, 0, dkLen);
     }
 
     public static void main(
@@ -0,0 +1,376 @@
+package org.bouncycastle.crypto.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.BufferedBlockCipher;
+import org.bouncycastle.crypto.DefaultBufferedBlockCipher;
+import org.bouncycastle.crypto.engines.AESBitslicedEngine;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.DESedeEngine;
+import org.bouncycastle.crypto.io.CipherInputStream;
+import org.bouncycastle.crypto.io.CipherOutputStream;
+import org.bouncycastle.crypto.modes.CBCBlockCipher;
+import org.bouncycastle.crypto.modes.ParallelBlockCipherProcessor;
+import org.bouncycastle.crypto.modes.SICBlockCipher;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.params.ParametersWithIV;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.test.SimpleTest;
+
+/**
+ * Check CBC decryption and CTR mode give the same results with a ParallelBlockCipherProcessor as without.
+ */
+public class ParallelBlockCipherTest
+    extends SimpleTest
+{
+    private static final int THRESHOLD = 4096;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    public String getName()
+    {
+        return "ParallelBlockCipher";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        try
+        {
+            for (int i = 0; i != 3; i++)
+            {
+                final int engine = i;
+                ParallelBlockCipherProcessor.BlockCipherProvider provider = new ParallelBlockCipherProcessor.BlockCipherProvider()
+                {
+                    public BlockCipher get()
+                    {
+                        return createEngine(engine);
+                    }
+                };
+                ParallelBlockCipherProcessor processor = new ParallelBlockCipherProcessor(provider, THRESHOLD, pool);
+
+                cbcTest(engine, processor);
+                ctrTest(engine, processor);
+                streamTest(engine, processor);
+            }
+
+            counterRangeTest();
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private static BlockCipher createEngine(int engine)
+    {
+        switch (engine)
+        {
+        case 0:
+            return new AESEngine();
+        case 1:
+            return new AESBitslicedEngine();
+        default:
+            return new DESedeEngine();
+        }
+    }
+
+    private ParametersWithIV createParameters(int engine)
+    {
+        byte[] key = new byte[(engine == 2) ? 24 : 16];
+        byte[] iv = new byte[(engine == 2) ? 8 : 16];
+
+        random.nextBytes(key);
+        random.nextBytes(iv);
+
+        return new ParametersWithIV(new KeyParameter(key), iv);
+    }
+
+    private void cbcTest(int engine, ParallelBlockCipherProcessor processor)
+    {
+        ParametersWithIV params = createParameters(engine);
+        int blockSize = createEngine(engine).getBlockSize();
+
+        for (int i = 0; i != 8; i++)
+        {
+            byte[] input = new byte[(random.nextInt(300 * 1024) / blockSize) * blockSize];
+            random.nextBytes(input);
+
+            CBCBlockCipher encCipher = new CBCBlockCipher(createEngine(engine));
+            encCipher.initBlock(true, params);
+            encCipher.setParallelProcessor(processor);
+            byte[] cipherText = new byte[input.length];
+            encCipher.processBlocks(input, 0, input.length / blockSize, cipherText, 0);
+
+            BufferedBlockCipher decCipher = new DefaultBufferedBlockCipher(new CBCBlockCipher(createEngine(engine)));
+            ((CBCBlockCipher)decCipher.getUnderlyingCipher()).setParallelProcessor(processor);
+            decCipher.init(false, params);
+            byte[] plainText = new byte[input.length];
+            processInChunks(decCipher, cipherText, plainText);
+
+            if (!Arrays.areEqual(input, plainText))
+            {
+                fail("CBC round trip failed for " + encCipher.getAlgorithmNameBlock() + " at " + input.length);
+            }
+
+            // in place
+            CBCBlockCipher inPlace = new CBCBlockCipher(createEngine(engine));
+            inPlace.setParallelProcessor(processor);
+            inPlace.initBlock(false, params);
+            inPlace.processBlocks(cipherText, 0, cipherText.length / blockSize, cipherText, 0);
+
+            if (!Arrays.areEqual(input, cipherText))
+            {
+                fail("in place CBC decryption failed for " + encCipher.getAlgorithmNameBlock() + " at " + input.length);
+            }
+        }
+    }
+
+    private void ctrTest(int engine, ParallelBlockCipherProcessor processor)
+    {
+        ParametersWithIV params = createParameters(engine);
+
+        for (int i = 0; i != 8; i++)
+        {
+            byte[] input = new byte[random.nextInt(300 * 1024)];
+            random.nextBytes(input);
+
+            SICBlockCipher refCipher = new SICBlockCipher(createEngine(engine));
+            refCipher.init(true, params);
+            byte[] expected = new byte[input.length];
+            refCipher.processBytes(input, 0, input.length, expected, 0);
+
+            SICBlockCipher parCipher = new SICBlockCipher(createEngine(engine));
+            parCipher.setParallelProcessor(processor);
+            parCipher.init(true, params);
+            byte[] output = new byte[input.length];
+
+            int off = 0;
+            while (off < input.length)
+            {
+                int len = Math.min(input.length - off, random.nextInt(3 * THRESHOLD));
+                parCipher.processBytes(input, off, len, output, off);
+                off += len;
+            }
+
+            if (!Arrays.areEqual(expected, output))
+            {
+                fail("CTR failed for " + parCipher.getAlgorithmName() + " at " + input.length);
+            }
+            if (parCipher.getPosition() != refCipher.getPosition())
+            {
+                fail("CTR position wrong for " + parCipher.getAlgorithmName());
+            }
+
+            // in place
+            parCipher.seekTo(0);
+            parCipher.processBytes(output, 0, output.length, output, 0);
+
+            if (!Arrays.areEqual(input, output))
+            {
+                fail("in place CTR failed for " + parCipher.getAlgorithmName() + " at " + input.length);
+            }
+        }
+    }
+
+    private void streamTest(int engine, ParallelBlockCipherProcessor processor)
+        throws IOException
+    {
+        ParametersWithIV params = createParameters(engine);
+        int blockSize = createEngine(engine).getBlockSize();
+
+        byte[] input = new byte[(random.nextInt(100 * 1024) / blockSize) * blockSize];
+        random.nextBytes(input);
+
+        CBCBlockCipher encCipher = new CBCBlockCipher(createEngine(engine));
+        encCipher.initBlock(true, params);
+        byte[] cipherText = new byte[input.length];
+        encCipher.processBlocks(input, 0, input.length / blockSize, cipherText, 0);
+
+        CBCBlockCipher cbc = new CBCBlockCipher(createEngine(engine));
+        cbc.setParallelProcessor(processor);
+        BufferedBlockCipher decCipher = new DefaultBufferedBlockCipher(cbc);
+        decCipher.init(false, params);
+
+        if (!Arrays.areEqual(input, readAll(new CipherInputStream(new ByteArrayInputStream(cipherText), decCipher))))
+        {
+            fail("CBC CipherInputStream failed for " + cbc.getAlgorithmNameBlock());
+        }
+
+        cbc.initBlock(false, params);
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        writeInChunks(new CipherOutputStream(bOut, decCipher), cipherText);
+
+        if (!Arrays.areEqual(input, bOut.toByteArray()))
+        {
+            fail("CBC CipherOutputStream failed for " + cbc.getAlgorithmNameBlock());
+        }
+
+        SICBlockCipher refCipher = new SICBlockCipher(createEngine(engine));
+        refCipher.init(true, params);
+        byte[] expected = new byte[input.length];
+        refCipher.processBytes(input, 0, input.length, expected, 0);
+
+        SICBlockCipher ctr = new SICBlockCipher(createEngine(engine));
+        ctr.setParallelProcessor(processor);
+        ctr.init(true, params);
+
+        if (!Arrays.areEqual(expected, readAll(new CipherInputStream(new ByteArrayInputStream(input), ctr))))
+        {
+            fail("CTR CipherInputStream failed for " + ctr.getAlgorithmName());
+        }
+
+        ctr.init(true, params);
+        bOut = new ByteArrayOutputStream();
+        writeInChunks(new CipherOutputStream(bOut, ctr), input);
+
+        if (!Arrays.areEqual(expected, bOut.toByteArray()))
+        {
+            fail("CTR CipherOutputStream failed for " + ctr.getAlgorithmName());
+        }
+
+        // an interactive stream with nothing more available must not be read again before data is returned.
+        final byte[] part = new byte[100];
+        random.nextBytes(part);
+        refCipher.init(true, params);
+        byte[] partExpected = new byte[part.length];
+        refCipher.processBytes(part, 0, part.length, partExpected, 0);
+
+        ctr.init(true, params);
+        InputStream interactive = new InputStream()
+        {
+            private int pos = 0;
+
+            public int read()
+                throws IOException
+            {
+                if (pos == part.length)
+                {
+                    throw new IOException("read would block");
+                }
+                return part[pos++] & 0xff;
+            }
+
+            public int read(byte[] b, int off, int len)
+                throws IOException
+            {
+                int count = Math.min(len, part.length - pos);
+                if (count == 0)
+                {
+                    throw new IOException("read would block");
+                }
+                System.arraycopy(part, pos, b, off, count);
+                pos += count;
+                return count;
+            }
+        };
+
+        byte[] buf = new byte[part.length];
+        int read = new CipherInputStream(interactive, ctr).read(buf);
+        if (read != part.length || !Arrays.areEqual(partExpected, buf))
+        {
+            fail("CTR CipherInputStream blocked on interactive stream for " + ctr.getAlgorithmName());
+        }
+    }
+
+    /*
+     * with a 15 byte IV there are only 256 blocks available, a run that would go past them has to fail the
+     * same way with or without the processor.
+     */
+    private void counterRangeTest()
+    {
+        ParallelBlockCipherProcessor processor = new ParallelBlockCipherProcessor(
+            new ParallelBlockCipherProcessor.BlockCipherProvider()
+            {
+                public BlockCipher get()
+                {
+                    return new AESEngine();
+                }
+            }, THRESHOLD, pool);
+
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(new byte[16]), new byte[15]);
+        byte[] buf = new byte[256 * 16];
+
+        SICBlockCipher ctr = new SICBlockCipher(new AESEngine());
+        ctr.setParallelProcessor(processor);
+        ctr.init(true, params);
+        ctr.processBytes(buf, 0, buf.length, buf, 0);
+
+        ctr.init(true, params);
+        try
+        {
+            ctr.processBytes(new byte[buf.length + 16], 0, buf.length + 16, new byte[buf.length + 16], 0);
+            fail("no exception on counter overflow");
+        }
+        catch (IllegalStateException e)
+        {
+            isEquals("Counter in CTR/SIC mode out of range.", e.getMessage());
+        }
+
+        // 65537 blocks move the counter by 65536, leaving the last IV byte as it was while the one before it changes
+        byte[] big = new byte[65537 * 16];
+        ctr.init(true, params);
+        try
+        {
+            ctr.processBytes(big, 0, big.length, big, 0);
+            fail("no exception on counter wrapping into the IV");
+        }
+        catch (IllegalStateException e)
+        {
+            isEquals("Counter in CTR/SIC mode out of range.", e.getMessage());
+        }
+    }
+
+    private void processInChunks(BufferedBlockCipher cipher, byte[] in, byte[] out)
+    {
+        int inOff = 0;
+        int outOff = 0;
+        while (inOff < in.length)
+        {
+            int len = Math.min(in.length - inOff, random.nextInt(3 * THRESHOLD));
+            outOff += cipher.processBytes(in, inOff, len, out, outOff);
+            inOff += len;
+        }
+    }
+
+    private void writeInChunks(OutputStream out, byte[] data)
+        throws IOException
+    {
+        int off = 0;
+        while (off < data.length)
+        {
+            int len = Math.min(data.length - off, random.nextInt(THRESHOLD / 2));
+            out.write(data, off, len);
+            off += len;
+        }
+        out.close();
+    }
+
+    private static byte[] readAll(InputStream in)
+        throws IOException
+    {
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        int len;
+        while ((len = in.read(buf)) >= 0)
+        {
+            bOut.write(buf, 0, len);
+        }
+        in.close();
+        return bOut.toByteArray();
+    }
+
+    public static void main(
+        String[] args)
+    {
+        runTest(new ParallelBlockCipherTest());
+    }
+}
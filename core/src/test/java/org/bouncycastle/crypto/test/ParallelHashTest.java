@@ -1,5 +1,7 @@
 package org.bouncycastle.crypto.test;
 
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.ParallelHash;
@@ -120,6 +122,48 @@ public void performTest()
 
         testEmpty();
         testClone();
+        testParallel();
+    }
+
+    private void testParallel()
+    {
+        SecureRandom random = new SecureRandom();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[] blockSizes = { 64, 8192, 300000 };
+        int[] leads = { 0, 1, 7 };
+
+        try
+        {
+            for (int i = 0; i != blockSizes.length; i++)
+            {
+                int B = blockSizes[i];
+                byte[] data = new byte[2 * ParallelHash.PARALLEL_THRESHOLD + 12345];
+                random.nextBytes(data);
+
+                for (int j = 0; j != leads.length; j++)
+                {
+                    int bitLength = (j & 1) == 0 ? 128 : 256;
+
+                    ParallelHash ref = new ParallelHash(bitLength, Strings.toByteArray("Parallel Data"), B);
+                    ref.update(data, 0, data.length);
+                    byte[] expected = new byte[ref.getDigestSize()];
+                    ref.doFinal(expected, 0);
+
+                    ParallelHash pHash = new ParallelHash(bitLength, Strings.toByteArray("Parallel Data"), B);
+                    pHash.setParallelPool(pool);
+                    pHash.update(data, 0, leads[j]);
+                    pHash.update(data, leads[j], data.length - leads[j]);
+                    byte[] res = new byte[pHash.getDigestSize()];
+                    pHash.doFinal(res, 0);
+
+                    isTrue("parallel mismatch B=" + B, Arrays.areEqual(expected, res));
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
     }
 
     private void testEmpty()
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.generators.Poly1305KeyGenerator;
 import org.bouncycastle.crypto.macs.Poly1305;
+import org.bouncycastle.crypto.macs.Poly1305Long;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.params.ParametersWithIV;
 import org.bouncycastle.util.Arrays;
@@ -112,14 +113,16 @@ public void performTest()
         testInit();
         for (int i = 0; i < CASES.length; i++)
         {
-            testCase(i);
+            testCase(i, false);
+            testCase(i, true);
         }
         testSequential();
         testReset();
         rfc7539Test();
+        testLong();
     }
 
-    private void testCase(int i)
+    private void testCase(int i, boolean useLong)
     {
         byte[] out = new byte[16];
         TestCase tc = CASES[i];
@@ -128,12 +131,12 @@ private void testCase(int i)
         if (tc.nonce == null)
         {
             // Raw Poly1305 test - don't do any transform on AES key part
-            mac = new Poly1305();
+            mac = useLong ? new Poly1305Long() : new Poly1305();
             mac.init(new KeyParameter(tc.key));
         }
         else
         {
-            mac = new Poly1305(AESEngine.newInstance());
+            mac = useLong ? new Poly1305Long(AESEngine.newInstance()) : new Poly1305(AESEngine.newInstance());
             mac.init(new ParametersWithIV(new KeyParameter(tc.key), tc.nonce));
         }
         mac.update(tc.message, 0, tc.message.length);
@@ -488,8 +491,12 @@ public void rfc7539Test()
 
     private void checkVector(byte[] keyMaterial, byte[] input, byte[] tag)
     {
-        Poly1305 poly1305 = new Poly1305();
+        checkVector(new Poly1305(), keyMaterial, input, tag);
+        checkVector(new Poly1305Long(), keyMaterial, input, tag);
+    }
 
+    private void checkVector(Poly1305 poly1305, byte[] keyMaterial, byte[] input, byte[] tag)
+    {
         poly1305.init(new KeyParameter(keyMaterial));
 
         poly1305.update(input, 0, input.length);
@@ -504,6 +511,76 @@ private void checkVector(byte[] keyMaterial, byte[] input, byte[] tag)
         }
     }
 
+    /*
+     * check Poly1305Long against Poly1305 for random keys and inputs, fed in random sized pieces.
+     */
+    private void testLong()
+    {
+        SecureRandom random = new SecureRandom();
+        byte[] key = new byte[32];
+        byte[] nonce = new byte[16];
+        byte[] expected = new byte[16];
+        byte[] out = new byte[16];
+
+        for (int i = 0; i < 200; i++)
+        {
+            random.nextBytes(key);
+            random.nextBytes(nonce);
+            // all ones stresses the carries, the clamped key is saturated too
+            byte[] m = new byte[random.nextInt(MAXLEN)];
+            if ((i & 7) == 0)
+            {
+                Arrays.fill(key, (byte)0xff);
+                Arrays.fill(m, (byte)0xff);
+            }
+            else
+            {
+                random.nextBytes(m);
+            }
+            Poly1305KeyGenerator.clamp(key);
+
+            final Mac ref, mac;
+            if ((i & 1) == 0)
+            {
+                ref = new Poly1305();
+                mac = new Poly1305Long();
+                ref.init(new KeyParameter(key));
+                mac.init(new KeyParameter(key));
+            }
+            else
+            {
+                ref = new Poly1305(AESEngine.newInstance());
+                mac = new Poly1305Long(AESEngine.newInstance());
+                ref.init(new ParametersWithIV(new KeyParameter(key), nonce));
+                mac.init(new ParametersWithIV(new KeyParameter(key), nonce));
+            }
+
+            ref.update(m, 0, m.length);
+            ref.doFinal(expected, 0);
+
+            int off = 0;
+            while (off < m.length)
+            {
+                int len = Math.min(m.length - off, random.nextInt(80));
+                if (len == 1)
+                {
+                    mac.update(m[off]);
+                }
+                else
+                {
+                    mac.update(m, off, len);
+                }
+                off += len;
+            }
+            mac.doFinal(out, 0);
+
+            if (!Arrays.areEqual(expected, out))
+            {
+                fail("Poly1305Long mismatch at length " + m.length, Hex.toHexString(expected), Hex.toHexString(out));
+            }
+        }
+    }
+
     public static void main(String[] args)
         throws Exception
     {
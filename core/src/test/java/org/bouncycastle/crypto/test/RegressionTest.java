@@ -10,6 +10,7 @@
             new AESTest(),
             new AESLightTest(),
             new AESFastTest(),
+            new AESBitslicedTest(),
             new AESWrapTest(),
             new AESWrapPadTest(),
             new ARIATest(),
@@ -65,6 +66,7 @@
             new SHA256DigestTest(),
             new SHA384DigestTest(),
             new SHA512DigestTest(),
+            new MultiSHADigestTest(),
             new SHA512t224DigestTest(),
             new SHA512t256DigestTest(),
             new SHA3DigestTest(),
@@ -136,6 +138,11 @@
             new ECIESKeyEncapsulationTest(),
             new HashCommitmentTest(),
             new CipherStreamTest(),
+            new ParallelBlockCipherTest(),
+            new ByteBufferUtilTest(),
+            new DigestPoolTest(),
+            new ECPublicKeyCacheTest(),
+            new FixedCurveEngineTest(),
             new BlockCipherResetTest(),
             new StreamCipherResetTest(),
             new SM3DigestTest(),
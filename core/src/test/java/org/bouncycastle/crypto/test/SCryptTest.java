@@ -4,6 +4,7 @@
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.bouncycastle.crypto.generators.SCrypt;
 import org.bouncycastle.test.TestResourceFinder;
@@ -29,9 +30,51 @@ public void performTest()
     {
         testPermutations();
         testParameters();
+        testParallel();
         testVectors();
     }
 
+    public void testParallel()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        SCrypt.ChunkPool chunks = new SCrypt.ChunkPool(4 * 1024 * 1024);
+        try
+        {
+            // RFC 7914, section 12.
+            byte[] expected = Hex.decode("fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162"
+                + "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640");
+            byte[] P = Strings.toByteArray("password");
+            byte[] S = Strings.toByteArray("NaCl");
+
+            isTrue("parallel", areEqual(expected, SCrypt.generate(P, S, 1024, 8, 16, 64, pool)));
+            isTrue("chunk pool", areEqual(expected, SCrypt.generate(P, S, 1024, 8, 16, 64, null, chunks)));
+            isTrue("chunks not retained", chunks.getRetained() > 0);
+            isTrue("parallel chunk pool", areEqual(expected, SCrypt.generate(P, S, 1024, 8, 16, 64, pool, chunks)));
+            isTrue("chunk pool over limit", chunks.getRetained() <= 4 * 1024 * 1024);
+
+            int[] ps = { 1, 2, 3, 5 };
+            for (int i = 0; i != ps.length; i++)
+            {
+                expected = SCrypt.generate(P, S, 256, 3, ps[i], 40);
+                isTrue("parallel p = " + ps[i], areEqual(expected, SCrypt.generate(P, S, 256, 3, ps[i], 40, pool)));
+                isTrue("parallel chunk pool p = " + ps[i],
+                    areEqual(expected, SCrypt.generate(P, S, 256, 3, ps[i], 40, pool, chunks)));
+            }
+
+            chunks.clear();
+            isTrue("chunk pool not cleared", chunks.getRetained() == 0);
+
+            // a pool too small to hold a chunk is simply not used.
+            SCrypt.ChunkPool tiny = new SCrypt.ChunkPool(16);
+            isTrue("tiny chunk pool", areEqual(expected, SCrypt.generate(P, S, 256, 3, 5, 40, null, tiny)));
+            isTrue("tiny chunk pool retained", tiny.getRetained() == 0);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
     public void testParameters()
     {
         checkOK("Minimal values", new byte[0], new byte[0], 2, 1, 1, 1);
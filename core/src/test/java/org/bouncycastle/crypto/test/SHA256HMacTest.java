@@ -4,6 +4,7 @@
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Memoable;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTestResult;
 import org.bouncycastle.util.test.Test;
@@ -94,6 +95,47 @@ public TestResult perform()
                     "Reset with vector " + vector + " failed");
         }
 
+        //
+        // test keyed state snapshot
+        //
+        hmac.init(new KeyParameter(Hex.decode(keys[vector])));
+        Memoable keyed = hmac.copy();
+
+        byte[] m1 = messages[1].getBytes();
+        hmac.init(new KeyParameter(Hex.decode(keys[1])));
+        hmac.update(m1, 0, 3);
+        Memoable partial = hmac.copy();
+
+        hmac.reset(keyed);
+        hmac.update(m, 0, m.length);
+        hmac.doFinal(resBuf, 0);
+
+        if (!Arrays.areEqual(resBuf, Hex.decode(digests[vector])))
+        {
+            return new SimpleTestResult(false, getName() +
+                    "Memoable reset with vector " + vector + " failed");
+        }
+
+        HMac copy = (HMac)keyed.copy();
+        copy.update(m, 0, m.length);
+        copy.doFinal(resBuf, 0);
+
+        if (!Arrays.areEqual(resBuf, Hex.decode(digests[vector])))
+        {
+            return new SimpleTestResult(false, getName() +
+                    "Memoable copy with vector " + vector + " failed");
+        }
+
+        hmac.reset(partial);
+        hmac.update(m1, 3, m1.length - 3);
+        hmac.doFinal(resBuf, 0);
+
+        if (!Arrays.areEqual(resBuf, Hex.decode(digests[1])))
+        {
+            return new SimpleTestResult(false, getName() +
+                    "Memoable partial with vector 1 failed");
+        }
+
         return new SimpleTestResult(true, getName() + ": Okay");
     }
 
@@ -0,0 +1,93 @@
+package org.bouncycastle.crypto.test.speedy;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.MultiBlockCipher;
+import org.bouncycastle.crypto.engines.AESBitslicedEngine;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.engines.AESLightEngine;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+/**
+ * Compares the throughput of the AES engines, passing the data through processBlocks() where
+ * the engine supports it.
+ */
+public class AESThroughputTest
+{
+    private static final int DATA_SIZE = 64 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 4096;
+    private static final int RUNS = 5;
+
+    private static SecureRandom rand = new SecureRandom();
+
+    public static void main(String[] args)
+    {
+        byte[] input = new byte[DATA_SIZE];
+        rand.nextBytes(input);
+
+        for (int keySize = 16; keySize <= 32; keySize += 16)
+        {
+            byte[] key = new byte[keySize];
+            rand.nextBytes(key);
+
+            speedTestCipher("AESEngine", new AESEngine(), key, input);
+            speedTestCipher("AESLightEngine", new AESLightEngine(), key, input);
+            speedTestCipher("AESBitslicedEngine", new AESBitslicedEngine(), key, input);
+        }
+    }
+
+    private static void speedTestCipher(String name, BlockCipher cipher, byte[] key, byte[] input)
+    {
+        speedTestCipherForMode(name + "-" + (key.length * 8) + " encrypt", cipher, true, key, input);
+        speedTestCipherForMode(name + "-" + (key.length * 8) + " decrypt", cipher, false, key, input);
+    }
+
+    private static void speedTestCipherForMode(String label, BlockCipher cipher, boolean forEncryption, byte[] key, byte[] input)
+    {
+        cipher.initBlock(forEncryption, new KeyParameter(key));
+
+        // warm up
+        testCipher(cipher, input);
+        testCipher(cipher, input);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++)
+        {
+            best = Math.min(best, testCipher(cipher, input));
+        }
+
+        long mbPerSecond = (long)((double)DATA_SIZE / best * 1000000000 / (1024 * 1024));
+        System.out.println(label + ": " + mbPerSecond + " MB/s");
+    }
+
+    private static long testCipher(BlockCipher cipher, byte[] input)
+    {
+        byte[] out = new byte[CHUNK_SIZE];
+        int blockSize = cipher.getBlockSize();
+        int blocksPerChunk = CHUNK_SIZE / blockSize;
+
+        long start = System.nanoTime();
+
+        if (cipher instanceof MultiBlockCipher)
+        {
+            MultiBlockCipher multiCipher = (MultiBlockCipher)cipher;
+            for (int i = 0; i < input.length; i += CHUNK_SIZE)
+            {
+                multiCipher.processBlocks(input, i, blocksPerChunk, out, 0);
+            }
+        }
+        else
+        {
+            for (int i = 0; i < input.length; i += CHUNK_SIZE)
+            {
+                for (int j = 0; j < CHUNK_SIZE; j += blockSize)
+                {
+                    cipher.processBlock(input, i + j, out, j);
+                }
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+}
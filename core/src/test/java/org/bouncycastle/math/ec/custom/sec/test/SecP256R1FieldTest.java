@@ -8,6 +8,8 @@
 import org.bouncycastle.crypto.ec.CustomNamedCurves;
 import org.bouncycastle.math.ec.ECFieldElement;
 import org.bouncycastle.math.raw.Nat256;
+import org.bouncycastle.math.raw.Nat256Long;
+import org.bouncycastle.util.Arrays;
 
 import junit.framework.TestCase;
 
@@ -133,6 +135,41 @@ public void testSquare_OpenSSLBug()
         }
     }
 
+    /**
+     * Check the 64 bit limb products against the 32 bit ones, whichever the field is using.
+     */
+    public void testMultiplyLong()
+    {
+        int COUNT = 1000;
+
+        int[] tt = Nat256.createExt(), uu = Nat256.createExt();
+        for (int i = 0; i < COUNT; ++i)
+        {
+            int[] x = generateLongInput(), y = generateLongInput();
+
+            Nat256.mul(x, y, tt);
+            Nat256Long.mul(x, y, uu);
+
+            assertTrue(Arrays.areEqual(tt, uu));
+        }
+    }
+
+    public void testSquareLong()
+    {
+        int COUNT = 1000;
+
+        int[] tt = Nat256.createExt(), uu = Nat256.createExt();
+        for (int i = 0; i < COUNT; ++i)
+        {
+            int[] x = generateLongInput();
+
+            Nat256.square(x, tt);
+            Nat256Long.square(x, uu);
+
+            assertTrue(Arrays.areEqual(tt, uu));
+        }
+    }
+
     private ECFieldElement fe(BigInteger x)
     {
         return DP.getCurve().fromBigInteger(x);
@@ -172,4 +209,26 @@ private ECFieldElement generateSquareInput_OpenSSLBug()
 
         return fe(Nat256.toBigInteger(x));
     }
+
+    private int[] generateLongInput()
+    {
+        // mix in all-zero and all-one words so every limb boundary sees extreme values
+        int[] x = Nat256.create();
+        for (int i = 0; i < 8; ++i)
+        {
+            switch (RANDOM.nextInt(4))
+            {
+            case 0:
+                x[i] = 0;
+                break;
+            case 1:
+                x[i] = -1;
+                break;
+            default:
+                x[i] = RANDOM.nextInt();
+                break;
+            }
+        }
+        return x;
+    }
 }
@@ -8,6 +8,9 @@
 import org.bouncycastle.crypto.ec.CustomNamedCurves;
 import org.bouncycastle.math.ec.ECFieldElement;
 import org.bouncycastle.math.raw.Nat;
+import org.bouncycastle.math.raw.Nat384;
+import org.bouncycastle.math.raw.Nat384Long;
+import org.bouncycastle.util.Arrays;
 
 import junit.framework.TestCase;
 
@@ -117,6 +120,41 @@ public void testSquare_CarryBug_Reported()
         assertEquals(R, Z);
     }
 
+    /**
+     * Check the 64 bit limb products against the 32 bit ones, whichever the field is using.
+     */
+    public void testMultiplyLong()
+    {
+        int COUNT = 1000;
+
+        int[] tt = Nat.create(24), uu = Nat.create(24);
+        for (int i = 0; i < COUNT; ++i)
+        {
+            int[] x = generateLongInput(), y = generateLongInput();
+
+            Nat384.mul(x, y, tt);
+            Nat384Long.mul(x, y, uu);
+
+            assertTrue(Arrays.areEqual(tt, uu));
+        }
+    }
+
+    public void testSquareLong()
+    {
+        int COUNT = 1000;
+
+        int[] tt = Nat.create(24), uu = Nat.create(24);
+        for (int i = 0; i < COUNT; ++i)
+        {
+            int[] x = generateLongInput();
+
+            Nat384.square(x, tt);
+            Nat384Long.square(x, uu);
+
+            assertTrue(Arrays.areEqual(tt, uu));
+        }
+    }
+
     private ECFieldElement fe(BigInteger x)
     {
         return DP.getCurve().fromBigInteger(x);
@@ -137,4 +175,26 @@ private ECFieldElement generateSquareInput_CarryBug()
 
         return fe(Nat.toBigInteger(12, x));
     }
+
+    private int[] generateLongInput()
+    {
+        // mix in all-zero and all-one words so every limb boundary sees extreme values
+        int[] x = Nat.create(12);
+        for (int i = 0; i < 12; ++i)
+        {
+            switch (RANDOM.nextInt(4))
+            {
+            case 0:
+                x[i] = 0;
+                break;
+            case 1:
+                x[i] = -1;
+                break;
+            default:
+                x[i] = RANDOM.nextInt();
+                break;
+            }
+        }
+        return x;
+    }
 }
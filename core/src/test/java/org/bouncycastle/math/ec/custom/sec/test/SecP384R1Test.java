@@ -0,0 +1,144 @@
+package org.bouncycastle.math.ec.custom.sec.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import junit.framework.TestCase;
+import org.bouncycastle.asn1.sec.SECObjectIdentifiers;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.custom.sec.SecP384R1;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.BigIntegers;
+
+public class SecP384R1Test
+    extends TestCase
+{
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final X9ECParameters DP = CustomNamedCurves.getByOID(SECObjectIdentifiers.secp384r1);
+    private static final BigInteger N = DP.getN();
+
+    private final SecP384R1.Workspace w = new SecP384R1.Workspace();
+
+    public void setUp()
+    {
+        SecP384R1.precompute();
+    }
+
+    public void testScalarMultBase()
+    {
+        byte[] r = new byte[SecP384R1.POINT_SIZE];
+
+        for (int i = 0; i < 100; ++i)
+        {
+            BigInteger k = randomScalar();
+            assertTrue(SecP384R1.scalarMultBase(scalar(k), 0, r, 0, w));
+            assertTrue("scalarMultBase #" + i, Arrays.areEqual(DP.getG().multiply(k).getEncoded(false), r));
+        }
+    }
+
+    public void testScalarMult()
+    {
+        byte[] r = new byte[SecP384R1.POINT_SIZE];
+
+        for (int i = 0; i < 100; ++i)
+        {
+            ECPoint p = DP.getG().multiply(randomScalar()).normalize();
+            BigInteger k = randomScalar();
+            assertTrue(SecP384R1.scalarMult(scalar(k), 0, p.getEncoded(false), 0, r, 0, w));
+            assertTrue("scalarMult #" + i, Arrays.areEqual(p.multiply(k).getEncoded(false), r));
+        }
+    }
+
+    public void testSumOfTwoMultiplies()
+    {
+        byte[] r = new byte[SecP384R1.POINT_SIZE];
+
+        for (int i = 0; i < 100; ++i)
+        {
+            ECPoint p = DP.getG().multiply(randomScalar()).normalize();
+            BigInteger a = randomScalar(), b = randomScalar();
+            assertTrue(SecP384R1.sumOfTwoMultiplies(scalar(a), 0, scalar(b), 0, p.getEncoded(false), 0, r, 0, w));
+
+            ECPoint expected = ECAlgorithms.sumOfTwoMultiplies(DP.getG(), a, p, b);
+            assertTrue("sumOfTwoMultiplies #" + i, Arrays.areEqual(expected.getEncoded(false), r));
+        }
+
+        // a * G + (n - a) * G is the point at infinity
+        BigInteger a = randomScalar();
+        assertFalse(SecP384R1.sumOfTwoMultiplies(scalar(a), 0, scalar(N.subtract(a)), 0,
+            DP.getG().getEncoded(false), 0, r, 0, w));
+    }
+
+    public void testEdgeScalars()
+    {
+        byte[] g = DP.getG().getEncoded(false);
+        byte[] r = new byte[SecP384R1.POINT_SIZE];
+        byte[] s = new byte[SecP384R1.POINT_SIZE];
+
+        assertFalse(SecP384R1.scalarMultBase(scalar(BigInteger.ZERO), 0, r, 0, w));
+        assertFalse(SecP384R1.scalarMult(scalar(BigInteger.ZERO), 0, g, 0, r, 0, w));
+        assertFalse(SecP384R1.scalarMultBase(scalar(N), 0, r, 0, w));
+        assertFalse(SecP384R1.scalarMult(scalar(N), 0, g, 0, r, 0, w));
+
+        assertTrue(SecP384R1.scalarMultBase(scalar(BigInteger.ONE), 0, r, 0, w));
+        assertTrue(Arrays.areEqual(g, r));
+
+        // scalars that are not reduced, including all ones, still give k * G
+        BigInteger[] ks = new BigInteger[]{ N.subtract(BigInteger.ONE), N.add(BigInteger.ONE),
+            BigInteger.ONE.shiftLeft(384).subtract(BigInteger.ONE),
+            BigInteger.valueOf(8), BigInteger.valueOf(-8).mod(N) };
+        for (int i = 0; i < ks.length; ++i)
+        {
+            byte[] k = scalar(ks[i]);
+            byte[] expected = DP.getG().multiply(ks[i].mod(N)).getEncoded(false);
+
+            assertTrue(SecP384R1.scalarMultBase(k, 0, r, 0, w));
+            assertTrue(SecP384R1.scalarMult(k, 0, g, 0, s, 0, w));
+            assertTrue("edge scalar #" + i, Arrays.areEqual(expected, r) && Arrays.areEqual(expected, s));
+        }
+    }
+
+    public void testInvalidPoints()
+    {
+        byte[] k = scalar(randomScalar());
+        byte[] r = new byte[SecP384R1.POINT_SIZE];
+        byte[] p = DP.getG().multiply(randomScalar()).getEncoded(false);
+
+        byte[] bad = Arrays.clone(p);
+        bad[0] = 0x02;
+        assertFalse(SecP384R1.scalarMult(k, 0, bad, 0, r, 0, w));
+
+        bad = Arrays.clone(p);
+        bad[bad.length - 1] ^= 0x01;
+        assertFalse(SecP384R1.scalarMult(k, 0, bad, 0, r, 0, w));
+        assertFalse(SecP384R1.sumOfTwoMultiplies(k, 0, k, 0, bad, 0, r, 0, w));
+
+        // x = p, the field size
+        bad = Arrays.clone(p);
+        byte[] q = BigIntegers.asUnsignedByteArray(48, DP.getCurve().getField().getCharacteristic());
+        System.arraycopy(q, 0, bad, 1, q.length);
+        assertFalse(SecP384R1.scalarMult(k, 0, bad, 0, r, 0, w));
+
+        // the buffers can be offset
+        byte[] k2 = new byte[k.length + 3], p2 = new byte[p.length + 5], r2 = new byte[r.length + 7];
+        System.arraycopy(k, 0, k2, 3, k.length);
+        System.arraycopy(p, 0, p2, 5, p.length);
+        assertTrue(SecP384R1.scalarMult(k, 0, p, 0, r, 0, w));
+        assertTrue(SecP384R1.scalarMult(k2, 3, p2, 5, r2, 7, w));
+        assertTrue(Arrays.areEqual(r, Arrays.copyOfRange(r2, 7, r2.length)));
+    }
+
+    private BigInteger randomScalar()
+    {
+        return BigIntegers.createRandomInRange(BigInteger.ONE, N.subtract(BigInteger.ONE), RANDOM);
+    }
+
+    private static byte[] scalar(BigInteger k)
+    {
+        return BigIntegers.asUnsignedByteArray(SecP384R1.SCALAR_SIZE, k);
+    }
+}
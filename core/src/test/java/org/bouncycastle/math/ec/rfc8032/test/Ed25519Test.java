@@ -22,6 +22,59 @@ public void setUp()
         Ed25519.precompute();
     }
 
+//    @Test
+    public void testEd25519Batch()
+    {
+        int[] sizes = new int[]{ 0, 1, 5, 16, 33 };
+        for (int s = 0; s < sizes.length; ++s)
+        {
+            int count = sizes[s];
+            byte[][] sigs = new byte[count][];
+            byte[][] pks = new byte[count][];
+            byte[][] msgs = new byte[count][];
+
+            for (int i = 0; i < count; ++i)
+            {
+                byte[] sk = new byte[Ed25519.SECRET_KEY_SIZE];
+                Ed25519.generatePrivateKey(RANDOM, sk);
+                pks[i] = new byte[Ed25519.PUBLIC_KEY_SIZE];
+                Ed25519.generatePublicKey(sk, 0, pks[i], 0);
+
+                msgs[i] = new byte[RANDOM.nextInt() & 255];
+                RANDOM.nextBytes(msgs[i]);
+
+                sigs[i] = new byte[Ed25519.SIGNATURE_SIZE];
+                Ed25519.sign(sk, 0, msgs[i], 0, msgs[i].length, sigs[i], 0);
+            }
+
+            boolean[] results = new boolean[count];
+            assertTrue("Ed25519 batch #" + count, Ed25519.verifyBatch(RANDOM, sigs, pks, msgs, results));
+
+            if (count == 0)
+            {
+                continue;
+            }
+
+            // Corrupt some signatures, in R, in S, by substituting the key, and by truncation
+            int[] corrupt = new int[]{ RANDOM.nextInt(count), RANDOM.nextInt(count), RANDOM.nextInt(count),
+                RANDOM.nextInt(count) };
+            sigs[corrupt[0]][1] ^= 0x04;
+            sigs[corrupt[1]][Ed25519.SIGNATURE_SIZE - 8] ^= 0x20;
+            pks[corrupt[2]] = pks[(corrupt[2] + 1) % count];
+            sigs[corrupt[3]] = Arrays.copyOf(sigs[corrupt[3]], Ed25519.SIGNATURE_SIZE - 1);
+
+            assertFalse("Ed25519 corrupted batch #" + count, Ed25519.verifyBatch(RANDOM, sigs, pks, msgs, results));
+
+            for (int i = 0; i < count; ++i)
+            {
+                boolean expected = sigs[i].length == Ed25519.SIGNATURE_SIZE
+                    && Ed25519.verify(sigs[i], 0, pks[i], 0, msgs[i], 0, msgs[i].length);
+
+                assertEquals("Ed25519 batch result #" + count + "/" + i, expected, results[i]);
+            }
+        }
+    }
+
 //    @Test
     public void testEd25519Consistency()
     {
@@ -43,6 +43,20 @@ public void testSumOfMultipliesComplete()
         }
     }
 
+    public void testSumOfMultipliesPippenger()
+    {
+        // secp256k1 has a GLV endomorphism, the others do not; sect233k1 is binary
+        String[] names = new String[]{ "secp256r1", "secp256k1", "sect233k1" };
+        for (int i = 0; i < names.length; ++i)
+        {
+            X9ECParameters x9 = CustomNamedCurves.getByName(names[i]);
+            assertNotNull(x9);
+            doTestSumOfMultipliesPippenger(x9);
+        }
+
+        doTestSumOfMultipliesPippenger(ECNamedCurveTable.getByName("prime256v1"));
+    }
+
     public void testSumOfTwoMultiplies()
     {
         X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
@@ -86,6 +100,41 @@ private void doTestSumOfMultiplies(X9ECParameters x9)
         }
     }
 
+    private void doTestSumOfMultipliesPippenger(X9ECParameters x9)
+    {
+        int count = ECAlgorithms.PIPPENGER_THRESHOLD + 3;
+
+        ECPoint[] points = new ECPoint[count];
+        BigInteger[] scalars = new BigInteger[count];
+        for (int i = 0; i < count; ++i)
+        {
+            points[i] = getRandomPoint(x9);
+            scalars[i] = getRandomScalar(x9);
+        }
+
+        // awkward inputs: negative, zero, unreduced and repeated scalars, repeated points and infinity
+        scalars[1] = scalars[1].negate();
+        scalars[2] = BigInteger.valueOf(0);
+        scalars[3] = scalars[3].add(x9.getN().shiftLeft(3));
+        scalars[4] = scalars[5];
+        points[6] = points[7];
+        scalars[6] = scalars[7];
+        points[8] = x9.getCurve().getInfinity();
+
+        ECPoint u = x9.getCurve().getInfinity();
+        for (int i = 0; i < count; ++i)
+        {
+            u = u.add(points[i].multiply(scalars[i]));
+        }
+
+        ECPoint v = ECAlgorithms.sumOfMultiplies(points, scalars);
+
+        ECPoint[] results = new ECPoint[]{ u, v };
+        x9.getCurve().normalizeAll(results);
+
+        assertPointsEqual("ECAlgorithms.sumOfMultiplies (Pippenger) is incorrect", results[0], results[1]);
+    }
+
     private void doTestSumOfTwoMultiplies(X9ECParameters x9)
     {
         ECPoint p = getRandomPoint(x9);
@@ -0,0 +1,205 @@
+package org.bouncycastle.pqc.crypto.mlkem;
+
+import java.security.SecureRandom;
+
+import junit.framework.TestCase;
+
+/**
+ * Check generateMatrix() against a direct implementation of SampleNTT (FIPS 203, Algorithm 7), which reads
+ * the XOF output three bytes at a time, including matrix entries which need more than one further block.
+ */
+public class GenerateMatrixTest
+    extends TestCase
+{
+    private static final int GENERATE_MATRIX_BYTES = 3 * 168;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public void testShakeContinuation()
+    {
+        int[] ks = { 2, 3, 4 };
+        int continued = 0;
+
+        for (int i = 0; i != ks.length; i++)
+        {
+            MLKEMEngine engine = new MLKEMEngine(ks[i]);
+            for (int count = 0; count != 40; count++)
+            {
+                byte[] seed = new byte[32];
+                random.nextBytes(seed);
+
+                continued += checkMatrix(engine, seed, false);
+                continued += checkMatrix(engine, seed, true);
+            }
+        }
+
+        // around one entry in a hundred runs past the first three blocks
+        assertTrue(continued > 0);
+    }
+
+    public void testRepeatedContinuation()
+    {
+        // three in four triples are rejected, so every entry needs several further blocks
+        MLKEMEngine engine = new BiasedEngine(3);
+
+        byte[] seed = new byte[32];
+        random.nextBytes(seed);
+
+        checkMatrix(engine, seed, false);
+        checkMatrix(engine, seed, true);
+    }
+
+    /*
+     * compare the matrix for seed with SampleNTT, returning the number of entries which needed more than
+     * the initial blocks.
+     */
+    private int checkMatrix(MLKEMEngine engine, byte[] seed, boolean transposed)
+    {
+        int k = engine.getKyberK();
+        MLKEMIndCpa indCpa = new MLKEMIndCpa(engine);
+        Symmetric symmetric = engine.getSymmetric();
+
+        PolyVec[] a = new PolyVec[k];
+        for (int i = 0; i != k; i++)
+        {
+            a[i] = new PolyVec(engine);
+        }
+
+        indCpa.generateMatrix(a, seed, transposed);
+
+        int continued = 0;
+        short[] expected = new short[MLKEMEngine.KyberN];
+        for (int i = 0; i != k; i++)
+        {
+            for (int j = 0; j != k; j++)
+            {
+                if (transposed)
+                {
+                    symmetric.xofAbsorb(seed, (byte)i, (byte)j);
+                }
+                else
+                {
+                    symmetric.xofAbsorb(seed, (byte)j, (byte)i);
+                }
+
+                if (sampleNTT(symmetric, expected) > GENERATE_MATRIX_BYTES)
+                {
+                    continued++;
+                }
+
+                Poly poly = a[i].getVectorIndex(j);
+                for (int n = 0; n != MLKEMEngine.KyberN; n++)
+                {
+                    assertEquals(expected[n], poly.getCoeffIndex(n));
+                }
+            }
+        }
+
+        return continued;
+    }
+
+    /*
+     * SampleNTT, returning the number of XOF bytes used.
+     */
+    private static int sampleNTT(Symmetric xof, short[] a)
+    {
+        byte[] c = new byte[3];
+        int used = 0;
+        int j = 0;
+        while (j < MLKEMEngine.KyberN)
+        {
+            xof.xofSqueezeBlocks(c, 0, 3);
+            used += 3;
+
+            int d1 = (c[0] & 0xFF) | ((c[1] & 0x0F) << 8);
+            int d2 = ((c[1] & 0xFF) >>> 4) | ((c[2] & 0xFF) << 4);
+            if (d1 < MLKEMEngine.KyberQ)
+            {
+                a[j++] = (short)d1;
+            }
+            if (d2 < MLKEMEngine.KyberQ && j < MLKEMEngine.KyberN)
+            {
+                a[j++] = (short)d2;
+            }
+        }
+        return used;
+    }
+
+    /*
+     * an engine whose XOF output has three in four byte triples, counted from the start of the stream, forced
+     * to values which are rejected.
+     */
+    private static class BiasedEngine
+        extends MLKEMEngine
+    {
+        private Symmetric biased;
+
+        BiasedEngine(int k)
+        {
+            super(k);
+        }
+
+        public Symmetric getSymmetric()
+        {
+            if (biased == null)
+            {
+                biased = new BiasedSymmetric(super.getSymmetric());
+            }
+            return biased;
+        }
+    }
+
+    private static class BiasedSymmetric
+        extends Symmetric
+    {
+        private final Symmetric symmetric;
+
+        private long position;
+
+        BiasedSymmetric(Symmetric symmetric)
+        {
+            super(symmetric.xofBlockBytes);
+            this.symmetric = symmetric;
+        }
+
+        void hash_h(byte[] out, byte[] in, int outOffset)
+        {
+            symmetric.hash_h(out, in, outOffset);
+        }
+
+        void hash_g(byte[] out, byte[] in)
+        {
+            symmetric.hash_g(out, in);
+        }
+
+        void xofAbsorb(byte[] seed, byte x, byte y)
+        {
+            symmetric.xofAbsorb(seed, x, y);
+            position = 0;
+        }
+
+        void xofSqueezeBlocks(byte[] out, int outOffset, int outLen)
+        {
+            symmetric.xofSqueezeBlocks(out, outOffset, outLen);
+
+            for (int i = 0; i != outLen; i++, position++)
+            {
+                if ((position / 3) % 4 != 0 && position % 3 != 0)
+                {
+                    // both 12 bit values of the triple come out at least 0xF00
+                    out[outOffset + i] = (byte)0xFF;
+                }
+            }
+        }
+
+        void prf(byte[] out, byte[] key, byte nonce)
+        {
+            symmetric.prf(out, key, nonce);
+        }
+
+        void kdf(byte[] out, byte[] in)
+        {
+            symmetric.kdf(out, in);
+        }
+    }
+}
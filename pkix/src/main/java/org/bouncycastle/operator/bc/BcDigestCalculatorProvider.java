@@ -2,9 +2,16 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.util.DigestFactory;
 import org.bouncycastle.operator.DigestCalculator;
 import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.OperatorCreationException;
@@ -12,12 +19,38 @@
 public class BcDigestCalculatorProvider
     implements DigestCalculatorProvider
 {
+    /*
+     * the digest of a calculator never leaves it, so for the common algorithms it can be leased from the shared
+     * pool rather than created for each calculator.
+     */
+    private static final Map pooled = createPooledTable();
+
+    private static Map createPooledTable()
+    {
+        Map table = new HashMap();
+
+        table.put(OIWObjectIdentifiers.idSHA1, "SHA-1");
+        table.put(NISTObjectIdentifiers.id_sha224, "SHA-224");
+        table.put(NISTObjectIdentifiers.id_sha256, "SHA-256");
+        table.put(NISTObjectIdentifiers.id_sha384, "SHA-384");
+        table.put(NISTObjectIdentifiers.id_sha512, "SHA-512");
+        table.put(NISTObjectIdentifiers.id_sha3_224, "SHA3-224");
+        table.put(NISTObjectIdentifiers.id_sha3_256, "SHA3-256");
+        table.put(NISTObjectIdentifiers.id_sha3_384, "SHA3-384");
+        table.put(NISTObjectIdentifiers.id_sha3_512, "SHA3-512");
+        table.put(PKCSObjectIdentifiers.md5, "MD5");
+
+        return Collections.unmodifiableMap(table);
+    }
+
     private BcDigestProvider digestProvider = BcDefaultDigestProvider.INSTANCE;
 
     public DigestCalculator get(final AlgorithmIdentifier algorithm)
         throws OperatorCreationException
     {
-        Digest dig = digestProvider.get(algorithm);
+        String pooledName = (String)pooled.get(algorithm.getAlgorithm());
+        Digest dig = (pooledName != null) ? DigestFactory.getDigestPool().lease(pooledName)
+            : digestProvider.get(algorithm);
 
         final DigestOutputStream stream = new DigestOutputStream(dig);
 
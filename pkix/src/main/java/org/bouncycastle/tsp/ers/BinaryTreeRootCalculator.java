@@ -14,8 +14,31 @@
 public class BinaryTreeRootCalculator
     implements ERSRootNodeCalculator
 {
+    private final boolean useMultiBufferDigest;
+
     private List<List<byte[]>> tree;
 
+    /**
+     * Base constructor - all hashing is done through the DigestCalculator passed in.
+     */
+    public BinaryTreeRootCalculator()
+    {
+        this(false);
+    }
+
+    /**
+     * Constructor allowing the branch hashes of each tree level to be calculated together by a multi-buffer
+     * digest when the DigestCalculator is for SHA-256 or SHA-512. The results are the same, but the
+     * DigestCalculator is bypassed for those hashes, so this should only be used where it is acceptable for
+     * the hashing to be done by the lightweight digests rather than the calculator's own implementation.
+     *
+     * @param useMultiBufferDigest true if the branch hashes may be calculated by a multi-buffer digest.
+     */
+    public BinaryTreeRootCalculator(boolean useMultiBufferDigest)
+    {
+        this.useMultiBufferDigest = useMultiBufferDigest;
+    }
+
     public byte[] computeRootHash(DigestCalculator digCalc, PartialHashtree[] nodes)
     {
         SortedHashList hashes = new SortedHashList();
@@ -35,12 +58,7 @@ public byte[] computeRootHash(DigestCalculator digCalc, PartialHashtree[] nodes)
         {
             do
             {
-                List newHashes = new ArrayList(hashValues.size() / 2 + 1);
-
-                for (int i = 0; i <= hashValues.size() - 2; i += 2)
-                {
-                    newHashes.add(ERSUtil.calculateBranchHash(digCalc, (byte[])hashValues.get(i), (byte[])hashValues.get(i + 1)));
-                }
+                List newHashes = ERSUtil.calculateBranchHashes(digCalc, hashValues, useMultiBufferDigest);
 
                 if (hashValues.size() % 2 == 1)
                 {
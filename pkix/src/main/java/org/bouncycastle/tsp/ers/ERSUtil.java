@@ -3,12 +3,18 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
 import org.bouncycastle.asn1.tsp.PartialHashtree;
+import org.bouncycastle.crypto.digests.MultiSHA256Digest;
+import org.bouncycastle.crypto.digests.MultiSHA512Digest;
 import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.io.Streams;
 
 class ERSUtil
@@ -50,6 +56,46 @@ static byte[] calculateBranchHash(DigestCalculator digCalc, byte[] a, byte[] b)
         }
     }
 
+    /**
+     * Calculate the branch hashes of the pairs hashes[0], hashes[1], hashes[2], hashes[3], and so on. Any odd
+     * hash at the end is ignored. If useMultiBufferDigest is set, for SHA-256 and SHA-512 the pairs are hashed
+     * together using a multi-buffer digest rather than digCalc, the results are the same as calling
+     * calculateBranchHash() on each pair.
+     */
+    static List<byte[]> calculateBranchHashes(DigestCalculator digCalc, List<byte[]> hashes,
+        boolean useMultiBufferDigest)
+    {
+        int count = hashes.size() / 2;
+        List<byte[]> branchHashes = new ArrayList<byte[]>(count + 1);
+
+        ASN1ObjectIdentifier digAlg = digCalc.getAlgorithmIdentifier().getAlgorithm();
+        boolean isSHA256 = NISTObjectIdentifiers.id_sha256.equals(digAlg);
+        if (!useMultiBufferDigest || count < 2 || !(isSHA256 || NISTObjectIdentifiers.id_sha512.equals(digAlg)))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                branchHashes.add(calculateBranchHash(digCalc, (byte[])hashes.get(2 * i), (byte[])hashes.get(2 * i + 1)));
+            }
+            return branchHashes;
+        }
+
+        byte[][] msgs = new byte[count][];
+        for (int i = 0; i < count; i++)
+        {
+            byte[] a = (byte[])hashes.get(2 * i);
+            byte[] b = (byte[])hashes.get(2 * i + 1);
+
+            msgs[i] = (hashComp.compare(a, b) <= 0) ? Arrays.concatenate(a, b) : Arrays.concatenate(b, a);
+        }
+
+        byte[][] digests = isSHA256 ? MultiSHA256Digest.digestAll(msgs) : MultiSHA512Digest.digestAll(msgs);
+        for (int i = 0; i < count; i++)
+        {
+            branchHashes.add(digests[i]);
+        }
+        return branchHashes;
+    }
+
     static byte[] calculateBranchHash(DigestCalculator digCalc, byte[][] values)
     {
         if (values.length == 2)
@@ -24,6 +24,7 @@
 import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.tsp.PartialHashtree;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaCertStore;
@@ -45,6 +46,7 @@
 import org.bouncycastle.tsp.TimeStampResponseGenerator;
 import org.bouncycastle.tsp.TimeStampToken;
 import org.bouncycastle.tsp.TimeStampTokenGenerator;
+import org.bouncycastle.tsp.ers.BinaryTreeRootCalculator;
 import org.bouncycastle.tsp.ers.ArchiveTimeStampValidationException;
 import org.bouncycastle.tsp.ers.ERSArchiveTimeStamp;
 import org.bouncycastle.tsp.ers.ERSArchiveTimeStampGenerator;
@@ -60,6 +62,7 @@
 import org.bouncycastle.tsp.ers.ERSFileData;
 import org.bouncycastle.tsp.ers.ERSInputStreamData;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
 import org.bouncycastle.util.Store;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Base64;
@@ -1271,6 +1274,71 @@ private int compare(byte[] a, byte[] b)
         return new BigInteger(1, a).compareTo(new BigInteger(1, b));
     }
 
+    public void testMultiBufferRootHash()
+        throws Exception
+    {
+        DigestCalculatorProvider digestCalculatorProvider = new BcDigestCalculatorProvider();
+
+        for (int n = 1; n != 34; n++)
+        {
+            PartialHashtree[] nodes = new PartialHashtree[n];
+            for (int i = 0; i != n; i++)
+            {
+                nodes[i] = new PartialHashtree(Arrays.concatenate(Pack.intToBigEndian(i), H1_DATA));
+            }
+
+            checkMultiBufferRootHash(nodes, NISTObjectIdentifiers.id_sha256, digestCalculatorProvider);
+            checkMultiBufferRootHash(nodes, NISTObjectIdentifiers.id_sha512, digestCalculatorProvider);
+        }
+    }
+
+    private void checkMultiBufferRootHash(PartialHashtree[] nodes, ASN1ObjectIdentifier sha,
+        DigestCalculatorProvider digestCalculatorProvider)
+        throws OperatorCreationException
+    {
+        CountingDigestCalculator digCalc = new CountingDigestCalculator(
+            digestCalculatorProvider.get(new AlgorithmIdentifier(sha)));
+
+        byte[] root = new BinaryTreeRootCalculator().computeRootHash(digCalc, nodes);
+        int calls = digCalc.count;
+
+        // by default every branch hash goes through the calculator
+        assertTrue(calls >= nodes.length - 1);
+
+        digCalc.count = 0;
+        assertTrue(Arrays.areEqual(root, new BinaryTreeRootCalculator(true).computeRootHash(digCalc, nodes)));
+        assertTrue(nodes.length < 4 || digCalc.count < calls);
+    }
+
+    private static class CountingDigestCalculator
+        implements DigestCalculator
+    {
+        private final DigestCalculator digCalc;
+
+        int count;
+
+        CountingDigestCalculator(DigestCalculator digCalc)
+        {
+            this.digCalc = digCalc;
+        }
+
+        public AlgorithmIdentifier getAlgorithmIdentifier()
+        {
+            return digCalc.getAlgorithmIdentifier();
+        }
+
+        public OutputStream getOutputStream()
+        {
+            return digCalc.getOutputStream();
+        }
+
+        public byte[] getDigest()
+        {
+            count++;
+            return digCalc.getDigest();
+        }
+    }
+
     public void testReducedHashTrees()
         throws Exception
     {
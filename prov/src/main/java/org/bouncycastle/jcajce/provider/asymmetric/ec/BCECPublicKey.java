@@ -20,6 +20,7 @@
 import org.bouncycastle.asn1.x9.X9IntegerConverter;
 import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
 import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyCache;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.jcajce.provider.asymmetric.util.EC5Util;
 import org.bouncycastle.jcajce.provider.asymmetric.util.ECUtil;
@@ -221,9 +222,19 @@ private void populateFromPubKeyInfo(SubjectPublicKeyInfo info)
             }
         }
 
+        ECDomainParameters domainParameters = ECUtil.getDomainParameters(configuration, params);
+
+        ECPublicKeyCache cache = ECPublicKeyCache.getDefault();
+        if (cache != null)
+        {
+            this.ecPublicKey = new ECPublicKeyParameters(cache.decodePoint(domainParameters, key.getOctets()),
+                domainParameters);
+            return;
+        }
+
         X9ECPoint derQ = new X9ECPoint(curve, key);
 
-        this.ecPublicKey = new ECPublicKeyParameters(derQ.getPoint(), ECUtil.getDomainParameters(configuration, params));
+        this.ecPublicKey = new ECPublicKeyParameters(derQ.getPoint(), domainParameters);
     }
 
     public String getAlgorithm()
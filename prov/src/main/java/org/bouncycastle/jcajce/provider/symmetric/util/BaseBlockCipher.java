@@ -72,6 +72,7 @@
 import org.bouncycastle.crypto.params.ParametersWithSBox;
 import org.bouncycastle.crypto.params.RC2Parameters;
 import org.bouncycastle.crypto.params.RC5Parameters;
+import org.bouncycastle.crypto.util.ByteBufferUtil;
 import org.bouncycastle.internal.asn1.cms.GCMParameters;
 import org.bouncycastle.jcajce.PBKDF1Key;
 import org.bouncycastle.jcajce.PBKDF1KeyWithParameters;
@@ -1242,6 +1243,27 @@ protected int engineUpdate(
         }
     }
 
+    protected int engineUpdate(
+        ByteBuffer input,
+        ByteBuffer output)
+        throws ShortBufferException
+    {
+        if (output.remaining() < cipher.getUpdateOutputSize(input.remaining()))
+        {
+            throw new ShortBufferException("output buffer too short for input.");
+        }
+
+        try
+        {
+            return cipher.processBytes(input, output);
+        }
+        catch (DataLengthException e)
+        {
+            // should never occur
+            throw new IllegalStateException(e.toString());
+        }
+    }
+
     protected byte[] engineDoFinal(
         byte[] input,
         int inputOffset,
@@ -1349,6 +1371,9 @@ public int processByte(byte in, byte[] out, int outOff)
         public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             throws DataLengthException;
 
+        public int processBytes(ByteBuffer in, ByteBuffer out)
+            throws DataLengthException;
+
         public int doFinal(byte[] out, int outOff)
             throws IllegalStateException,
             BadPaddingException;
@@ -1422,6 +1447,12 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             return cipher.processBytes(in, inOff, len, out, outOff);
         }
 
+        public int processBytes(ByteBuffer in, ByteBuffer out)
+            throws DataLengthException
+        {
+            return ByteBufferUtil.processBytes(cipher, in, out);
+        }
+
         public int doFinal(byte[] out, int outOff)
             throws IllegalStateException, BadPaddingException
         {
@@ -1499,6 +1530,26 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             return 0;
         }
 
+        public int processBytes(ByteBuffer in, ByteBuffer out)
+            throws DataLengthException
+        {
+            int len = in.remaining();
+            if (in.hasArray())
+            {
+                eOut.write(in.array(), in.arrayOffset() + in.position(), len);
+                in.position(in.limit());
+            }
+            else
+            {
+                byte[] data = new byte[len];
+                in.get(data);
+                eOut.write(data, 0, len);
+                Arrays.fill(data, (byte)0);
+            }
+
+            return 0;
+        }
+
         public int doFinal(byte[] out, int outOff)
             throws IllegalStateException, BadPaddingException
         {
@@ -1608,6 +1659,12 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             return cipher.processBytes(in, inOff, len, out, outOff);
         }
 
+        public int processBytes(ByteBuffer in, ByteBuffer out)
+            throws DataLengthException
+        {
+            return ByteBufferUtil.processBytes(cipher, in, out);
+        }
+
         public int doFinal(byte[] out, int outOff)
             throws IllegalStateException, BadPaddingException
         {
@@ -0,0 +1,49 @@
+package org.bouncycastle.math.raw;
+
+import org.bouncycastle.util.Properties;
+
+/**
+ * High halves of 64 x 64 bit products, Java 9 version using Math.multiplyHigh().
+ */
+public abstract class Mul64
+{
+    // HotSpot only turns multiplyHigh() into a single instruction for 64 bit x86 and ARM
+    private static final boolean INTRINSIC = isIntrinsicPlatform();
+
+    /**
+     * Return true if multiplyHigh() maps to a single machine instruction on this JVM.
+     */
+    public static boolean isIntrinsic()
+    {
+        return INTRINSIC;
+    }
+
+    /**
+     * Return the high 64 bits of the signed 128 bit product of x and y.
+     */
+    public static long multiplyHigh(long x, long y)
+    {
+        return Math.multiplyHigh(x, y);
+    }
+
+    /**
+     * Return the high 64 bits of the unsigned 128 bit product of x and y.
+     */
+    public static long unsignedMultiplyHigh(long x, long y)
+    {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static boolean isIntrinsicPlatform()
+    {
+        String dataModel = Properties.getPropertyValue("sun.arch.data.model");
+        if (dataModel != null && !"64".equals(dataModel))
+        {
+            return false;
+        }
+
+        String arch = Properties.getPropertyValue("os.arch");
+
+        return "amd64".equals(arch) || "x86_64".equals(arch) || "aarch64".equals(arch);
+    }
+}
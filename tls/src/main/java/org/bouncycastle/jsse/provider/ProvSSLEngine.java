@@ -31,6 +31,7 @@
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.TlsProtocol;
 import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.util.Arrays;
 
 /*
  * TODO[jsse] Known limitations (relative to SSLEngine javadoc): 1. The wrap() and unwrap() methods
@@ -61,6 +62,9 @@
 
     protected SSLException deferredException = null;
 
+    // records are copied out of the caller's buffer here, as the record layer may decrypt them in place
+    private byte[] inputRecord = null;
+
     protected ProvSSLEngine(ContextData contextData)
     {
         this(contextData, null, -1);
@@ -480,10 +484,21 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
             }
 
             bytesConsumed = preview.getRecordSize();
-            byte[] record = new byte[bytesConsumed];
-            src.get(record);
+            if (inputRecord == null || inputRecord.length < bytesConsumed)
+            {
+                inputRecord = new byte[bytesConsumed];
+            }
 
-            protocol.offerInput(record, 0, record.length);
+            src.get(inputRecord, 0, bytesConsumed);
+            try
+            {
+                protocol.offerInput(inputRecord, 0, bytesConsumed);
+            }
+            finally
+            {
+                // the record may have been decrypted in place, so don't leave the plaintext behind
+                Arrays.fill(inputRecord, 0, bytesConsumed, (byte)0);
+            }
         }
         catch (IOException e)
         {
@@ -614,22 +629,34 @@ else if (protocol.isConnected())
                         return new SSLEngineResult(Status.BUFFER_OVERFLOW, HandshakeStatus.NOT_HANDSHAKING, 0, 0);
                     }
 
-                    // TODO Support writing application data using ByteBuffer array directly
+                    ByteBuffer first = getFirstRemaining(srcs, offset, length);
+                    if (first.hasArray() && first.remaining() >= srcLimit)
+                    {
+                        // the whole record comes from one heap buffer, write it from the backing array.
+                        int srcPos = first.position();
+                        protocol.writeApplicationData(first.array(), first.arrayOffset() + srcPos, srcLimit);
+                        ((java.nio.Buffer)first).position(srcPos + srcLimit);
+                        bytesConsumed = srcLimit;
+                    }
+                    else
+                    {
+                        // TODO Support writing application data using ByteBuffer array directly
 
-                    byte[] buffer = new byte[srcLimit];
+                        byte[] buffer = new byte[srcLimit];
 
-                    for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
-                    {
-                        ByteBuffer src = srcs[offset + srcIndex];
-                        int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
-                        if (count > 0)
+                        for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
                         {
-                            src.get(buffer, bytesConsumed, count);
-                            bytesConsumed += count;
+                            ByteBuffer src = srcs[offset + srcIndex];
+                            int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
+                            if (count > 0)
+                            {
+                                src.get(buffer, bytesConsumed, count);
+                                bytesConsumed += count;
+                            }
                         }
-                    }
 
-                    protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                        protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                    }
 
                     bytesProduced = protocol.getAvailableOutputBytes();
                     assert bytesProduced <= dstLimit;
@@ -744,6 +771,19 @@ private Status getStatus()
         return protocol.isClosed() ? Status.CLOSED : Status.OK;
     }
 
+    private ByteBuffer getFirstRemaining(ByteBuffer[] bufs, int off, int len)
+    {
+        for (int i = 0; i < len; ++i)
+        {
+            ByteBuffer buf = bufs[off + i];
+            if (buf.hasRemaining())
+            {
+                return buf;
+            }
+        }
+        return null;
+    }
+
     private int getTotalRemaining(ByteBuffer[] bufs, int off, int len, int limit)
     {
         int result = 0;
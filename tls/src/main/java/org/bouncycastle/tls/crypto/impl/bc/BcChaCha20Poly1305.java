@@ -18,7 +18,7 @@ public class BcChaCha20Poly1305 implements TlsAEADCipherImpl
     private static final byte[] ZEROES = new byte[15];
 
     protected final ChaCha7539Engine cipher = new ChaCha7539Engine();
-    protected final Poly1305 mac = new Poly1305();
+    protected final Poly1305 mac = Poly1305.newInstance();
 
     protected final boolean isEncrypting;
 
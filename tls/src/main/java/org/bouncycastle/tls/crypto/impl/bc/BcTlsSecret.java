@@ -58,6 +58,10 @@ private static byte[] generateSSL3Constants()
 
     protected final BcTlsCrypto crypto;
 
+    // HMAC keyed with this secret for hkdfExpand, for the last hash used.
+    private int hkdfCryptoHashAlgorithm = -1;
+    private HMac hkdfMac;
+
     public BcTlsSecret(BcTlsCrypto crypto, byte[] data)
     {
         super(data);
@@ -65,6 +69,20 @@ public BcTlsSecret(BcTlsCrypto crypto, byte[] data)
         this.crypto = crypto;
     }
 
+    public synchronized void destroy()
+    {
+        clearHkdfMac();
+
+        super.destroy();
+    }
+
+    public synchronized byte[] extract()
+    {
+        clearHkdfMac();
+
+        return super.extract();
+    }
+
     public synchronized TlsSecret deriveUsingPRF(int prfAlgorithm, String label, byte[] seed, int length)
     {
         checkAlive();
@@ -104,10 +122,7 @@ public synchronized TlsSecret hkdfExpand(int cryptoHashAlgorithm, byte[] info, i
 
         checkAlive();
 
-        byte[] prk = data;
-
-        HMac hmac = new HMac(crypto.createDigest(cryptoHashAlgorithm));
-        hmac.init(new KeyParameter(prk));
+        HMac hmac = getHkdfMac(cryptoHashAlgorithm);
 
         byte[] okm = new byte[length];
 
@@ -143,6 +158,8 @@ public synchronized TlsSecret hkdfExtract(int cryptoHashAlgorithm, TlsSecret ikm
         byte[] salt = data;
         this.data = null;
 
+        clearHkdfMac();
+
         HMac hmac = new HMac(crypto.createDigest(cryptoHashAlgorithm));
         hmac.init(new KeyParameter(salt));
 
@@ -154,6 +171,33 @@ public synchronized TlsSecret hkdfExtract(int cryptoHashAlgorithm, TlsSecret ikm
         return crypto.adoptLocalSecret(prk);
     }
 
+    /*
+     * The TLS 1.3 key schedule expands the same secret several times, so the HMAC key set up is done once. After
+     * that reset() restores the keyed state, which is a state copy for Memoable digests.
+     */
+    private HMac getHkdfMac(int cryptoHashAlgorithm)
+    {
+        if (hkdfMac != null && hkdfCryptoHashAlgorithm == cryptoHashAlgorithm)
+        {
+            hkdfMac.reset();
+            return hkdfMac;
+        }
+
+        HMac hmac = new HMac(crypto.createDigest(cryptoHashAlgorithm));
+        hmac.init(new KeyParameter(data));
+
+        this.hkdfCryptoHashAlgorithm = cryptoHashAlgorithm;
+        this.hkdfMac = hmac;
+
+        return hmac;
+    }
+
+    private void clearHkdfMac()
+    {
+        this.hkdfCryptoHashAlgorithm = -1;
+        this.hkdfMac = null;
+    }
+
     protected AbstractTlsCrypto getCrypto()
     {
         return crypto;